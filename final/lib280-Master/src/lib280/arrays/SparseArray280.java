@@ -1,10 +1,14 @@
 package lib280.arrays;
 
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
 import lib280.base.Pair280;
+import lib280.base.Streamable280;
 import lib280.list.LinkedIterator280;
 import lib280.list.LinkedList280;
 
-public class SparseArray280<I> {
+public class SparseArray280<I> implements Streamable280<Pair280<I, Integer>> {
 
 	/**
 	 * A linked list of IndexedItem280 objects provides the data structure for this sparse array ADT.
@@ -111,6 +115,17 @@ public class SparseArray280<I> {
 	}
 	
 	
+	/**
+	 * A spliterator over the non-null elements of the array in index order, each as a pair
+	 * of the item and its index.  It is the spliterator of the underlying list.
+	 * @return a spliterator over the (item, index) pairs of the array.
+	 */
+	@Override
+	public Spliterator<Pair280<I, Integer>> spliterator() {
+		return sparseItems.spliterator();
+	}
+	
+	
 	/**
 	 * A toString() method that prints out the non-zero elements of the array in index-order, in the following format:  index:item
 	 * Thus the array [0 5 0 2 0 9] would print as:
@@ -205,6 +220,14 @@ public class SparseArray280<I> {
 		if( result != 5 )
 			System.out.println("Error: element at index 5 was expeted to be 5 but it was: " + result);
 		
+		// Test streaming the elements
+		String indexes = A.stream().map(p -> p.secondItem().toString()).collect(Collectors.joining(" "));
+		if( !indexes.equals("0 1 5 7 10 15 25") )
+			System.out.println("Error: the stream should give the indexes 0 1 5 7 10 15 25 but it gave: " + indexes);
+		int total = A.parallelStream().mapToInt(p -> p.firstItem()).sum();
+		if( total != 555 * 3 + 1 + 5 + 10 + 15 )
+			System.out.println("Error: the items of the array were expected to sum to " + (555 * 3 + 31) + " but they sum to: " + total);
+		
 		
 	}
 	
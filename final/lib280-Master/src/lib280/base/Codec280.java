@@ -0,0 +1,62 @@
+package lib280.base;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**	Converts objects of type T to and from bytes, for containers that keep
+	their contents outside the Java heap or in files.  Equal objects must
+	encode to equal bytes, since such containers compare encoded keys
+	byte by byte; and decode(encode(x)) must be equal to x. */
+public interface Codec280<T>
+{
+	/**	The bytes representing x.
+		@param x object to be encoded */
+	public byte[] encode(T x);
+
+	/**	The object represented by the bytes of in from its position to its
+		limit.  The position of in may be left anywhere.
+		@param in buffer holding exactly one encoded object */
+	public T decode(ByteBuffer in);
+
+	/**	Encodes strings as UTF-8. */
+	public static final Codec280<String> stringCodec = new Codec280<String>()
+	{
+		public byte[] encode(String x)
+		{
+			return x.getBytes(StandardCharsets.UTF_8);
+		}
+
+		public String decode(ByteBuffer in)
+		{
+			return StandardCharsets.UTF_8.decode(in).toString();
+		}
+	};
+
+	/**	Encodes integers as four big-endian bytes. */
+	public static final Codec280<Integer> integerCodec = new Codec280<Integer>()
+	{
+		public byte[] encode(Integer x)
+		{
+			return ByteBuffer.allocate(4).putInt(x).array();
+		}
+
+		public Integer decode(ByteBuffer in)
+		{
+			return in.getInt();
+		}
+	};
+
+	/**	Encodes long integers as eight big-endian bytes. */
+	public static final Codec280<Long> longCodec = new Codec280<Long>()
+	{
+		public byte[] encode(Long x)
+		{
+			return ByteBuffer.allocate(8).putLong(x).array();
+		}
+
+		public Long decode(ByteBuffer in)
+		{
+			return in.getLong();
+		}
+	};
+}
@@ -0,0 +1,127 @@
+package lib280.base;
+
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**	A spliterator over the items found at the indexes origin to fence-1 of
+	some array-like structure: the slots of an array, the buckets of a hash
+	table, or the vertex numbers of a graph.  It splits by halving the index
+	range.  A subclass supplies visit(), which passes the items at one index
+	to an action, and range(), which makes a spliterator of the same kind
+	for a subrange. <br>
+	If the characteristics include SUBSIZED there must be exactly one item
+	at each index, and sizes are exact after any number of splits.
+	Otherwise the estimate given to the constructor is shared between the
+	halves in proportion to their lengths; it is exact (SIZED) only until
+	the first split. */
+public abstract class IndexRangeSpliterator280<I> implements Spliterator<I>
+{
+	/**	The next index to be visited. */
+	protected int index;
+
+	/**	One past the last index to be visited. */
+	protected final int fence;
+
+	/**	Estimated number of items left in indexes index to fence-1, if not SUBSIZED. */
+	protected long estimate;
+
+	/**	Characteristics of this spliterator. */
+	protected int characteristics;
+
+	/**	Items of the last index visited by tryAdvance() that have not yet been
+		passed on; null until tryAdvance() meets an index with several items. */
+	protected ArrayDeque<I> pending;
+
+	/**	Construct a spliterator over indexes origin to fence-1.
+		@param origin first index
+		@param fence one past the last index
+		@param estimate number of items in the range (ignored if SUBSIZED)
+		@param characteristics characteristics of the spliterator */
+	protected IndexRangeSpliterator280(int origin, int fence, long estimate, int characteristics)
+	{
+		this.index = origin;
+		this.fence = fence;
+		this.estimate = estimate;
+		this.characteristics = characteristics;
+	}
+
+	/**	Pass each item at index i to action, in order.
+		@param i index of the items; index <= i < fence */
+	protected abstract void visit(int i, Consumer<? super I> action);
+
+	/**	A spliterator of the same kind over indexes origin to fence-1.
+		@param origin first index
+		@param fence one past the last index
+		@param estimate number of items in the range
+		@param characteristics characteristics of the new spliterator */
+	protected abstract IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics);
+
+	protected boolean isSubsized()
+	{
+		return (characteristics & SUBSIZED) != 0;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super I> action)
+	{
+		if (pending == null)
+			pending = new ArrayDeque<I>(4);
+		while (pending.isEmpty())
+		{
+			if (index >= fence)
+				return false;
+			visit(index++, pending::add);
+		}
+		if (!isSubsized() && estimate > 0)
+			estimate--;
+		action.accept(pending.poll());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super I> action)
+	{
+		if (pending != null)
+			while (!pending.isEmpty())
+				action.accept(pending.poll());
+		int hi = fence;
+		for (int i = index; i < hi; i++)
+			visit(i, action);
+		index = hi;
+		estimate = 0;
+	}
+
+	/**	Split off the first half of the remaining indexes, together with
+		any items of a partly visited index. */
+	@Override
+	public Spliterator<I> trySplit()
+	{
+		int lo = index, mid = (lo + fence) >>> 1;
+		if (lo >= mid)
+			return null;
+		long prefixEstimate = estimate * (mid - lo) / (fence - lo);
+		int c = isSubsized() ? characteristics : characteristics & ~SIZED;
+		IndexRangeSpliterator280<I> prefix = range(lo, mid, prefixEstimate, c);
+		prefix.pending = pending;
+		pending = null;
+		index = mid;
+		estimate -= prefixEstimate;
+		characteristics = c;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize()
+	{
+		if (isSubsized())
+			return fence - index + (pending == null ? 0 : pending.size());
+		return estimate;
+	}
+
+	@Override
+	public int characteristics()
+	{
+		return characteristics;
+	}
+}
@@ -0,0 +1,10 @@
+package lib280.base;
+
+/**	An interface that includes the function intKey() for items whose
+	key is a primitive int.  Containers of such items can store the keys
+	unboxed. */
+public interface IntKeyed280
+{
+	/**	Key of the item */
+	public int intKey();
+}
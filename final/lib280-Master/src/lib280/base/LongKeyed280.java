@@ -0,0 +1,10 @@
+package lib280.base;
+
+/**	An interface that includes the function longKey() for items whose
+	key is a primitive long.  Containers of such items can store the keys
+	unboxed. */
+public interface LongKeyed280
+{
+	/**	Key of the item */
+	public long longKey();
+}
@@ -0,0 +1,58 @@
+package lib280.base;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**	A spliterator over the non-null slots of an array, such as the slots of
+	an open-addressing hash table or the vertex array of a graph.  It splits
+	by slot ranges.  The number of items is exact for the whole array and
+	estimated in proportion to range length after a split. */
+public class SlotSpliterator280<I> extends IndexRangeSpliterator280<I>
+{
+	/**	The array; null slots are skipped. */
+	protected final Object[] slots;
+
+	/**	Construct a spliterator over the non-null slots origin to fence-1 of slots.
+		@param slots the array
+		@param origin first slot
+		@param fence one past the last slot
+		@param estimate number of non-null slots in the range; exact if SIZED is given
+		@param characteristics characteristics of the spliterator, not including SUBSIZED */
+	public SlotSpliterator280(Object[] slots, int origin, int fence, long estimate, int characteristics)
+	{
+		super(origin, fence, estimate, characteristics | Spliterator.NONNULL);
+		this.slots = slots;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected void visit(int i, Consumer<? super I> action)
+	{
+		Object x = slots[i];
+		if (x != null)
+			action.accept((I) x);
+	}
+
+	@Override
+	protected IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics)
+	{
+		return new SlotSpliterator280<I>(slots, origin, fence, estimate, characteristics);
+	}
+
+	/**	Skip runs of empty slots without going through visit(). */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void forEachRemaining(Consumer<? super I> action)
+	{
+		if (pending != null)
+			while (!pending.isEmpty())
+				action.accept(pending.poll());
+		Object[] a = slots;
+		int hi = fence;
+		for (int i = index; i < hi; i++)
+			if (a[i] != null)
+				action.accept((I) a[i]);
+		index = hi;
+		estimate = 0;
+	}
+}
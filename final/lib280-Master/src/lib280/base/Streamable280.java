@@ -0,0 +1,38 @@
+package lib280.base;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**	A container whose items can be traversed by a java.util.Spliterator,
+	and hence fed to a java.util.stream pipeline or a for-each loop without
+	disturbing the cursor of the container.  The container must not be
+	changed while a traversal is in progress. */
+public interface Streamable280<I>
+{
+	/**	A spliterator over the items of the container.  It splits along the
+		structure of the container, so a parallel stream divides the work
+		into parts of about the same size. */
+	public Spliterator<I> spliterator();
+
+	/**	A sequential stream of the items of the container. */
+	public default Stream<I> stream()
+	{
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**	A parallel stream of the items of the container. */
+	public default Stream<I> parallelStream()
+	{
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**	The items of the container as an Iterable, for use in a for-each
+		loop.  (Containers cannot be Iterable themselves, since several
+		already have an iterator() method returning their own cursor type.) */
+	public default Iterable<I> items()
+	{
+		return () -> Spliterators.iterator(spliterator());
+	}
+}
@@ -0,0 +1,146 @@
+package lib280.bloom;
+
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.InvalidArgument280Exception;
+
+/**	A Bloom filter: a compact summary of a set of keys that can say that a
+	key is certainly not in the set, or that it might be.  Each key marks
+	hashCount() of the filter's positions; a key whose positions are not all
+	marked was never added.  A key that was never added is reported as
+	possibly present (a false positive) with a probability that depends
+	on the number of positions per key, and the filter is sized so that
+	this probability is the requested rate once the expected number of
+	keys have been added.
+
+	The positions of a key are derived from its hashCode() by double
+	hashing, so keys with equal hash codes share every position; equal
+	hash codes can only cause false positives, never false negatives.
+
+	Subclasses decide how a position is marked: by a bit in BloomFilter280
+	or by a counter, which allows keys to be removed, in
+	CountingBloomFilter280. */
+public abstract class AbstractBloomFilter280<K>
+{
+	/**	Number of positions in the filter. */
+	protected int size;
+
+	/**	Number of positions marked by each key. */
+	protected int hashCount;
+
+	/**	Number of keys the filter was sized for. */
+	protected long expectedInsertions;
+
+	/**	Number of keys added (less the number removed). */
+	protected long count;
+
+	/**	Create a filter that will have a false positive rate of about
+		falsePositiveRate after expectedInsertions keys have been added.
+		@param expectedInsertions number of keys the filter is sized for
+		@param falsePositiveRate desired probability of a false positive, strictly between 0 and 1
+		@throws InvalidArgument280Exception if expectedInsertions is negative or the rate is not strictly between 0 and 1 */
+	protected AbstractBloomFilter280(long expectedInsertions, double falsePositiveRate) throws InvalidArgument280Exception
+	{
+		if (expectedInsertions < 0)
+			throw new InvalidArgument280Exception("The expected number of insertions cannot be negative.");
+		if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0))
+			throw new InvalidArgument280Exception("The false positive rate must be strictly between 0 and 1.");
+		this.expectedInsertions = Math.max(1, expectedInsertions);
+		// The optimal number of positions is -n ln p / (ln 2)^2, with (m/n) ln 2 positions per key.
+		double ln2 = Math.log(2);
+		double positions = Math.ceil(-this.expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+		this.size = (int) Math.min(Integer.MAX_VALUE - 64, Math.max(64, positions));
+		this.hashCount = (int) Math.max(1, Math.min(30, Math.round(((double) size) / this.expectedInsertions * ln2)));
+		this.count = 0;
+	}
+
+	/**	Mark position p. */
+	protected abstract void mark(int p);
+
+	/**	Is position p marked? */
+	protected abstract boolean isMarked(int p);
+
+	/**	Unmark every position. */
+	protected abstract void unmarkAll();
+
+	/**	The first hash of key k; the positions of k are first + i * step for i = 0 .. hashCount()-1. */
+	protected static long hash(Object k)
+	{
+		return MixingHashStrategy280.mix(k.hashCode() + 0x9e3779b97f4a7c15L);
+	}
+
+	/**	The i-th position of a key whose hash is h. */
+	protected int position(long h, int i)
+	{
+		long first = h;
+		long step = (h >>> 32) | 1;
+		return (int) (((first + i * step) & Long.MAX_VALUE) % size);
+	}
+
+	/**	Add key k to the filter. <br>
+		Analysis: Time = O(hashCount())
+		@param k key to be added */
+	public void add(K k)
+	{
+		long h = hash(k);
+		for (int i = 0; i < hashCount; i++)
+			mark(position(h, i));
+		count++;
+	}
+
+	/**	Might key k have been added?  If false, k was certainly never added
+		(or, for a counting filter, has been removed). <br>
+		Analysis: Time = O(hashCount())
+		@param k key to be tested */
+	public boolean mightContain(K k)
+	{
+		long h = hash(k);
+		for (int i = 0; i < hashCount; i++)
+			if (!isMarked(position(h, i)))
+				return false;
+		return true;
+	}
+
+	/**	Remove every key from the filter. */
+	public void clear()
+	{
+		unmarkAll();
+		count = 0;
+	}
+
+	/**	Number of keys added to the filter (less the number removed). */
+	public long count()
+	{
+		return count;
+	}
+
+	/**	Number of keys the filter was sized for. */
+	public long expectedInsertions()
+	{
+		return expectedInsertions;
+	}
+
+	/**	Number of positions in the filter. */
+	public int size()
+	{
+		return size;
+	}
+
+	/**	Number of positions marked by each key. */
+	public int hashCount()
+	{
+		return hashCount;
+	}
+
+	/**	Estimated probability of a false positive with the current number of
+		keys, (1 - e^(-kn/m))^k. */
+	public double expectedFalsePositiveRate()
+	{
+		return Math.pow(1 - Math.exp(-((double) hashCount) * count / size), hashCount);
+	}
+
+	/**	The number of keys, size and number of positions per key. */
+	public String toString()
+	{
+		return count + " keys, " + size + " positions, " + hashCount + " per key";
+	}
+}
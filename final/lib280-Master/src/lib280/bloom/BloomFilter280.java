@@ -0,0 +1,110 @@
+package lib280.bloom;
+
+import java.util.Arrays;
+
+import lib280.exception.InvalidArgument280Exception;
+
+/**	A Bloom filter with one bit per position.  Keys cannot be removed;
+	use CountingBloomFilter280 if they must be. */
+public class BloomFilter280<K> extends AbstractBloomFilter280<K>
+{
+	/**	The bits, 64 to a long. */
+	protected long[] bits;
+
+	/**	Create a filter that will have a false positive rate of about
+		falsePositiveRate after expectedInsertions keys have been added.
+		@param expectedInsertions number of keys the filter is sized for
+		@param falsePositiveRate desired probability of a false positive, strictly between 0 and 1
+		@throws InvalidArgument280Exception if expectedInsertions is negative or the rate is not strictly between 0 and 1 */
+	public BloomFilter280(long expectedInsertions, double falsePositiveRate) throws InvalidArgument280Exception
+	{
+		super(expectedInsertions, falsePositiveRate);
+		bits = new long[(size + 63) >>> 6];
+	}
+
+	protected void mark(int p)
+	{
+		bits[p >>> 6] |= 1L << p;
+	}
+
+	protected boolean isMarked(int p)
+	{
+		return (bits[p >>> 6] & (1L << p)) != 0;
+	}
+
+	protected void unmarkAll()
+	{
+		Arrays.fill(bits, 0L);
+	}
+
+	/**	Add every key of other to this filter, which must have the same size
+		and number of positions per key. <br>
+		Analysis: Time = O(size())
+		@param other filter whose keys are to be added
+		@throws InvalidArgument280Exception if the filters were built with different parameters */
+	public void union(BloomFilter280<K> other) throws InvalidArgument280Exception
+	{
+		if (other.size != size || other.hashCount != hashCount)
+			throw new InvalidArgument280Exception("Only filters with the same size and number of hashes can be combined.");
+		for (int i = 0; i < bits.length; i++)
+			bits[i] |= other.bits[i];
+		count += other.count;
+	}
+
+	public static void main(String[] args) {
+		BloomFilter280<String> F = new BloomFilter280<String>(10000, 0.01);
+
+		if (F.hashCount() != 7)
+			System.out.println("Error: a 1% filter should use 7 hashes but uses " + F.hashCount());
+		if (F.size() < 95000 || F.size() > 96000)
+			System.out.println("Error: a 1% filter for 10000 keys should have about 95851 bits but has " + F.size());
+		if (F.mightContain("Quest0"))
+			System.out.println("Error: an empty filter should contain nothing.");
+
+		for (int i = 0; i < 10000; i++)
+			F.add("Quest" + i);
+		for (int i = 0; i < 10000; i++)
+			if (!F.mightContain("Quest" + i))
+				System.out.println("Error: Quest" + i + " was added but is reported absent.");
+		if (F.count() != 10000)
+			System.out.println("Error: expected a count of 10000 but got " + F.count());
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100000; i++)
+			if (F.mightContain("Missing" + i))
+				falsePositives++;
+		double rate = falsePositives / 100000.0;
+		if (rate > 0.015)
+			System.out.println("Error: the false positive rate " + rate + " is well above the requested 0.01.");
+		if (Math.abs(F.expectedFalsePositiveRate() - 0.01) > 0.002)
+			System.out.println("Error: the expected false positive rate should be about 0.01 but is " + F.expectedFalsePositiveRate());
+
+		// Keys with equal hash codes are indistinguishable, but never missed.
+		BloomFilter280<String> G = new BloomFilter280<String>(100, 0.01);
+		G.add("Aa");
+		if (!G.mightContain("Aa") || !G.mightContain("BB"))
+			System.out.println("Error: keys with equal hash codes should share their positions.");
+
+		BloomFilter280<String> H = new BloomFilter280<String>(10000, 0.01);
+		H.add("Other");
+		H.union(F);
+		if (!H.mightContain("Other") || !H.mightContain("Quest42") || H.count() != 10001)
+			System.out.println("Error: the union should contain the keys of both filters.");
+		try {
+			H.union(G);
+			System.out.println("Error: the union of filters of different sizes should throw.");
+		}
+		catch (InvalidArgument280Exception e) { /* expected */ }
+
+		F.clear();
+		if (F.mightContain("Quest1") || F.count() != 0)
+			System.out.println("Error: clear() should empty the filter.");
+		try {
+			new BloomFilter280<String>(10, 1.0);
+			System.out.println("Error: a false positive rate of 1 should throw.");
+		}
+		catch (InvalidArgument280Exception e) { /* expected */ }
+
+		System.out.println("Regression test complete.");
+	}
+}
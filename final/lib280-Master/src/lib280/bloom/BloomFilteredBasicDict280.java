@@ -0,0 +1,211 @@
+package lib280.bloom;
+
+import lib280.base.Keyed280;
+import lib280.dictionary.KeyedBasicDict280;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.DuplicateItems280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.ItemNotFound280Exception;
+import lib280.tree.TwoThreeTree280;
+
+/**	A keyed basic dictionary in front of which sits a counting Bloom filter
+	of its keys.  When the filter shows that a key is absent, has() answers
+	false, and obtain(), set() and delete() fail, without touching the
+	underlying dictionary; this saves walking a hash chain or descending a
+	tree for lookups that are mostly misses.  Lookups of present keys cost
+	one filter test more than before.
+
+	Every change must go through this wrapper: items inserted into the
+	underlying dictionary directly would be missing from the filter, and
+	so would be reported absent.  A basic dictionary cannot list its keys,
+	so the filter cannot be rebuilt larger, and its false positive rate
+	rises above the requested one once more than the expected number of
+	keys are present; BloomFilteredDict280 does not have this limit. */
+public class BloomFilteredBasicDict280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedBasicDict280<K, I>
+{
+	/**	The underlying dictionary. */
+	protected KeyedBasicDict280<K, I> dict;
+
+	/**	Filter of the keys in dict. */
+	protected CountingBloomFilter280<K> filter;
+
+	/**	Requested probability of a false positive. */
+	protected double falsePositiveRate;
+
+	/**	Number of lookups answered by the filter alone. */
+	protected long filteredLookups;
+
+	/**	Number of lookups that passed the filter but whose key was absent. */
+	protected long falsePositives;
+
+	/**	Wrap dict, which must be empty, with a filter sized for expectedSize
+		keys and the given false positive rate.
+		@precond dict is empty
+		@param dict the dictionary to be wrapped
+		@param expectedSize number of keys the dictionary is expected to hold
+		@param falsePositiveRate probability that the filter lets an absent key through, strictly between 0 and 1
+		@throws InvalidArgument280Exception if expectedSize is negative or the rate is not strictly between 0 and 1 */
+	public BloomFilteredBasicDict280(KeyedBasicDict280<K, I> dict, long expectedSize, double falsePositiveRate) throws InvalidArgument280Exception
+	{
+		this.dict = dict;
+		this.falsePositiveRate = falsePositiveRate;
+		this.filter = new CountingBloomFilter280<K>(expectedSize, falsePositiveRate);
+	}
+
+	/**	Wrap dict, which must be empty, with a filter sized for expectedSize
+		keys and a 1% false positive rate.
+		@precond dict is empty
+		@param dict the dictionary to be wrapped
+		@param expectedSize number of keys the dictionary is expected to hold */
+	public BloomFilteredBasicDict280(KeyedBasicDict280<K, I> dict, long expectedSize)
+	{
+		this(dict, expectedSize, 0.01);
+	}
+
+	/**	The filter of the keys. */
+	public CountingBloomFilter280<K> filter()
+	{
+		return filter;
+	}
+
+	/**	Number of lookups answered by the filter without touching the dictionary. */
+	public long filteredLookups()
+	{
+		return filteredLookups;
+	}
+
+	/**	Number of lookups that passed the filter but whose key was absent. */
+	public long falsePositives()
+	{
+		return falsePositives;
+	}
+
+	/**	Might k be in the dictionary?  Counts the lookup if the filter rules it out. */
+	protected boolean mightHave(K k)
+	{
+		if (filter.mightContain(k))
+			return true;
+		filteredLookups++;
+		return false;
+	}
+
+	/**	Called after an insertion that left more keys in the filter than it
+		was sized for.  A basic dictionary cannot list its keys, so this does
+		nothing; subclasses that can rebuild the filter larger do so. */
+	protected void filterOutgrown()
+	{
+	}
+
+	public void insert(I x) throws ContainerFull280Exception, DuplicateItems280Exception
+	{
+		dict.insert(x);
+		filter.add(x.key());
+		if (filter.count() > filter.expectedInsertions())
+			filterOutgrown();
+	}
+
+	public void set(I x) throws ItemNotFound280Exception
+	{
+		if (!mightHave(x.key()))
+			throw new ItemNotFound280Exception("There is no item with key " + x.key() + " to replace.");
+		dict.set(x);
+	}
+
+	/**	Is there an item with key k?  Answered by the filter alone when it rules k out. */
+	public boolean has(K k)
+	{
+		if (!mightHave(k))
+			return false;
+		if (dict.has(k))
+			return true;
+		falsePositives++;
+		return false;
+	}
+
+	public I obtain(K k) throws ItemNotFound280Exception
+	{
+		if (!mightHave(k))
+			throw new ItemNotFound280Exception("There is no item with key " + k + ".");
+		try
+		{
+			return dict.obtain(k);
+		}
+		catch (ItemNotFound280Exception e)
+		{
+			falsePositives++;
+			throw e;
+		}
+	}
+
+	public void delete(K k) throws ItemNotFound280Exception
+	{
+		if (!mightHave(k))
+			throw new ItemNotFound280Exception("There is no item with key " + k + " to delete.");
+		dict.delete(k);
+		filter.remove(k);
+	}
+
+	public String toString()
+	{
+		return dict.toString();
+	}
+
+	/** An item for testing: a quest with a name. */
+	protected static class Quest implements Keyed280<String> {
+		String name;
+
+		Quest(String name) {
+			this.name = name;
+		}
+		public String key() { return name; }
+	}
+
+	public static void main(String[] args) {
+		TwoThreeTree280<String, Quest> T = new TwoThreeTree280<String, Quest>();
+		BloomFilteredBasicDict280<String, Quest> B = new BloomFilteredBasicDict280<String, Quest>(T, 1000, 0.01);
+		for (int i = 0; i < 1000; i++)
+			B.insert(new Quest("Quest" + i));
+
+		for (int i = 0; i < 1000; i++)
+			if (!B.has("Quest" + i))
+				System.out.println("Error: should have Quest" + i);
+		if (B.filteredLookups() != 0)
+			System.out.println("Error: present keys should never be filtered out.");
+
+		for (int i = 0; i < 10000; i++)
+			if (B.has("Missing" + i))
+				System.out.println("Error: should not have Missing" + i);
+		if (B.filteredLookups() + B.falsePositives() != 10000)
+			System.out.println("Error: every missing lookup should be counted.");
+		if (B.falsePositives() > 200)
+			System.out.println("Error: " + B.falsePositives() + " false positives is well above 1%.");
+
+		try {
+			B.obtain("Missing");
+			System.out.println("Error: obtaining a missing key should throw.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+		try {
+			B.delete("Missing");
+			System.out.println("Error: deleting a missing key should throw.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+
+		B.set(new Quest("Quest5"));
+		B.delete("Quest5");
+		if (B.has("Quest5") || T.has("Quest5") || B.filter().count() != 999)
+			System.out.println("Error: a deleted item should be gone from the tree and the filter.");
+		B.insert(new Quest("Quest5"));
+		if (!B.obtain("Quest5").key().equals("Quest5"))
+			System.out.println("Error: a reinserted item should be found.");
+		try {
+			B.insert(new Quest("Quest5"));
+			System.out.println("Error: inserting a duplicate should throw.");
+		}
+		catch (DuplicateItems280Exception e) { /* expected */ }
+		if (B.filter().count() != 1000)
+			System.out.println("Error: a failed insertion should not add to the filter.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,220 @@
+package lib280.bloom;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.AfterTheEnd280Exception;
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.ItemNotFound280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.hashtable.KeyedChainedHashTable280;
+
+/**	A keyed dictionary in front of which sits a counting Bloom filter of its
+	keys, as in BloomFilteredBasicDict280, which also passes the cursor
+	operations through.  A search() for a key that the filter rules out
+	leaves the cursor after the end without touching the dictionary.
+
+	Because a keyed dictionary can list its keys, the dictionary may hold
+	items when it is wrapped, and the filter is rebuilt with twice the
+	capacity whenever the dictionary outgrows it, which keeps the false
+	positive rate near the requested one. */
+public class BloomFilteredDict280<K extends Comparable<? super K>, I extends Keyed280<K>> extends BloomFilteredBasicDict280<K, I> implements KeyedDict280<K, I>
+{
+	/**	The underlying dictionary, with its cursor. */
+	protected KeyedDict280<K, I> keyedDict;
+
+	/**	Wrap dict, which may already hold items, with a filter sized for
+		expectedSize keys and the given false positive rate.
+		@param dict the dictionary to be wrapped
+		@param expectedSize number of keys the dictionary is expected to hold
+		@param falsePositiveRate probability that the filter lets an absent key through, strictly between 0 and 1
+		@throws InvalidArgument280Exception if expectedSize is negative or the rate is not strictly between 0 and 1 */
+	public BloomFilteredDict280(KeyedDict280<K, I> dict, long expectedSize, double falsePositiveRate) throws InvalidArgument280Exception
+	{
+		super(dict, expectedSize, falsePositiveRate);
+		this.keyedDict = dict;
+		rebuild(expectedSize);
+	}
+
+	/**	Wrap dict with a filter sized for expectedSize keys and a 1% false positive rate.
+		@param dict the dictionary to be wrapped
+		@param expectedSize number of keys the dictionary is expected to hold */
+	public BloomFilteredDict280(KeyedDict280<K, I> dict, long expectedSize)
+	{
+		this(dict, expectedSize, 0.01);
+	}
+
+	/**	Replace the filter by one sized for expectedSize keys (or the current
+		number of keys, if more) holding every key of the underlying
+		dictionary.  This also clears positions left saturated by deleted
+		keys.  The cursor is not moved. <br>
+		Analysis: Time = O(n) where n is the number of items */
+	public void rebuild(long expectedSize)
+	{
+		CursorPosition280 saved = keyedDict.currentPosition();
+		long n = 0;
+		for (keyedDict.goBefore(), keyedDict.goForth(); keyedDict.itemExists(); keyedDict.goForth())
+			n++;
+		CountingBloomFilter280<K> f = new CountingBloomFilter280<K>(Math.max(expectedSize, n), falsePositiveRate);
+		for (keyedDict.goBefore(), keyedDict.goForth(); keyedDict.itemExists(); keyedDict.goForth())
+			f.add(keyedDict.itemKey());
+		keyedDict.goPosition(saved);
+		filter = f;
+	}
+
+	/**	Rebuild the filter with twice the capacity. */
+	protected void filterOutgrown()
+	{
+		rebuild(2 * filter.count());
+	}
+
+	/**	Move to the item with key k, or after the end if the filter rules k out. */
+	public void search(K k)
+	{
+		if (mightHave(k))
+			keyedDict.search(k);
+		else
+			keyedDict.goAfter();
+	}
+
+	public void searchCeilingOf(K k)
+	{
+		keyedDict.searchCeilingOf(k);
+	}
+
+	public void deleteItem() throws NoCurrentItem280Exception
+	{
+		K k = keyedDict.itemKey();
+		keyedDict.deleteItem();
+		filter.remove(k);
+	}
+
+	public void setItem(I x) throws NoCurrentItem280Exception, InvalidArgument280Exception
+	{
+		keyedDict.setItem(x);
+	}
+
+	public I item() throws NoCurrentItem280Exception
+	{
+		return keyedDict.item();
+	}
+
+	public boolean itemExists()
+	{
+		return keyedDict.itemExists();
+	}
+
+	public K itemKey() throws NoCurrentItem280Exception
+	{
+		return keyedDict.itemKey();
+	}
+
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception
+	{
+		return keyedDict.keyItemPair();
+	}
+
+	public boolean before()
+	{
+		return keyedDict.before();
+	}
+
+	public boolean after()
+	{
+		return keyedDict.after();
+	}
+
+	public void goForth() throws AfterTheEnd280Exception
+	{
+		keyedDict.goForth();
+	}
+
+	public void goFirst() throws ContainerEmpty280Exception
+	{
+		keyedDict.goFirst();
+	}
+
+	public void goBefore()
+	{
+		keyedDict.goBefore();
+	}
+
+	public void goAfter()
+	{
+		keyedDict.goAfter();
+	}
+
+	public CursorPosition280 currentPosition()
+	{
+		return keyedDict.currentPosition();
+	}
+
+	public void goPosition(CursorPosition280 c)
+	{
+		keyedDict.goPosition(c);
+	}
+
+	/** Check the wrapper over dict, which already holds Quest0 .. Quest999. */
+	protected static void test(String title, KeyedDict280<String, Quest> dict) {
+		BloomFilteredDict280<String, Quest> B = new BloomFilteredDict280<String, Quest>(dict, 1000, 0.01);
+
+		for (int i = 0; i < 1000; i++)
+			if (!B.has("Quest" + i))
+				System.out.println("Error: " + title + " should have Quest" + i);
+		if (B.filteredLookups() != 0)
+			System.out.println("Error: " + title + ": present keys should never be filtered out.");
+
+		for (int i = 0; i < 10000; i++)
+			if (B.has("Missing" + i))
+				System.out.println("Error: " + title + " should not have Missing" + i);
+		if (B.filteredLookups() + B.falsePositives() != 10000)
+			System.out.println("Error: " + title + ": every missing lookup should be counted.");
+		if (B.falsePositives() > 200)
+			System.out.println("Error: " + title + ": " + B.falsePositives() + " false positives is well above 1%.");
+
+		try {
+			B.obtain("Missing");
+			System.out.println("Error: " + title + ": obtaining a missing key should throw.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+
+		B.insert(new Quest("New"));
+		if (!B.has("New") || !B.obtain("New").key().equals("New"))
+			System.out.println("Error: " + title + ": an inserted item should be found.");
+		B.delete("New");
+		if (B.has("New") || B.filter().count() != 1000)
+			System.out.println("Error: " + title + ": a deleted item should be gone from the filter too.");
+
+		B.search("Quest7");
+		if (!B.itemExists() || !B.itemKey().equals("Quest7"))
+			System.out.println("Error: " + title + ": search() should find Quest7.");
+		B.deleteItem();
+		if (B.has("Quest7") || dict.has("Quest7"))
+			System.out.println("Error: " + title + ": deleteItem() should delete Quest7.");
+		B.search("Missing");
+		if (B.itemExists())
+			System.out.println("Error: " + title + ": search() for a missing key should leave no current item.");
+
+		// Outgrowing the filter rebuilds it with room to spare.
+		for (int i = 0; i < 3000; i++)
+			B.insert(new Quest("More" + i));
+		if (B.filter().expectedInsertions() < 3999)
+			System.out.println("Error: " + title + ": the filter should have grown but is sized for "
+					+ B.filter().expectedInsertions());
+		for (int i = 0; i < 3000; i++)
+			if (!B.has("More" + i))
+				System.out.println("Error: " + title + " should have More" + i);
+	}
+
+	public static void main(String[] args) {
+		KeyedChainedHashTable280<String, Quest> H = new KeyedChainedHashTable280<String, Quest>();
+		for (int i = 0; i < 1000; i++) {
+			H.insert(new Quest("Quest" + i));
+		}
+		test("KeyedChainedHashTable280", H);
+
+		System.out.println("Regression test complete.");
+	}
+}
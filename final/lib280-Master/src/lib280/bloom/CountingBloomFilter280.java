@@ -0,0 +1,124 @@
+package lib280.bloom;
+
+import java.util.Arrays;
+
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.ItemNotFound280Exception;
+
+/**	A Bloom filter with a 4-bit counter per position, so that keys can be
+	removed as well as added.  A counter that reaches 15 sticks there,
+	since the filter can no longer tell how many keys share it; such a
+	position stays marked, which can only add false positives.  It takes
+	four times the space of a BloomFilter280 with the same rate. */
+public class CountingBloomFilter280<K> extends AbstractBloomFilter280<K>
+{
+	/**	Largest value of a counter. */
+	protected static final int maxCount = 15;
+
+	/**	The counters, sixteen to a long. */
+	protected long[] counters;
+
+	/**	Create a filter that will have a false positive rate of about
+		falsePositiveRate after expectedInsertions keys have been added.
+		@param expectedInsertions number of keys the filter is sized for
+		@param falsePositiveRate desired probability of a false positive, strictly between 0 and 1
+		@throws InvalidArgument280Exception if expectedInsertions is negative or the rate is not strictly between 0 and 1 */
+	public CountingBloomFilter280(long expectedInsertions, double falsePositiveRate) throws InvalidArgument280Exception
+	{
+		super(expectedInsertions, falsePositiveRate);
+		counters = new long[(size + 15) >>> 4];
+	}
+
+	/**	Value of the counter of position p. */
+	protected int counter(int p)
+	{
+		return (int) ((counters[p >>> 4] >>> ((p & 15) << 2)) & 0xfL);
+	}
+
+	protected void mark(int p)
+	{
+		if (counter(p) < maxCount)
+			counters[p >>> 4] += 1L << ((p & 15) << 2);
+	}
+
+	protected boolean isMarked(int p)
+	{
+		return counter(p) != 0;
+	}
+
+	protected void unmarkAll()
+	{
+		Arrays.fill(counters, 0L);
+	}
+
+	/**	Remove key k, which must have been added, from the filter. <br>
+		Analysis: Time = O(hashCount())
+		@precond k was added and has not been removed since
+		@param k key to be removed
+		@throws ItemNotFound280Exception if the filter shows that k is not present */
+	public void remove(K k) throws ItemNotFound280Exception
+	{
+		if (!mightContain(k))
+			throw new ItemNotFound280Exception("The key " + k + " is not in the filter.");
+		long h = hash(k);
+		for (int i = 0; i < hashCount; i++)
+		{
+			int p = position(h, i);
+			// A key can mark one position twice; decrement each time, as add() did.
+			if (counter(p) < maxCount)
+				counters[p >>> 4] -= 1L << ((p & 15) << 2);
+		}
+		count--;
+	}
+
+	public static void main(String[] args) {
+		CountingBloomFilter280<String> F = new CountingBloomFilter280<String>(1000, 0.01);
+
+		for (int i = 0; i < 1000; i++)
+			F.add("Quest" + i);
+		for (int i = 0; i < 1000; i += 2)
+			F.remove("Quest" + i);
+		if (F.count() != 500)
+			System.out.println("Error: expected a count of 500 but got " + F.count());
+		for (int i = 1; i < 1000; i += 2)
+			if (!F.mightContain("Quest" + i))
+				System.out.println("Error: removing other keys should not remove Quest" + i);
+		int stillPresent = 0;
+		for (int i = 0; i < 1000; i += 2)
+			if (F.mightContain("Quest" + i))
+				stillPresent++;
+		if (stillPresent > 15)
+			System.out.println("Error: " + stillPresent + " of 500 removed keys are still reported present.");
+
+		try {
+			F.remove("Never added");
+			System.out.println("Error: removing a key that is certainly absent should throw.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+
+		// Adding a key twice needs two removals.
+		CountingBloomFilter280<String> G = new CountingBloomFilter280<String>(10, 0.01);
+		G.add("twice");
+		G.add("twice");
+		G.remove("twice");
+		if (!G.mightContain("twice"))
+			System.out.println("Error: a key added twice and removed once should still be present.");
+		G.remove("twice");
+		if (G.mightContain("twice"))
+			System.out.println("Error: a key added twice and removed twice should be absent.");
+
+		// Saturated counters stay marked rather than underflow.
+		for (int i = 0; i < 20; i++)
+			G.add("many");
+		for (int i = 0; i < 20; i++)
+			G.remove("many");
+		if (!G.mightContain("many"))
+			System.out.println("Error: saturated counters should stay marked.");
+
+		G.clear();
+		if (G.mightContain("many") || G.count() != 0)
+			System.out.println("Error: clear() should empty the filter.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,640 @@
+package lib280.cache;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import lib280.base.Container280;
+import lib280.base.Keyed280;
+import lib280.dictionary.KeyedBasicDict280;
+import lib280.exception.DuplicateItems280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.InvalidState280Exception;
+import lib280.exception.ItemNotFound280Exception;
+import lib280.hashtable.KeyedChainedHashTable280;
+import lib280.list.BilinkedNode280;
+
+/**	A bounded cache of keyed items.  Each item has a weight (1 unless a
+	weigher is given), and when the total weight exceeds the maximum the
+	cache evicts items until it fits again.  A hash table maps each key to
+	its entry, and each entry is also a node of a recency list, so a lookup,
+	a hit and an eviction all take constant time.
+
+	Without an admission policy the cache evicts the least recently used
+	item.  With a policy such as TinyLfuAdmission280 the cache is a
+	W-TinyLFU cache: new items enter a small window (1% of the maximum
+	weight) managed by LRU, and an item leaving the window is admitted to
+	the main space only if the policy prefers it to the main space's
+	least recently used item.  The main space is a segmented LRU, in which
+	items hit a second time move from a probationary segment to a
+	protected one (80% of the main space), so one scan through many keys
+	cannot flush the items that are used often.
+
+	The cache counts hits, misses, loads and evictions.  If a loader is
+	set, a miss in get() or obtain() calls it to produce the item, which is
+	then cached. */
+public class Cache280<K extends Comparable<? super K>, I extends Keyed280<K>> implements Container280, KeyedBasicDict280<K, I>
+{
+	/**	A hash table of entries with a lookup that returns null on a miss. */
+	protected static class Index<K extends Comparable<? super K>, I extends Keyed280<K>> extends KeyedChainedHashTable280<K, CacheEntry280<K, I>>
+	{
+		/**	The entry with key k, or null if there is none. */
+		CacheEntry280<K, I> lookup(K k)
+		{
+			return find(k);
+		}
+	}
+
+	/**	Entries of the cache, by key. */
+	protected Index<K, I> index;
+
+	/**	Entries in the admission window; without an admission policy, all entries. */
+	protected RecencyList280<I> window;
+
+	/**	Entries of the main space that have not been hit since they were admitted. */
+	protected RecencyList280<I> probation;
+
+	/**	Entries of the main space that have been hit since they were admitted. */
+	protected RecencyList280<I> protectedSegment;
+
+	/**	Total weight of the entries in each segment. */
+	protected long windowWeight, probationWeight, protectedWeight;
+
+	/**	Largest total weight of the cache. */
+	protected long maximumWeight;
+
+	/**	Largest total weight of the admission window. */
+	protected long windowMaximum;
+
+	/**	Largest total weight of the protected segment. */
+	protected long protectedMaximum;
+
+	/**	Gives the weight of each item. */
+	protected ToLongFunction<? super I> weigher;
+
+	/**	Decides which entries enter the main space, or null for plain LRU. */
+	protected CacheAdmissionPolicy280<K> admission;
+
+	/**	Produces the item for a key that missed, or null if misses are not loaded. */
+	protected Function<? super K, ? extends I> loader;
+
+	/**	Statistics: number of hits, misses, items loaded and items evicted. */
+	protected long hits, misses, loads, evictions;
+
+	/**	Create an LRU cache that holds at most maximumSize items.
+		@param maximumSize largest number of items in the cache
+		@throws InvalidArgument280Exception if maximumSize is negative */
+	public Cache280(long maximumSize) throws InvalidArgument280Exception
+	{
+		this(maximumSize, x -> 1L, null);
+	}
+
+	/**	Create an LRU cache whose items weigh at most maximumWeight in total.
+		@param maximumWeight largest total weight of the items in the cache
+		@param weigher gives the weight of an item, which must not be negative
+		@throws InvalidArgument280Exception if maximumWeight is negative */
+	public Cache280(long maximumWeight, ToLongFunction<? super I> weigher) throws InvalidArgument280Exception
+	{
+		this(maximumWeight, weigher, null);
+	}
+
+	/**	Create a cache whose items weigh at most maximumWeight in total, using
+		the given admission policy.  If the policy is null the cache is a plain
+		LRU cache; otherwise it is a W-TinyLFU cache.
+		@param maximumWeight largest total weight of the items in the cache
+		@param weigher gives the weight of an item, which must not be negative
+		@param admission decides which items enter the main space, or null for LRU
+		@throws InvalidArgument280Exception if maximumWeight is negative */
+	public Cache280(long maximumWeight, ToLongFunction<? super I> weigher, CacheAdmissionPolicy280<K> admission) throws InvalidArgument280Exception
+	{
+		if (maximumWeight < 0)
+			throw new InvalidArgument280Exception("The maximum weight of a cache cannot be negative.");
+		this.index = new Index<K, I>();
+		this.window = new RecencyList280<I>();
+		this.probation = new RecencyList280<I>();
+		this.protectedSegment = new RecencyList280<I>();
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		this.admission = admission;
+		if (admission == null)
+			windowMaximum = maximumWeight;
+		else
+			windowMaximum = Math.max(maximumWeight > 0 ? 1 : 0, maximumWeight / 100);
+		protectedMaximum = (maximumWeight - windowMaximum) * 4 / 5;
+	}
+
+	/**	Set the function that produces the item for a key that is not cached,
+		or null if misses should not be loaded.  The loader may return null if
+		there is no item for the key.
+		@param loader function that loads the item with a given key */
+	public void setLoader(Function<? super K, ? extends I> loader)
+	{
+		this.loader = loader;
+	}
+
+	/**	The entry with key k, or null if k is not cached. */
+	protected CacheEntry280<K, I> entryOf(K k)
+	{
+		return index.lookup(k);
+	}
+
+	/**	The list that holds entries of the given segment. */
+	protected RecencyList280<I> listOf(int segment)
+	{
+		if (segment == CacheEntry280.WINDOW)
+			return window;
+		else if (segment == CacheEntry280.PROBATION)
+			return probation;
+		else
+			return protectedSegment;
+	}
+
+	/**	Add weight w to the total of the given segment. */
+	protected void addWeight(int segment, long w)
+	{
+		if (segment == CacheEntry280.WINDOW)
+			windowWeight += w;
+		else if (segment == CacheEntry280.PROBATION)
+			probationWeight += w;
+		else
+			protectedWeight += w;
+	}
+
+	/**	Move e from its segment to the front of segment s. */
+	protected void moveTo(CacheEntry280<K, I> e, int s)
+	{
+		listOf(e.segment).unlink(e);
+		addWeight(e.segment, -e.weight);
+		e.segment = s;
+		listOf(s).linkFirst(e);
+		addWeight(s, e.weight);
+	}
+
+	/**	Record a hit on e: move it to the front of its segment, or promote it
+		from probation to the protected segment. */
+	protected void touch(CacheEntry280<K, I> e)
+	{
+		if (e.segment == CacheEntry280.PROBATION)
+		{
+			moveTo(e, CacheEntry280.PROTECTED);
+			// Demote the least recently used protected entries to make room.
+			while (protectedWeight > protectedMaximum && protectedSegment.leastRecent() != e)
+				moveTo(leastRecent(protectedSegment), CacheEntry280.PROBATION);
+		}
+		else
+			listOf(e.segment).moveToFront(e);
+	}
+
+	/**	The least recently used entry of list L, or null if L is empty. */
+	@SuppressWarnings("unchecked")
+	protected CacheEntry280<K, I> leastRecent(RecencyList280<I> L)
+	{
+		return (CacheEntry280<K, I>) L.leastRecent();
+	}
+
+	/**	The weight of x.
+		@throws InvalidArgument280Exception if the weigher gives a negative weight */
+	protected long weightOf(I x) throws InvalidArgument280Exception
+	{
+		long w = weigher.applyAsLong(x);
+		if (w < 0)
+			throw new InvalidArgument280Exception("The weight of an item cannot be negative.");
+		return w;
+	}
+
+	/**	Remove e from the cache, counting it as an eviction if evicted is true. */
+	protected void remove(CacheEntry280<K, I> e, boolean evicted)
+	{
+		listOf(e.segment).unlink(e);
+		addWeight(e.segment, -e.weight);
+		index.delete(e.key());
+		if (evicted)
+			evictions++;
+	}
+
+	/**	Evict entries until every segment is within its maximum weight. */
+	protected void evict()
+	{
+		while (windowWeight > windowMaximum)
+		{
+			CacheEntry280<K, I> candidate = leastRecent(window);
+			if (admission == null)
+				remove(candidate, true);
+			else
+			{
+				moveTo(candidate, CacheEntry280.PROBATION);
+				evictFromMain(candidate);
+			}
+		}
+	}
+
+	/**	Evict entries of the main space until it is within its maximum weight,
+		letting the admission policy choose between candidate, which just
+		entered the main space, and each victim. */
+	protected void evictFromMain(CacheEntry280<K, I> candidate)
+	{
+		while (probationWeight + protectedWeight > maximumWeight - windowMaximum)
+		{
+			CacheEntry280<K, I> victim = leastRecent(probation);
+			if (victim == candidate || victim == null)
+				victim = leastRecent(protectedSegment);
+			if (victim == null)
+				victim = candidate;
+			if (candidate != null && victim != candidate && !admission.admit(candidate.key(), victim.key()))
+			{
+				remove(candidate, true);
+				candidate = null;
+			}
+			else
+			{
+				if (victim == candidate)
+					candidate = null;
+				remove(victim, true);
+			}
+		}
+	}
+
+	/**	Add x, whose key is not cached, as the most recent entry of the window.
+		An item heavier than the whole cache is counted as evicted at once,
+		without evicting anything else. */
+	protected void add(I x)
+	{
+		long w = weightOf(x);
+		if (w > maximumWeight)
+		{
+			evictions++;
+			return;
+		}
+		CacheEntry280<K, I> e = new CacheEntry280<K, I>(x, w);
+		index.insert(e);
+		window.linkFirst(e);
+		windowWeight += e.weight;
+		evict();
+	}
+
+	/**	The item with key k.  On a miss the loader, if there is one, is called
+		and the item it returns is cached.  Counts as a hit or a miss. <br>
+		Analysis: Time = O(1) expected, plus the time of the loader on a miss
+		@param k key of the desired item
+		@return the item with key k, or null if it is not cached and cannot be loaded
+		@throws InvalidState280Exception if the loader returns an item with a different key */
+	public I get(K k) throws InvalidState280Exception
+	{
+		if (admission != null)
+			admission.recordAccess(k);
+		CacheEntry280<K, I> e = entryOf(k);
+		if (e != null)
+		{
+			hits++;
+			touch(e);
+			return e.item();
+		}
+		misses++;
+		if (loader == null)
+			return null;
+		I x = loader.apply(k);
+		loads++;
+		if (x == null)
+			return null;
+		if (x.key().compareTo(k) != 0)
+			throw new InvalidState280Exception("The loader returned an item whose key is not " + k + ".");
+		// The loader may have cached the item itself.
+		if (entryOf(k) == null)
+			add(x);
+		return x;
+	}
+
+	/**	Cache x, replacing the item with the same key if there is one.  Does
+		not count as a hit or a miss. <br>
+		Analysis: Time = O(1) expected
+		@param x item to be cached */
+	public void put(I x)
+	{
+		K k = x.key();
+		if (admission != null)
+			admission.recordAccess(k);
+		CacheEntry280<K, I> e = entryOf(k);
+		if (e == null)
+		{
+			add(x);
+			return;
+		}
+		long w = weightOf(x);
+		if (w > maximumWeight)
+		{
+			remove(e, true);
+			return;
+		}
+		addWeight(e.segment, w - e.weight);
+		e.weight = w;
+		e.setItem(x);
+		touch(e);
+		evict();
+		if (e.segment != CacheEntry280.WINDOW)
+			evictFromMain(null);
+	}
+
+	/**	Cache x. <br>
+		Analysis: Time = O(1) expected
+		@throws DuplicateItems280Exception if an item with key x.key() is already cached */
+	public void insert(I x) throws DuplicateItems280Exception
+	{
+		if (has(x.key()))
+			throw new DuplicateItems280Exception("An item with key " + x.key() + " is already cached.");
+		put(x);
+	}
+
+	/**	Replace the cached item with key x.key() by x. <br>
+		Analysis: Time = O(1) expected
+		@throws ItemNotFound280Exception if no item with key x.key() is cached */
+	public void set(I x) throws ItemNotFound280Exception
+	{
+		if (!has(x.key()))
+			throw new ItemNotFound280Exception("No item with key " + x.key() + " is cached.");
+		put(x);
+	}
+
+	/**	Is an item with key k cached?  Neither counts as a hit or a miss nor
+		affects which item is evicted next. <br>
+		Analysis: Time = O(1) expected */
+	public boolean has(K k)
+	{
+		return entryOf(k) != null;
+	}
+
+	/**	The item with key k, loading it on a miss if there is a loader. <br>
+		Analysis: Time = O(1) expected, plus the time of the loader on a miss
+		@throws ItemNotFound280Exception if k is not cached and cannot be loaded */
+	public I obtain(K k) throws ItemNotFound280Exception
+	{
+		I x = get(k);
+		if (x == null)
+			throw new ItemNotFound280Exception("No item with key " + k + " is cached.");
+		return x;
+	}
+
+	/**	Remove the item with key k from the cache.  This is not counted as an eviction. <br>
+		Analysis: Time = O(1) expected
+		@throws ItemNotFound280Exception if no item with key k is cached */
+	public void delete(K k) throws ItemNotFound280Exception
+	{
+		CacheEntry280<K, I> e = entryOf(k);
+		if (e == null)
+			throw new ItemNotFound280Exception("No item with key " + k + " is cached.");
+		remove(e, false);
+	}
+
+	/**	Number of cached items. */
+	public int count()
+	{
+		return index.count();
+	}
+
+	/**	Total weight of the cached items. */
+	public long weightedSize()
+	{
+		return windowWeight + probationWeight + protectedWeight;
+	}
+
+	/**	Largest total weight of the cached items. */
+	public long maximumWeight()
+	{
+		return maximumWeight;
+	}
+
+	/**	Number of lookups that found their item in the cache. */
+	public long hitCount()
+	{
+		return hits;
+	}
+
+	/**	Number of lookups that did not find their item in the cache. */
+	public long missCount()
+	{
+		return misses;
+	}
+
+	/**	Number of times the loader was called. */
+	public long loadCount()
+	{
+		return loads;
+	}
+
+	/**	Number of items removed to keep the cache within its maximum weight. */
+	public long evictionCount()
+	{
+		return evictions;
+	}
+
+	/**	Fraction of lookups that were hits, or 0 if there have been no lookups. */
+	public double hitRate()
+	{
+		long requests = hits + misses;
+		return requests == 0 ? 0.0 : ((double) hits) / requests;
+	}
+
+	/**	Reset the hit, miss, load and eviction counts to zero. */
+	public void resetStatistics()
+	{
+		hits = misses = loads = evictions = 0;
+	}
+
+	/**	Is the cache empty? */
+	public boolean isEmpty()
+	{
+		return index.isEmpty();
+	}
+
+	/**	A cache is never full; it evicts items instead. */
+	public boolean isFull()
+	{
+		return false;
+	}
+
+	/**	Remove every item and forget the admission history.  The statistics are kept. */
+	public void clear()
+	{
+		index.clear();
+		window.clear();
+		probation.clear();
+		protectedSegment.clear();
+		windowWeight = probationWeight = protectedWeight = 0;
+		if (admission != null)
+			admission.clear();
+	}
+
+	/**	The keys of the cached items from most to least recently used,
+		segment by segment. */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder();
+		RecencyList280<I>[] segments = new RecencyList280[] { window, protectedSegment, probation };
+		for (RecencyList280<I> L : segments)
+			for (BilinkedNode280<I> n = L.mostRecent(); n != null; n = (BilinkedNode280<I>) n.nextNode())
+				s.append(n.item().key()).append(' ');
+		return s.toString().trim();
+	}
+
+	/** An item for testing: a quest name with its description. */
+	protected static class Quest implements Keyed280<String> {
+		String name, description;
+
+		Quest(String name, String description) {
+			this.name = name;
+			this.description = description;
+		}
+		public String key() { return name; }
+	}
+
+	public static void main(String[] args) {
+		// LRU by size.
+		Cache280<String, Quest> C = new Cache280<String, Quest>(3);
+		C.put(new Quest("a", "1"));
+		C.put(new Quest("b", "2"));
+		C.put(new Quest("c", "3"));
+		if (C.get("a") == null)
+			System.out.println("Error: a should be cached.");
+		C.put(new Quest("d", "4"));
+		if (C.has("b"))
+			System.out.println("Error: b was least recently used and should have been evicted.");
+		if (!C.has("a") || !C.has("c") || !C.has("d"))
+			System.out.println("Error: a, c and d should be cached; cache is: " + C);
+		if (C.count() != 3 || C.weightedSize() != 3)
+			System.out.println("Error: expected 3 items but got " + C.count() + " with weight " + C.weightedSize());
+		if (!C.toString().equals("d a c"))
+			System.out.println("Error: expected recency order d a c but got " + C);
+		if (C.get("b") != null)
+			System.out.println("Error: get() of an evicted key without a loader should return null.");
+		if (C.hitCount() != 1 || C.missCount() != 1 || C.evictionCount() != 1)
+			System.out.println("Error: expected 1 hit, 1 miss and 1 eviction but got " + C.hitCount() + ", "
+					+ C.missCount() + ", " + C.evictionCount());
+		if (C.hitRate() != 0.5)
+			System.out.println("Error: expected a hit rate of 0.5 but got " + C.hitRate());
+
+		// has() must not change the recency order.
+		C.has("c");
+		C.put(new Quest("e", "5"));
+		if (C.has("c"))
+			System.out.println("Error: has() should not count as a use; c should have been evicted.");
+
+		// Dictionary operations.
+		try {
+			C.insert(new Quest("a", "again"));
+			System.out.println("Error: inserting a cached key should throw.");
+		}
+		catch (DuplicateItems280Exception e) { /* expected */ }
+		try {
+			C.set(new Quest("z", "missing"));
+			System.out.println("Error: setting an uncached key should throw.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+		try {
+			C.obtain("z");
+			System.out.println("Error: obtaining an uncached key should throw.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+		C.set(new Quest("a", "replaced"));
+		if (!C.obtain("a").description.equals("replaced"))
+			System.out.println("Error: set() should have replaced a.");
+		C.delete("a");
+		if (C.has("a") || C.count() != 2)
+			System.out.println("Error: a should have been deleted.");
+		long evicted = C.evictionCount();
+		C.putIfAbsent(new Quest("f", "6"));
+		if (C.evictionCount() != evicted || C.count() != 3)
+			System.out.println("Error: there was room for f; nothing should have been evicted.");
+		C.clear();
+		if (!C.isEmpty() || C.weightedSize() != 0)
+			System.out.println("Error: the cache should be empty after clear().");
+
+		// LRU by weight.
+		Cache280<String, Quest> W = new Cache280<String, Quest>(10, q -> q.description.length());
+		W.put(new Quest("a", "aaaa"));
+		W.put(new Quest("b", "bbbb"));
+		W.put(new Quest("c", "cc"));
+		if (W.weightedSize() != 10 || W.count() != 3)
+			System.out.println("Error: expected weight 10 but got " + W.weightedSize());
+		W.put(new Quest("d", "ddd"));
+		if (W.has("a") || W.weightedSize() != 9)
+			System.out.println("Error: a should have been evicted to make room for d; cache is: " + W);
+		W.put(new Quest("b", "bbbbbbb"));
+		if (W.has("c") || !W.has("d") || W.weightedSize() != 10)
+			System.out.println("Error: growing b should have evicted c only; cache is: " + W);
+		W.put(new Quest("huge", "this item weighs more than the cache"));
+		if (W.has("huge") || !W.has("b"))
+			System.out.println("Error: an item heavier than the cache should be evicted at once, and alone.");
+		try {
+			new Cache280<String, Quest>(10, q -> -1L).put(new Quest("negative", ""));
+			System.out.println("Error: a negative weight should throw.");
+		}
+		catch (InvalidArgument280Exception e) { /* expected */ }
+
+		// A loader runs on a miss.
+		final int[] calls = { 0 };
+		Cache280<String, Quest> L = new Cache280<String, Quest>(2);
+		L.setLoader(k -> { calls[0]++; return k.startsWith("none") ? null : new Quest(k, "loaded " + k); });
+		if (!L.get("x").description.equals("loaded x") || calls[0] != 1)
+			System.out.println("Error: the loader should have produced x.");
+		if (L.obtain("x") == null || calls[0] != 1)
+			System.out.println("Error: the second lookup of x should be a hit.");
+		if (L.get("none") != null || L.has("none"))
+			System.out.println("Error: a loader returning null should cache nothing.");
+		try {
+			L.obtain("none2");
+			System.out.println("Error: obtain() should throw when the loader returns null.");
+		}
+		catch (ItemNotFound280Exception e) { /* expected */ }
+		if (L.loadCount() != 3 || L.hitCount() != 1 || L.missCount() != 3)
+			System.out.println("Error: expected 3 loads, 1 hit and 3 misses but got " + L.loadCount() + ", "
+					+ L.hitCount() + ", " + L.missCount());
+		L.setLoader(k -> new Quest(k + "!", "wrong key"));
+		try {
+			L.get("y");
+			System.out.println("Error: a loader returning the wrong key should throw.");
+		}
+		catch (InvalidState280Exception e) { /* expected */ }
+
+		// W-TinyLFU resists scans that would flush an LRU cache.
+		int size = 100;
+		Cache280<String, Quest> lru = new Cache280<String, Quest>(size);
+		Cache280<String, Quest> tiny = new Cache280<String, Quest>(size, q -> 1L, new TinyLfuAdmission280<String>(size));
+		Function<String, Quest> load = k -> new Quest(k, k);
+		lru.setLoader(load);
+		tiny.setLoader(load);
+		for (int round = 0; round < 20; round++)
+			for (int i = 0; i < 50; i++) {
+				lru.get("hot" + i);
+				tiny.get("hot" + i);
+			}
+		for (int i = 0; i < 5000; i++) {
+			lru.get("scan" + i);
+			tiny.get("scan" + i);
+		}
+		int lruHot = 0, tinyHot = 0;
+		for (int i = 0; i < 50; i++) {
+			if (lru.has("hot" + i)) lruHot++;
+			if (tiny.has("hot" + i)) tinyHot++;
+		}
+		if (lruHot != 0)
+			System.out.println("Error: the scan should have flushed the LRU cache but " + lruHot + " hot keys remain.");
+		if (tinyHot < 45)
+			System.out.println("Error: W-TinyLFU kept only " + tinyHot + " of 50 hot keys through the scan.");
+		if (tiny.count() != size || tiny.weightedSize() != size)
+			System.out.println("Error: W-TinyLFU cache should be full but holds " + tiny.count() + " items.");
+
+		// Hit rates on a skewed workload.
+		lru.clear(); lru.resetStatistics();
+		tiny.clear(); tiny.resetStatistics();
+		java.util.Random random = new java.util.Random(280);
+		for (int i = 0; i < 200000; i++) {
+			// Zipf-like: key j is chosen with probability about 1/j.
+			int j = (int) Math.exp(random.nextDouble() * Math.log(100000));
+			lru.get("key" + j);
+			tiny.get("key" + j);
+		}
+		if (tiny.hitRate() < lru.hitRate())
+			System.out.printf("Error: W-TinyLFU hit rate %.3f should not be below LRU's %.3f.%n", tiny.hitRate(), lru.hitRate());
+
+		System.out.println("Regression test complete.");
+	}
+}
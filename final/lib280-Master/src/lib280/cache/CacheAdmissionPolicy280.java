@@ -0,0 +1,22 @@
+package lib280.cache;
+
+/**	Decides whether a new entry is worth keeping in a full Cache280.  When
+	an entry leaves the cache's admission window and the main space has no
+	room for it, the cache offers the entry and the main space's least
+	recently used entry to the policy; the loser is evicted.  The cache
+	reports every access to the policy so that it can base its decision on
+	the history of each key, including keys that are no longer cached. */
+public interface CacheAdmissionPolicy280<K>
+{
+	/**	Record an access (a hit, a miss or an insertion) of key k.
+		@param k key that was accessed */
+	public void recordAccess(K k);
+
+	/**	Should candidate be kept in place of victim?
+		@param candidate key of the entry leaving the admission window
+		@param victim key of the entry that would be evicted to make room for it */
+	public boolean admit(K candidate, K victim);
+
+	/**	Forget the recorded history. */
+	public void clear();
+}
@@ -0,0 +1,57 @@
+package lib280.cache;
+
+import lib280.base.Keyed280;
+import lib280.list.BilinkedNode280;
+
+/**	An item held by a Cache280.  The entry is both the value stored in the
+	cache's hash index, under the key of its item, and the node that links
+	the item into one of the cache's recency lists, so that a hit can find
+	and move the node without searching. */
+public class CacheEntry280<K extends Comparable<? super K>, I extends Keyed280<K>> extends BilinkedNode280<I> implements Keyed280<K>
+{
+	/**	The entry is in the admission window. */
+	public static final int WINDOW = 0;
+
+	/**	The entry is in the probationary segment of the main space. */
+	public static final int PROBATION = 1;
+
+	/**	The entry is in the protected segment of the main space. */
+	public static final int PROTECTED = 2;
+
+	/**	Weight of the item, as given by the cache's weigher. */
+	protected long weight;
+
+	/**	Segment of the cache that holds the entry. */
+	protected int segment;
+
+	/**	Create an entry for item x with the given weight, in the window segment.
+		@param x item to be cached
+		@param weight weight of x */
+	public CacheEntry280(I x, long weight)
+	{
+		super(x);
+		this.weight = weight;
+		this.segment = WINDOW;
+	}
+
+	/**	The key of the cached item. <br>
+		Analysis: Time = O(1) */
+	public K key()
+	{
+		return item.key();
+	}
+
+	/**	Weight of the cached item. <br>
+		Analysis: Time = O(1) */
+	public long weight()
+	{
+		return weight;
+	}
+
+	/**	Segment of the cache that holds the entry: WINDOW, PROBATION or PROTECTED. <br>
+		Analysis: Time = O(1) */
+	public int segment()
+	{
+		return segment;
+	}
+}
@@ -0,0 +1,90 @@
+package lib280.cache;
+
+import lib280.list.BilinkedList280;
+import lib280.list.BilinkedNode280;
+
+/**	A bilinked list of nodes ordered from most recently used (at the front)
+	to least recently used (at the back).  Unlike BilinkedList280 it lets its
+	owner link and unlink nodes that it already holds references to, so that
+	moving a node to the front or removing it takes constant time instead of a
+	search.  The cursor of the list is not used by these operations; a node
+	that is unlinked while the cursor is on it leaves the cursor before the
+	start of the list. */
+public class RecencyList280<I> extends BilinkedList280<I>
+{
+	/**	Create an empty recency list. */
+	public RecencyList280()
+	{
+		super();
+	}
+
+	/**	The most recently used node, or null if the list is empty. <br>
+		Analysis: Time = O(1) */
+	@SuppressWarnings("unchecked")
+	public BilinkedNode280<I> mostRecent()
+	{
+		return (BilinkedNode280<I>) head;
+	}
+
+	/**	The least recently used node, or null if the list is empty. <br>
+		Analysis: Time = O(1) */
+	@SuppressWarnings("unchecked")
+	public BilinkedNode280<I> leastRecent()
+	{
+		return (BilinkedNode280<I>) tail;
+	}
+
+	/**	Link node to the front of the list as the most recently used node. <br>
+		Analysis: Time = O(1)
+		@precond node is not in any list
+		@param node the node to be linked */
+	@SuppressWarnings("unchecked")
+	public void linkFirst(BilinkedNode280<I> node)
+	{
+		node.setPreviousNode(null);
+		node.setNextNode(head);
+		if (head == null)
+			tail = node;
+		else
+			((BilinkedNode280<I>) head).setPreviousNode(node);
+		if (position == head && prevPosition == null && head != null)
+			prevPosition = node;
+		head = node;
+	}
+
+	/**	Remove node from the list. <br>
+		Analysis: Time = O(1)
+		@precond node is in this list
+		@param node the node to be unlinked */
+	@SuppressWarnings("unchecked")
+	public void unlink(BilinkedNode280<I> node)
+	{
+		if (position == node || prevPosition == node)
+			goBefore();
+		BilinkedNode280<I> previous = node.previousNode();
+		BilinkedNode280<I> next = (BilinkedNode280<I>) node.nextNode();
+		if (previous == null)
+			head = next;
+		else
+			previous.setNextNode(next);
+		if (next == null)
+			tail = previous;
+		else
+			next.setPreviousNode(previous);
+		node.setPreviousNode(null);
+		node.setNextNode(null);
+	}
+
+	/**	Move node, which is already in this list, to the front. <br>
+		Analysis: Time = O(1)
+		@precond node is in this list
+		@param node the node that was just used */
+	public void moveToFront(BilinkedNode280<I> node)
+	{
+		if (node != head)
+		{
+			unlink(node);
+			linkFirst(node);
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package lib280.cache;
+
+import java.util.Arrays;
+
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.InvalidArgument280Exception;
+
+/**	The TinyLFU admission policy: a candidate is admitted only if it has
+	been used more often than the victim it would replace.  Frequencies are
+	estimated with a count-min sketch of four rows of 4-bit counters, so the
+	policy remembers keys that are not in the cache in a few bits each.  To
+	let the cache adapt when the working set changes, every counter is
+	halved once the number of recorded accesses reaches ten times the width
+	of the sketch, so old popularity fades. */
+public class TinyLfuAdmission280<K> implements CacheAdmissionPolicy280<K>
+{
+	/**	Number of rows of the sketch; the estimate is the least of the row counters. */
+	protected static final int depth = 4;
+
+	/**	Largest value of a 4-bit counter. */
+	protected static final int maxCount = 15;
+
+	/**	Seeds that make each row hash differently. */
+	protected static final int[] seeds = { 0x97cb3127, 0xb6f3a5e9, 0x3b6d3d1d, 0xe3a1c5b5 };
+
+	/**	The counters, sixteen to a long; row r occupies counters r*width to (r+1)*width-1. */
+	protected long[] table;
+
+	/**	Number of counters in each row, a power of two. */
+	protected int width;
+
+	/**	Accesses recorded since the counters were last halved. */
+	protected int additions;
+
+	/**	Number of recorded accesses after which the counters are halved. */
+	protected int sampleSize;
+
+	/**	Create a policy sized for a cache of about expectedEntries entries.
+		@param expectedEntries maximum number of entries expected in the cache
+		@throws InvalidArgument280Exception if expectedEntries is negative */
+	public TinyLfuAdmission280(long expectedEntries) throws InvalidArgument280Exception
+	{
+		if (expectedEntries < 0)
+			throw new InvalidArgument280Exception("The expected number of entries cannot be negative.");
+		width = 16;
+		while (width < expectedEntries && width < (1 << 26))
+			width <<= 1;
+		table = new long[depth * width / 16];
+		sampleSize = 10 * width;
+		additions = 0;
+	}
+
+	/**	Index of the counter of row r for the mixed hash h. */
+	protected int counterIndex(int h, int r)
+	{
+		return r * width + (MixingHashStrategy280.mix(h ^ seeds[r]) & (width - 1));
+	}
+
+	/**	Value of counter i. */
+	protected int counter(int i)
+	{
+		return (int) ((table[i >>> 4] >>> ((i & 15) << 2)) & 0xfL);
+	}
+
+	/**	Estimated number of recent accesses of key k, at most 15. <br>
+		Analysis: Time = O(1)
+		@param k key whose frequency is to be estimated */
+	public int frequency(K k)
+	{
+		int h = MixingHashStrategy280.mix(k.hashCode());
+		int least = maxCount;
+		for (int r = 0; r < depth; r++)
+			least = Math.min(least, counter(counterIndex(h, r)));
+		return least;
+	}
+
+	/**	Record an access of key k.  Only the counters that hold the current
+		estimate are incremented (a conservative update), which keeps the
+		estimates of other keys that share counters from growing. <br>
+		Analysis: Time = O(1), amortized over the periodic halving
+		@param k key that was accessed */
+	public void recordAccess(K k)
+	{
+		int h = MixingHashStrategy280.mix(k.hashCode());
+		int least = frequency(k);
+		if (least == maxCount)
+			return;
+		for (int r = 0; r < depth; r++)
+		{
+			int i = counterIndex(h, r);
+			if (counter(i) == least)
+				table[i >>> 4] += 1L << ((i & 15) << 2);
+		}
+		if (++additions >= sampleSize)
+			age();
+	}
+
+	/**	Halve every counter, so that accesses long ago count for less than recent ones. */
+	protected void age()
+	{
+		for (int i = 0; i < table.length; i++)
+			table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+		additions >>>= 1;
+	}
+
+	/**	Admit candidate only if it is estimated to be used more often than victim. <br>
+		Analysis: Time = O(1) */
+	public boolean admit(K candidate, K victim)
+	{
+		return frequency(candidate) > frequency(victim);
+	}
+
+	/**	Reset every counter to zero. */
+	public void clear()
+	{
+		Arrays.fill(table, 0L);
+		additions = 0;
+	}
+
+	public static void main(String[] args) {
+		TinyLfuAdmission280<String> P = new TinyLfuAdmission280<String>(100);
+
+		if (P.frequency("popular") != 0)
+			System.out.println("Error: a new sketch should estimate a frequency of 0.");
+		for (int i = 0; i < 5; i++)
+			P.recordAccess("popular");
+		P.recordAccess("rare");
+		if (P.frequency("popular") != 5)
+			System.out.println("Error: expected a frequency of 5 but got " + P.frequency("popular"));
+		if (!P.admit("popular", "rare"))
+			System.out.println("Error: a popular candidate should be admitted over a rare victim.");
+		if (P.admit("rare", "popular"))
+			System.out.println("Error: a rare candidate should not be admitted over a popular victim.");
+		if (P.admit("rare", "rare"))
+			System.out.println("Error: a candidate should not be admitted over a victim used as often.");
+
+		for (int i = 0; i < 100; i++)
+			P.recordAccess("popular");
+		if (P.frequency("popular") != 15)
+			System.out.println("Error: counters should saturate at 15 but got " + P.frequency("popular"));
+
+		// Enough other accesses to trigger halving must make the old popularity fade.
+		for (int i = 0; i < P.sampleSize; i++)
+			P.recordAccess("other" + i);
+		if (P.frequency("popular") > 7)
+			System.out.println("Error: halving should have reduced the frequency but got " + P.frequency("popular"));
+
+		P.clear();
+		if (P.frequency("popular") != 0)
+			System.out.println("Error: clear() should reset the frequencies.");
+
+		// The estimates of keys that were never accessed should stay small.
+		TinyLfuAdmission280<String> Q = new TinyLfuAdmission280<String>(1000);
+		for (int i = 0; i < 1000; i++)
+			Q.recordAccess("seen" + i);
+		int overestimated = 0;
+		for (int i = 0; i < 1000; i++)
+			if (Q.frequency("never" + i) > 1)
+				overestimated++;
+		if (overestimated > 20)
+			System.out.println("Error: " + overestimated + " of 1000 unseen keys have an estimate above 1.");
+
+		System.out.println("Regression test complete.");
+	}
+}
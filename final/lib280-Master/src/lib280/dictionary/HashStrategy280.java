@@ -0,0 +1,13 @@
+package lib280.dictionary;
+
+/**	A function that computes the hash code used by a hash table to place
+	an item or key.  Hash tables reduce the result to a table position by
+	masking (or, for tables whose capacity is not a power of two, by the
+	division method), so a good strategy spreads information from all of
+	the input into the low-order bits. */
+public interface HashStrategy280
+{
+	/**	The hash code of y.
+		@param y the item or key to be hashed */
+	public int hash(Object y);
+}
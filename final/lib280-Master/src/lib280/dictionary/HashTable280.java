@@ -6,11 +6,16 @@
 
 package lib280.dictionary;
 
+import lib280.base.Streamable280;
+import lib280.exception.InvalidState280Exception;
+
 /**	A hash table version of a Dictionary used to store items by their hash value. 
 	It has functions to insert, delete, obtain, and  search for items, and
 	has a frequency function and a current item that can be deleted.  A linear
-	iterator is included to move the current item through the hash table. */
-public abstract class HashTable280<I> implements Dict280<I>
+	iterator is included to move the current item through the hash table, and
+	spliterator() traverses the table independently of it, splitting by ranges
+	of buckets or slots. */
+public abstract class HashTable280<I> implements Dict280<I>, Streamable280<I>
 {
 	/**	Number of entries in the hash table. */
 	protected int count;
@@ -18,6 +23,9 @@ public abstract class HashTable280<I> implements Dict280<I>
 	/**	Should search continue from current item or start at the beginning?. */
 	protected boolean searchesContinue = false;
 
+	/**	Function used to compute the hash codes of items and keys. */
+	protected HashStrategy280 hashStrategy = MixingHashStrategy280.unseeded;
+
 
 	/**	Size of the hash table. */
 	public abstract int capacity();
@@ -48,14 +56,65 @@ public abstract class HashTable280<I> implements Dict280<I>
 	}
 
 	/**	
-	 * Default hash position is obtained by the simple division method, which is
-	 * calculated by using the object's default hash code. <br>
+	 * Hash position of y in this table.  The hash code of y is computed by the hash strategy
+	 * and masked to the capacity, which is normally a power of two. <br>
 	 * @timing O(1)
 	 * @param y item to calculate its hash position 
 	 */
 	public int hashPos(Object y)
 	{
-		return Math.abs(y.hashCode()) % capacity();
+		return hashPos(y, capacity());
+	}
+
+	/**	
+	 * Hash position of y in a bucket array of the given length.  Lengths that are powers of two
+	 * are masked; any other length falls back to the (non-negative) division method. <br>
+	 * @timing O(1)
+	 * @param y item to calculate its hash position 
+	 * @param length length of the bucket array
+	 */
+	protected int hashPos(Object y, int length)
+	{
+		int h = hashStrategy.hash(y);
+		if ((length & (length - 1)) == 0)
+			return h & (length - 1);
+		else
+			return Math.floorMod(h, length);
+	}
+
+	/**	
+	 * The function used to compute the hash codes of items and keys.
+	 * @timing O(1)
+	 */
+	public HashStrategy280 hashStrategy()
+	{
+		return hashStrategy;
+	}
+
+	/**	
+	 * Replace the function used to compute the hash codes of items and keys, for example
+	 * with a seeded MixingHashStrategy280 when keys may come from an adversary.
+	 * @precond isEmpty()
+	 * @param strategy the new hash strategy
+	 * @throws InvalidState280Exception if the table is not empty.
+	 */
+	public void setHashStrategy(HashStrategy280 strategy) throws InvalidState280Exception
+	{
+		if (!isEmpty())
+			throw new InvalidState280Exception("Cannot change the hash strategy of a non-empty table.");
+		hashStrategy = strategy;
+	}
+
+	/**	
+	 * Smallest power of two that is at least n (and at least 1).
+	 * @param n the required size
+	 */
+	protected static int powerOfTwoAtLeast(int n)
+	{
+		int result = 1;
+		while (result < n)
+			result <<= 1;
+		return result;
 	}
 
 
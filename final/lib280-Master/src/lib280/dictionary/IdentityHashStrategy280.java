@@ -0,0 +1,15 @@
+package lib280.dictionary;
+
+/**	A hash strategy that uses each object's own hashCode() unchanged.
+	This reproduces the placement of the original division method, and is
+	mainly useful for comparison; clustered hash codes, such as those of
+	strings that differ only in their last few characters, give poorly
+	spread tables when the capacity is a power of two. */
+public class IdentityHashStrategy280 implements HashStrategy280
+{
+	@Override
+	public int hash(Object y)
+	{
+		return y.hashCode();
+	}
+}
@@ -6,9 +6,13 @@
  
 package lib280.dictionary;
 
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 import lib280.base.Keyed280;
 import lib280.exception.ContainerFull280Exception;
 import lib280.exception.DuplicateItems280Exception;
+import lib280.exception.InvalidArgument280Exception;
 import lib280.exception.ItemNotFound280Exception;
 
 /**	The interface for a basic container that stores keyed items.  
@@ -56,4 +60,81 @@ public interface KeyedBasicDict280<K extends Comparable<? super K>, I extends Ke
 	 *  @param k the key of the item to be deleted 
 	 */
 	public void delete(K k) throws ItemNotFound280Exception;
+
+	/**	
+	 * Insert x unless the dictionary already has an item with key x.key().
+	 * The default implementation searches for the key twice; implementations
+	 * that can do so should find the item and the place to insert it in one search.
+	 * @precond !isFull()
+	 * @throws ContainerFull280Exception if the dictionary is full.
+	 * @param x item to be inserted
+	 * @return The item already in the dictionary with key x.key(), or null if x was inserted.
+	 */
+	public default I putIfAbsent(I x) throws ContainerFull280Exception
+	{
+		if (has(x.key()))
+			return obtain(x.key());
+		insert(x);
+		return null;
+	}
+
+	/**	
+	 * Obtain the item with key k, creating and inserting it with f if there is none.
+	 * @param k key of the item
+	 * @param f computes the item for key k; returning null inserts nothing
+	 * @return The existing or newly inserted item, or null if f returned null.
+	 * @throws InvalidArgument280Exception if f returns an item whose key is not k.
+	 */
+	public default I computeIfAbsent(K k, Function<? super K, ? extends I> f) throws InvalidArgument280Exception
+	{
+		if (has(k))
+			return obtain(k);
+		I x = f.apply(k);
+		if (x == null)
+			return null;
+		if (k.compareTo(x.key()) != 0)
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		insert(x);
+		return x;
+	}
+
+	/**	
+	 * Replace the item with key k by f(k, current item), where the current item is null
+	 * if there is none.  If f returns null, the item with key k (if any) is deleted.
+	 * @param k key of the item
+	 * @param f computes the new item from the key and the current item
+	 * @return The new item, or null if there is now no item with key k.
+	 * @throws InvalidArgument280Exception if f returns an item whose key is not k.
+	 */
+	public default I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) throws InvalidArgument280Exception
+	{
+		I current = has(k) ? obtain(k) : null;
+		I x = f.apply(k, current);
+		if (x == null) {
+			if (current != null)
+				delete(k);
+			return null;
+		}
+		if (k.compareTo(x.key()) != 0)
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		if (current != null)
+			set(x);
+		else
+			insert(x);
+		return x;
+	}
+
+	/**	
+	 * Insert x if there is no item with key x.key(); otherwise replace the current item
+	 * by f(current item, x), or delete it if f returns null.  This is done with compute(),
+	 * so it costs a single search wherever compute() does.
+	 * @param x item to be inserted or merged with the current item
+	 * @param f combines the current item with x
+	 * @return The new item, or null if there is now no item with key x.key().
+	 * @throws InvalidArgument280Exception if f returns an item whose key is not x.key().
+	 */
+	public default I merge(I x, BiFunction<? super I, ? super I, ? extends I> f) throws InvalidArgument280Exception
+	{
+		return compute(x.key(), (k, current) -> current == null ? x : f.apply(current, x));
+	}
 } 
@@ -0,0 +1,96 @@
+package lib280.dictionary;
+
+import java.security.SecureRandom;
+
+/**	A hash strategy that passes each object's hashCode() through the
+	MurmurHash3 finalizer, so that every bit of the hash code affects the
+	low-order bits used to choose a table position.
+
+	A seeded strategy additionally makes the hash depend on a secret seed,
+	so that an adversary cannot choose keys that all collide.  For strings
+	(and other CharSequences) the seeded hash is computed from the
+	characters themselves, which defeats keys with equal String.hashCode()
+	values; for other objects the seed can only be mixed into hashCode(),
+	so objects whose hashCode() values are equal still collide. */
+public class MixingHashStrategy280 implements HashStrategy280
+{
+	/**	An unseeded strategy, shared by all hash tables by default. */
+	public static final MixingHashStrategy280 unseeded = new MixingHashStrategy280();
+
+	/**	Is the hash keyed by seed? */
+	protected final boolean seeded;
+
+	/**	Secret seed of a seeded strategy. */
+	protected final long seed;
+
+	/**	Create an unseeded strategy. */
+	public MixingHashStrategy280()
+	{
+		this.seeded = false;
+		this.seed = 0;
+	}
+
+	/**	Create a strategy keyed by the given seed.
+		@param seed the seed; it should be kept secret to defend against collision flooding */
+	public MixingHashStrategy280(long seed)
+	{
+		this.seeded = true;
+		this.seed = seed;
+	}
+
+	/**	Create a strategy keyed by a seed drawn from a cryptographically strong
+		random number generator. */
+	public static MixingHashStrategy280 randomlySeeded()
+	{
+		return new MixingHashStrategy280(new SecureRandom().nextLong());
+	}
+
+	/**	The MurmurHash3 32-bit finalizer.
+		@param h value to be mixed */
+	public static int mix(int h)
+	{
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/**	The MurmurHash3 64-bit finalizer.
+		@param h value to be mixed */
+	public static long mix(long h)
+	{
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	@Override
+	public int hash(Object y)
+	{
+		if (!seeded)
+			return mix(y.hashCode());
+		long h = hash64(y);
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**	A 64-bit hash code of y, for tables that need two independent hash
+		functions: the high and low halves can be used separately.
+		@param y the item or key to be hashed */
+	public long hash64(Object y)
+	{
+		if (seeded && y instanceof CharSequence)
+		{
+			CharSequence s = (CharSequence) y;
+			long h = seed ^ s.length();
+			for (int i = 0; i < s.length(); i++)
+				h = (h ^ s.charAt(i)) * 0x9e3779b97f4a7c15L;
+			return mix(h);
+		}
+		return mix(seed ^ y.hashCode());
+	}
+}
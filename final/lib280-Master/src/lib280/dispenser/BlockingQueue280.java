@@ -0,0 +1,429 @@
+package lib280.dispenser;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import lib280.base.Dispenser280;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.list.ArrayedList280;
+
+/**
+ * A bounded first-in first-out queue for passing items between producer and consumer
+ * threads.  put() waits while the queue is full, which holds back producers that run
+ * ahead of their consumers, and take() waits while it is empty; both have versions
+ * that give up after a timeout.  drainTo() removes a whole batch of items while holding
+ * the lock only once.
+ *
+ * The items are kept in a fixed-size ArrayedList280 guarded by a ReentrantLock.  A
+ * waiting thread is parked through the lock's conditions rather than blocked in a
+ * monitor, so on a JDK with virtual threads a waiting virtual thread releases its
+ * carrier thread.
+ *
+ * The Dispenser280 methods never wait: insert() throws when the queue is full, and
+ * item() and deleteItem() throw when it is empty.  When several consumers share the
+ * queue, use take() or drainTo() rather than item() followed by deleteItem().
+ */
+public class BlockingQueue280<I> implements Dispenser280<I> {
+
+	/** The items, first item at the front. */
+	protected final ArrayedList280<I> items;
+
+	/** Guards items. */
+	protected final ReentrantLock lock;
+
+	/** Signalled when an item is inserted. */
+	protected final Condition notEmpty;
+
+	/** Signalled when an item is removed. */
+	protected final Condition notFull;
+
+	/**
+	 * Create an empty queue.
+	 * @param capacity Maximum number of items in the queue.
+	 */
+	public BlockingQueue280(int capacity) {
+		this(capacity, false);
+	}
+
+	/**
+	 * Create an empty queue.
+	 * @param capacity Maximum number of items in the queue.
+	 * @param fair If true, waiting threads are served in the order they began to wait,
+	 *   at some cost in throughput.
+	 * @throws InvalidArgument280Exception if capacity is not positive.
+	 */
+	public BlockingQueue280(int capacity, boolean fair) {
+		if( capacity < 1 ) throw new InvalidArgument280Exception("The capacity must be positive.");
+		this.items = new ArrayedList280<I>(capacity);
+		this.lock = new ReentrantLock(fair);
+		this.notEmpty = this.lock.newCondition();
+		this.notFull = this.lock.newCondition();
+	}
+
+	/**
+	 * Maximum number of items in the queue.
+	 */
+	public int capacity() {
+		return this.items.capacity();
+	}
+
+	/**
+	 * Number of items in the queue.
+	 */
+	public int count() {
+		this.lock.lock();
+		try {
+			return this.items.count();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Insert x at the back of the queue, waiting for room if it is full.
+	 * @param x item to be inserted
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public void put(I x) throws InterruptedException {
+		this.lock.lockInterruptibly();
+		try {
+			while( this.items.isFull() )
+				this.notFull.await();
+			this.items.insertLast(x);
+			this.notEmpty.signal();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Insert x at the back of the queue, waiting at most the given time for room.
+	 * @param x item to be inserted
+	 * @param timeout longest time to wait
+	 * @param unit unit of timeout
+	 * @return true if x was inserted, false if the queue stayed full.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public boolean put(I x, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while( this.items.isFull() ) {
+				if( nanos <= 0 ) return false;
+				nanos = this.notFull.awaitNanos(nanos);
+			}
+			this.items.insertLast(x);
+			this.notEmpty.signal();
+			return true;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove and return the front item, waiting for one if the queue is empty.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public I take() throws InterruptedException {
+		this.lock.lockInterruptibly();
+		try {
+			while( this.items.isEmpty() )
+				this.notEmpty.await();
+			return this.removeFirst();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove and return the front item, waiting at most the given time for one.
+	 * @param timeout longest time to wait
+	 * @param unit unit of timeout
+	 * @return the front item, or null if the queue stayed empty.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public I take(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lockInterruptibly();
+		try {
+			while( this.items.isEmpty() ) {
+				if( nanos <= 0 ) return null;
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			return this.removeFirst();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove up to max items from the front of the queue without waiting, and pass them
+	 * to sink in order.  The lock is taken once for the whole batch, and released before
+	 * sink sees the first item.
+	 * @param sink receives the items removed
+	 * @param max largest number of items to remove
+	 * @return the number of items removed.
+	 */
+	public int drainTo(Consumer<? super I> sink, int max) {
+		Object[] batch;
+		this.lock.lock();
+		try {
+			batch = this.removeBatch(max);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		return this.deliver(batch, sink);
+	}
+
+	/**
+	 * Remove up to max items from the front of the queue, waiting at most the given time
+	 * for there to be at least one, and pass them to sink in order.
+	 * @param sink receives the items removed
+	 * @param max largest number of items to remove
+	 * @param timeout longest time to wait
+	 * @param unit unit of timeout
+	 * @return the number of items removed; 0 if the queue stayed empty.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public int drainTo(Consumer<? super I> sink, int max, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		Object[] batch;
+		this.lock.lockInterruptibly();
+		try {
+			while( this.items.isEmpty() ) {
+				if( nanos <= 0 ) return 0;
+				nanos = this.notEmpty.awaitNanos(nanos);
+			}
+			batch = this.removeBatch(max);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		return this.deliver(batch, sink);
+	}
+
+	/**
+	 * Remove the front item and wake a producer waiting for room.
+	 * @precond The lock is held and the queue is not empty.
+	 */
+	protected I removeFirst() {
+		I x = this.items.firstItem();
+		this.items.deleteFirst();
+		this.notFull.signal();
+		return x;
+	}
+
+	/**
+	 * Remove up to max items from the front and wake the producers waiting for the room.
+	 * @precond The lock is held.
+	 * @return the items removed, in order.
+	 */
+	protected Object[] removeBatch(int max) {
+		int n = Math.max(0, Math.min(max, this.items.count()));
+		Object[] batch = new Object[n];
+		for(int i = 0; i < n; i++) {
+			batch[i] = this.items.firstItem();
+			this.items.deleteFirst();
+		}
+		if( n == 1 ) this.notFull.signal();
+		else if( n > 1 ) this.notFull.signalAll();
+		return batch;
+	}
+
+	/**
+	 * Pass the items of batch to sink.
+	 * @return the number of items.
+	 */
+	@SuppressWarnings("unchecked")
+	protected int deliver(Object[] batch, Consumer<? super I> sink) {
+		for(Object x : batch)
+			sink.accept((I) x);
+		return batch.length;
+	}
+
+	/**
+	 * Insert x at the back of the queue without waiting.
+	 * @throws ContainerFull280Exception if the queue is full.
+	 */
+	@Override
+	public void insert(I x) throws ContainerFull280Exception {
+		this.lock.lock();
+		try {
+			if( this.items.isFull() )
+				throw new ContainerFull280Exception("Cannot insert into a full queue.");
+			this.items.insertLast(x);
+			this.notEmpty.signal();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove the front item without waiting.
+	 * @throws NoCurrentItem280Exception if the queue is empty.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		this.lock.lock();
+		try {
+			if( this.items.isEmpty() )
+				throw new NoCurrentItem280Exception("Cannot delete the front item of an empty queue.");
+			this.removeFirst();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * The front item.
+	 * @throws NoCurrentItem280Exception if the queue is empty.
+	 */
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		this.lock.lock();
+		try {
+			if( this.items.isEmpty() )
+				throw new NoCurrentItem280Exception("Cannot obtain the front item of an empty queue.");
+			return this.items.firstItem();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean itemExists() {
+		return !this.isEmpty();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count() == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return this.count() == this.capacity();
+	}
+
+	@Override
+	public void clear() {
+		this.lock.lock();
+		try {
+			this.items.clear();
+			this.notFull.signalAll();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		this.lock.lock();
+		try {
+			return "Queue starting with front item: " + this.items;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		BlockingQueue280<Integer> Q = new BlockingQueue280<Integer>(3);
+
+		if( !Q.isEmpty() || Q.itemExists() || Q.count() != 0 || Q.capacity() != 3 )
+			System.out.println("Error: a new queue should be empty with capacity 3.");
+		try {
+			Q.item();
+			System.out.println("Error: item() of an empty queue should throw.");
+		}
+		catch( NoCurrentItem280Exception e ) { /* expected */ }
+		long start = System.nanoTime();
+		if( Q.take(20, TimeUnit.MILLISECONDS) != null )
+			System.out.println("Error: a timed take() from an empty queue should return null.");
+		if( System.nanoTime() - start < 15000000L )
+			System.out.println("Error: a timed take() should wait for its timeout.");
+
+		Q.put(1);
+		Q.insert(2);
+		if( !Q.put(3, 1, TimeUnit.MILLISECONDS) || !Q.isFull() )
+			System.out.println("Error: the queue should be full after three insertions.");
+		if( Q.put(4, 10, TimeUnit.MILLISECONDS) )
+			System.out.println("Error: a timed put() into a full queue should return false.");
+		try {
+			Q.insert(4);
+			System.out.println("Error: insert() into a full queue should throw.");
+		}
+		catch( ContainerFull280Exception e ) { /* expected */ }
+		if( Q.item() != 1 || Q.take() != 1 || Q.count() != 2 )
+			System.out.println("Error: the front item should have been 1.");
+		StringBuilder drained = new StringBuilder();
+		if( Q.drainTo(x -> drained.append(x).append(' '), 10) != 2 || !drained.toString().equals("2 3 ") || !Q.isEmpty() )
+			System.out.println("Error: drainTo() should remove 2 3, not " + drained);
+
+		// A producer held back by a small queue, and a consumer working in batches.
+		final BlockingQueue280<Integer> P = new BlockingQueue280<Integer>(16);
+		final int total = 200000;
+		final long[] sum = new long[1];
+		final int[] outOfOrder = new int[1];
+		Thread producer = new Thread(() -> {
+			try {
+				for(int i = 0; i < total; i++)
+					P.put(i);
+			}
+			catch( InterruptedException e ) {
+				System.out.println("Error: the producer was interrupted.");
+			}
+		});
+		Thread consumer = new Thread(() -> {
+			int[] next = {0};
+			try {
+				while( next[0] < total )
+					P.drainTo(x -> {
+						if( x != next[0] ) outOfOrder[0]++;
+						next[0]++;
+						sum[0] += x;
+					}, 64, 1, TimeUnit.SECONDS);
+			}
+			catch( InterruptedException e ) {
+				System.out.println("Error: the consumer was interrupted.");
+			}
+		});
+		producer.start();
+		consumer.start();
+		producer.join();
+		consumer.join();
+		if( outOfOrder[0] != 0 || sum[0] != (long) total * (total - 1) / 2 || !P.isEmpty() )
+			System.out.println("Error: the consumer should receive 0 to " + (total - 1) + " in order.");
+
+		// A thread waiting in take() can be interrupted.
+		Thread waiter = new Thread(() -> {
+			try {
+				P.take();
+				System.out.println("Error: take() from an empty queue returned.");
+			}
+			catch( InterruptedException e ) { /* expected */ }
+		});
+		waiter.start();
+		Thread.sleep(20);
+		waiter.interrupt();
+		waiter.join(1000);
+		if( waiter.isAlive() )
+			System.out.println("Error: interrupting a thread waiting in take() should wake it.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,455 @@
+package lib280.dispenser;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+import lib280.base.Dispenser280;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+
+/**
+ * A bounded first-in first-out queue that may be shared by any number of producer and
+ * consumer threads, without locks.
+ *
+ * The items are kept in a ring whose length is a power of two.  Each slot carries a
+ * sequence number saying whose turn it is: a slot at position pos is free for the
+ * producer of pos when its sequence number is pos, and holds an item for the consumer
+ * of pos when it is pos+1.  Producers claim positions by advancing tail with a
+ * compare-and-set, and consumers likewise advance head, so a thread only ever waits
+ * for another by retrying.  head and tail are padded onto cache lines of their own, so
+ * producers and consumers do not slow each other down by writing to the same line.
+ *
+ * The cursor of a Dispenser280 is the front of the queue.  When several consumers
+ * share the queue, item() followed by deleteItem() may see two different items; use
+ * poll(), which removes and returns the front item in one step, instead.  Similarly
+ * offer() inserts without throwing when the queue is full.  offerAll() and drainTo()
+ * move a batch of items with a single compare-and-set.  null cannot be inserted.
+ */
+public class ConcurrentRingQueue280<I> implements Dispenser280<I> {
+
+	/** Padding in front of a counter. */
+	protected static class CounterPadding {
+		long p01, p02, p03, p04, p05, p06, p07;
+	}
+
+	/** The value of a counter. */
+	protected static class CounterValue extends CounterPadding {
+		volatile long value;
+	}
+
+	/**
+	 * A counter alone on its cache line.  Fields of a superclass are laid out before
+	 * those of a subclass, so the value lies between the two blocks of padding.
+	 */
+	protected static final class PaddedCounter extends CounterValue {
+		long p11, p12, p13, p14, p15, p16, p17;
+
+		private static final VarHandle VALUE;
+		static {
+			try {
+				VALUE = MethodHandles.lookup().findVarHandle(CounterValue.class, "value", long.class);
+			}
+			catch( ReflectiveOperationException e ) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		long get() {
+			return this.value;
+		}
+
+		boolean compareAndSet(long expected, long newValue) {
+			return VALUE.compareAndSet(this, expected, newValue);
+		}
+	}
+
+	/** The ring of items; a slot is null when it holds no item. */
+	protected final Object[] buffer;
+
+	/** Sequence number of each slot of the ring. */
+	protected final AtomicLongArray sequences;
+
+	/** Length of the ring minus one, for reducing a position to a slot. */
+	protected final int mask;
+
+	/** Position at which the next item will be inserted. */
+	protected final PaddedCounter tail = new PaddedCounter();
+
+	/** Position of the front item. */
+	protected final PaddedCounter head = new PaddedCounter();
+
+	/**
+	 * Create an empty queue.
+	 * @param capacity Least number of items the queue must hold.  The capacity is rounded
+	 *   up to a power of two.
+	 * @throws InvalidArgument280Exception if capacity is not positive or exceeds 2^30.
+	 */
+	public ConcurrentRingQueue280(int capacity) {
+		if( capacity < 1 || capacity > (1 << 30) )
+			throw new InvalidArgument280Exception("The capacity must be between 1 and 2^30.");
+		int length = 2;
+		while( length < capacity )
+			length <<= 1;
+		this.buffer = new Object[length];
+		this.sequences = new AtomicLongArray(length);
+		for(int i = 0; i < length; i++)
+			this.sequences.set(i, i);
+		this.mask = length - 1;
+	}
+
+	/**
+	 * Maximum number of items in the queue.
+	 */
+	public int capacity() {
+		return this.buffer.length;
+	}
+
+	/**
+	 * Number of items in the queue.  While other threads are using the queue this is
+	 * only a snapshot.
+	 */
+	public int count() {
+		long h = this.head.get();
+		long n = this.tail.get() - h;
+		if( n < 0 ) return 0;
+		return (int) Math.min(n, this.buffer.length);
+	}
+
+	/**
+	 * Insert x at the back of the queue unless the queue is full.
+	 * @param x item to be inserted; not null
+	 * @return true if x was inserted, false if the queue was full.
+	 * @throws InvalidArgument280Exception if x is null.
+	 */
+	public boolean offer(I x) {
+		if( x == null ) throw new InvalidArgument280Exception("Cannot insert null into the queue.");
+		long pos = this.tail.get();
+		while( true ) {
+			int slot = (int) pos & this.mask;
+			long dif = this.sequences.getAcquire(slot) - pos;
+			if( dif == 0 ) {
+				if( this.tail.compareAndSet(pos, pos + 1) ) {
+					this.buffer[slot] = x;
+					this.sequences.setRelease(slot, pos + 1);
+					return true;
+				}
+			}
+			else if( dif < 0 )
+				return false;
+			pos = this.tail.get();
+		}
+	}
+
+	/**
+	 * Remove and return the front item.
+	 * @return the front item, or null if the queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public I poll() {
+		long pos = this.head.get();
+		while( true ) {
+			int slot = (int) pos & this.mask;
+			long dif = this.sequences.getAcquire(slot) - (pos + 1);
+			if( dif == 0 ) {
+				if( this.head.compareAndSet(pos, pos + 1) ) {
+					I x = (I) this.buffer[slot];
+					this.buffer[slot] = null;
+					this.sequences.setRelease(slot, pos + this.mask + 1);
+					return x;
+				}
+			}
+			else if( dif < 0 )
+				return null;
+			pos = this.head.get();
+		}
+	}
+
+	/**
+	 * The front item, without removing it.
+	 * @return the front item, or null if the queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public I peek() {
+		while( true ) {
+			long pos = this.head.get();
+			int slot = (int) pos & this.mask;
+			long dif = this.sequences.getAcquire(slot) - (pos + 1);
+			if( dif < 0 )
+				return null;
+			if( dif == 0 ) {
+				Object x = this.buffer[slot];
+				// The item is only known to be the front one if head has not moved since.
+				VarHandle.loadLoadFence();
+				if( x != null && this.head.get() == pos )
+					return (I) x;
+			}
+		}
+	}
+
+	/**
+	 * Insert as many items of xs as there is room for, in order, claiming their slots all
+	 * at once where possible.
+	 * @param xs items to be inserted; none may be null
+	 * @return the number of items inserted, which are xs[0] to xs[result-1].
+	 * @throws InvalidArgument280Exception if an item of xs is null.
+	 */
+	public int offerAll(I[] xs) {
+		for(I x : xs)
+			if( x == null ) throw new InvalidArgument280Exception("Cannot insert null into the queue.");
+		int done = 0;
+		while( done < xs.length ) {
+			long pos = this.tail.get();
+			int n = 0;
+			int wanted = Math.min(xs.length - done, this.buffer.length);
+			while( n < wanted && this.sequences.getAcquire((int) (pos + n) & this.mask) == pos + n )
+				n++;
+			if( n == 0 ) {
+				if( this.tail.get() == pos && this.sequences.getAcquire((int) pos & this.mask) < pos )
+					return done;
+				continue;
+			}
+			if( this.tail.compareAndSet(pos, pos + n) ) {
+				for(int k = 0; k < n; k++) {
+					int slot = (int) (pos + k) & this.mask;
+					this.buffer[slot] = xs[done + k];
+					this.sequences.setRelease(slot, pos + k + 1);
+				}
+				done += n;
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Remove up to max items from the front of the queue, claiming them all at once, and
+	 * pass them to sink in order.  The slots are freed before sink sees any item, so the
+	 * queue is left consistent even if sink throws.
+	 * @param sink receives the items removed
+	 * @param max largest number of items to remove
+	 * @return the number of items removed.
+	 */
+	@SuppressWarnings("unchecked")
+	public int drainTo(Consumer<? super I> sink, int max) {
+		max = Math.min(max, this.buffer.length);
+		while( max > 0 ) {
+			long pos = this.head.get();
+			int n = 0;
+			while( n < max && this.sequences.getAcquire((int) (pos + n) & this.mask) == pos + n + 1 )
+				n++;
+			if( n == 0 ) {
+				if( this.head.get() == pos && this.sequences.getAcquire((int) pos & this.mask) <= pos )
+					return 0;
+				continue;
+			}
+			if( this.head.compareAndSet(pos, pos + n) ) {
+				Object[] taken = new Object[n];
+				for(int k = 0; k < n; k++) {
+					int slot = (int) (pos + k) & this.mask;
+					taken[k] = this.buffer[slot];
+					this.buffer[slot] = null;
+					this.sequences.setRelease(slot, pos + k + this.mask + 1);
+				}
+				for(int k = 0; k < n; k++)
+					sink.accept((I) taken[k]);
+				return n;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Insert x at the back of the queue.
+	 * @throws ContainerFull280Exception if the queue is full.
+	 * @throws InvalidArgument280Exception if x is null.
+	 */
+	@Override
+	public void insert(I x) throws ContainerFull280Exception {
+		if( !this.offer(x) )
+			throw new ContainerFull280Exception("Cannot insert into a full queue.");
+	}
+
+	/**
+	 * Remove the front item.
+	 * @throws NoCurrentItem280Exception if the queue is empty.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( this.poll() == null )
+			throw new NoCurrentItem280Exception("Cannot delete the front item of an empty queue.");
+	}
+
+	/**
+	 * The front item.
+	 * @throws NoCurrentItem280Exception if the queue is empty.
+	 */
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		I x = this.peek();
+		if( x == null )
+			throw new NoCurrentItem280Exception("Cannot obtain the front item of an empty queue.");
+		return x;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.peek() != null;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.peek() == null;
+	}
+
+	@Override
+	public boolean isFull() {
+		return this.count() == this.buffer.length;
+	}
+
+	/**
+	 * Remove every item.  Items inserted by other threads meanwhile may remain.
+	 */
+	@Override
+	public void clear() {
+		while( this.poll() != null )
+			;
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentRingQueue280 holding " + this.count() + " of " + this.capacity() + " items";
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		ConcurrentRingQueue280<Integer> Q = new ConcurrentRingQueue280<Integer>(5);
+
+		if( Q.capacity() != 8 ) System.out.println("Error: capacity 5 should be rounded up to 8, not " + Q.capacity());
+		if( !Q.isEmpty() || Q.itemExists() || Q.poll() != null || Q.peek() != null )
+			System.out.println("Error: a new queue should be empty.");
+		try {
+			Q.item();
+			System.out.println("Error: item() of an empty queue should throw.");
+		}
+		catch( NoCurrentItem280Exception e ) { /* expected */ }
+		try {
+			Q.deleteItem();
+			System.out.println("Error: deleteItem() of an empty queue should throw.");
+		}
+		catch( NoCurrentItem280Exception e ) { /* expected */ }
+
+		for(int i = 1; i <= 8; i++)
+			Q.insert(i);
+		if( !Q.isFull() || Q.count() != 8 || Q.offer(9) )
+			System.out.println("Error: the queue should be full after 8 insertions.");
+		try {
+			Q.insert(9);
+			System.out.println("Error: insert() into a full queue should throw.");
+		}
+		catch( ContainerFull280Exception e ) { /* expected */ }
+		try {
+			Q.clear();
+			Q.insert(null);
+			System.out.println("Error: inserting null should throw.");
+		}
+		catch( InvalidArgument280Exception e ) { /* expected */ }
+
+		// Many laps around the ring, in first-in first-out order.
+		int next = 0, expected = 0;
+		for(int step = 0; step < 10000; step++) {
+			if( step % 3 != 2 && Q.offer(next) ) next++;
+			else if( Q.itemExists() ) {
+				if( Q.item() != expected ) {
+					System.out.println("Error: expected front item " + expected + " but found " + Q.item());
+					break;
+				}
+				Q.deleteItem();
+				expected++;
+			}
+		}
+		Q.clear();
+
+		// Batches.
+		Integer[] batch = new Integer[12];
+		for(int i = 0; i < batch.length; i++)
+			batch[i] = 100 + i;
+		Q.offer(99);
+		if( Q.offerAll(batch) != 7 || Q.count() != 8 )
+			System.out.println("Error: offerAll() should insert only the 7 items that fit.");
+		StringBuilder drained = new StringBuilder();
+		if( Q.drainTo(x -> drained.append(x).append(' '), 3) != 3 || !drained.toString().equals("99 100 101 ") )
+			System.out.println("Error: drainTo() should remove 99 100 101, not " + drained);
+		if( Q.drainTo(x -> {}, 100) != 5 || !Q.isEmpty() || Q.drainTo(x -> {}, 10) != 0 )
+			System.out.println("Error: drainTo() should remove the 5 remaining items, then none.");
+
+		// Several producers and consumers: every item arrives exactly once, and the items
+		// of each producer arrive in the order it inserted them.
+		final int producers = 3, consumers = 3, perProducer = 100000;
+		final ConcurrentRingQueue280<Integer> shared = new ConcurrentRingQueue280<Integer>(64);
+		final boolean[] seen = new boolean[producers * perProducer];
+		final int[] errors = new int[1];
+		final java.util.concurrent.atomic.AtomicInteger received = new java.util.concurrent.atomic.AtomicInteger();
+		Thread[] threads = new Thread[producers + consumers];
+		for(int p = 0; p < producers; p++) {
+			final int id = p;
+			threads[p] = new Thread(() -> {
+				Integer[] chunk = new Integer[16];
+				int i = 0;
+				while( i < perProducer ) {
+					if( id == 0 ) {
+						// This producer inserts in batches.
+						int n = Math.min(chunk.length, perProducer - i);
+						Integer[] some = n == chunk.length ? chunk : new Integer[n];
+						for(int k = 0; k < n; k++) some[k] = id * perProducer + i + k;
+						int done = shared.offerAll(some);
+						i += done;
+						if( done < n ) {
+							// The rest of the batch is offered again, one at a time.
+							for(int k = done; k < n; k++) {
+								while( !shared.offer(id * perProducer + i) ) Thread.yield();
+								i++;
+							}
+						}
+					}
+					else if( shared.offer(id * perProducer + i) ) i++;
+					else Thread.yield();
+				}
+			});
+		}
+		for(int c = 0; c < consumers; c++) {
+			final boolean batches = c == 0;
+			threads[producers + c] = new Thread(() -> {
+				int[] last = new int[producers];
+				java.util.Arrays.fill(last, -1);
+				Consumer<Integer> check = x -> {
+					int from = x / perProducer;
+					synchronized( seen ) {
+						if( seen[x] ) errors[0]++;
+						seen[x] = true;
+					}
+					if( x <= last[from] ) errors[0]++;
+					last[from] = x;
+					received.incrementAndGet();
+				};
+				while( received.get() < producers * perProducer ) {
+					if( batches ) {
+						if( shared.drainTo(check, 32) == 0 ) Thread.yield();
+					}
+					else {
+						Integer x = shared.poll();
+						if( x == null ) Thread.yield();
+						else check.accept(x);
+					}
+				}
+			});
+		}
+		for(Thread t : threads) t.start();
+		for(Thread t : threads) t.join();
+		if( errors[0] != 0 || received.get() != producers * perProducer || !shared.isEmpty() )
+			System.out.println("Error: " + errors[0] + " items were duplicated or out of order, and "
+					+ received.get() + " of " + producers * perProducer + " were received.");
+
+		System.out.println("Regression test complete.");
+	}
+}
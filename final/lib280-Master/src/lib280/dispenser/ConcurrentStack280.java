@@ -0,0 +1,244 @@
+package lib280.dispenser;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import lib280.base.Dispenser280;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+
+/**
+ * A last-in first-out stack that may be shared by several threads without locks
+ * (Treiber's stack).  The stack is a linked list of immutable nodes whose top is held
+ * in an atomic reference; push() and pop() each swing the top with a compare-and-set,
+ * and try again if another thread changed it first.  Nodes are never reused, so a
+ * reference that compares equal always means the same node.
+ *
+ * The cursor of a Dispenser280 is the top of the stack.  When several threads pop, use
+ * pop(), which removes and returns the top item in one step, rather than item()
+ * followed by deleteItem().  null cannot be pushed.
+ */
+public class ConcurrentStack280<I> implements Dispenser280<I> {
+
+	/** A node of the stack. */
+	protected static final class Node<I> {
+		final I item;
+		Node<I> next;
+
+		Node(I item) {
+			this.item = item;
+		}
+	}
+
+	/** The top node, or null if the stack is empty. */
+	protected final AtomicReference<Node<I>> top = new AtomicReference<Node<I>>();
+
+	/**
+	 * Make one attempt to push node n.
+	 * @return true if n is now the top node, false if another thread changed the top.
+	 */
+	protected boolean tryPush(Node<I> n) {
+		Node<I> oldTop = this.top.get();
+		n.next = oldTop;
+		return this.top.compareAndSet(oldTop, n);
+	}
+
+	/**
+	 * Make one attempt to pop the top node.
+	 * @return the node removed; null if the stack was empty or another thread changed the
+	 *   top, which can be told apart by a second look at top.
+	 */
+	protected Node<I> tryPop() {
+		Node<I> oldTop = this.top.get();
+		if( oldTop == null ) return null;
+		return this.top.compareAndSet(oldTop, oldTop.next) ? oldTop : null;
+	}
+
+	/**
+	 * Push x onto the stack.
+	 * @param x item to be pushed; not null
+	 * @throws InvalidArgument280Exception if x is null.
+	 */
+	public void push(I x) {
+		if( x == null ) throw new InvalidArgument280Exception("Cannot push null onto the stack.");
+		Node<I> n = new Node<I>(x);
+		while( !this.tryPush(n) )
+			Thread.onSpinWait();
+	}
+
+	/**
+	 * Remove and return the top item.
+	 * @return the top item, or null if the stack is empty.
+	 */
+	public I pop() {
+		while( true ) {
+			Node<I> n = this.tryPop();
+			if( n != null ) return n.item;
+			if( this.top.get() == null ) return null;
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * The top item, without removing it.
+	 * @return the top item, or null if the stack is empty.
+	 */
+	public I peek() {
+		Node<I> n = this.top.get();
+		return n == null ? null : n.item;
+	}
+
+	/**
+	 * Number of items on the stack.  This walks the whole stack, and while other threads
+	 * are using the stack it is only a snapshot.
+	 */
+	public int count() {
+		int n = 0;
+		for(Node<I> p = this.top.get(); p != null; p = p.next)
+			n++;
+		return n;
+	}
+
+	/**
+	 * Push x onto the stack.
+	 * @throws InvalidArgument280Exception if x is null.
+	 */
+	@Override
+	public void insert(I x) throws ContainerFull280Exception {
+		this.push(x);
+	}
+
+	/**
+	 * Remove the top item.
+	 * @throws NoCurrentItem280Exception if the stack is empty.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( this.pop() == null )
+			throw new NoCurrentItem280Exception("Cannot delete the top item of an empty stack.");
+	}
+
+	/**
+	 * The top item.
+	 * @throws NoCurrentItem280Exception if the stack is empty.
+	 */
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		I x = this.peek();
+		if( x == null )
+			throw new NoCurrentItem280Exception("Cannot obtain the top item of an empty stack.");
+		return x;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.top.get() != null;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.top.get() == null;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Remove every item.  Items pushed by other threads meanwhile may remain.
+	 */
+	@Override
+	public void clear() {
+		this.top.set(null);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("Stack starting with top item: ");
+		for(Node<I> p = this.top.get(); p != null; p = p.next)
+			result.append(p.item).append(", ");
+		return result.toString();
+	}
+
+	/**
+	 * Check that s behaves as a stack on its own, and that items pushed and popped by
+	 * several threads at once are neither lost nor duplicated.
+	 * @return the number of errors found.
+	 */
+	protected static int check(ConcurrentStack280<Integer> s) throws InterruptedException {
+		int errors = 0;
+		if( !s.isEmpty() || s.itemExists() || s.pop() != null || s.peek() != null ) {
+			System.out.println("Error: a new stack should be empty.");
+			errors++;
+		}
+		try {
+			s.deleteItem();
+			System.out.println("Error: deleteItem() of an empty stack should throw.");
+			errors++;
+		}
+		catch( NoCurrentItem280Exception e ) { /* expected */ }
+		for(int i = 1; i <= 5; i++)
+			s.insert(i);
+		if( s.item() != 5 || s.count() != 5 || !s.toString().equals("Stack starting with top item: 5, 4, 3, 2, 1, ") ) {
+			System.out.println("Error: the stack should be 5, 4, 3, 2, 1, not " + s);
+			errors++;
+		}
+		s.deleteItem();
+		if( s.pop() != 4 || s.item() != 3 ) {
+			System.out.println("Error: after two pops the top item should be 3.");
+			errors++;
+		}
+		s.clear();
+		if( !s.isEmpty() ) {
+			System.out.println("Error: the stack should be empty after clear().");
+			errors++;
+		}
+
+		// Each thread pushes its own numbers and pops as many items as it pushes, in
+		// random bursts; every number must be popped exactly once.
+		final int threads = 4, perThread = 100000;
+		final int[] popped = new int[threads * perThread];
+		final java.util.concurrent.atomic.AtomicInteger nulls = new java.util.concurrent.atomic.AtomicInteger();
+		Thread[] t = new Thread[threads];
+		for(int k = 0; k < threads; k++) {
+			final int id = k;
+			t[k] = new Thread(() -> {
+				java.util.Random r = new java.util.Random(id);
+				int pushed = 0, taken = 0;
+				while( taken < perThread ) {
+					if( pushed < perThread && (pushed == taken || r.nextBoolean()) )
+						s.push(id * perThread + pushed++);
+					else {
+						Integer x = s.pop();
+						if( x == null ) nulls.incrementAndGet();
+						else {
+							synchronized( popped ) {
+								popped[x]++;
+							}
+							taken++;
+						}
+					}
+				}
+			});
+		}
+		for(Thread th : t) th.start();
+		for(Thread th : t) th.join();
+		for(int i = 0; i < popped.length; i++)
+			if( popped[i] != 1 ) {
+				System.out.println("Error: item " + i + " was popped " + popped[i] + " times.");
+				errors++;
+				break;
+			}
+		if( nulls.get() != 0 || !s.isEmpty() ) {
+			System.out.println("Error: pop() should never find the stack empty here, and it should end empty.");
+			errors++;
+		}
+		return errors;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		check(new ConcurrentStack280<Integer>());
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,131 @@
+package lib280.dispenser;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import lib280.exception.InvalidArgument280Exception;
+
+/**
+ * A lock-free stack with an elimination array (elimination-backoff stack).  Under
+ * contention most compare-and-sets on the top of a Treiber stack fail, and the threads
+ * retrying them all hit the same cache line.  Here a thread whose attempt fails backs
+ * off into the elimination array instead: a pusher leaves its node in a random slot and
+ * waits there briefly, and a popper looks in a random slot for such a node.  When they
+ * meet, the pop takes the pushed item directly, as if the push had happened just before
+ * it, and neither touches the top of the stack.  A pusher that is not met in time takes
+ * its node back and tries the stack again.
+ *
+ * Elimination only happens when pushes and pops collide; under a light load, or one of
+ * only pushes or only pops, the stack behaves like ConcurrentStack280.
+ */
+public class EliminationStack280<I> extends ConcurrentStack280<I> {
+
+	/** Default number of slots in the elimination array. */
+	protected static final int defaultWidth = 8;
+
+	/** Default number of times a pusher checks its slot before taking its node back. */
+	protected static final int defaultPatience = 128;
+
+	/** The elimination array; a slot holds the node of a waiting pusher, or null. */
+	protected final AtomicReferenceArray<Node<I>> slots;
+
+	/** Number of times a pusher checks its slot before taking its node back. */
+	protected final int patience;
+
+	/**
+	 * Create an empty stack with the default elimination array.
+	 */
+	public EliminationStack280() {
+		this(Math.min(defaultWidth, Math.max(1, Runtime.getRuntime().availableProcessors() / 2)), defaultPatience);
+	}
+
+	/**
+	 * Create an empty stack.
+	 * @param width Number of slots in the elimination array.  About half the number of
+	 *   threads sharing the stack is a good choice; more slots make meetings rarer.
+	 * @param patience Number of times a pusher checks its slot for a popper before taking
+	 *   its node back.
+	 * @throws InvalidArgument280Exception if width or patience is not positive.
+	 */
+	public EliminationStack280(int width, int patience) {
+		if( width < 1 || patience < 1 )
+			throw new InvalidArgument280Exception("The width and patience of the elimination array must be positive.");
+		this.slots = new AtomicReferenceArray<Node<I>>(width);
+		this.patience = patience;
+	}
+
+	/**
+	 * Offer node n in a random slot of the elimination array and wait for a popper.
+	 * @return true if a popper took n, false if nobody did, or the slot was in use.
+	 */
+	protected boolean eliminatePush(Node<I> n) {
+		int slot = ThreadLocalRandom.current().nextInt(this.slots.length());
+		if( !this.slots.compareAndSet(slot, null, n) ) return false;
+		for(int i = 0; i < this.patience; i++) {
+			if( this.slots.get(slot) != n ) return true;
+			Thread.onSpinWait();
+		}
+		// Take the node back, unless a popper got it in the meantime.
+		return !this.slots.compareAndSet(slot, n, null);
+	}
+
+	/**
+	 * Look in a random slot of the elimination array for the node of a waiting pusher.
+	 * @return the node taken, or null if there was none.
+	 */
+	protected Node<I> eliminatePop() {
+		int slot = ThreadLocalRandom.current().nextInt(this.slots.length());
+		Node<I> n = this.slots.get(slot);
+		if( n != null && this.slots.compareAndSet(slot, n, null) ) return n;
+		return null;
+	}
+
+	@Override
+	public void push(I x) {
+		if( x == null ) throw new InvalidArgument280Exception("Cannot push null onto the stack.");
+		Node<I> n = new Node<I>(x);
+		while( !this.tryPush(n) )
+			if( this.eliminatePush(n) ) return;
+	}
+
+	@Override
+	public I pop() {
+		while( true ) {
+			Node<I> n = this.tryPop();
+			if( n != null ) return n.item;
+			if( this.top.get() == null ) {
+				// A pusher waiting in the array has not pushed yet, so the stack really is
+				// empty; but the popper may as well take its item.
+				n = this.eliminatePop();
+				return n == null ? null : n.item;
+			}
+			n = this.eliminatePop();
+			if( n != null ) return n.item;
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		check(new EliminationStack280<Integer>(2, 64));
+		check(new EliminationStack280<Integer>());
+		try {
+			new EliminationStack280<Integer>(0, 10);
+			System.out.println("Error: an elimination array of width 0 should be rejected.");
+		}
+		catch( InvalidArgument280Exception e ) { /* expected */ }
+
+		// One pusher and one popper sharing a single, very patient slot.
+		final EliminationStack280<Integer> S = new EliminationStack280<Integer>(1, 100000);
+		Thread pusher = new Thread(() -> {
+			for(int i = 0; i < 1000; i++) S.push(i);
+		});
+		pusher.start();
+		int got = 0;
+		while( got < 1000 )
+			if( S.pop() != null ) got++;
+		pusher.join();
+		if( !S.isEmpty() )
+			System.out.println("Error: every pushed item should have been popped.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,170 @@
+package lib280.dispenser;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of queues shared by several producer and consumer threads:
+ * ConcurrentRingQueue280 one item at a time, ConcurrentRingQueue280 in batches with
+ * offerAll() and drainTo(), BlockingQueue280 with put() and drainTo(), and
+ * ArrayedQueue280 with every operation synchronized on the queue, which is how a
+ * single-threaded queue has to be shared.
+ *
+ * Usage: java lib280.dispenser.QueueBenchmark280 [maxThreads]
+ *
+ * Each configuration has p producers and p consumers, for p = 1, 2, 4, ... up to
+ * maxThreads (by default the number of processors).  A thread that finds the queue full
+ * or empty spins briefly and then yields.  With fewer processors than threads the
+ * threads take turns on the processors, so the numbers then measure little more than
+ * the cost of switching between threads.
+ */
+public class QueueBenchmark280 {
+
+	/** Number of items passed through the queue in each run. */
+	protected static final int items = 2000000;
+
+	/** Capacity of each queue. */
+	protected static final int capacity = 1024;
+
+	/** Number of items moved at once in batch mode. */
+	protected static final int batch = 64;
+
+	/** Number of times each configuration is run; the best run is reported. */
+	protected static final int runs = 5;
+
+	/** The operations a benchmark thread needs from a shared queue. */
+	protected interface SharedQueue {
+		/** Insert the items of xs, waiting for room. */
+		void put(Integer[] xs);
+		/** Remove up to max items, returning how many; 0 if the queue was empty. */
+		int take(int max);
+	}
+
+	/** Wait a little before trying again, yielding after the first few tries. */
+	protected static void backOff(int tries) {
+		if( tries < 64 ) Thread.onSpinWait();
+		else Thread.yield();
+	}
+
+	/** ConcurrentRingQueue280, one item per operation or in batches. */
+	protected static SharedQueue ring(boolean batches) {
+		ConcurrentRingQueue280<Integer> Q = new ConcurrentRingQueue280<Integer>(capacity);
+		return new SharedQueue() {
+			public void put(Integer[] xs) {
+				if( batches ) {
+					int done = 0, tries = 0;
+					Integer[] rest = xs;
+					while( done < xs.length ) {
+						int n = Q.offerAll(rest);
+						done += n;
+						if( n == 0 ) backOff(tries++);
+						else if( done < xs.length ) rest = java.util.Arrays.copyOfRange(xs, done, xs.length);
+					}
+				}
+				else
+					for(Integer x : xs)
+						for(int tries = 0; !Q.offer(x); tries++)
+							backOff(tries);
+			}
+			public int take(int max) {
+				if( batches ) return Q.drainTo(x -> {}, max);
+				int n = 0;
+				while( n < max && Q.poll() != null ) n++;
+				return n;
+			}
+		};
+	}
+
+	/** BlockingQueue280; producers wait in put(), consumers take batches with drainTo(). */
+	protected static SharedQueue blocking() {
+		BlockingQueue280<Integer> Q = new BlockingQueue280<Integer>(capacity);
+		return new SharedQueue() {
+			public void put(Integer[] xs) {
+				try {
+					for(Integer x : xs)
+						Q.put(x);
+				}
+				catch( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			public int take(int max) {
+				return Q.drainTo(x -> {}, max);
+			}
+		};
+	}
+
+	/** ArrayedQueue280 with each operation synchronized on the queue. */
+	protected static SharedQueue locked() {
+		ArrayedQueue280<Integer> Q = new ArrayedQueue280<Integer>(capacity);
+		return new SharedQueue() {
+			public void put(Integer[] xs) {
+				for(Integer x : xs)
+					for(int tries = 0; ; tries++) {
+						synchronized( Q ) {
+							if( !Q.isFull() ) {
+								Q.insert(x);
+								break;
+							}
+						}
+						backOff(tries);
+					}
+			}
+			public int take(int max) {
+				int n = 0;
+				synchronized( Q ) {
+					while( n < max && !Q.isEmpty() ) {
+						Q.deleteItem();
+						n++;
+					}
+				}
+				return n;
+			}
+		};
+	}
+
+	/** Pass items through Q with p producers and p consumers; return items per microsecond. */
+	protected static double run(SharedQueue Q, int p, int chunk) throws InterruptedException {
+		AtomicLong taken = new AtomicLong();
+		Thread[] threads = new Thread[2 * p];
+		for(int t = 0; t < p; t++) {
+			final int share = items / p;
+			threads[t] = new Thread(() -> {
+				Integer[] xs = new Integer[chunk];
+				for(int i = 0; i < chunk; i++) xs[i] = i;
+				for(int done = 0; done < share; done += chunk)
+					Q.put(xs);
+			});
+			threads[p + t] = new Thread(() -> {
+				int tries = 0;
+				while( taken.get() < (long) (items / p) * p ) {
+					int n = Q.take(chunk);
+					if( n == 0 ) backOff(tries++);
+					else {
+						tries = 0;
+						taken.addAndGet(n);
+					}
+				}
+			});
+		}
+		long start = System.nanoTime();
+		for(Thread t : threads) t.start();
+		for(Thread t : threads) t.join();
+		return taken.get() / ((System.nanoTime() - start) / 1000.0);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		System.out.println(Runtime.getRuntime().availableProcessors() + " processors; items per microsecond, best of " + runs + " runs");
+		System.out.printf("%-10s %12s %12s %12s %12s%n", "producers", "ring", "ring batch", "blocking", "locked");
+		for(int p = 1; p <= Math.max(1, maxThreads); p *= 2) {
+			double single = 0, batched = 0, blocked = 0, synced = 0;
+			for(int r = 0; r < runs; r++) {
+				single = Math.max(single, run(ring(false), p, 1));
+				batched = Math.max(batched, run(ring(true), p, batch));
+				blocked = Math.max(blocked, run(blocking(), p, batch));
+				synced = Math.max(synced, run(locked(), p, 1));
+			}
+			System.out.printf("%-10d %12.1f %12.1f %12.1f %12.1f%n", p, single, batched, blocked, synced);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package lib280.dispenser;
+
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.InvalidState280Exception;
+import lib280.list.ArrayedList280;
+
+/**
+ * A window sliding over a stream of items, which summarizes the items in the window
+ * rather than keeping them for a rescan.  Every item has a position: in a count window
+ * the positions are 1, 2, 3, ... in the order the items were added, and in a time window
+ * the position is the time given with the item.  After an item is added at position p,
+ * the window holds the items with positions greater than p - width; so a count window of
+ * width n holds the last n items, and a time window of width w holds the items of the
+ * last w time units.
+ *
+ * The items a subclass keeps are held here in a growable ArrayedList280, oldest first,
+ * which the subclass uses as a deque; items leave from the front when their position
+ * falls out of the window.
+ */
+public abstract class SlidingWindow280<I> {
+
+	/** Width of the window, in items or in time units. */
+	protected final long width;
+
+	/** Whether positions are times given by the caller rather than counts. */
+	protected final boolean timed;
+
+	/** Position of the newest item, or of the latest time the window was advanced to. */
+	protected long newest;
+
+	/** Number of items ever added. */
+	protected long added;
+
+	/** The items kept, oldest first. */
+	protected ArrayedList280<I> items;
+
+	/** The positions of the items kept, in the same order. */
+	protected ArrayedList280<Long> positions;
+
+	/**
+	 * Create an empty window.
+	 * @param width Width of the window: the number of items it holds, or the length of
+	 *   time it covers.
+	 * @param timed true for a time window, false for a count window.
+	 * @throws InvalidArgument280Exception if width is not positive.
+	 */
+	protected SlidingWindow280(long width, boolean timed) {
+		if( width < 1 )
+			throw new InvalidArgument280Exception("The width of a window must be positive.");
+		this.width = width;
+		this.timed = timed;
+		this.newest = Long.MIN_VALUE;
+		this.items = new ArrayedList280<I>(16, true, false);
+		this.positions = new ArrayedList280<Long>(16, true, false);
+	}
+
+	/** Width of the window, in items or in time units. */
+	public long width() {
+		return this.width;
+	}
+
+	/** Whether this is a time window. */
+	public boolean isTimed() {
+		return this.timed;
+	}
+
+	/**
+	 * Add x to a count window, sliding the oldest item out if the window was full.
+	 * @throws InvalidState280Exception if this is a time window.
+	 */
+	public void add(I x) {
+		if( this.timed )
+			throw new InvalidState280Exception("Items added to a time window need a time.");
+		this.slide(x, this.added + 1);
+	}
+
+	/**
+	 * Add x, stamped with time, to a time window, sliding out the items older than
+	 * time - width + 1.
+	 * @throws InvalidState280Exception if this is a count window.
+	 * @throws InvalidArgument280Exception if time is earlier than a time already seen.
+	 */
+	public void add(I x, long time) {
+		if( !this.timed )
+			throw new InvalidState280Exception("Items added to a count window have no time.");
+		if( time < this.newest )
+			throw new InvalidArgument280Exception("Times must be added in nondecreasing order.");
+		this.slide(x, time);
+	}
+
+	/**
+	 * Slide a time window forward to time without adding an item.
+	 * @throws InvalidState280Exception if this is a count window.
+	 * @throws InvalidArgument280Exception if time is earlier than a time already seen.
+	 */
+	public void advanceTo(long time) {
+		if( !this.timed )
+			throw new InvalidState280Exception("Only a time window can be advanced to a time.");
+		if( time < this.newest )
+			throw new InvalidArgument280Exception("Times must be added in nondecreasing order.");
+		this.newest = time;
+		this.expire(time - this.width);
+	}
+
+	/** Remove every item; positions of a count window start again at 1. */
+	public void clear() {
+		this.items.clear();
+		this.positions.clear();
+		this.added = 0;
+		this.newest = Long.MIN_VALUE;
+	}
+
+	/** Add x at position p, which is not less than any position seen so far. */
+	protected void slide(I x, long p) {
+		this.newest = p;
+		this.added++;
+		this.expire(p - this.width);
+		this.append(x, p);
+	}
+
+	/** Record x, the newest item, at position p. */
+	protected abstract void append(I x, long p);
+
+	/** Drop the items at positions up to and including last. */
+	protected void expire(long last) {
+		while( !this.positions.isEmpty() && this.positions.firstItem() <= last )
+			this.removeFirst();
+	}
+
+	/** Is the window empty? */
+	public abstract boolean isEmpty();
+
+	/** Number of items kept. */
+	protected int size() {
+		return this.items.count();
+	}
+
+	/** The i'th item kept, counting from 0 at the oldest. */
+	protected I get(int i) {
+		return this.items.getItemAtIndex(i);
+	}
+
+	/** Keep x at position p after the newest item kept. */
+	protected void addLast(I x, long p) {
+		this.items.insertLast(x);
+		this.positions.insertLast(p);
+	}
+
+	/** Drop the newest item kept. */
+	protected void removeLast() {
+		this.items.deleteLast();
+		this.positions.deleteLast();
+	}
+
+	/** Drop the oldest item kept. */
+	protected void removeFirst() {
+		this.items.deleteFirst();
+		this.positions.deleteFirst();
+	}
+}
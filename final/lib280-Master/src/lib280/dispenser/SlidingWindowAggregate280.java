@@ -0,0 +1,171 @@
+package lib280.dispenser;
+
+import java.util.function.BinaryOperator;
+
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.list.ArrayedList280;
+
+/**
+ * The combination x1 * x2 * ... * xn of the items of a sliding window, oldest first,
+ * under an associative operation *, such as a sum, a greatest common divisor, or the
+ * composition of functions.  The operation need not be commutative or have an inverse,
+ * so items leaving the window cannot simply be subtracted out.
+ *
+ * The window is a queue made of two stacks.  Items are pushed on the back stack, whose
+ * combination is kept as a running total.  Items leave from the front stack, each entry
+ * of which records the combination of its item with all the items above it; so the top
+ * of the front stack is the combination of the whole front stack.  When the front stack
+ * is empty and an item must leave, the back stack is moved onto it, combining from the
+ * newest item back to the oldest.  Each item is combined a constant number of times, so
+ * the time per item added is O(1) amortized, and result() combines just two values.
+ *
+ * Both stacks live in the one item list of the window: the front items first, then the
+ * back items.  The combinations of the front stack are kept in a second list, in the
+ * same order.
+ */
+public class SlidingWindowAggregate280<I> extends SlidingWindow280<I> {
+
+	/** The associative operation; combine.apply(x, y) is x * y. */
+	protected final BinaryOperator<I> combine;
+
+	/**
+	 * The i'th element, counting from 0, is the combination of the items i to
+	 * aggregates.count() - 1; so its count is the number of items on the front stack, which
+	 * are the oldest items of the window.
+	 */
+	protected ArrayedList280<I> aggregates;
+
+	/** Combination of the items on the back stack, or null if it is empty. */
+	protected I back;
+
+	/**
+	 * Create an empty window combining its items with combine.
+	 * @param width Number of items in a count window, or time covered by a time window.
+	 * @param timed true for a time window, false for a count window.
+	 * @param combine An associative operation on the items.
+	 * @throws lib280.exception.InvalidArgument280Exception if width is not positive.
+	 */
+	public SlidingWindowAggregate280(long width, boolean timed, BinaryOperator<I> combine) {
+		super(width, timed);
+		this.combine = combine;
+		this.aggregates = new ArrayedList280<I>(16, true, false);
+	}
+
+	@Override
+	protected void append(I x, long p) {
+		this.addLast(x, p);
+		this.back = this.size() - 1 == this.aggregates.count() ? x : this.combine.apply(this.back, x);
+	}
+
+	@Override
+	protected void removeFirst() {
+		if( this.aggregates.isEmpty() ) {
+			// Move the back stack onto the front stack.
+			I total = null;
+			for(int i = this.size() - 1; i >= 0; i--) {
+				total = total == null ? this.get(i) : this.combine.apply(this.get(i), total);
+				this.aggregates.insertFirst(total);
+			}
+			this.back = null;
+		}
+		this.aggregates.deleteFirst();
+		super.removeFirst();
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		this.aggregates.clear();
+		this.back = null;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/** Number of items in the window. */
+	public int count() {
+		return this.size();
+	}
+
+	/**
+	 * The combination of the items in the window, oldest first.
+	 * @throws ContainerEmpty280Exception if the window is empty.
+	 */
+	public I result() throws ContainerEmpty280Exception {
+		if( this.size() == 0 )
+			throw new ContainerEmpty280Exception("An empty window has no combination of items.");
+		if( this.aggregates.isEmpty() ) return this.back;
+		I f = this.aggregates.firstItem();
+		return this.aggregates.count() == this.size() ? f : this.combine.apply(f, this.back);
+	}
+
+	/** Greatest common divisor of a and b. */
+	protected static long gcd(long a, long b) {
+		while( b != 0 ) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	public static void main(String[] args) {
+		java.util.Random r = new java.util.Random(280);
+		final long m = 1000003;
+		long[] data = new long[3000];
+		for(int i = 0; i < data.length; i++)
+			data[i] = 6 * (1 + r.nextInt(50));
+
+		// Sum, gcd, and the composition of the maps x -> a x + b (mod m), which is not
+		// commutative; each is compared with a rescan of the last items.
+		for(int w : new int[] {1, 2, 17, 100}) {
+			SlidingWindowAggregate280<Long> sum = new SlidingWindowAggregate280<Long>(w, false, Long::sum);
+			SlidingWindowAggregate280<Long> gcd = new SlidingWindowAggregate280<Long>(w, false, SlidingWindowAggregate280::gcd);
+			SlidingWindowAggregate280<long[]> maps = new SlidingWindowAggregate280<long[]>(w, false,
+					(f, g) -> new long[] {g[0] * f[0] % m, (g[0] * f[1] + g[1]) % m});
+			for(int i = 0; i < data.length; i++) {
+				sum.add(data[i]);
+				gcd.add(data[i]);
+				maps.add(new long[] {data[i], i});
+				long s = 0, d = 0, x = 1;
+				for(int j = Math.max(0, i - w + 1); j <= i; j++) {
+					s += data[j];
+					d = gcd(d, data[j]);
+					x = (data[j] * x + j) % m;
+				}
+				long[] f = maps.result();
+				if( sum.result() != s || gcd.result() != d || (f[0] + f[1]) % m != x || sum.count() != Math.min(w, i + 1) ) {
+					System.out.println("Error: window of width " + w + " ending at " + i + " should have sum " + s + ", gcd " + d
+							+ " and composition mapping 1 to " + x + ", not " + sum.result() + ", " + gcd.result() + " and " + (f[0] + f[1]) % m);
+					break;
+				}
+			}
+		}
+
+		// A time window of width 5 summing the items stamped t-4 to t.
+		SlidingWindowAggregate280<Integer> T = new SlidingWindowAggregate280<Integer>(5, true, Integer::sum);
+		try {
+			T.result();
+			System.out.println("Error: result() of an empty window should throw.");
+		}
+		catch( ContainerEmpty280Exception e ) { /* expected */ }
+		for(int t = 0; t < 100; t++)
+			T.add(t, t / 2);
+		// At time 49 the window holds times 45 to 49, which are items 90 to 99.
+		if( T.count() != 10 || T.result() != (90 + 99) * 5 )
+			System.out.println("Error: the window at time 49 should hold 10 items summing to 945, not " + T.count() + " summing to " + T.result());
+		T.advanceTo(52);
+		if( T.count() != 4 || T.result() != 98 + 99 + 96 + 97 )
+			System.out.println("Error: the window at time 52 should hold items 96 to 99, not " + T.count() + " summing to " + T.result());
+		T.clear();
+		if( !T.isEmpty() )
+			System.out.println("Error: the window should be empty after clear().");
+		T.add(7, 0);
+		if( T.result() != 7 )
+			System.out.println("Error: after clear() the window should hold only 7, not " + T.result());
+
+		System.out.println("Regression test complete.");
+	}
+}
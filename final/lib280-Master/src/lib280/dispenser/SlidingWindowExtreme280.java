@@ -0,0 +1,118 @@
+package lib280.dispenser;
+
+import java.util.Comparator;
+
+import lib280.exception.ContainerEmpty280Exception;
+
+/**
+ * The least item of a sliding window under a given order (pass a reversed order for the
+ * greatest).  The window keeps a monotonic deque: the items that could still become the
+ * least, oldest first, each less than the ones before it.  A new item drops every item
+ * at the back that is not less than it, since that item will leave the window first and
+ * can never again be the least; expired items leave from the front.  So the front is
+ * always the least item in the window, and each item is kept and dropped once, for O(1)
+ * amortized time per item added.
+ *
+ * Of several equal least items, the newest is the one reported.
+ */
+public class SlidingWindowExtreme280<I> extends SlidingWindow280<I> {
+
+	/** The order the least item is found under. */
+	protected final Comparator<? super I> order;
+
+	/**
+	 * Create an empty window reporting its least item under order.
+	 * @param width Number of items in a count window, or time covered by a time window.
+	 * @param timed true for a time window, false for a count window.
+	 * @param order Order of the items; use order.reversed() for the greatest item.
+	 * @throws lib280.exception.InvalidArgument280Exception if width is not positive.
+	 */
+	public SlidingWindowExtreme280(long width, boolean timed, Comparator<? super I> order) {
+		super(width, timed);
+		this.order = order;
+	}
+
+	@Override
+	protected void append(I x, long p) {
+		while( this.size() > 0 && this.order.compare(this.get(this.size() - 1), x) >= 0 )
+			this.removeLast();
+		this.addLast(x, p);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * The least item in the window.
+	 * @throws ContainerEmpty280Exception if the window is empty.
+	 */
+	public I result() throws ContainerEmpty280Exception {
+		if( this.size() == 0 )
+			throw new ContainerEmpty280Exception("An empty window has no least item.");
+		return this.get(0);
+	}
+
+	public static void main(String[] args) {
+		// Compare count windows with a rescan of the last items.
+		java.util.Random r = new java.util.Random(280);
+		int[] data = new int[5000];
+		for(int i = 0; i < data.length; i++)
+			data[i] = r.nextInt(1000);
+		for(int w : new int[] {1, 3, 17, 100}) {
+			SlidingWindowExtreme280<Integer> min = new SlidingWindowExtreme280<Integer>(w, false, Comparator.naturalOrder());
+			SlidingWindowExtreme280<Integer> max = new SlidingWindowExtreme280<Integer>(w, false, Comparator.<Integer>naturalOrder().reversed());
+			for(int i = 0; i < data.length; i++) {
+				min.add(data[i]);
+				max.add(data[i]);
+				int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+				for(int j = Math.max(0, i - w + 1); j <= i; j++) {
+					lo = Math.min(lo, data[j]);
+					hi = Math.max(hi, data[j]);
+				}
+				if( min.result() != lo || max.result() != hi ) {
+					System.out.println("Error: window of width " + w + " ending at " + i + " should have minimum " + lo
+							+ " and maximum " + hi + ", not " + min.result() + " and " + max.result());
+					break;
+				}
+			}
+		}
+
+		// A time window of width 10: at time t it holds the items stamped t-9 to t.
+		SlidingWindowExtreme280<Integer> T = new SlidingWindowExtreme280<Integer>(10, true, Comparator.naturalOrder());
+		if( !T.isEmpty() )
+			System.out.println("Error: a new window should be empty.");
+		try {
+			T.result();
+			System.out.println("Error: result() of an empty window should throw.");
+		}
+		catch( ContainerEmpty280Exception e ) { /* expected */ }
+		T.add(5, 0);
+		T.add(9, 3);
+		T.add(7, 3);
+		if( T.result() != 5 )
+			System.out.println("Error: the minimum at time 3 should be 5, not " + T.result());
+		T.add(8, 10);
+		if( T.result() != 7 )
+			System.out.println("Error: the minimum at time 10 should be 7, not " + T.result());
+		T.advanceTo(13);
+		if( T.result() != 8 )
+			System.out.println("Error: the minimum at time 13 should be 8, not " + T.result());
+		T.advanceTo(20);
+		if( !T.isEmpty() )
+			System.out.println("Error: the window should be empty at time 20.");
+		try {
+			T.add(1, 19);
+			System.out.println("Error: a time earlier than one already seen should be rejected.");
+		}
+		catch( lib280.exception.InvalidArgument280Exception e ) { /* expected */ }
+		try {
+			T.add(1);
+			System.out.println("Error: an item without a time should be rejected by a time window.");
+		}
+		catch( lib280.exception.InvalidState280Exception e ) { /* expected */ }
+
+		System.out.println("Regression test complete.");
+	}
+}
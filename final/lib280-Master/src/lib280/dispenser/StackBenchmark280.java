@@ -0,0 +1,98 @@
+package lib280.dispenser;
+
+import java.util.function.Supplier;
+
+/**
+ * Measures the throughput of stacks shared by several threads under contention:
+ * ConcurrentStack280, EliminationStack280, and LinkedStack280 with every operation
+ * synchronized on the stack.  Each thread runs a work-list loop, pushing and popping at
+ * random with equal probability, which is the load under which elimination pays off.
+ *
+ * Usage: java lib280.dispenser.StackBenchmark280 [maxThreads]
+ *
+ * The number of threads runs over 1, 2, 4, ... up to maxThreads (by default twice the
+ * number of processors).  With more threads than processors only the threads that
+ * happen to be running can collide, so the benefit of elimination needs a machine with
+ * several processors to show.
+ */
+public class StackBenchmark280 {
+
+	/** Operations done by each run, shared among its threads. */
+	protected static final int operations = 4000000;
+
+	/** Number of times each configuration is run; the best run is reported. */
+	protected static final int runs = 5;
+
+	/** The operations a benchmark thread needs from a shared stack. */
+	protected interface SharedStack {
+		void push(Integer x);
+		Integer pop();
+	}
+
+	/** A lock-free stack. */
+	protected static SharedStack lockFree(ConcurrentStack280<Integer> S) {
+		return new SharedStack() {
+			public void push(Integer x) { S.push(x); }
+			public Integer pop() { return S.pop(); }
+		};
+	}
+
+	/** LinkedStack280 with each operation synchronized on the stack. */
+	protected static SharedStack locked() {
+		LinkedStack280<Integer> S = new LinkedStack280<Integer>();
+		return new SharedStack() {
+			public void push(Integer x) {
+				synchronized( S ) {
+					S.insert(x);
+				}
+			}
+			public Integer pop() {
+				synchronized( S ) {
+					if( S.isEmpty() ) return null;
+					Integer x = S.item();
+					S.deleteItem();
+					return x;
+				}
+			}
+		};
+	}
+
+	/** Run operations on a new stack with the given number of threads; return operations per microsecond. */
+	protected static double run(Supplier<SharedStack> newStack, int threads) throws InterruptedException {
+		SharedStack S = newStack.get();
+		Integer item = 280;
+		for(int i = 0; i < 1000; i++)
+			S.push(item);
+		Thread[] t = new Thread[threads];
+		for(int k = 0; k < threads; k++) {
+			final long seed = k + 1;
+			t[k] = new Thread(() -> {
+				long r = seed;
+				for(int i = 0; i < operations / threads; i++) {
+					r ^= r << 13; r ^= r >>> 7; r ^= r << 17;
+					if( (r & 1) == 0 ) S.push(item);
+					else S.pop();
+				}
+			});
+		}
+		long start = System.nanoTime();
+		for(Thread th : t) th.start();
+		for(Thread th : t) th.join();
+		return (operations / threads) * threads / ((System.nanoTime() - start) / 1000.0);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+		System.out.println(Runtime.getRuntime().availableProcessors() + " processors; operations per microsecond, best of " + runs + " runs");
+		System.out.printf("%-10s %12s %12s %12s%n", "threads", "Treiber", "elimination", "locked");
+		for(int threads = 1; threads <= Math.max(1, maxThreads); threads *= 2) {
+			double treiber = 0, elimination = 0, synced = 0;
+			for(int r = 0; r < runs; r++) {
+				treiber = Math.max(treiber, run(() -> lockFree(new ConcurrentStack280<Integer>()), threads));
+				elimination = Math.max(elimination, run(() -> lockFree(new EliminationStack280<Integer>()), threads));
+				synced = Math.max(synced, run(StackBenchmark280::locked, threads));
+			}
+			System.out.printf("%-10d %12.1f %12.1f %12.1f%n", threads, treiber, elimination, synced);
+		}
+	}
+}
@@ -0,0 +1,732 @@
+package lib280.durable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import lib280.base.Codec280;
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.AfterTheEnd280Exception;
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.ContainerFull280Exception;
+import lib280.exception.DuplicateItems280Exception;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.InvalidState280Exception;
+import lib280.exception.ItemNotFound280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.hashtable.KeyedChainedHashTable280;
+import lib280.hashtable.ShardedKeyedDict280;
+
+/**	A keyed dictionary whose contents survive the program.  Every insert,
+	set and delete made through this wrapper is appended to a write-ahead
+	log in a directory; from time to time a snapshot of all the items is
+	written and the log is started afresh.  Opening the directory again
+	loads the latest snapshot into the (empty) underlying dictionary and
+	replays only the log written since, so restarting costs about one
+	pass over the items rather than a replay of the whole history.
+
+	Log records are gathered in memory and written and forced to disk
+	together, groupSize at a time (group commit): one disk flush then
+	covers many changes, at the price of losing the last (at most
+	groupSize - 1) changes if the program dies before commit() or
+	close().  With a groupSize of 1 every change is on disk when the
+	method making it returns.  A record that was only partly written is
+	detected by its checksum when the log is replayed, and it and
+	anything after it are discarded.
+
+	A snapshot is taken whenever the log holds more records than both
+	the snapshot threshold and the number of items, so the log never
+	takes longer to replay than the snapshot takes to load, and the cost
+	of snapshots is spread over the changes as a constant per change.
+	Snapshots are written to a temporary file and renamed into place, so
+	a crash while writing one leaves the previous snapshot and its log
+	in force.
+
+	Every change must go through this wrapper; changes made to the
+	underlying dictionary directly are not logged.  Items read back are
+	decoded copies of those written, so the codecs must round-trip every
+	field that matters. */
+public class DurableKeyedDict280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedDict280<K, I>, AutoCloseable
+{
+	/**	Log record type: the payload is an inserted item. */
+	protected static final byte INSERT = 1;
+
+	/**	Log record type: the payload is a replacement item. */
+	protected static final byte SET = 2;
+
+	/**	Log record type: the payload is the key of a deleted item. */
+	protected static final byte DELETE = 3;
+
+	/**	Identifies a snapshot file: "L280SNAP". */
+	protected static final long snapshotMagic = 0x4c323830534e4150L;
+
+	/**	Length of a log record before its payload: length, checksum and type. */
+	protected static final int recordHeaderSize = 9;
+
+	/**	Default number of records needed before a snapshot is taken. */
+	protected static final long defaultSnapshotThreshold = 10000;
+
+	/**	The underlying dictionary. */
+	protected KeyedDict280<K, I> dict;
+
+	/**	Directory holding the snapshot and log. */
+	protected Path directory;
+
+	/**	Converts keys to and from bytes. */
+	protected Codec280<K> keyCodec;
+
+	/**	Converts items to and from bytes. */
+	protected Codec280<I> itemCodec;
+
+	/**	Number of records written and forced together. */
+	protected int groupSize;
+
+	/**	Minimum number of log records before a snapshot is taken. */
+	protected long snapshotThreshold;
+
+	/**	Generation of the current snapshot and log; the files are snapshot.g and log.g. */
+	protected long generation;
+
+	/**	The current log, positioned at its end. */
+	protected FileChannel log;
+
+	/**	Records not yet written to the log. */
+	protected ByteBuffer pending = ByteBuffer.allocate(4096);
+
+	/**	Number of records in pending. */
+	protected int pendingRecords;
+
+	/**	Number of records in the log, including those pending. */
+	protected long logRecords;
+
+	/**	Number of items in the dictionary. */
+	protected int count;
+
+	/**	Number of log records replayed when the dictionary was opened. */
+	protected long replayedRecords;
+
+	/**	Number of items loaded from the snapshot when the dictionary was opened. */
+	protected int snapshotItems;
+
+	/**	Open the durable dictionary in directory, creating the directory if
+		needed, and load its contents into dict.
+		@precond dict is empty
+		@param dict the dictionary to hold the items in memory
+		@param directory where the snapshot and log are kept
+		@param keyCodec converts keys to and from bytes
+		@param itemCodec converts items to and from bytes
+		@param groupSize number of changes written and forced to disk together, at least 1
+		@param snapshotThreshold minimum number of logged changes before a snapshot is taken
+		@throws InvalidArgument280Exception if dict is not empty or groupSize is less than 1
+		@throws InvalidState280Exception if the snapshot is damaged or the log does not apply to it
+		@throws UncheckedIOException if the files cannot be read or written */
+	public DurableKeyedDict280(KeyedDict280<K, I> dict, Path directory, Codec280<K> keyCodec, Codec280<I> itemCodec,
+			int groupSize, long snapshotThreshold) throws InvalidArgument280Exception, InvalidState280Exception
+	{
+		if (groupSize < 1)
+			throw new InvalidArgument280Exception("The group size must be at least 1.");
+		dict.goBefore();
+		dict.goForth();
+		if (dict.itemExists())
+			throw new InvalidArgument280Exception("The dictionary must be empty; its items are loaded from " + directory + ".");
+		this.dict = dict;
+		this.directory = directory;
+		this.keyCodec = keyCodec;
+		this.itemCodec = itemCodec;
+		this.groupSize = groupSize;
+		this.snapshotThreshold = snapshotThreshold;
+		try
+		{
+			Files.createDirectories(directory);
+			recover();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**	Open the durable dictionary in directory, forcing every change to
+		disk as it is made and taking snapshots after at least 10000 changes.
+		@precond dict is empty
+		@param dict the dictionary to hold the items in memory
+		@param directory where the snapshot and log are kept
+		@param keyCodec converts keys to and from bytes
+		@param itemCodec converts items to and from bytes */
+	public DurableKeyedDict280(KeyedDict280<K, I> dict, Path directory, Codec280<K> keyCodec, Codec280<I> itemCodec)
+	{
+		this(dict, directory, keyCodec, itemCodec, 1, defaultSnapshotThreshold);
+	}
+
+	/**	The snapshot file of generation g. */
+	protected Path snapshotFile(long g)
+	{
+		return directory.resolve("snapshot." + g);
+	}
+
+	/**	The log file of generation g. */
+	protected Path logFile(long g)
+	{
+		return directory.resolve("log." + g);
+	}
+
+	/**	Generation of a snapshot or log file name, or -1 if it is neither. */
+	protected static long generationOf(Path file)
+	{
+		String name = file.getFileName().toString();
+		String digits = name.startsWith("snapshot.") ? name.substring(9) : name.startsWith("log.") ? name.substring(4) : "";
+		if (digits.isEmpty() || !digits.chars().allMatch(Character::isDigit))
+			return -1;
+		return Long.parseLong(digits);
+	}
+
+	/**	Load the latest snapshot and replay its log, discarding any torn
+		record at the end of the log and the files of older generations. */
+	protected void recover() throws IOException
+	{
+		ArrayList<Path> files = new ArrayList<Path>();
+		try (Stream<Path> listing = Files.list(directory))
+		{
+			listing.forEach(files::add);
+		}
+		generation = 0;
+		for (Path f : files)
+			if (f.getFileName().toString().startsWith("snapshot.") && generationOf(f) > generation)
+				generation = generationOf(f);
+		for (Path f : files)
+		{
+			long g = generationOf(f);
+			if ((g >= 0 && g < generation) || f.getFileName().toString().endsWith(".tmp"))
+				Files.delete(f);
+		}
+
+		if (Files.exists(snapshotFile(generation)))
+			loadSnapshot(snapshotFile(generation));
+		log = FileChannel.open(logFile(generation), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long end = replay(log);
+		if (end < log.size())
+		{
+			log.truncate(end);
+			log.force(true);
+		}
+		log.position(end);
+	}
+
+	/**	Insert the items of a snapshot file into the dictionary. */
+	protected void loadSnapshot(Path file) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+				new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc)))
+		{
+			if (in.readLong() != snapshotMagic)
+				throw new InvalidState280Exception(file + " is not a snapshot.");
+			int n = in.readInt();
+			for (int i = 0; i < n; i++)
+			{
+				byte[] b = new byte[in.readInt()];
+				in.readFully(b);
+				dict.insert(itemCodec.decode(ByteBuffer.wrap(b)));
+			}
+			long expected = crc.getValue();
+			if (in.readLong() != expected)
+				throw new InvalidState280Exception(file + " is damaged: its checksum does not match.");
+			count = n;
+			snapshotItems = n;
+		}
+		catch (EOFException e)
+		{
+			throw new InvalidState280Exception(file + " is truncated.");
+		}
+	}
+
+	/**	Apply the records of the log to the dictionary, stopping at the
+		first record that is incomplete or fails its checksum.
+		@return the length of the part of the log that was applied */
+	protected long replay(FileChannel channel) throws IOException
+	{
+		long end = 0;
+		long size = channel.size();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16));
+		CRC32 crc = new CRC32();
+		while (size - end >= recordHeaderSize)
+		{
+			int length = in.readInt();
+			int checksum = in.readInt();
+			byte type = in.readByte();
+			if (length < 0 || length > size - end - recordHeaderSize)
+				break;
+			byte[] payload = new byte[length];
+			in.readFully(payload);
+			crc.reset();
+			crc.update(type);
+			crc.update(payload);
+			if ((int) crc.getValue() != checksum)
+				break;
+			try
+			{
+				apply(type, payload);
+			}
+			catch (DuplicateItems280Exception | ItemNotFound280Exception e)
+			{
+				throw new InvalidState280Exception("The log of " + directory + " does not apply to its snapshot: " + e.getMessage());
+			}
+			end += recordHeaderSize + length;
+			logRecords++;
+			replayedRecords++;
+		}
+		return end;
+	}
+
+	/**	Make the change described by a log record to the dictionary. */
+	protected void apply(byte type, byte[] payload)
+	{
+		ByteBuffer b = ByteBuffer.wrap(payload);
+		switch (type)
+		{
+			case INSERT:
+				dict.insert(itemCodec.decode(b));
+				count++;
+				break;
+			case SET:
+				dict.set(itemCodec.decode(b));
+				break;
+			case DELETE:
+				dict.delete(keyCodec.decode(b));
+				count--;
+				break;
+			default:
+				throw new InvalidState280Exception("The log of " + directory + " has a record of unknown type " + type + ".");
+		}
+	}
+
+	/**	Append a record to the pending group, committing the group when it
+		is full and taking a snapshot when the log has grown long enough. */
+	protected void log(byte type, byte[] payload)
+	{
+		if (pending.remaining() < recordHeaderSize + payload.length)
+		{
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + recordHeaderSize + payload.length));
+			pending.flip();
+			larger.put(pending);
+			pending = larger;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(type);
+		crc.update(payload);
+		pending.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload);
+		pendingRecords++;
+		logRecords++;
+		if (pendingRecords >= groupSize)
+			commit();
+		if (logRecords >= snapshotThreshold && logRecords >= count)
+			snapshot();
+	}
+
+	/**	Write the pending changes to the log and force them to disk.  Does
+		nothing if there are none.
+		@throws UncheckedIOException if the log cannot be written */
+	public void commit()
+	{
+		if (pendingRecords == 0)
+			return;
+		try
+		{
+			pending.flip();
+			while (pending.hasRemaining())
+				log.write(pending);
+			log.force(false);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		pending.clear();
+		pendingRecords = 0;
+	}
+
+	/**	Write a snapshot of every item and start a new, empty log.  The
+		cursor is not moved. <br>
+		Analysis: Time = O(n) where n is the number of items
+		@throws UncheckedIOException if the files cannot be written */
+	public void snapshot()
+	{
+		commit();
+		long next = generation + 1;
+		Path temporary = directory.resolve("snapshot." + next + ".tmp");
+		CursorPosition280 saved = dict.currentPosition();
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			CRC32 crc = new CRC32();
+			DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+			out.writeLong(snapshotMagic);
+			out.writeInt(count);
+			for (dict.goBefore(), dict.goForth(); dict.itemExists(); dict.goForth())
+			{
+				byte[] b = itemCodec.encode(dict.item());
+				out.writeInt(b.length);
+				out.write(b);
+			}
+			out.writeLong(crc.getValue());
+			out.flush();
+			channel.force(true);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			dict.goPosition(saved);
+		}
+
+		try
+		{
+			Files.move(temporary, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			FileChannel nextLog = FileChannel.open(logFile(next), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			log.close();
+			log = nextLog;
+			Files.deleteIfExists(logFile(generation));
+			Files.deleteIfExists(snapshotFile(generation));
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		generation = next;
+		logRecords = 0;
+	}
+
+	/**	Commit the pending changes and close the log.  The dictionary must
+		not be changed afterwards.
+		@throws UncheckedIOException if the log cannot be written or closed */
+	public void close()
+	{
+		commit();
+		try
+		{
+			log.close();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**	The underlying dictionary. */
+	public KeyedDict280<K, I> dictionary()
+	{
+		return dict;
+	}
+
+	/**	Number of items in the dictionary. */
+	public int count()
+	{
+		return count;
+	}
+
+	/**	Number of records in the current log. */
+	public long logRecords()
+	{
+		return logRecords;
+	}
+
+	/**	Number of items loaded from the snapshot when the dictionary was opened. */
+	public int snapshotItems()
+	{
+		return snapshotItems;
+	}
+
+	/**	Number of log records replayed when the dictionary was opened. */
+	public long replayedRecords()
+	{
+		return replayedRecords;
+	}
+
+	public void insert(I x) throws ContainerFull280Exception, DuplicateItems280Exception
+	{
+		dict.insert(x);
+		count++;
+		log(INSERT, itemCodec.encode(x));
+	}
+
+	public void set(I x) throws ItemNotFound280Exception
+	{
+		dict.set(x);
+		log(SET, itemCodec.encode(x));
+	}
+
+	public boolean has(K k)
+	{
+		return dict.has(k);
+	}
+
+	public I obtain(K k) throws ItemNotFound280Exception
+	{
+		return dict.obtain(k);
+	}
+
+	public void delete(K k) throws ItemNotFound280Exception
+	{
+		dict.delete(k);
+		count--;
+		log(DELETE, keyCodec.encode(k));
+	}
+
+	public void search(K k)
+	{
+		dict.search(k);
+	}
+
+	public void searchCeilingOf(K k)
+	{
+		dict.searchCeilingOf(k);
+	}
+
+	public void deleteItem() throws NoCurrentItem280Exception
+	{
+		K k = dict.itemKey();
+		dict.deleteItem();
+		count--;
+		log(DELETE, keyCodec.encode(k));
+	}
+
+	public void setItem(I x) throws NoCurrentItem280Exception, InvalidArgument280Exception
+	{
+		dict.setItem(x);
+		log(SET, itemCodec.encode(x));
+	}
+
+	public I item() throws NoCurrentItem280Exception
+	{
+		return dict.item();
+	}
+
+	public boolean itemExists()
+	{
+		return dict.itemExists();
+	}
+
+	public K itemKey() throws NoCurrentItem280Exception
+	{
+		return dict.itemKey();
+	}
+
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception
+	{
+		return dict.keyItemPair();
+	}
+
+	public boolean before()
+	{
+		return dict.before();
+	}
+
+	public boolean after()
+	{
+		return dict.after();
+	}
+
+	public void goForth() throws AfterTheEnd280Exception
+	{
+		dict.goForth();
+	}
+
+	public void goFirst() throws ContainerEmpty280Exception
+	{
+		dict.goFirst();
+	}
+
+	public void goBefore()
+	{
+		dict.goBefore();
+	}
+
+	public void goAfter()
+	{
+		dict.goAfter();
+	}
+
+	public CursorPosition280 currentPosition()
+	{
+		return dict.currentPosition();
+	}
+
+	public void goPosition(CursorPosition280 c)
+	{
+		dict.goPosition(c);
+	}
+
+	public String toString()
+	{
+		return dict.toString();
+	}
+
+	/** An item for testing: a quest and its reward. */
+	protected static class Quest implements Keyed280<String> {
+		String name;
+		int reward;
+
+		Quest(String name, int reward) {
+			this.name = name;
+			this.reward = reward;
+		}
+		public String key() { return name; }
+	}
+
+	/** Encodes a quest as its reward followed by its name in UTF-8. */
+	protected static final Codec280<Quest> questCodec = new Codec280<Quest>() {
+		public byte[] encode(Quest x) {
+			byte[] name = Codec280.stringCodec.encode(x.name);
+			return ByteBuffer.allocate(4 + name.length).putInt(x.reward).put(name).array();
+		}
+		public Quest decode(ByteBuffer in) {
+			int reward = in.getInt();
+			return new Quest(Codec280.stringCodec.decode(in), reward);
+		}
+	};
+
+	/** Open the dictionary in dir over a new hash table. */
+	protected static DurableKeyedDict280<String, Quest> open(Path dir, int groupSize, long snapshotThreshold) {
+		return new DurableKeyedDict280<String, Quest>(new KeyedChainedHashTable280<String, Quest>(), dir,
+				Codec280.stringCodec, questCodec, groupSize, snapshotThreshold);
+	}
+
+	/** Delete dir and everything in it. */
+	protected static void deleteDirectory(Path dir) throws IOException {
+		try (Stream<Path> listing = Files.list(dir)) {
+			for (Path f : (Iterable<Path>) listing::iterator)
+				Files.delete(f);
+		}
+		Files.delete(dir);
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path dir = Files.createTempDirectory("lib280-durable");
+
+		// Changes survive closing and reopening, with no snapshot yet.
+		DurableKeyedDict280<String, Quest> D = open(dir, 1, 1000);
+		for (int i = 0; i < 500; i++)
+			D.insert(new Quest("Quest" + i, i));
+		D.set(new Quest("Quest1", 100));
+		D.delete("Quest2");
+		D.search("Quest3");
+		D.setItem(new Quest("Quest3", 300));
+		D.search("Quest4");
+		D.deleteItem();
+		D.merge(new Quest("Quest5", 10), (a, b) -> new Quest(a.name, a.reward + b.reward));
+		try {
+			D.insert(new Quest("Quest0", 0));
+			System.out.println("Error: inserting a duplicate should throw.");
+		}
+		catch (DuplicateItems280Exception e) { /* expected */ }
+		D.close();
+
+		D = open(dir, 1, 1000);
+		if (D.snapshotItems() != 0 || D.replayedRecords() != 505)
+			System.out.println("Error: expected to replay 505 records and no snapshot, but replayed "
+					+ D.replayedRecords() + " and loaded " + D.snapshotItems());
+		if (D.count() != 498 || D.has("Quest2") || D.has("Quest4") || D.obtain("Quest1").reward != 100
+				|| D.obtain("Quest3").reward != 300 || D.obtain("Quest5").reward != 15 || D.obtain("Quest499").reward != 499)
+			System.out.println("Error: the reopened dictionary does not hold what was written.");
+
+		// Enough changes take a snapshot, after which only the tail is replayed.
+		for (int i = 500; i < 1200; i++)
+			D.insert(new Quest("Quest" + i, i));
+		long tail = D.logRecords();
+		if (tail >= 1000 || !Files.exists(dir.resolve("snapshot.1")) || Files.exists(dir.resolve("log.0")))
+			System.out.println("Error: a snapshot should have been taken and the old log removed.");
+		D.close();
+		D = open(dir, 1, 1000);
+		if (D.replayedRecords() != tail || D.snapshotItems() + tail != 1198 || D.count() != 1198)
+			System.out.println("Error: expected a snapshot plus " + tail + " records but loaded "
+					+ D.snapshotItems() + " and replayed " + D.replayedRecords());
+		int seen = 0;
+		for (D.goFirst(); D.itemExists(); D.goForth())
+			seen++;
+		if (seen != 1198)
+			System.out.println("Error: iteration found " + seen + " items instead of 1198.");
+
+		// Group commit: changes not yet committed are lost, committed ones are kept.
+		D.close();
+		D = open(dir, 100, 1000000);
+		D.snapshot();
+		for (int i = 0; i < 150; i++)
+			D.insert(new Quest("Group" + i, i));
+		if (Files.size(dir.resolve("log." + D.generation)) == 0)
+			System.out.println("Error: the first group of 100 should have been written.");
+		D.log.close();  // simulate a crash: the last 50 changes were never committed
+		D = open(dir, 100, 1000000);
+		if (!D.has("Group99") || D.has("Group100") || D.count() != 1298)
+			System.out.println("Error: after a crash only the committed group should survive.");
+
+		// A torn record at the end of the log is discarded.
+		D.close();
+		Path logFile = dir.resolve("log." + D.generation);
+		long goodLength = Files.size(logFile);
+		try (FileChannel c = FileChannel.open(logFile, StandardOpenOption.APPEND)) {
+			c.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 20, 1, 2, 3, 4, INSERT, 9, 9 }));
+		}
+		D = open(dir, 1, 1000000);
+		if (D.count() != 1298 || Files.size(logFile) != goodLength)
+			System.out.println("Error: a torn record should be discarded and truncated away.");
+		D.insert(new Quest("After tear", 1));
+		D.close();
+		D = open(dir, 1, 1000000);
+		if (!D.has("After tear"))
+			System.out.println("Error: changes after a torn record should be kept.");
+		D.close();
+
+		try {
+			KeyedChainedHashTable280<String, Quest> full = new KeyedChainedHashTable280<String, Quest>();
+			full.insert(new Quest("x", 1));
+			new DurableKeyedDict280<String, Quest>(full, dir, Codec280.stringCodec, questCodec);
+			System.out.println("Error: opening over a non-empty dictionary should throw.");
+		}
+		catch (InvalidArgument280Exception e) { /* expected */ }
+
+		deleteDirectory(dir);
+
+		// Any KeyedDict280 can be wrapped, including one whose goFirst() throws when it is
+		// empty, and a dictionary whose items have all been deleted can be snapshot.
+		dir = Files.createTempDirectory("lib280-durable");
+		DurableKeyedDict280<String, Quest> S = new DurableKeyedDict280<String, Quest>(
+				new ShardedKeyedDict280<String, Quest>(4), dir, Codec280.stringCodec, questCodec);
+		for (int i = 0; i < 10; i++)
+			S.insert(new Quest("Shard" + i, i));
+		for (int i = 0; i < 10; i++)
+			S.delete("Shard" + i);
+		S.snapshot();
+		S.close();
+		S = new DurableKeyedDict280<String, Quest>(
+				new ShardedKeyedDict280<String, Quest>(4), dir, Codec280.stringCodec, questCodec);
+		if (S.count() != 0 || S.snapshotItems() != 0 || S.replayedRecords() != 0)
+			System.out.println("Error: an empty snapshot should reopen as an empty dictionary.");
+		S.insert(new Quest("Shard0", 1));
+		S.close();
+		deleteDirectory(dir);
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,81 @@
+package lib280.durable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lib280.base.Codec280;
+import lib280.hashtable.KeyedChainedHashTable280;
+
+/**
+ * Measures how long DurableKeyedDict280 takes to reopen a dictionary of various sizes,
+ * when the contents are all in the log, and when they are in a snapshot followed by a
+ * short log; and how fast changes are logged with and without group commit.
+ *
+ * Usage: java lib280.durable.RecoveryBenchmark280
+ *
+ * The times depend heavily on the disk and on whether the files are still in the
+ * operating system's cache (they usually are, having just been written), so they show
+ * how recovery scales rather than what a cold start costs.
+ */
+public class RecoveryBenchmark280 {
+
+	/** Sizes of the dictionaries reopened. */
+	protected static final int[] sizes = { 10000, 100000, 1000000 };
+
+	/** Number of changes made after the snapshot in the snapshot-plus-tail case. */
+	protected static final int tail = 1000;
+
+	/** Open the dictionary in dir over a new hash table. */
+	protected static DurableKeyedDict280<String, DurableKeyedDict280.Quest> open(Path dir, int groupSize, long snapshotThreshold) {
+		return DurableKeyedDict280.open(dir, groupSize, snapshotThreshold);
+	}
+
+	/** Reopen the dictionary in dir and print the time taken. */
+	protected static void reopen(String title, Path dir, int size) {
+		long start = System.nanoTime();
+		DurableKeyedDict280<String, DurableKeyedDict280.Quest> D = open(dir, 1000, Long.MAX_VALUE);
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%8d items, %-20s %8.1f ms (%d from snapshot, %d replayed)%n", size, title,
+				elapsed / 1e6, D.snapshotItems(), D.replayedRecords());
+		if (D.count() != size)
+			System.out.println("Error: reopened " + D.count() + " items instead of " + size);
+		D.close();
+	}
+
+	/** Time n insertions logged with the given group size. */
+	protected static void logging(Path dir, int n, int groupSize) throws IOException {
+		DurableKeyedDict280<String, DurableKeyedDict280.Quest> D = open(dir, groupSize, Long.MAX_VALUE);
+		long start = System.nanoTime();
+		for (int i = 0; i < n; i++)
+			D.insert(new DurableKeyedDict280.Quest("Quest" + i, i));
+		D.commit();
+		long elapsed = System.nanoTime() - start;
+		D.close();
+		System.out.printf("group size %4d: %10.0f changes per second%n", groupSize, n / (elapsed / 1e9));
+		DurableKeyedDict280.deleteDirectory(dir);
+	}
+
+	public static void main(String[] args) throws IOException {
+		for (int size : sizes) {
+			Path dir = Files.createTempDirectory("lib280-recovery");
+			DurableKeyedDict280<String, DurableKeyedDict280.Quest> D = open(dir, 1000, Long.MAX_VALUE);
+			for (int i = 0; i < size; i++)
+				D.insert(new DurableKeyedDict280.Quest("Quest" + i, i));
+			D.close();
+			reopen("log only:", dir, size);
+
+			D = open(dir, 1000, Long.MAX_VALUE);
+			D.snapshot();
+			for (int i = 0; i < tail; i++)
+				D.set(new DurableKeyedDict280.Quest("Quest" + i, -i));
+			D.close();
+			reopen("snapshot + tail:", dir, size);
+			DurableKeyedDict280.deleteDirectory(dir);
+		}
+
+		System.out.println();
+		for (int groupSize : new int[] { 1, 10, 100, 1000 })
+			logging(Files.createTempDirectory("lib280-logging"), groupSize == 1 ? 2000 : 20000, groupSize);
+	}
+}
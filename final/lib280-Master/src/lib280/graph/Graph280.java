@@ -1,6 +1,10 @@
 package lib280.graph;
 
+import java.util.Spliterator;
+
 import lib280.base.Container280;
+import lib280.base.SlotSpliterator280;
+import lib280.base.Streamable280;
 import lib280.exception.ContainerFull280Exception;
 import lib280.exception.DuplicateItems280Exception;
 import lib280.exception.InvalidArgument280Exception;
@@ -18,7 +22,7 @@ import lib280.exception.ItemNotFound280Exception;
  *            The Edge object type.
  */
 public abstract class Graph280<V extends Vertex280, E extends Edge280<V>>
-		implements Container280 {
+		implements Container280, Streamable280<V> {
 
 	//////////// Instance Variables //////////////
 	
@@ -307,6 +311,18 @@ public abstract class Graph280<V extends Vertex280, E extends Edge280<V>>
 		}
 	}
 
+
+	/**
+	 * A spliterator over the vertices of the graph in order of index.  It splits by
+	 * ranges of vertex indexes.
+	 * 
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<V> spliterator() {
+		return new SlotSpliterator280<V>(this.vertexArray, 0, this.vertexArray.length, this.numVertices,
+				Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.ORDERED);
+	}
 		
 	@Override
 	public void clear() {
@@ -251,6 +251,15 @@ public class GraphAdjListRep280<V extends Vertex280, E extends Edge280<V>> exten
 	 * @param args
 	 */
 	public static void main(String[] args) {
+		// Streams over the vertices skip the unused indexes.
+		GraphAdjListRep280<Vertex280, Edge280<Vertex280>> S = new GraphAdjListRep280<Vertex280, Edge280<Vertex280>>(1000, false);
+		for(int i = 1; i <= 1000; i += 2)
+			S.addVertex(i);
+		if( S.parallelStream().mapToLong(v -> v.index()).sum() != 500L * 500 || S.stream().count() != 500 )
+			System.out.println("Error: the stream of the graph should visit its 500 odd vertices.");
+		if( S.stream().findFirst().get().index() != 1 )
+			System.out.println("Error: the stream of the graph should start at vertex 1.");
+
 		GraphAdjListRep280<Vertex280, Edge280<Vertex280>> G = new GraphAdjListRep280<Vertex280, Edge280<Vertex280>>(10, false);
 
 		G.initGraphFromFile("lib280-asn8/src/lib280/graph/testgraph.gra");
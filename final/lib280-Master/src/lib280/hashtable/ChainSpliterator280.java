@@ -0,0 +1,87 @@
+package lib280.hashtable;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import lib280.base.IndexRangeSpliterator280;
+import lib280.list.LinkedList280;
+import lib280.list.LinkedNode280;
+
+/**
+ * A spliterator over the items of a chained hash table.  It splits by
+ * bucket ranges and walks each chain node by node.  During an incremental
+ * resize the chains are spread over two bucket arrays, and some may be held
+ * apart from both; the held chains come first, then the buckets of the old
+ * array, then those of the current one.
+ */
+public class ChainSpliterator280<I> extends IndexRangeSpliterator280<I> {
+
+	/** Held chains of an incremental resize, or null. */
+	protected final LinkedList280<I>[] heldChains;
+
+	/** Number of held chains. */
+	protected final int heldLength;
+
+	/** Old bucket array of an incremental resize, or null. */
+	protected final LinkedList280<I>[] oldBuckets;
+
+	/** Current bucket array. */
+	protected final LinkedList280<I>[] buckets;
+
+	/** Number of buckets in oldBuckets. */
+	protected final int oldLength;
+
+	/**
+	 * Create a spliterator over every chain of a table.
+	 * @param oldBuckets old bucket array of an incremental resize; may be null
+	 * @param buckets current bucket array
+	 * @param count number of items in the table
+	 * @param characteristics characteristics of the spliterator besides SIZED
+	 */
+	public ChainSpliterator280(LinkedList280<I>[] oldBuckets, LinkedList280<I>[] buckets, int count, int characteristics) {
+		this(null, 0, oldBuckets, buckets, count, characteristics);
+	}
+
+	/**
+	 * Create a spliterator over every chain of a table with held chains.
+	 * @param heldChains held chains of an incremental resize; may be null if heldLength is 0
+	 * @param heldLength number of held chains
+	 * @param oldBuckets old bucket array of an incremental resize; may be null
+	 * @param buckets current bucket array
+	 * @param count number of items in the table
+	 * @param characteristics characteristics of the spliterator besides SIZED
+	 */
+	public ChainSpliterator280(LinkedList280<I>[] heldChains, int heldLength, LinkedList280<I>[] oldBuckets,
+			LinkedList280<I>[] buckets, int count, int characteristics) {
+		this(heldChains, heldLength, oldBuckets, buckets, 0,
+				heldLength + (oldBuckets == null ? 0 : oldBuckets.length) + buckets.length,
+				count, characteristics | Spliterator.SIZED);
+	}
+
+	protected ChainSpliterator280(LinkedList280<I>[] heldChains, int heldLength, LinkedList280<I>[] oldBuckets,
+			LinkedList280<I>[] buckets, int origin, int fence, long estimate, int characteristics) {
+		super(origin, fence, estimate, characteristics);
+		this.heldChains = heldChains;
+		this.heldLength = heldLength;
+		this.oldBuckets = oldBuckets;
+		this.buckets = buckets;
+		this.oldLength = oldBuckets == null ? 0 : oldBuckets.length;
+	}
+
+	@Override
+	protected void visit(int i, Consumer<? super I> action) {
+		LinkedList280<I> chain;
+		if( i < this.heldLength ) chain = this.heldChains[i];
+		else if( i < this.heldLength + this.oldLength ) chain = this.oldBuckets[i - this.heldLength];
+		else chain = this.buckets[i - this.heldLength - this.oldLength];
+		if( chain == null || chain.isEmpty() ) return;
+		for(LinkedNode280<I> node = chain.firstNode(); node != null; node = node.nextNode())
+			action.accept(node.item());
+	}
+
+	@Override
+	protected IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics) {
+		return new ChainSpliterator280<I>(this.heldChains, this.heldLength, this.oldBuckets, this.buckets,
+				origin, fence, estimate, characteristics);
+	}
+}
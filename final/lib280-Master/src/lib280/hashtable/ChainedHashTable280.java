@@ -6,14 +6,18 @@
 
 package lib280.hashtable;
 
+import java.util.Spliterator;
+
 import lib280.base.CursorPosition280;
 import lib280.dictionary.HashTable280;
+import lib280.dictionary.IdentityHashStrategy280;
 import lib280.exception.AfterTheEnd280Exception;
 import lib280.exception.InvalidArgument280Exception;
 import lib280.exception.ItemNotFound280Exception;
 import lib280.exception.NoCurrentItem280Exception;
 import lib280.list.LinkedIterator280;
 import lib280.list.LinkedList280;
+import lib280.list.LinkedNode280;
 
 /**	A HashTable dictionary that uses chaining.  Items can be 
 	inserted, deleted, obtained, and searched for by hashValue.  
@@ -37,14 +41,63 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 	}
 
 	/**	
-	 * Construct hash table strucuture with at least newSize locations. <br>
-	 * @timing O(newSize^2)
+	 * Create a chain for a bucket whose chain has become long.  If the items are
+	 * Comparable, the chain indexes them, so that even a bucket with many colliding
+	 * items is searched in logarithmic time.
+	 * @timing  O(1)  
+	 */
+	protected IndexedChain280<Comparable<Object>, I> newIndexedChain()
+	{
+		return new IndexedChain280<Comparable<Object>, I>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			protected Comparable<Object> indexKey(I x) {
+				return (x instanceof Comparable) ? (Comparable<Object>) x : null;
+			}
+		};
+	}
+
+	/**
+	 * Replace the chain in bucket b by an indexed chain holding the same items in the same
+	 * order, if it is a plain chain that has grown past the threshold at which
+	 * IndexedChain280 builds its index.  A cursor on an item of the chain stays on that item.
+	 * @param b index of a bucket that holds a chain
+	 */
+	protected void indexIfLong(int b)
+	{
+		LinkedList280<I> chain = hashArray[b];
+		if (chain instanceof IndexedChain280 || !IndexedChain280.isLong(chain))
+			return;
+		// The cursor is on the chain if its item hashes to b; note how far along it is.
+		I cursorItem = itemExists() && hashPos(item()) == b ? item() : null;
+		int cursorIndex = -1;
+		IndexedChain280<Comparable<Object>, I> indexed = newIndexedChain();
+		for (LinkedNode280<I> node = chain.firstNode(); node != null; node = node.nextNode())
+		{
+			if (cursorIndex < 0 && node.item() == cursorItem)
+				cursorIndex = indexed.length();
+			indexed.insertLast(node.item());
+		}
+		hashArray[b] = indexed;
+		if (cursorIndex >= 0)
+		{
+			itemListLocation = indexed.iterator();
+			itemListLocation.goFirst();
+			for (int i = 0; i < cursorIndex; i++)
+				itemListLocation.goForth();
+		}
+	}
+
+	/**	
+	 * Construct hash table strucuture with at least newSize locations.  The number of
+	 * locations is rounded up to a power of two so that hash positions can be masked. <br>
+	 * @timing O(newSize)
 	 * @param newSize size of the hash table is at least this large
 	 */
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public ChainedHashTable280(int newSize)
 	{
-		hashArray = new LinkedList280[newSize];
+		hashArray = new LinkedList280[powerOfTwoAtLeast(newSize)];
 		count = 0;
 		itemListLocation = null;
 	}
@@ -112,18 +165,33 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 		return itemListLocation.item();
 	}
   
+	/**
+	 * The first item of y's chain that matches y.  Unlike search(), this neither uses nor
+	 * copies the cursor, and it allocates nothing.
+	 * @param y item being sought
+	 * @return the matching item, or null if the table has none.
+	 */
+	@SuppressWarnings("unchecked")
+	protected I find(I y)
+	{
+		LinkedList280<I> chain = hashArray[hashPos(y)];
+		if (chain == null || chain.isEmpty())
+			return null;
+		if (chain instanceof IndexedChain280 && ((IndexedChain280<?, I>) chain).isIndexed() && y instanceof Comparable)
+		{
+			LinkedNode280<I> node = ((IndexedChain280<Comparable<Object>, I>) chain).nodeWithKey((Comparable<Object>) y);
+			return node == null ? null : node.item();
+		}
+		for (LinkedNode280<I> node = chain.firstNode(); node != null; node = node.nextNode())
+			if (membershipEquals(y, node.item()))
+				return node.item();
+		return null;
+	}
+
 	@Override
 	public boolean has(I y)
 	{
-		LinkedIterator280<I> saveListLocation;
-		if(itemListLocation != null)
-			saveListLocation = itemListLocation.clone();
-		else
-			saveListLocation = null;
-		search(y);
-		boolean result = itemExists();
-		itemListLocation = saveListLocation;
-		return result;
+		return find(y) != null;
 	}
   
 	@Override
@@ -134,6 +202,7 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 			hashArray[itemHashLocation] = newChain();
 		hashArray[itemHashLocation].insert(y);
 		count++;
+		indexIfLong(itemHashLocation);
 	}
 
 	@Override
@@ -165,6 +234,7 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public void search(I y) 
 	{
 		int itemHashLocation = hashPos(y);
@@ -174,7 +244,11 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 		{
 			if (hashArray[itemHashLocation]==null)
 				hashArray[itemHashLocation] = newChain();
-			itemListLocation = hashArray[itemHashLocation].iterator();
+			LinkedList280<I> chain = hashArray[itemHashLocation];
+			if (chain instanceof IndexedChain280 && ((IndexedChain280<?, I>) chain).isIndexed() && y instanceof Comparable)
+				itemListLocation = ((IndexedChain280<Comparable<Object>, I>) chain).iteratorAtKey((Comparable<Object>) y);
+			else
+				itemListLocation = chain.iterator();
 		}
 		while (!itemListLocation.after() && !membershipEquals(y, itemListLocation.item()))
 			itemListLocation.goForth();
@@ -183,10 +257,11 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 	@Override
 	public I obtain(I y) throws ItemNotFound280Exception
 	{
-		if (!has(y))
+		I result = find(y);
+		if (result == null)
 			throw new ItemNotFound280Exception("Cannot return an item that does not exist");
 	
-		return hashArray[hashPos(y)].obtain(y);
+		return result;
 	}
 
 	@Override
@@ -307,10 +382,21 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 		itemListLocation = null;
 	}
 
+	/**	A spliterator over the items of the table.  It splits by ranges of buckets
+		and walks each chain in turn. <br>
+		Analysis: Time = O(1) */
+	@Override
+	public Spliterator<I> spliterator()
+	{
+		return new ChainSpliterator280<I>(null, hashArray, count, 0);
+	}
+
 	public static void main(String args[]) {
 		
 		
 		ChainedHashTable280<Double> H = new ChainedHashTable280<Double>(10);
+		// The cursor tests below expect the items in the order given by their own hash codes.
+		H.setHashStrategy(new IdentityHashStrategy280());
 		
 		// Test isEmpty on empty table
 		if(!H.isEmpty()) System.out.println("Error: hash table is empty but isEmpty() says otherwise.");
@@ -347,6 +433,43 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 			System.out.println("Error: cursor should be on 19.0 but it isn't!");
 
 
+		// A chain is a plain list until it grows past the threshold, and the cursor stays on
+		// its item when the chain is replaced by an indexed one.
+		ChainedHashTable280<Integer> D = new ChainedHashTable280<Integer>(8);
+		D.setHashStrategy(new IdentityHashStrategy280());
+		for(int i = 0; i < IndexedChain280.treeifyThreshold; i++)
+			D.insert(i * 8);
+		if( D.hashArray[0] instanceof IndexedChain280 )
+			System.out.println("Error: a chain of " + IndexedChain280.treeifyThreshold + " items should be a plain list.");
+		D.search(24);
+		D.insert(IndexedChain280.treeifyThreshold * 8);
+		if( !(D.hashArray[0] instanceof IndexedChain280) || !((IndexedChain280<?, ?>) D.hashArray[0]).isIndexed() )
+			System.out.println("Error: a chain of " + (IndexedChain280.treeifyThreshold + 1) + " items should be indexed.");
+		if( !D.itemExists() || D.item() != 24 )
+			System.out.println("Error: the cursor should still be on 24 after its chain was indexed.");
+		D.deleteItem();
+		if( D.has(24) || D.count() != IndexedChain280.treeifyThreshold )
+			System.out.println("Error: deleteItem() after the chain was indexed should have removed 24.");
+
+		// Test colliding items: a chain of many equal hash positions is indexed, and
+		// duplicates are counted correctly.
+		ChainedHashTable280<Integer> C = new ChainedHashTable280<Integer>(8);
+		C.setHashStrategy(new IdentityHashStrategy280());
+		for(int i = 0; i < 1000; i++) {
+			C.insert(i * 8);
+			if( i % 10 == 0 ) C.insert(i * 8);
+		}
+		if( !((IndexedChain280<?, ?>) C.hashArray[0]).isIndexed() )
+			System.out.println("Error: a chain of 1100 colliding items should be indexed.");
+		if( C.frequency(80) != 2 || C.frequency(88) != 1 || C.frequency(81) != 0 )
+			System.out.println("Error: wrong frequencies of colliding items.");
+		C.delete(80);
+		if( !C.has(80) ) System.out.println("Error: one copy of 80 should remain.");
+		C.delete(80);
+		if( C.has(80) ) System.out.println("Error: 80 should have been deleted.");
+		if( C.obtain(7992) != 7992 ) System.out.println("Error: obtain(7992) should return 7992.");
+		if( C.count() != 1098 ) System.out.println("Error: table should have 1098 items but it has " + C.count());
+
 		// Needs more regression testing!
 		
 		// Use iterators to print the items forward and backward.
@@ -358,6 +481,33 @@ public class ChainedHashTable280<I> extends HashTable280<I>
 		}
 		
 		
+		// The same items under the default MixingHashStrategy280, whose bucket order differs:
+		// each is found, and iteration visits each of them exactly once.
+		ChainedHashTable280<Double> M = new ChainedHashTable280<Double>(10);
+		M.insert(42.0);
+		M.insert(99.0);
+		M.insert(19.0);
+		double visitedSum = 0;
+		int visitedCount = 0;
+		for(M.goFirst(); M.itemExists(); M.goForth()) {
+			visitedSum += M.item();
+			visitedCount++;
+		}
+		if( visitedCount != 3 || visitedSum != 42.0 + 99.0 + 19.0 )
+			System.out.println("Error: iteration under the default hash strategy should visit 42, 99 and 19 once each.");
+		M.search(99.0);
+		if( !M.itemExists() || M.item() != 99.0 || !M.has(19.0) || M.has(20.0) )
+			System.out.println("Error: the default hash strategy should find 99 and 19 but not 20.");
+
+		// Streams over the chains, sequential and parallel.
+		ChainedHashTable280<Integer> S = new ChainedHashTable280<Integer>(64);
+		for(int i = 0; i < 10000; i++)
+			S.insert(i % 5000);
+		if( S.stream().count() != 10000 || S.parallelStream().mapToLong(x -> x).sum() != 2L * 4999 * 5000 / 2 )
+			System.out.println("Error: the stream of the table should hold 0 to 4999 twice each.");
+		if( S.parallelStream().distinct().count() != 5000 )
+			System.out.println("Error: the stream of the table should have 5000 distinct items.");
+
 		System.out.println("Regression test complete.");
 	}
 } 
@@ -0,0 +1,856 @@
+package lib280.hashtable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.base.SlotSpliterator280;
+import lib280.dictionary.HashTable280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**
+ * A keyed hash table that keeps its items densely packed in insertion order, in the
+ * manner of the compact dictionaries of CPython.  The items are stored in an array of
+ * entries, in the order in which they were inserted, with a parallel array of their hash
+ * codes.  A separate index array, probed linearly, holds for each occupied position the
+ * number of the entry there, so no per-item node objects are allocated and an empty
+ * position of the index costs one int rather than an item reference and a chain.
+ *
+ * Iteration is a walk along the entry array, skipping only the holes left by deleted
+ * items, and visits the items in insertion order.  A deleted item leaves a hole in the
+ * entries and a marker in the index; both are reclaimed the next time the table is
+ * rebuilt, which happens when the entry array fills up.
+ *
+ * The cursor is the number of an entry.  Rebuilding moves the entries, but keeps the
+ * cursor on the item it was on.
+ */
+public class CompactHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends HashTable280<I> implements
+		KeyedDict280<K, I> {
+
+	/** The entries, in insertion order; entries[0 .. used-1] are in use, and deleted entries are null. */
+	protected I[] entries;
+
+	/** Hash code of the key of each entry, as computed by the hash strategy. */
+	protected int[] hashes;
+
+	/**
+	 * The index: for each position, 0 if it is empty, dummy if its entry was deleted, or
+	 * else one more than the number of its entry.
+	 */
+	protected int[] index;
+
+	/** Number of entries in use, including deleted ones. */
+	protected int used;
+
+	/** Number of the entry at the cursor, or beforePos or afterPos. */
+	protected int position;
+
+	/** Index value marking a position whose entry was deleted. */
+	protected static final int dummy = -1;
+
+	/** Cursor position denoting "before the first item". */
+	protected static final int beforePos = -1;
+
+	/** Cursor position denoting "after the last item". */
+	protected static final int afterPos = Integer.MAX_VALUE;
+
+	/** Starting length of the index. */
+	protected static final int defaultIndexLength = 8;
+
+	/**
+	 * Create an empty table with the default capacity.
+	 */
+	public CompactHashTable280() {
+		this.allocate(CompactHashTable280.defaultIndexLength);
+	}
+
+	/**
+	 * Create an empty table that can hold expectedSize items without being rebuilt.
+	 * @param expectedSize number of items the table is expected to hold
+	 * @throws InvalidArgument280Exception if expectedSize is negative.
+	 */
+	public CompactHashTable280(int expectedSize) {
+		if( expectedSize < 0 )
+			throw new InvalidArgument280Exception("The expected size of the table cannot be negative.");
+		this.allocate(this.lengthFor(expectedSize));
+	}
+
+	/**
+	 * Replace the arrays with empty arrays for an index of the given length.  The entry
+	 * array holds two thirds as many entries as the index has positions, so the index is
+	 * never more than two thirds full.
+	 * @param length The new length of the index; must be a power of two.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected void allocate(int length) {
+		this.index = new int[length];
+		this.entries = (I[]) new Keyed280[CompactHashTable280.entryCapacity(length)];
+		this.hashes = new int[this.entries.length];
+		this.used = 0;
+		this.count = 0;
+		this.position = beforePos;
+	}
+
+	/**
+	 * Number of entries held by a table whose index has the given length.
+	 * @param length length of the index
+	 */
+	protected static int entryCapacity(int length) {
+		return (int) (2L * length / 3);
+	}
+
+	/**
+	 * Length of an index whose entry array can hold n entries.
+	 * @param n number of entries
+	 */
+	protected int lengthFor(long n) {
+		return powerOfTwoAtLeast((int) Math.min(1 << 30, Math.max(CompactHashTable280.defaultIndexLength, (3 * n + 1) / 2 + 1)));
+	}
+
+	/**
+	 * Walk the index from the home position of key k as far as the entry with key k, or
+	 * else as far as an empty position.
+	 * @param k key being sought
+	 * @param h hash code of k
+	 * @return The index position of the entry with key k if there is one; otherwise -(p+1),
+	 *   where p is the position at which an entry with key k should be indexed (the first
+	 *   deleted or empty position found).
+	 */
+	protected int probe(K k, int h) {
+		int mask = this.index.length - 1;
+		int p = h & mask;
+		int free = -1;
+		int e;
+		while( (e = this.index[p]) != 0 ) {
+			if( e == dummy ) {
+				if( free < 0 ) free = p;
+			}
+			else if( this.hashes[e - 1] == h && k.compareTo(this.entries[e - 1].key()) == 0 )
+				return p;
+			p = (p + 1) & mask;
+		}
+		return -((free >= 0 ? free : p) + 1);
+	}
+
+	/**
+	 * Number of the entry with key k, or -1 if there is none.
+	 * @param k key being sought
+	 */
+	protected int findEntry(K k) {
+		int p = this.probe(k, this.hashStrategy.hash(k));
+		return p >= 0 ? this.index[p] - 1 : -1;
+	}
+
+	/**
+	 * Append x, whose key is not in the table, as the newest entry, rebuilding the table
+	 * first if the entry array is full.
+	 * @param x item to be added
+	 * @param h hash code of x.key()
+	 * @param missing the negative result of probe(x.key(), h)
+	 */
+	protected void addAt(I x, int h, int missing) {
+		if( this.used == this.entries.length ) {
+			// Reclaim deleted entries; grow only if the live ones fill more than half.
+			this.resizeHashArray(this.count < this.entries.length / 2 ? this.index.length : this.lengthFor(2L * (this.count + 1)));
+			missing = this.probe(x.key(), h);
+		}
+		int e = this.used++;
+		this.entries[e] = x;
+		this.hashes[e] = h;
+		this.index[-(missing + 1)] = e + 1;
+		this.count++;
+	}
+
+	/**
+	 * Rebuild the table with an index of the given length, packing the live entries
+	 * together in their existing order.  The cursor stays on the item it was on.
+	 * @param newLength the new length of the index; must be a power of two whose entry
+	 *   capacity can hold every item
+	 */
+	protected void resizeHashArray(int newLength) {
+		I[] oldEntries = this.entries;
+		int[] oldHashes = this.hashes;
+		int oldUsed = this.used;
+		int oldPosition = this.position;
+		// A cursor on a deleted entry has no item to stay on, so it goes after the end.
+		int newPosition = oldPosition == beforePos ? beforePos : afterPos;
+
+		this.allocate(newLength);
+		int mask = this.index.length - 1;
+		for(int i = 0; i < oldUsed; i++) {
+			if( oldEntries[i] == null ) continue;
+			int e = this.used++;
+			this.entries[e] = oldEntries[i];
+			this.hashes[e] = oldHashes[i];
+			int p = oldHashes[i] & mask;
+			while( this.index[p] != 0 )
+				p = (p + 1) & mask;
+			this.index[p] = e + 1;
+			if( i == oldPosition ) newPosition = e;
+		}
+		this.count = this.used;
+		this.position = newPosition;
+	}
+
+	/**
+	 * Rebuild the table, if necessary, so that it can hold n items without being rebuilt
+	 * again.  The table is rebuilt at most once.
+	 * @param n number of items the table should be able to hold
+	 */
+	public void ensureCapacity(long n) {
+		if( n > this.entries.length - this.used + this.count )
+			this.resizeHashArray(this.lengthFor(n));
+	}
+
+	/**
+	 * Remove entry e, leaving a hole in the entries and a marker in the index.
+	 * @param p index position of entry e
+	 * @param e number of a live entry
+	 */
+	protected void removeEntry(int p, int e) {
+		this.index[p] = dummy;
+		this.entries[e] = null;
+		this.count--;
+	}
+
+	/**
+	 * Insert every item of items in order.  The table is rebuilt at most once, to its final
+	 * size.  Items whose keys are already in the table (or earlier in items) are skipped,
+	 * and reported together when all the other items have been inserted.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(I[] items) throws DuplicateItems280Exception {
+		this.insertAll(Arrays.asList(items));
+	}
+
+	/**
+	 * Insert every item of items in order.  If the number of items is known in advance (for
+	 * example because items is a Collection), the table is rebuilt at most once, before
+	 * inserting them.  Items whose keys are already in the table (or earlier in items) are
+	 * skipped, and reported together when all the other items have been inserted.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(Iterable<? extends I> items) throws DuplicateItems280Exception {
+		this.insertAll(items.spliterator());
+	}
+
+	/**
+	 * Insert every item of a stream, as insertAll(Iterable) does.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(Stream<? extends I> items) throws DuplicateItems280Exception {
+		this.insertAll(items.spliterator());
+	}
+
+	/**
+	 * Insert every item of items; see insertAll(Iterable).
+	 * @param items the items to be inserted
+	 */
+	protected void insertAll(Spliterator<? extends I> items) throws DuplicateItems280Exception {
+		long expected = items.getExactSizeIfKnown();
+		if( expected >= 0 ) this.ensureCapacity(this.count + expected);
+
+		int duplicates = 0;
+		StringBuffer duplicateKeys = new StringBuffer();
+		Iterator<? extends I> iter = Spliterators.iterator(items);
+		while( iter.hasNext() ) {
+			I x = iter.next();
+			K k = x.key();
+			int h = this.hashStrategy.hash(k);
+			int p = this.probe(k, h);
+			if( p >= 0 ) {
+				if( duplicates < 10 ) duplicateKeys.append(duplicates == 0 ? "" : ", ").append(k);
+				duplicates++;
+			}
+			else
+				this.addAt(x, h, p);
+		}
+
+		if( duplicates > 0 )
+			throw new DuplicateItems280Exception(duplicates + " items were not inserted because their keys were"
+					+ " already in the table: " + duplicateKeys + (duplicates > 10 ? ", ..." : ""));
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception,
+			DuplicateItems280Exception {
+		if( this.isFull() ) throw new ContainerFull280Exception("Error inserting item.  Table is full.");
+		if( this.putIfAbsent(x) != null )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
+	}
+
+	@Override
+	public I putIfAbsent(I x) {
+		K k = x.key();
+		int h = this.hashStrategy.hash(k);
+		int p = this.probe(k, h);
+		if( p >= 0 ) return this.entries[this.index[p] - 1];
+		this.addAt(x, h, p);
+		return null;
+	}
+
+	@Override
+	public I computeIfAbsent(K k, Function<? super K, ? extends I> f) throws InvalidArgument280Exception {
+		int h = this.hashStrategy.hash(k);
+		int p = this.probe(k, h);
+		if( p >= 0 ) return this.entries[this.index[p] - 1];
+		I x = f.apply(k);
+		if( x == null ) return null;
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		this.addAt(x, h, p);
+		return x;
+	}
+
+	/**
+	 * A replaced item keeps its place in the insertion order; an item that is deleted and
+	 * later computed again goes to the end.
+	 */
+	@Override
+	public I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) throws InvalidArgument280Exception {
+		int h = this.hashStrategy.hash(k);
+		int p = this.probe(k, h);
+		int e = p >= 0 ? this.index[p] - 1 : -1;
+		I x = f.apply(k, e >= 0 ? this.entries[e] : null);
+		if( x == null ) {
+			if( e >= 0 ) this.removeEntry(p, e);
+			return null;
+		}
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		if( e >= 0 ) this.entries[e] = x;
+		else this.addAt(x, h, p);
+		return x;
+	}
+
+	/**
+	 * The replacement keeps the place of the item it replaces in the insertion order.
+	 */
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		int e = this.findEntry(x.key());
+		if( e < 0 )
+			throw new ItemNotFound280Exception("No item with key " + x.key() + " was found in the table.");
+		this.entries[e] = x;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findEntry(k) >= 0;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		int e = this.findEntry(k);
+		if( e < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.entries[e];
+	}
+
+	/**
+	 * Deleting an item never moves the others, so the cursor stays where it is (or has no
+	 * current item, if it was on the deleted item).
+	 */
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int p = this.probe(k, this.hashStrategy.hash(k));
+		if( p < 0 )
+			throw new ItemNotFound280Exception("No item with key " + k + " was found in the table.");
+		this.removeEntry(p, this.index[p] - 1);
+	}
+
+	/**
+	 * Obtain the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 * @return The matching object in the hash table if it exists.
+	 */
+	public I obtain(I y) throws ItemNotFound280Exception {
+		I existingItem = obtain(y.key());
+		if( membershipEquals(existingItem, y) ) {
+			return existingItem;
+		}
+		else {
+			throw new ItemNotFound280Exception("The item in the table with key " + y.key() + " does not match y.");
+		}
+	}
+
+	/**
+	 * Delete the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 */
+	public void delete(I y) throws ItemNotFound280Exception {
+		I existingItem = this.obtain(y.key());
+		if( this.membershipEquals(existingItem, y) ) {
+			this.delete(existingItem.key());
+		}
+		else {
+			throw new ItemNotFound280Exception("The item in the table with key " + y.key() + " does not match y.");
+		}
+	}
+
+	/**
+	 * Determine if there is an item matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @return true if y is in the hash table, false otherwise.
+	 */
+	public boolean has(I y) {
+		int e = this.findEntry(y.key());
+		return e >= 0 && this.membershipEquals(this.entries[e], y);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0 == ((Comparable<I>) x).compareTo(y);
+		else if (x.equals(y))
+			return true;
+		else
+			return false;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(this.index.length);
+	}
+
+	/**
+	 * Length of the index.
+	 */
+	@Override
+	public int capacity() {
+		return this.index.length;
+	}
+
+	@Override
+	public int frequency(I i) {
+		if( this.has(i.key()) ) return 1;
+		else return 0;
+	}
+
+	/**
+	 * Number of entries left by deleted items that have not yet been reclaimed.
+	 * @timing O(1)
+	 */
+	public int deletedEntries() {
+		return this.used - this.count;
+	}
+
+	/**
+	 * Move the cursor to the first live entry at or after e, or goAfter() if none.
+	 * @timing O(number of deleted entries skipped)
+	 * @param e first entry to examine
+	 */
+	protected void findNextItem(int e) {
+		while( e < this.used && this.entries[e] == null )
+			e++;
+		this.position = e < this.used ? e : afterPos;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.entries[this.position];
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position >= 0 && this.position < this.used && this.entries[this.position] != null;
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.entries[this.position].key();
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return new Pair280<K,I>(this.entries[this.position].key(), this.entries[this.position]);
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == beforePos;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position == afterPos;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if (this.after())
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		this.findNextItem(this.position + 1);
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		this.findNextItem(0);
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = beforePos;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = afterPos;
+	}
+
+	/**
+	 * The saved position is the number of an entry, so it is only valid until the table
+	 * is next rebuilt by an insertion.
+	 */
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new HashTablePosition280(this.position);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if (!(pos instanceof HashTablePosition280))
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					    + " must be a HashTablePosition280");
+		this.position = ((HashTablePosition280) pos).slot;
+	}
+
+	/**
+	 * Place the cursor on the item in the hash table that matches y.
+	 * This only succeeds if y is the exact object in the hash table, or the table
+	 * contains an item that is equal according to y's compareTo method (if it has one).
+	 */
+	public void search(I y) {
+		this.search(y.key());
+		if( this.itemExists() ) {
+			if( !this.membershipEquals(this.item(), y) )
+				this.goAfter();
+		}
+	}
+
+	@Override
+	public void search(K k) {
+		// Keys are unique, so a continued search can never find another item with key k.
+		if( this.searchesContinue && this.itemExists() ) {
+			this.goAfter();
+			return;
+		}
+		int e = this.findEntry(k);
+		if( e < 0 ) this.goAfter();
+		else this.position = e;
+	}
+
+	/**
+	 * Searches the data structure for the first element, in insertion order, with key at
+	 * least as large as k.  Searching begins from the first item, or the item after the
+	 * current item if searches have been set to continue.
+	 *
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	public void searchCeilingOf(K k) {
+		if( this.searchesContinue && this.itemExists() )
+			this.goForth();
+		else
+			this.goFirst();
+		while( this.itemExists() && this.entries[this.position].key().compareTo(k) < 0 )
+			this.goForth();
+	}
+
+	/**
+	 * Delete the current item.  The cursor moves to the item inserted after it.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no current item to delete.");
+		int e = this.position;
+		this.removeEntry(this.probe(this.entries[e].key(), this.hashes[e]), e);
+		this.findNextItem(e + 1);
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		if( !itemExists() ) {
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		}
+		if( x.key().compareTo(this.item().key()) != 0 ) {
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		}
+		this.entries[this.position] = x;
+	}
+
+	/**
+	 * A spliterator over the items of the table in insertion order.  It splits the
+	 * entries array by index ranges, skipping deleted entries.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new SlotSpliterator280<I>(this.entries, 0, this.used, this.count,
+				Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.ORDERED);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		for (int i = 0; i < this.used; i++)
+			if (this.entries[i] != null)
+				result.append("\n" + this.entries[i].toString());
+		return result.toString();
+	}
+
+	public static void main( String args[] ) {
+
+		class Skill implements Keyed280<String> {
+			String name;
+			private int skillCost;
+
+			public Skill(String s, int c) {
+				this.name = s;
+				this.skillCost = c;
+			}
+			public String key() { return name; }
+
+			public String toString() {
+				return name + ":" + this.skillCost;
+			}
+		}
+
+		CompactHashTable280<String, Skill> H = new CompactHashTable280<String, Skill>();
+
+		// Test insert
+		H.insert(new Skill("Shield Bash", 5));
+		try {
+			H.insert(new Skill("Shield Bash", 5));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate item, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// Test obtain(k)
+		try {
+			H.obtain("Shield Bash");
+		}
+		catch(ItemNotFound280Exception e) {
+			System.out.println("Error: caught unexpected exception when trying to obtain(\"Shield Bash\").");
+		}
+		try {
+			H.obtain("Shield Crash");
+			System.out.println("Error: expected exception when trying to obtain(\"Shield Crash\"), got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Test set
+		H.set(new Skill("Shield Bash", 77));
+		if( H.obtain("Shield Bash").skillCost != 77 )
+			System.out.println("Error: skill cost of Shield Bash should have been updated to 77 but it wasn't.");
+
+		H.insert(new Skill("Ground Slam", 2));
+		H.insert(new Skill("Heavy Strike", 5));
+		H.insert(new Skill("Explosive Arrow", 11));
+		H.insert(new Skill("Infernal Blow", 16));
+		H.insert(new Skill("Lightning Strike", 6));
+
+		// Test delete(k)
+		H.delete("Lightning Strike");
+		if( H.has("Lightning Strike") ) System.out.println("Error: \"Lightning Strike\" should have been deleted.");
+		if( H.count() != 5 ) System.out.println("Error: table should have 5 items but it has " + H.count());
+		try {
+			H.delete("Fake Skill");
+			System.out.println("Expected exception while deleting \"Fake Skill\" did not occur.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Iteration visits the items in insertion order, including the replaced one.
+		StringBuffer order = new StringBuffer();
+		for(H.goFirst(); H.itemExists(); H.goForth())
+			order.append(H.item()).append(" ");
+		if( !order.toString().equals("Shield Bash:77 Ground Slam:2 Heavy Strike:5 Explosive Arrow:11 Infernal Blow:16 ") )
+			System.out.println("Error: iteration should follow insertion order, but gave: " + order);
+		if( !H.after() )
+			System.out.println("Error: cursor should be after the end when iteration finishes.");
+
+		// Test delete(x) and has(x)
+		Skill cleave = new Skill("Cleave", 1);
+		Skill fakeCleave = new Skill("Cleave", 99);
+		H.insert(cleave);
+		if( !H.has(cleave) ) System.out.println("Error: has reports that table does not contain cleave object but it does.");
+		if( H.has(fakeCleave) ) System.out.println("Error: has reports that table contains fakeCleave object but it doesn't.");
+		try {
+			H.delete(fakeCleave);
+			System.out.println("Expected exception while deleting fakeCleave did not occur.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		H.delete(cleave);
+		if( H.has("Cleave") ) System.out.println("Error: cleave should have been deleted.");
+
+		// Test search(k), setItem() and deleteItem()
+		H.insert(cleave);
+		H.search("Cleave");
+		if( !H.itemExists() ) System.out.println("Error: search should have found \"Cleave\".");
+		H.setItem(fakeCleave);
+		if( H.obtain("Cleave").skillCost != 99 )
+			System.out.println("Error: replaced item should have cost 99, but it does not.");
+		H.deleteItem();
+		if( H.has("Cleave") ) System.out.println("Error: deleteItem() should have removed \"Cleave\".");
+		H.search("Unknown Skill");
+		if( H.itemExists() ) System.out.println("Error: search should have failed, but it found: " + H.item());
+
+		// deleteItem() moves to the next item in insertion order.
+		H.search("Ground Slam");
+		H.deleteItem();
+		if( !H.itemExists() || H.itemKey().compareTo("Heavy Strike") != 0 )
+			System.out.println("Error: after deleteItem() the cursor should be on Heavy Strike.");
+		H.insert(new Skill("Ground Slam", 2));
+
+		// Test searchCeilingOf()
+		H.restartSearches();
+		H.searchCeilingOf("Stab");
+		if( H.itemExists() ) System.out.println("Error: cursor should not be on any item.");
+		H.searchCeilingOf("Ice");
+		if( !H.itemExists() || H.itemKey().compareTo("Shield Bash") != 0 )
+			System.out.println("Error: the first key at least Ice in insertion order is Shield Bash, not " + (H.itemExists() ? H.itemKey() : "none"));
+
+		// Test currentPosition() and goPosition()
+		H.search("Heavy Strike");
+		CursorPosition280 saved = H.currentPosition();
+		H.goFirst();
+		H.goPosition(saved);
+		if( !H.itemExists() || H.itemKey().compareTo("Heavy Strike") != 0 )
+			System.out.println("Error: cursor should have been restored to Heavy Strike.");
+
+		// Deletions and the rebuilds they lead to should not move the cursor off its item.
+		H.delete("Shield Bash");
+		for(int i = 0; i < 100; i++)
+			H.insert(new Skill("Filler " + i, i));
+		if( !H.itemExists() || H.itemKey().compareTo("Heavy Strike") != 0 )
+			System.out.println("Error: cursor should still be on Heavy Strike after rebuilding the table.");
+		if( H.deletedEntries() != 0 )
+			System.out.println("Error: rebuilding should have reclaimed the deleted entries.");
+
+		// Larger tables: every item must remain reachable, and in order, through growth and deletion.
+		CompactHashTable280<String, Skill> big = new CompactHashTable280<String, Skill>();
+		for(int i = 0; i < 100000; i++)
+			big.insert(new Skill("Quest " + i, i));
+		for(int i = 0; i < 100000; i += 2)
+			big.delete("Quest " + i);
+		for(int i = 0; i < 100000; i++)
+			if( big.has("Quest " + i) != (i % 2 == 1) )
+				System.out.println("Error: wrong membership for \"Quest " + i + "\".");
+		if( big.count() != 50000 ) System.out.println("Error: table should have 50000 items but it has " + big.count());
+		int expected = 1;
+		for(big.goFirst(); big.itemExists(); big.goForth(), expected += 2)
+			if( big.item().skillCost != expected ) {
+				System.out.println("Error: expected Quest " + expected + " but iteration reached " + big.item());
+				break;
+			}
+		// Streams see the entries in insertion order, even when run in parallel.
+		if( big.stream().count() != 50000 || big.parallelStream().mapToLong(x -> x.skillCost).sum() != 2500000000L )
+			System.out.println("Error: the stream of the table should hold the 50000 odd quests.");
+		int[] odd = big.parallelStream().mapToInt(x -> x.skillCost).toArray();
+		for(int i = 0; i < odd.length; i++)
+			if( odd[i] != 2 * i + 1 ) {
+				System.out.println("Error: the parallel stream should keep insertion order, but item " + i + " is " + odd[i]);
+				break;
+			}
+
+		// Repeated deletion and insertion should be absorbed by rebuilding, not growth.
+		int capacity = big.capacity();
+		for(int i = 0; i < 200000; i++) {
+			big.insert(new Skill("Churn " + i, i));
+			big.delete("Churn " + i);
+		}
+		if( big.capacity() != capacity || big.count() != 50000 )
+			System.out.println("Error: churn should not grow the table, but its capacity went from " + capacity + " to " + big.capacity());
+
+		// Test presizing and bulk insertion.
+		CompactHashTable280<String, Skill> B = new CompactHashTable280<String, Skill>(1000);
+		int presizedCapacity = B.capacity();
+		Skill[] bulk = new Skill[1000];
+		for(int i = 0; i < bulk.length; i++)
+			bulk[i] = new Skill("Bulk " + i, i);
+		B.insertAll(bulk);
+		if( B.count() != 1000 || B.capacity() != presizedCapacity )
+			System.out.println("Error: bulk insertion into a presized table should not grow it.");
+		java.util.ArrayList<Skill> more = new java.util.ArrayList<Skill>();
+		for(int i = 990; i < 5000; i++)
+			more.add(new Skill("Bulk " + i, -i));
+		try {
+			B.insertAll(more);
+			System.out.println("Error: expected a duplicate items exception from insertAll(), got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			if( !e.getMessage().startsWith("10 items") )
+				System.out.println("Error: insertAll() should report 10 duplicates, but reported: " + e.getMessage());
+		}
+		B.insertAll(java.util.stream.IntStream.range(5000, 6000).mapToObj(i -> new Skill("Bulk " + i, i)));
+		if( B.count() != 6000 || B.obtain("Bulk 995").skillCost != 995 || B.obtain("Bulk 4999").skillCost != -4999 || !B.has("Bulk 5999") )
+			System.out.println("Error: wrong contents after bulk insertion.");
+
+		// Test putIfAbsent(), computeIfAbsent(), compute() and merge() as read-modify-write counters.
+		CompactHashTable280<String, Skill> U = new CompactHashTable280<String, Skill>();
+		if( U.putIfAbsent(new Skill("Cleave", 1)) != null )
+			System.out.println("Error: putIfAbsent() of a new key should return null.");
+		if( U.putIfAbsent(new Skill("Cleave", 2)).skillCost != 1 )
+			System.out.println("Error: putIfAbsent() of an existing key should return the existing item.");
+		if( U.computeIfAbsent("Sweep", k -> new Skill(k, 3)).skillCost != 3 || U.computeIfAbsent("Sweep", k -> new Skill(k, 4)).skillCost != 3 )
+			System.out.println("Error: computeIfAbsent() should create Sweep once, with cost 3.");
+		if( U.computeIfAbsent("Stab", k -> null) != null || U.has("Stab") )
+			System.out.println("Error: computeIfAbsent() returning null should insert nothing.");
+		try {
+			U.computeIfAbsent("Stab", k -> new Skill("Slash", 1));
+			System.out.println("Error: expected exception when the computed item has the wrong key, got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		for(int i = 0; i < 1000; i++) {
+			U.compute("Counter " + (i % 10), (k, c) -> new Skill(k, c == null ? 1 : c.skillCost + 1));
+			U.merge(new Skill("Total", 1), (c, x) -> new Skill(c.name, c.skillCost + x.skillCost));
+		}
+		if( U.obtain("Counter 7").skillCost != 100 || U.obtain("Total").skillCost != 1000 )
+			System.out.println("Error: compute() and merge() counters have the wrong totals.");
+		U.compute("Counter 7", (k, c) -> null);
+		U.merge(new Skill("Total", 0), (c, x) -> null);
+		if( U.has("Counter 7") || U.has("Total") || U.count() != 11 )
+			System.out.println("Error: compute() and merge() returning null should delete the item.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,641 @@
+package lib280.hashtable;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import lib280.base.Container280;
+import lib280.base.IndexRangeSpliterator280;
+import lib280.base.Keyed280;
+import lib280.base.KeyedLinearIterator280;
+import lib280.base.Pair280;
+import lib280.base.Streamable280;
+import lib280.dictionary.KeyedBasicDict280;
+import lib280.exception.*;
+
+/**
+ * A keyed hash table that may be shared by several threads.
+ *
+ * Unlike the other dictionaries in lib280, the table itself has no cursor, so its
+ * operations never interfere with each other through shared cursor state.  Items
+ * are spread over a fixed number of independently locked segments (lock striping),
+ * each of which is a small chained hash table that grows on its own.  Lookups
+ * (has, obtain) take no lock at all; updates lock only the segment holding the key,
+ * so updates to different segments proceed in parallel.
+ *
+ * Iteration is done with a separate iterator object obtained from iterator().  The
+ * iterator is weakly consistent: it never throws because of concurrent updates,
+ * visits each item at most once, and reflects some, all, or none of the updates
+ * made after it was created.  The spliterator, which splits by segment, is weakly
+ * consistent in the same way.
+ */
+public class ConcurrentKeyedHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>>
+		implements KeyedBasicDict280<K, I>, Container280, Streamable280<I> {
+
+	/** A chain node.  The key never changes; the item may be replaced by set(). */
+	protected static class Node<K, I> {
+		final int hash;
+		final K key;
+		volatile I item;
+		volatile Node<K, I> next;
+
+		Node(int hash, K key, I item, Node<K, I> next) {
+			this.hash = hash;
+			this.key = key;
+			this.item = item;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * One lock stripe: a chained hash table guarded by its own monitor.  Readers
+	 * traverse the chains without locking; the bucket array is replaced, never
+	 * modified in place, when the segment grows.
+	 */
+	protected static class Segment<K, I> {
+		volatile AtomicReferenceArray<Node<K, I>> table;
+		volatile int count;
+
+		Segment(int length) {
+			this.table = new AtomicReferenceArray<Node<K, I>>(length);
+		}
+	}
+
+	/** Default number of lock stripes. */
+	protected static final int defaultConcurrencyLevel = 16;
+
+	/** Starting number of buckets in each segment. */
+	protected static final int defaultSegmentLength = 8;
+
+	/** A segment doubles its bucket array when its load factor would exceed this. */
+	protected static final double maxLoadFactor = 0.75;
+
+	/** The lock stripes. */
+	protected final Segment<K, I>[] segments;
+
+	/** Bit position of the hash bits that select the segment. */
+	protected final int segmentShift;
+
+	/**
+	 * Create an empty table with the default number of lock stripes.
+	 */
+	public ConcurrentKeyedHashTable280() {
+		this(ConcurrentKeyedHashTable280.defaultConcurrencyLevel);
+	}
+
+	/**
+	 * Create an empty table.
+	 * @param concurrencyLevel The estimated number of threads updating the table at once.  The
+	 *   number of lock stripes is the smallest power of two at least this large.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ConcurrentKeyedHashTable280(int concurrencyLevel) {
+		if( concurrencyLevel < 1 )
+			throw new InvalidArgument280Exception("The concurrency level must be positive.");
+		int numSegments = 1;
+		int bits = 0;
+		while( numSegments < concurrencyLevel ) {
+			numSegments <<= 1;
+			bits++;
+		}
+		this.segmentShift = 32 - bits;
+		this.segments = new Segment[numSegments];
+		for(int i = 0; i < numSegments; i++)
+			this.segments[i] = new Segment<K, I>(ConcurrentKeyedHashTable280.defaultSegmentLength);
+	}
+
+	/**
+	 * Spread the bits of a hash code so that both the segment (high bits) and the
+	 * bucket (low bits) depend on the whole hash code.
+	 * @param h a hash code
+	 */
+	protected static int spread(int h) {
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h;
+	}
+
+	/**
+	 * The segment responsible for hash code h.
+	 * @param h spread hash code of a key
+	 */
+	protected Segment<K, I> segmentFor(int h) {
+		return this.segments.length == 1 ? this.segments[0] : this.segments[h >>> this.segmentShift];
+	}
+
+	/**
+	 * Find the node with key k, without locking.
+	 * @param k key being sought
+	 * @return The node with key k, or null if there is none.
+	 */
+	protected Node<K, I> findNode(K k) {
+		int h = spread(k.hashCode());
+		AtomicReferenceArray<Node<K, I>> table = this.segmentFor(h).table;
+		Node<K, I> n = table.get(h & (table.length() - 1));
+		while( n != null && (n.hash != h || k.compareTo(n.key) != 0) )
+			n = n.next;
+		return n;
+	}
+
+	/**
+	 * Find the node with key k in the given segment bucket array.
+	 * @precond the caller holds the segment's lock
+	 */
+	protected Node<K, I> findNode(AtomicReferenceArray<Node<K, I>> table, int h, K k) {
+		Node<K, I> n = table.get(h & (table.length() - 1));
+		while( n != null && (n.hash != h || k.compareTo(n.key) != 0) )
+			n = n.next;
+		return n;
+	}
+
+	/**
+	 * Add a new node at the head of its chain, growing the segment first if necessary.
+	 * @precond the caller holds the lock of s, and s contains no item with key k
+	 */
+	protected void addNode(Segment<K, I> s, int h, K k, I x) {
+		AtomicReferenceArray<Node<K, I>> table = s.table;
+		if( (double) (s.count + 1) / table.length() > maxLoadFactor )
+			table = this.expand(s);
+		int bucket = h & (table.length() - 1);
+		table.set(bucket, new Node<K, I>(h, k, x, table.get(bucket)));
+		s.count = s.count + 1;
+	}
+
+	/**
+	 * Remove the node with key k from its chain.
+	 * @precond the caller holds the lock of s
+	 * @return The removed node, or null if s has no item with key k.
+	 */
+	protected Node<K, I> removeNode(Segment<K, I> s, int h, K k) {
+		AtomicReferenceArray<Node<K, I>> table = s.table;
+		int bucket = h & (table.length() - 1);
+		Node<K, I> prev = null;
+		Node<K, I> n = table.get(bucket);
+		while( n != null && (n.hash != h || k.compareTo(n.key) != 0) ) {
+			prev = n;
+			n = n.next;
+		}
+		if( n == null ) return null;
+		if( prev == null ) table.set(bucket, n.next);
+		else prev.next = n.next;
+		s.count = s.count - 1;
+		return n;
+	}
+
+	/**
+	 * Double the bucket array of segment s.  Nodes are copied rather than relinked so that
+	 * readers still traversing the old array see intact chains.
+	 * @precond the caller holds the lock of s
+	 * @return The new bucket array.
+	 */
+	protected AtomicReferenceArray<Node<K, I>> expand(Segment<K, I> s) {
+		AtomicReferenceArray<Node<K, I>> oldTable = s.table;
+		AtomicReferenceArray<Node<K, I>> newTable = new AtomicReferenceArray<Node<K, I>>(oldTable.length() * 2);
+		int mask = newTable.length() - 1;
+		for(int i = 0; i < oldTable.length(); i++) {
+			for(Node<K, I> n = oldTable.get(i); n != null; n = n.next) {
+				int bucket = n.hash & mask;
+				newTable.set(bucket, new Node<K, I>(n.hash, n.key, n.item, newTable.get(bucket)));
+			}
+		}
+		s.table = newTable;
+		return newTable;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findNode(k) != null;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		Node<K, I> n = this.findNode(k);
+		if( n == null )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return n.item;
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception, DuplicateItems280Exception {
+		K k = x.key();
+		int h = spread(k.hashCode());
+		Segment<K, I> s = this.segmentFor(h);
+		synchronized(s) {
+			if( this.findNode(s.table, h, k) != null )
+				throw new DuplicateItems280Exception("Error: table already has an item with key " + k);
+			this.addNode(s, h, k, x);
+		}
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		K k = x.key();
+		int h = spread(k.hashCode());
+		Segment<K, I> s = this.segmentFor(h);
+		synchronized(s) {
+			Node<K, I> n = this.findNode(s.table, h, k);
+			if( n == null )
+				throw new ItemNotFound280Exception("No item with key " + x.key() + " was found in the table.");
+			n.item = x;
+		}
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int h = spread(k.hashCode());
+		Segment<K, I> s = this.segmentFor(h);
+		synchronized(s) {
+			if( this.removeNode(s, h, k) == null )
+				throw new ItemNotFound280Exception("No item with key " + k + " was found in the table.");
+		}
+	}
+
+	/**
+	 * Atomically insert x unless the table already has an item with key x.key().
+	 * @param x item to be inserted
+	 * @return The item already in the table with key x.key(), or null if x was inserted.
+	 */
+	public I putIfAbsent(I x) {
+		K k = x.key();
+		int h = spread(k.hashCode());
+		Segment<K, I> s = this.segmentFor(h);
+		synchronized(s) {
+			Node<K, I> n = this.findNode(s.table, h, k);
+			if( n != null ) return n.item;
+			this.addNode(s, h, k, x);
+			return null;
+		}
+	}
+
+	/**
+	 * Atomically obtain the item with key k, creating and inserting it with f if there is none.
+	 * f is called at most once, while the segment holding k is locked, so it should be short
+	 * and must not update this table.
+	 * @param k key of the item
+	 * @param f computes the item for key k; returning null inserts nothing
+	 * @return The existing or newly inserted item, or null if f returned null.
+	 * @throws InvalidArgument280Exception if f returns an item whose key is not k.
+	 */
+	public I computeIfAbsent(K k, Function<? super K, ? extends I> f) {
+		// Fast path: no locking if the item is already present.
+		Node<K, I> n = this.findNode(k);
+		if( n != null ) return n.item;
+
+		int h = spread(k.hashCode());
+		Segment<K, I> s = this.segmentFor(h);
+		synchronized(s) {
+			n = this.findNode(s.table, h, k);
+			if( n != null ) return n.item;
+			I x = f.apply(k);
+			if( x == null ) return null;
+			if( k.compareTo(x.key()) != 0 )
+				throw new InvalidArgument280Exception("The computed item's key does not match k.");
+			this.addNode(s, h, k, x);
+			return x;
+		}
+	}
+
+	/**
+	 * Atomically replace the item with key k by f(k, current item), where the current item is
+	 * null if there is none.  If f returns null the item with key k (if any) is deleted.
+	 * f is called while the segment holding k is locked, so it should be short and must not
+	 * update this table.
+	 * @param k key of the item
+	 * @param f computes the new item from the key and the current item
+	 * @return The new item, or null if there is now no item with key k.
+	 * @throws InvalidArgument280Exception if f returns an item whose key is not k.
+	 */
+	public I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) {
+		int h = spread(k.hashCode());
+		Segment<K, I> s = this.segmentFor(h);
+		synchronized(s) {
+			Node<K, I> n = this.findNode(s.table, h, k);
+			I x = f.apply(k, n == null ? null : n.item);
+			if( x == null ) {
+				if( n != null ) this.removeNode(s, h, k);
+				return null;
+			}
+			if( k.compareTo(x.key()) != 0 )
+				throw new InvalidArgument280Exception("The computed item's key does not match k.");
+			if( n != null ) n.item = x;
+			else this.addNode(s, h, k, x);
+			return x;
+		}
+	}
+
+	/**
+	 * Number of items in the table.  While other threads are updating the table this is
+	 * only an estimate.
+	 * @timing O(number of lock stripes)
+	 */
+	public int count() {
+		int result = 0;
+		for(int i = 0; i < this.segments.length; i++)
+			result += this.segments[i].count;
+		return result;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for(int i = 0; i < this.segments.length; i++)
+			if( this.segments[i].count != 0 ) return false;
+		return true;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Remove all items.  Each segment is cleared atomically, but the table as a whole is not:
+	 * items inserted concurrently into an already-cleared segment are kept.
+	 */
+	@Override
+	public void clear() {
+		for(int i = 0; i < this.segments.length; i++) {
+			Segment<K, I> s = this.segments[i];
+			synchronized(s) {
+				s.table = new AtomicReferenceArray<Node<K, I>>(ConcurrentKeyedHashTable280.defaultSegmentLength);
+				s.count = 0;
+			}
+		}
+	}
+
+	/**
+	 * Obtain a new, weakly consistent iterator over the items of the table, positioned
+	 * before the first item.
+	 */
+	public KeyedLinearIterator280<K, I> iterator() {
+		return new WeaklyConsistentIterator();
+	}
+
+	/**
+	 * An iterator over the segments and chains of the table.  It keeps its own position,
+	 * so any number of threads may iterate at once.
+	 */
+	protected class WeaklyConsistentIterator implements KeyedLinearIterator280<K, I> {
+		/** Index of the segment being traversed; -1 before, segments.length after. */
+		protected int segmentIndex = -1;
+
+		/** Bucket array of the segment being traversed, as it was when the segment was entered. */
+		protected AtomicReferenceArray<Node<K, I>> table;
+
+		/** Index of the bucket being traversed. */
+		protected int bucket;
+
+		/** Current node, or null if there is no current item. */
+		protected Node<K, I> node;
+
+		/** Item of the current node, as it was when the iterator reached it. */
+		protected I currentItem;
+
+		/**
+		 * Move to the first node at or after the given position.
+		 */
+		protected void advanceFrom(int startSegment, int startBucket, Node<K, I> startNode) {
+			Node<K, I> n = startNode;
+			int b = startBucket;
+			for(int si = startSegment; si < segments.length; si++) {
+				if( si != startSegment || this.table == null ) {
+					this.table = segments[si].table;
+					b = 0;
+					n = null;
+				}
+				while( n == null && b < this.table.length() ) {
+					n = this.table.get(b);
+					if( n == null ) b++;
+				}
+				if( n != null ) {
+					this.segmentIndex = si;
+					this.bucket = b;
+					this.node = n;
+					this.currentItem = n.item;
+					return;
+				}
+				this.table = null;
+			}
+			this.goAfter();
+		}
+
+		@Override
+		public boolean before() {
+			return this.segmentIndex < 0;
+		}
+
+		@Override
+		public boolean after() {
+			return this.segmentIndex >= segments.length;
+		}
+
+		@Override
+		public void goForth() throws AfterTheEnd280Exception {
+			if( this.after() )
+				throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+			if( this.before() )
+				this.goFirst();
+			else if( this.node.next != null ) {
+				this.node = this.node.next;
+				this.currentItem = this.node.item;
+			}
+			else
+				this.advanceFrom(this.segmentIndex, this.bucket + 1, null);
+		}
+
+		@Override
+		public void goFirst() throws ContainerEmpty280Exception {
+			this.table = null;
+			this.advanceFrom(0, 0, null);
+		}
+
+		@Override
+		public void goBefore() {
+			this.segmentIndex = -1;
+			this.table = null;
+			this.node = null;
+			this.currentItem = null;
+		}
+
+		@Override
+		public void goAfter() {
+			this.segmentIndex = segments.length;
+			this.table = null;
+			this.node = null;
+			this.currentItem = null;
+		}
+
+		@Override
+		public boolean itemExists() {
+			return this.node != null;
+		}
+
+		@Override
+		public I item() throws NoCurrentItem280Exception {
+			if( !this.itemExists() )
+				throw new NoCurrentItem280Exception("There is no current item.");
+			return this.currentItem;
+		}
+
+		@Override
+		public K itemKey() throws NoCurrentItem280Exception {
+			if( !this.itemExists() )
+				throw new NoCurrentItem280Exception("There is no current item.");
+			return this.node.key;
+		}
+
+		@Override
+		public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+			if( !this.itemExists() )
+				throw new NoCurrentItem280Exception("There is no current item.");
+			return new Pair280<K, I>(this.node.key, this.currentItem);
+		}
+	}
+
+	/**
+	 * A weakly consistent spliterator over the items of the table.  It splits by ranges
+	 * of segments, so a parallel stream gives each thread a share of the lock stripes,
+	 * and unlike the spliterators of the other containers it may be used while the
+	 * table is being changed.
+	 * @timing O(number of segments)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new SegmentSpliterator(0, this.segments.length, this.count(),
+				Spliterator.CONCURRENT | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * A spliterator over a range of segments.  Each segment is walked through the bucket
+	 * array it had when the spliterator reached it.
+	 */
+	protected class SegmentSpliterator extends IndexRangeSpliterator280<I> {
+		protected SegmentSpliterator(int origin, int fence, long estimate, int characteristics) {
+			super(origin, fence, estimate, characteristics);
+		}
+
+		@Override
+		protected void visit(int i, Consumer<? super I> action) {
+			AtomicReferenceArray<Node<K, I>> table = segments[i].table;
+			for(int b = 0; b < table.length(); b++)
+				for(Node<K, I> n = table.get(b); n != null; n = n.next)
+					action.accept(n.item);
+		}
+
+		@Override
+		protected IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics) {
+			return new SegmentSpliterator(origin, fence, estimate, characteristics);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		KeyedLinearIterator280<K, I> iter = this.iterator();
+		iter.goFirst();
+		while( iter.itemExists() ) {
+			result.append("\n" + iter.item());
+			iter.goForth();
+		}
+		return result.toString();
+	}
+
+	public static void main(String args[]) throws InterruptedException {
+
+		class Counter implements Keyed280<String> {
+			String name;
+			int value;
+
+			public Counter(String s, int v) {
+				this.name = s;
+				this.value = v;
+			}
+			public String key() { return name; }
+
+			public String toString() {
+				return name + ":" + this.value;
+			}
+		}
+
+		final ConcurrentKeyedHashTable280<String, Counter> H = new ConcurrentKeyedHashTable280<String, Counter>();
+
+		// Single-threaded behaviour.
+		H.insert(new Counter("alpha", 1));
+		try {
+			H.insert(new Counter("alpha", 2));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate item, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+		if( !H.has("alpha") ) System.out.println("Error: table should have \"alpha\".");
+		if( H.has("beta") ) System.out.println("Error: table should not have \"beta\".");
+		H.set(new Counter("alpha", 5));
+		if( H.obtain("alpha").value != 5 ) System.out.println("Error: \"alpha\" should have value 5.");
+		if( H.putIfAbsent(new Counter("alpha", 9)).value != 5 )
+			System.out.println("Error: putIfAbsent() should have returned the existing item.");
+		if( H.putIfAbsent(new Counter("beta", 9)) != null )
+			System.out.println("Error: putIfAbsent() should have inserted \"beta\".");
+		H.compute("beta", (k, c) -> null);
+		if( H.has("beta") ) System.out.println("Error: compute() returning null should have deleted \"beta\".");
+		H.delete("alpha");
+		try {
+			H.delete("alpha");
+			System.out.println("Error: expected exception deleting \"alpha\" twice, got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		if( !H.isEmpty() ) System.out.println("Error: table should be empty.");
+
+		// Several threads incrementing shared counters with compute(), and inserting
+		// their own items, while another thread iterates.
+		final int numThreads = 4;
+		final int perThread = 20000;
+		Thread[] threads = new Thread[numThreads];
+		for(int t = 0; t < numThreads; t++) {
+			final int id = t;
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < perThread; i++) {
+					String shared = "shared " + (i % 100);
+					H.compute(shared, (k, c) -> new Counter(k, c == null ? 1 : c.value + 1));
+					H.insert(new Counter("thread " + id + " item " + i, i));
+				}
+			});
+			threads[t].start();
+		}
+		KeyedLinearIterator280<String, Counter> iter = H.iterator();
+		iter.goFirst();
+		while( iter.itemExists() )
+			iter.goForth();
+		for(int t = 0; t < numThreads; t++)
+			threads[t].join();
+
+		int total = 0;
+		for(int i = 0; i < 100; i++)
+			total += H.obtain("shared " + i).value;
+		if( total != numThreads * perThread )
+			System.out.println("Error: shared counters sum to " + total + " but should sum to " + numThreads * perThread);
+		if( H.count() != numThreads * perThread + 100 )
+			System.out.println("Error: table should have " + (numThreads * perThread + 100) + " items but has " + H.count());
+
+		int visited = 0;
+		iter.goFirst();
+		while( iter.itemExists() ) {
+			visited++;
+			iter.goForth();
+		}
+		if( visited != H.count() )
+			System.out.println("Error: iterator visited " + visited + " items but there are " + H.count());
+
+		// Streams split by segment.
+		long threadItems = H.parallelStream().filter(c -> c.name.startsWith("thread ")).count();
+		if( threadItems != numThreads * perThread || H.stream().distinct().count() != H.count() )
+			System.out.println("Error: the stream should have " + numThreads * perThread + " thread items, not " + threadItems);
+		if( H.spliterator().trySplit() == null )
+			System.out.println("Error: the spliterator should split by segment.");
+
+		System.out.println("Regression test complete.");
+	}
+}
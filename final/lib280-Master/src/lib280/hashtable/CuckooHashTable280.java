@@ -0,0 +1,849 @@
+package lib280.hashtable;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Spliterator;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.base.SlotSpliterator280;
+import lib280.dictionary.HashTable280;
+import lib280.dictionary.KeyedDict280;
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.*;
+
+/**
+ * A keyed hash table that uses cuckoo hashing, so that every lookup examines a fixed
+ * number of slots.  The slot array is split into two tables, each with its own hash
+ * function, followed by a small stash.  An item is always in its slot of the first
+ * table, its slot of the second table, or the stash, so has() and obtain() examine at
+ * most 2 + stashSize slots unless many keys have equal hash codes (see below).
+ *
+ * To insert an item it is put into its slot of the first table; if that slot was
+ * occupied, the resident is evicted to its slot in the other table, possibly evicting
+ * another item, and so on.  If this goes on for too long there is (almost certainly) a
+ * cycle of displacements, and the homeless item is put into the stash.  When the stash
+ * is full the whole table is rebuilt with freshly seeded hash functions, and the stash
+ * is made stashSize slots long again.
+ *
+ * The hash functions are seeded hashes of the keys themselves (for strings and other
+ * CharSequences, of their characters), so keys whose hashCode() values are equal are
+ * still separated by fresh seeds.  Keys that collide under every seed, which can only
+ * happen for keys other than CharSequences with equal hashCode() values, cannot all be
+ * placed in the two tables; a rebuild counts them and gives the stash room for them
+ * beyond its usual size, and they are found by a scan of the stash, like the chain of a
+ * chained hash table.  If fresh seeds fail to place the other items several times in a
+ * row the stash is allowed to grow.  So an insertion never fails, and it never grows
+ * the tables beyond what the load factor requires.
+ *
+ * The cursor is the index of a slot; iteration visits the first table, the second
+ * table and then the stash.  Insertions can move items between slots, so iteration
+ * should not be combined with insertion.
+ */
+public class CuckooHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends HashTable280<I> implements
+		KeyedDict280<K, I> {
+
+	/** The slots: two tables of tableLength slots each, followed by the stash, which has
+	 *  stashSize slots unless there are keys that collide under every seed. */
+	protected I[] items;
+
+	/** Number of slots in each of the two tables; a power of two. */
+	protected int tableLength;
+
+	/** Seeded hash of the keys; the low half of its hash64() picks the slot in the first
+	 *  table and the high half the slot in the second. */
+	protected MixingHashStrategy280 slotHash;
+
+	/** The seed of slotHash, for mixing into the hash codes of a user-supplied strategy. */
+	protected long seed;
+
+	/** Number of items in the stash. */
+	protected int stashCount;
+
+	/** Number of times the table has been rebuilt with fresh hash functions. */
+	protected int rebuilds;
+
+	/** Slots at which the last call of displace() placed an item, in order. */
+	protected int[] displacementPath = new int[8 + 4 * 31];
+
+	/** Number of slots in displacementPath used by the last call of displace(). */
+	protected int displacementLength;
+
+	/** Source of seeds for the hash functions. */
+	protected Random seedSource = new Random();
+
+	/** Index of the cursor, or beforePos/capacity() when before/after. */
+	protected int position;
+
+	/** Cursor position denoting "before the first item". */
+	protected static final int beforePos = -1;
+
+	/** Usual number of slots in the stash. */
+	protected static final int stashSize = 4;
+
+	/** Number of times rebuild() tries fresh hash functions before letting the stash grow. */
+	protected static final int maxRebuildAttempts = 8;
+
+	/** Maximum fraction of the slots of the two tables that may be occupied. */
+	protected static final double maxLoadFactor = 0.45;
+
+	/** Default number of slots in each table. */
+	protected static final int defaultTableLength = 16;
+
+	/**
+	 * Create an empty table with the default capacity.
+	 */
+	public CuckooHashTable280() {
+		this.allocate(defaultTableLength);
+		this.newSeeds();
+	}
+
+	/**
+	 * Create an empty table that can hold expectedSize items without growing.
+	 * @param expectedSize number of items the table is expected to hold
+	 */
+	public CuckooHashTable280(int expectedSize) {
+		if( expectedSize < 0 )
+			throw new InvalidArgument280Exception("The expected size of the table cannot be negative.");
+		this.allocate(powerOfTwoAtLeast((int) Math.ceil(expectedSize / (2 * maxLoadFactor))));
+		this.newSeeds();
+	}
+
+	/**
+	 * Replace the slot arrays with empty arrays, with a stash of the usual size.
+	 * @param tableLength number of slots in each table; must be a power of two
+	 */
+	protected void allocate(int tableLength) {
+		this.allocate(tableLength, stashSize);
+	}
+
+	/**
+	 * Replace the slot arrays with empty arrays.
+	 * @param tableLength number of slots in each table; must be a power of two
+	 * @param stashSlots number of slots in the stash
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected void allocate(int tableLength, int stashSlots) {
+		this.tableLength = tableLength;
+		this.items = (I[]) new Keyed280[2 * tableLength + stashSlots];
+		this.count = 0;
+		this.stashCount = 0;
+		this.position = beforePos;
+	}
+
+	/**
+	 * Choose new hash functions for the two tables.
+	 */
+	protected void newSeeds() {
+		this.seed = this.seedSource.nextLong();
+		this.slotHash = new MixingHashStrategy280(this.seed);
+	}
+
+	/**
+	 * The seeded 64-bit hash of key k that both tables' slots are taken from.  With the
+	 * default hash strategy the key itself is hashed with the seed; a strategy set with
+	 * setHashStrategy() is respected, with the seed mixed into its result.
+	 * @param k key to be hashed
+	 */
+	protected long slotHash(K k) {
+		if( this.hashStrategy == MixingHashStrategy280.unseeded )
+			return this.slotHash.hash64(k);
+		return MixingHashStrategy280.mix(this.seed ^ this.hashStrategy.hash(k));
+	}
+
+	/**
+	 * Is key k hashed the same way by every seed, apart from the seed itself?  The seed is
+	 * mixed into the hash code of a key, or into the hash given by a strategy set with
+	 * setHashStrategy(), so keys for which that value is equal collide under every seed.
+	 * Only the characters of a CharSequence are hashed together with the seed.
+	 * @param k a key
+	 */
+	protected boolean seedIndependent(K k) {
+		return this.hashStrategy != MixingHashStrategy280.unseeded || !(k instanceof CharSequence);
+	}
+
+	/**
+	 * The value that the seed is mixed into to hash key k, for a key with seedIndependent(k).
+	 * @param k a key
+	 */
+	protected int unseededHash(K k) {
+		return this.hashStrategy == MixingHashStrategy280.unseeded ? k.hashCode() : this.hashStrategy.hash(k);
+	}
+
+	/**
+	 * Number of items that no choice of seeds can place in the two tables.  Keys that
+	 * collide under every seed share both of their slots, so of each group of them all but
+	 * two must be stashed.
+	 * @param items an array of items, some of which may be null
+	 * @param extra another item, or null
+	 */
+	protected int forcedStashCount(I[] items, I extra) {
+		long[] hashes = new long[items.length + 1];
+		int n = 0;
+		for(int i = 0; i <= items.length; i++) {
+			I x = i < items.length ? items[i] : extra;
+			if( x != null && this.seedIndependent(x.key()) )
+				hashes[n++] = this.unseededHash(x.key());
+		}
+		Arrays.sort(hashes, 0, n);
+		int forced = 0;
+		for(int i = 2; i < n; i++)
+			if( hashes[i] == hashes[i - 2] ) forced++;
+		return forced;
+	}
+
+	/**
+	 * Slot of key k in the first table.
+	 * @param h slotHash(k)
+	 */
+	protected int slot0(long h) {
+		return (int) h & (this.tableLength - 1);
+	}
+
+	/**
+	 * Slot of key k in the second table.
+	 * @param h slotHash(k)
+	 */
+	protected int slot1(long h) {
+		return this.tableLength + ((int) (h >>> 32) & (this.tableLength - 1));
+	}
+
+	/**
+	 * Find the slot holding the item with key k.
+	 * @timing O(1) - at most 2 + stashSize slots are examined, unless there are keys that
+	 *   collide under every seed.
+	 * @param k key being sought
+	 * @return The index of the slot holding the item with key k, or -1 if there is none.
+	 */
+	protected int findSlot(K k) {
+		long h = this.slotHash(k);
+		int slot = this.slot0(h);
+		if( this.items[slot] != null && k.compareTo(this.items[slot].key()) == 0 ) return slot;
+		slot = this.slot1(h);
+		if( this.items[slot] != null && k.compareTo(this.items[slot].key()) == 0 ) return slot;
+		if( this.stashCount > 0 )
+			for(slot = 2 * this.tableLength; slot < this.items.length; slot++)
+				if( this.items[slot] != null && k.compareTo(this.items[slot].key()) == 0 ) return slot;
+		return -1;
+	}
+
+	/**
+	 * Put x into the two tables, displacing other items as necessary.  Does not check for
+	 * duplicates or the load factor, and does not count x.
+	 * @param x item to be placed
+	 * @return null if every item found a slot, otherwise the item left without one.
+	 */
+	protected I displace(I x) {
+		// With a load factor below one half, a path this long almost always means a cycle.
+		int maxDisplacements = 8 + 4 * Integer.numberOfTrailingZeros(this.tableLength);
+		long h = this.slotHash(x.key());
+		int slot = this.slot0(h);
+		this.displacementLength = 0;
+		for(int i = 0; i < maxDisplacements; i++) {
+			I resident = this.items[slot];
+			this.items[slot] = x;
+			this.displacementPath[this.displacementLength++] = slot;
+			if( resident == null ) return null;
+
+			// The evicted item moves to its slot in the other table.
+			x = resident;
+			h = this.slotHash(x.key());
+			slot = slot < this.tableLength ? this.slot1(h) : this.slot0(h);
+		}
+		return x;
+	}
+
+	/**
+	 * Undo the last call of displace(), which left homeless without a slot, moving every
+	 * item back to where it was.
+	 * @param homeless the item returned by displace()
+	 */
+	protected void undoDisplacement(I homeless) {
+		I carried = homeless;
+		for(int i = this.displacementLength - 1; i >= 0; i--) {
+			int slot = this.displacementPath[i];
+			I placed = this.items[slot];
+			this.items[slot] = carried;
+			carried = placed;
+		}
+	}
+
+	/**
+	 * Put x into a free slot of the stash.
+	 * @param x item to be stashed
+	 * @return true if there was room in the stash.
+	 */
+	protected boolean stash(I x) {
+		for(int slot = 2 * this.tableLength; slot < this.items.length; slot++)
+			if( this.items[slot] == null ) {
+				this.items[slot] = x;
+				this.stashCount++;
+				return true;
+			}
+		return false;
+	}
+
+	/**
+	 * Double the number of slots in the stash.  The slots of the two tables keep their
+	 * indices.
+	 */
+	protected void growStash() {
+		this.items = Arrays.copyOf(this.items, this.items.length + (this.items.length - 2 * this.tableLength));
+	}
+
+	/**
+	 * Place x, using the stash if x or an item it displaced is left without a slot, and
+	 * growing the stash if it is full.  Does not check for duplicates or the load factor,
+	 * and does not count x.
+	 * @param x item to be placed
+	 */
+	protected void place(I x) {
+		I homeless = this.displace(x);
+		if( homeless != null && !this.stash(homeless) ) {
+			this.growStash();
+			this.stash(homeless);
+		}
+	}
+
+	/**
+	 * Place x, using the stash if x or an item it displaced is left without a slot.  Does
+	 * not check for duplicates or the load factor, and does not count x.
+	 * @param x item to be placed
+	 * @return false if the stash was full, in which case an item has been dropped.
+	 */
+	protected boolean tryPlace(I x) {
+		I homeless = this.displace(x);
+		return homeless == null || this.stash(homeless);
+	}
+
+	/**
+	 * Rebuild the table with fresh hash functions.  The stash has its usual size plus room
+	 * for the items that collide under every seed, twice over so that more such keys can be
+	 * added before the next rebuild.  If maxRebuildAttempts sets of fresh hash functions all
+	 * leave the stash overfull, the last rebuild lets the stash grow, so the rebuild always
+	 * succeeds.
+	 * @param extra an item to be placed in addition to those already in the table, or null
+	 * @param newTableLength number of slots in each table of the rebuilt table
+	 */
+	protected void rebuild(I extra, int newTableLength) {
+		I[] oldItems = this.items;
+		int oldCount = this.count;
+		int stashSlots = stashSize + 2 * this.forcedStashCount(oldItems, extra);
+		for(int attempt = 1; ; attempt++) {
+			this.allocate(newTableLength, stashSlots);
+			this.newSeeds();
+			this.rebuilds++;
+			if( attempt == maxRebuildAttempts ) {
+				if( extra != null ) this.place(extra);
+				for(int i = 0; i < oldItems.length; i++)
+					if( oldItems[i] != null ) this.place(oldItems[i]);
+				break;
+			}
+			boolean placed = extra == null || this.tryPlace(extra);
+			for(int i = 0; placed && i < oldItems.length; i++)
+				if( oldItems[i] != null ) placed = this.tryPlace(oldItems[i]);
+			if( placed ) break;
+		}
+		this.count = oldCount + (extra == null ? 0 : 1);
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception,
+			DuplicateItems280Exception {
+		if( this.findSlot(x.key()) >= 0 )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
+
+		if( this.count + 1 > maxLoadFactor * 2 * this.tableLength ) {
+			this.rebuild(x, 2 * this.tableLength);
+			return;
+		}
+
+		I homeless = this.displace(x);
+		if( homeless == null || this.stash(homeless) ) {
+			this.count++;
+			return;
+		}
+		// The stash is full: undo the displacements and place x by rebuilding with fresh
+		// hash functions, which almost always empties the stash except for the keys that
+		// collide under every seed, for which the rebuilt stash has room.
+		this.undoDisplacement(homeless);
+		this.rebuild(x, this.tableLength);
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		int slot = this.findSlot(x.key());
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key " + x.key() + " was found in the table.");
+		this.items[slot] = x;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findSlot(k) >= 0;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		int slot = this.findSlot(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.items[slot];
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int slot = this.findSlot(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key " + k + " was found in the table.");
+		this.removeSlot(slot);
+	}
+
+	/**
+	 * Empty the given slot.  No other item moves.
+	 * @param slot index of an occupied slot
+	 */
+	protected void removeSlot(int slot) {
+		this.items[slot] = null;
+		if( slot >= 2 * this.tableLength ) this.stashCount--;
+		this.count--;
+	}
+
+	/**
+	 * Obtain the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 * @return The matching object in the hash table if it exists.
+	 */
+	public I obtain(I y) throws ItemNotFound280Exception {
+		I existingItem = obtain(y.key());
+		if( membershipEquals(existingItem, y) ) {
+			return existingItem;
+		}
+		else {
+			throw new ItemNotFound280Exception("The item in the table with key " + y.key() + " does not match y.");
+		}
+	}
+
+	/**
+	 * Delete the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 */
+	public void delete(I y) throws ItemNotFound280Exception {
+		I existingItem = this.obtain(y.key());
+		if( this.membershipEquals(existingItem, y) ) {
+			this.delete(existingItem.key());
+		}
+		else {
+			throw new ItemNotFound280Exception("The item in the table with key " + y.key() + " does not match y.");
+		}
+	}
+
+	/**
+	 * Determine if there is an item matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @return true if y is in the hash table, false otherwise.
+	 */
+	public boolean has(I y) {
+		int slot = this.findSlot(y.key());
+		return slot >= 0 && this.membershipEquals(this.items[slot], y);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0 == ((Comparable<I>) x).compareTo(y);
+		else if (x.equals(y))
+			return true;
+		else
+			return false;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(this.tableLength);
+	}
+
+	/**
+	 * Number of slots in the stash; stashSize unless there are keys that collide under
+	 * every seed.
+	 * @timing O(1)
+	 */
+	public int stashCapacity() {
+		return this.items.length - 2 * this.tableLength;
+	}
+
+	@Override
+	public int capacity() {
+		return this.items.length;
+	}
+
+	@Override
+	public int frequency(I i) {
+		if( this.has(i.key()) ) return 1;
+		else return 0;
+	}
+
+	/**
+	 * Number of items in the stash.
+	 * @timing O(1)
+	 */
+	public int stashCount() {
+		return this.stashCount;
+	}
+
+	/**
+	 * Number of times the table has been rebuilt, either to grow it or because the
+	 * displacements of an insertion formed a cycle.
+	 * @timing O(1)
+	 */
+	public int rebuildCount() {
+		return this.rebuilds;
+	}
+
+	/**
+	 * Move the cursor to the first occupied slot at or after index, or goAfter() if none.
+	 * @timing O(capacity()) - worst case.
+	 * @param index first slot to examine
+	 */
+	protected void findNextItem(int index) {
+		int slot = index;
+		while( slot < this.items.length && this.items[slot] == null )
+			slot++;
+		this.position = slot;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.items[this.position];
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position >= 0 && this.position < this.items.length && this.items[this.position] != null;
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.items[this.position].key();
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return new Pair280<K,I>(this.items[this.position].key(), this.items[this.position]);
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == beforePos;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position >= this.items.length;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if (this.after())
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		this.findNextItem(this.position + 1);
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		this.findNextItem(0);
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = beforePos;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = this.items.length;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new HashTablePosition280(this.position);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if (!(pos instanceof HashTablePosition280))
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					    + " must be a HashTablePosition280");
+		this.position = ((HashTablePosition280) pos).slot;
+	}
+
+	/**
+	 * Place the cursor on the item in the hash table that matches y.
+	 * This only succeeds if y is the exact object in the hash table, or the table
+	 * contains an item that is equal according to y's compareTo method (if it has one).
+	 */
+	public void search(I y) {
+		this.search(y.key());
+		if( this.itemExists() ) {
+			if( !this.membershipEquals(this.item(), y) )
+				this.goAfter();
+		}
+	}
+
+	@Override
+	public void search(K k) {
+		// Keys are unique, so a continued search can never find another item with key k.
+		if( this.searchesContinue && this.itemExists() ) {
+			this.goAfter();
+			return;
+		}
+		int slot = this.findSlot(k);
+		if( slot < 0 ) this.goAfter();
+		else this.position = slot;
+	}
+
+	/**
+	 * Searches the data structure for the first element with key at least as large as k.
+	 * Searching begins from the first slot, or the slot after the current item if searches
+	 * have been set to continue.
+	 *
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	public void searchCeilingOf(K k) {
+		if( this.searchesContinue && this.itemExists() )
+			this.goForth();
+		else
+			this.goFirst();
+		while( this.itemExists() && this.items[this.position].key().compareTo(k) < 0 )
+			this.goForth();
+	}
+
+	/**
+	 * Delete the current item.  The cursor moves to the item that follows it in slot order.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.removeSlot(this.position);
+		this.findNextItem(this.position + 1);
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		if( !itemExists() ) {
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		}
+		if( x.key().compareTo(this.item().key()) != 0 ) {
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		}
+		this.items[this.position] = x;
+	}
+
+	/**
+	 * A spliterator over the items of the table, covering both halves of the slot array
+	 * and the stash.  It splits by slot ranges.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new SlotSpliterator280<I>(this.items, 0, this.items.length, this.count,
+				Spliterator.SIZED | Spliterator.DISTINCT);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		for (int i=0; i<capacity(); i++)
+			if (this.items[i] != null)
+				result.append("\n" + (i < 2 * this.tableLength ? "" : "stash ") + i + ": " + this.items[i].toString());
+		return result.toString();
+	}
+
+	public static void main( String args[] ) {
+
+		class Skill implements Keyed280<String> {
+			String name;
+			private int skillCost;
+
+			public Skill(String s, int c) {
+				this.name = s;
+				this.skillCost = c;
+			}
+			public String key() { return name; }
+
+			public String toString() {
+				return name + ":" + this.skillCost;
+			}
+		}
+
+		CuckooHashTable280<String, Skill> H = new CuckooHashTable280<String, Skill>();
+
+		// Test insert
+		H.insert(new Skill("Shield Bash", 5));
+		try {
+			H.insert(new Skill("Shield Bash", 5));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate item, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+		H.set(new Skill("Shield Bash", 77));
+		if( H.obtain("Shield Bash").skillCost != 77 )
+			System.out.println("Error: skill cost of Shield Bash should have been updated to 77 but it wasn't.");
+		try {
+			H.obtain("Shield Crash");
+			System.out.println("Error: expected exception when trying to obtain(\"Shield Crash\"), got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		H.insert(new Skill("Ground Slam", 2));
+		H.insert(new Skill("Heavy Strike", 5));
+		H.insert(new Skill("Explosive Arrow", 11));
+		H.delete("Ground Slam");
+		if( H.has("Ground Slam") || !H.has("Heavy Strike") || H.count() != 3 )
+			System.out.println("Error: wrong contents after deleting Ground Slam.");
+
+		// Test the cursor.
+		H.search("Heavy Strike");
+		if( !H.itemExists() || H.itemKey().compareTo("Heavy Strike") != 0 )
+			System.out.println("Error: search should have found Heavy Strike.");
+		H.setItem(new Skill("Heavy Strike", 6));
+		if( H.obtain("Heavy Strike").skillCost != 6 )
+			System.out.println("Error: setItem() should have replaced Heavy Strike.");
+		int visited = 0;
+		H.goFirst();
+		while( H.itemExists() ) {
+			visited++;
+			H.goForth();
+		}
+		if( visited != 3 ) System.out.println("Error: iteration should visit 3 items but visited " + visited);
+		H.search("Explosive Arrow");
+		H.deleteItem();
+		if( H.has("Explosive Arrow") || H.count() != 2 )
+			System.out.println("Error: deleteItem() should have deleted Explosive Arrow.");
+
+		// Larger tables: every item must remain reachable through growth, rebuilds and deletion.
+		CuckooHashTable280<String, Skill> big = new CuckooHashTable280<String, Skill>();
+		for(int i = 0; i < 100000; i++)
+			big.insert(new Skill("Quest " + i, i));
+		for(int i = 0; i < 100000; i += 2)
+			big.delete("Quest " + i);
+		for(int i = 0; i < 100000; i++)
+			if( big.has("Quest " + i) != (i % 2 == 1) )
+				System.out.println("Error: wrong membership for \"Quest " + i + "\".");
+		if( big.count() != 50000 ) System.out.println("Error: table should have 50000 items but it has " + big.count());
+		int iterated = 0;
+		big.goFirst();
+		while( big.itemExists() ) {
+			iterated++;
+			big.goForth();
+		}
+		if( iterated != 50000 ) System.out.println("Error: iteration should visit 50000 items but visited " + iterated);
+		if( big.stashCapacity() != stashSize )
+			System.out.println("Error: without keys that collide under every seed the stash should keep its usual size, not " + big.stashCapacity());
+
+		// A stash grown by bad luck returns to its usual size at the next rebuild, and
+		// insertions that fill it rebuild the table rather than grow it further.
+		big.growStash();
+		big.growStash();
+		big.rebuild(null, big.tableLength);
+		if( big.stashCapacity() != stashSize || big.count() != 50000 || !big.has("Quest 99999") )
+			System.out.println("Error: a rebuild should put the stash back to " + stashSize + " slots, not " + big.stashCapacity());
+		big.growStash();
+		int rebuilt = big.rebuildCount();
+		for(int i = 0; i < 100000; i++)
+			big.insert(new Skill("Extra " + i, i));
+		for(int i = 0; i < 100000; i++)
+			big.delete("Extra " + i);
+		if( big.rebuildCount() == rebuilt || big.stashCapacity() != stashSize || big.count() != 50000 )
+			System.out.println("Error: growing the table should rebuild the stash at " + stashSize + " slots, not " + big.stashCapacity());
+
+		// Strings with equal hashCode() values: the seeded hash of their characters separates
+		// them, so all are stored, in the tables rather than an overgrown stash.
+		CuckooHashTable280<String, Skill> same = new CuckooHashTable280<String, Skill>();
+		String[] pieces = {"Aa", "BB"};
+		String[] collisions = new String[1024];
+		for(int i = 0; i < collisions.length; i++) {
+			StringBuilder name = new StringBuilder();
+			for(int b = 0; b < 10; b++)
+				name.append(pieces[(i >> b) & 1]);
+			collisions[i] = name.toString();
+		}
+		for(int i = 0; i < collisions.length; i++)
+			same.insert(new Skill(collisions[i], i));
+		for(int i = 0; i < collisions.length; i++)
+			if( !same.has(collisions[i]) || same.obtain(collisions[i]).skillCost != i )
+				System.out.println("Error: the key " + collisions[i] + " should have been stored.");
+		if( same.count() != collisions.length || same.isFull() || same.stashCapacity() != stashSize )
+			System.out.println("Error: all " + collisions.length + " strings with equal hash codes should fit without growing the stash.");
+		if( same.capacity() > 2 * 4096 + stashSize )
+			System.out.println("Error: equal hash codes should not make the table grow beyond its load factor; capacity " + same.capacity());
+
+		// Keys that collide under every seed (equal hashCode(), not CharSequences) overflow
+		// into the stash instead of making the insertion fail or the table grow.
+		class Clash implements Comparable<Clash> {
+			int id;
+			Clash(int id) { this.id = id; }
+			public int compareTo(Clash o) { return Integer.compare(this.id, o.id); }
+			public int hashCode() { return 280; }
+		}
+		class Clasher implements Keyed280<Clash> {
+			Clash k;
+			Clasher(int id) { this.k = new Clash(id); }
+			public Clash key() { return k; }
+		}
+		CuckooHashTable280<Clash, Clasher> clash = new CuckooHashTable280<Clash, Clasher>();
+		for(int i = 0; i < 100; i++)
+			clash.insert(new Clasher(i));
+		for(int i = 0; i < 100; i += 3)
+			clash.delete(new Clash(i));
+		int clashVisited = 0;
+		for(clash.goFirst(); clash.itemExists(); clash.goForth())
+			clashVisited++;
+		for(int i = 0; i < 100; i++)
+			if( clash.has(new Clash(i)) != (i % 3 != 0) )
+				System.out.println("Error: wrong membership of colliding key " + i + ".");
+		if( clash.stashCapacity() > stashSize + 2 * 98 || clash.stashCount() < 64 )
+			System.out.println("Error: the stash should hold at least the 64 keys that must be stashed, in at most " + (stashSize + 2 * 98)
+					+ " slots, not " + clash.stashCount() + " in " + clash.stashCapacity());
+		if( clash.count() != 66 || clashVisited != 66 || clash.capacity() > 2 * 256 + 128 )
+			System.out.println("Error: 66 colliding keys should remain in a table of modest capacity, not " + clash.count()
+					+ " (" + clashVisited + " visited) in " + clash.capacity() + " slots.");
+
+		System.out.println("Stash: " + big.stashCount() + " items; rebuilds: " + big.rebuildCount());
+		// Streams split by slot ranges; the halves' estimates add up to the count.
+		if( big.stream().count() != 50000 || big.parallelStream().mapToLong(x -> x.skillCost).sum() != 2500000000L )
+			System.out.println("Error: the stream of the table should hold the 50000 odd quests.");
+		Spliterator<Skill> rest = big.spliterator();
+		Spliterator<Skill> part = rest.trySplit();
+		if( part == null || part.estimateSize() + rest.estimateSize() != 50000 || rest.hasCharacteristics(Spliterator.SIZED) )
+			System.out.println("Error: the split estimates should add up to 50000 and no longer be exact.");
+
+		System.out.println("Regression test complete.");
+	}
+}
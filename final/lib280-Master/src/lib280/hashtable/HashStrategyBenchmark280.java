@@ -0,0 +1,82 @@
+package lib280.hashtable;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+import lib280.base.Keyed280;
+import lib280.dictionary.HashStrategy280;
+import lib280.dictionary.IdentityHashStrategy280;
+import lib280.dictionary.MixingHashStrategy280;
+
+/**
+ * Compares the chain-length distributions that different hash strategies give a
+ * KeyedChainedHashTable280 of string keys.
+ *
+ * Usage: java lib280.hashtable.HashStrategyBenchmark280 [file.csv]
+ *
+ * The keys are the first column of the CSV file (for example a quest file such as
+ * quests100000.csv).  Without a file, the keys "Quest0", "Quest1", ... "Quest99999"
+ * are used, which have the same form as the quest names.
+ */
+public class HashStrategyBenchmark280 {
+
+	/** A key with nothing else attached. */
+	protected static class Name implements Keyed280<String> {
+		String name;
+
+		Name(String name) {
+			this.name = name;
+		}
+		public String key() { return name; }
+	}
+
+	/**
+	 * Build a table of the given keys using strategy, and print its chain-length distribution
+	 * and the time taken to look up every key.
+	 */
+	protected static void report(String title, HashStrategy280 strategy, String[] keys) {
+		KeyedChainedHashTable280<String, Name> H = new KeyedChainedHashTable280<String, Name>();
+		H.setHashStrategy(strategy);
+		for(int i = 0; i < keys.length; i++)
+			if( !H.has(keys[i]) ) H.insert(new Name(keys[i]));
+
+		long start = System.nanoTime();
+		for(int i = 0; i < keys.length; i++)
+			H.obtain(keys[i]);
+		long elapsed = System.nanoTime() - start;
+
+		int[] counts = H.chainLengthCounts();
+		System.out.println(title + ": " + H.count() + " keys in " + H.capacity() + " buckets, "
+				+ "longest chain " + (counts.length - 1) + ", "
+				+ (elapsed / keys.length) + " ns per obtain()");
+		for(int length = 0; length < counts.length; length++)
+			if( counts[length] > 0 )
+				System.out.println("    chains of length " + length + ": " + counts[length]);
+	}
+
+	public static void main(String[] args) throws IOException {
+		String[] keys;
+		if( args.length > 0 ) {
+			java.util.ArrayList<String> read = new java.util.ArrayList<String>();
+			BufferedReader in = new BufferedReader(new FileReader(args[0]));
+			String line;
+			while( (line = in.readLine()) != null )
+				if( line.length() > 0 ) read.add(line.split(",")[0]);
+			in.close();
+			keys = read.toArray(new String[0]);
+		}
+		else {
+			keys = new String[100000];
+			for(int i = 0; i < keys.length; i++)
+				keys[i] = "Quest" + i;
+		}
+
+		// Run each strategy twice so the second runs are timed with a warmed-up JIT.
+		for(int run = 0; run < 2; run++) {
+			report("hashCode() masked (before)", new IdentityHashStrategy280(), keys);
+			report("mixed and masked (after)", MixingHashStrategy280.unseeded, keys);
+			report("seeded, mixed and masked", MixingHashStrategy280.randomlySeeded(), keys);
+		}
+	}
+}
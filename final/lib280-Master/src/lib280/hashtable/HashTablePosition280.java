@@ -0,0 +1,15 @@
+package lib280.hashtable;
+
+import lib280.base.CursorPosition280;
+
+/**
+ * A saved cursor position for an open-addressing hash table: the index of
+ * the slot at which the cursor was positioned.
+ */
+public class HashTablePosition280 implements CursorPosition280 {
+	protected int slot;
+
+	public HashTablePosition280(int slot) {
+		this.slot = slot;
+	}
+}
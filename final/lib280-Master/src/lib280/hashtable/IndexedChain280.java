@@ -0,0 +1,419 @@
+package lib280.hashtable;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.ItemNotFound280Exception;
+import lib280.exception.NoCurrentItem280Exception;
+import lib280.list.BilinkedIterator280;
+import lib280.list.BilinkedList280;
+import lib280.list.BilinkedNode280;
+import lib280.list.LinkedList280;
+import lib280.list.LinkedNode280;
+import lib280.tree.TwoThreeTree280;
+
+/**
+ * A chain for a separately chained hash table that indexes itself when it becomes long.
+ * While the chain holds at most treeifyThreshold items it is an ordinary doubly linked list.
+ * Chains only grow that long when many keys collide, for example because of a poor hash
+ * function or keys chosen by an adversary; the chain then builds a TwoThreeTree280 from
+ * the index key of each item to its node, so that items are found in O(log n) time
+ * rather than O(n).  The index is discarded when the chain shrinks below
+ * untreeifyThreshold.  The items stay in the linked list in either case, so iteration
+ * and cursor positions behave exactly as for a plain list.
+ *
+ * Subclasses decide what an item is indexed by.  Items whose index key is null cannot
+ * be indexed, and a chain containing one stays a plain list until it is cleared.
+ * Several items may have the same index key; they share one index entry, and finding the
+ * first of them in the list takes a linear scan.
+ */
+public abstract class IndexedChain280<K extends Comparable<? super K>, I> extends BilinkedList280<I> {
+
+	/** The chain builds its index when it holds more than this many items. */
+	protected static final int treeifyThreshold = 8;
+
+	/** The chain discards its index when it holds fewer than this many items. */
+	protected static final int untreeifyThreshold = 6;
+
+	/** An index entry: a node holding an item with the given key, and the number of such items. */
+	protected static class IndexEntry<K extends Comparable<? super K>, I> implements Keyed280<K> {
+		protected K key;
+		protected BilinkedNode280<I> node;
+		protected int multiplicity;
+
+		protected IndexEntry(K key, BilinkedNode280<I> node) {
+			this.key = key;
+			this.node = node;
+			this.multiplicity = 1;
+		}
+
+		@Override
+		public K key() {
+			return this.key;
+		}
+	}
+
+	/** A 2-3 tree of index entries that can return a missing entry as null. */
+	protected static class Index<K extends Comparable<? super K>, I> extends TwoThreeTree280<K, IndexEntry<K, I>> {
+		/**
+		 * The entry with key k, or null if there is none.
+		 * @param k key being sought
+		 */
+		protected IndexEntry<K, I> entryOf(K k) {
+			return this.find(k);
+		}
+	}
+
+	/** Index from key to node, or null if the chain is currently a plain list. */
+	protected Index<K, I> index;
+
+	/** Number of items in the chain. */
+	protected int length;
+
+	/** False once an item without an index key has been added to the chain. */
+	protected boolean indexable = true;
+
+	/** Nesting depth of deletion methods, so that a deletion implemented by another is only recorded once. */
+	protected int deletionDepth;
+
+	/** Create an empty chain. */
+	public IndexedChain280() {
+		super();
+	}
+
+	/**
+	 * The key by which item x is indexed.
+	 * @param x an item of the chain
+	 * @return the index key of x, or null if x cannot be indexed.
+	 */
+	protected abstract K indexKey(I x);
+
+	/**
+	 * Has plain chain L grown past treeifyThreshold items, so that a table should replace
+	 * it with an indexed chain?  Tables start every bucket as a plain LinkedList280, which
+	 * is smaller and quicker to build, and switch only the rare long chain to this form.
+	 * @timing O(treeifyThreshold)
+	 * @param L a chain
+	 */
+	public static boolean isLong(LinkedList280<?> L) {
+		int n = 0;
+		for(LinkedNode280<?> node = L.isEmpty() ? null : L.firstNode(); node != null; node = node.nextNode())
+			if( ++n > treeifyThreshold ) return true;
+		return false;
+	}
+
+	/**
+	 * Is the chain currently indexed?
+	 * @timing O(1)
+	 */
+	public boolean isIndexed() {
+		return this.index != null;
+	}
+
+	/**
+	 * Number of items in the chain.
+	 * @timing O(1)
+	 */
+	public int length() {
+		return this.length;
+	}
+
+	/**
+	 * Add node to the index.  If its item has no index key, the index is discarded for good.
+	 * @param node a node of the chain
+	 */
+	protected void addToIndex(BilinkedNode280<I> node) {
+		K k = this.indexKey(node.item());
+		if( k == null ) {
+			this.index = null;
+			this.indexable = false;
+			return;
+		}
+		IndexEntry<K, I> entry = this.index.entryOf(k);
+		if( entry == null ) this.index.insert(new IndexEntry<K, I>(k, node));
+		else entry.multiplicity++;
+	}
+
+	/**
+	 * Build the index from the nodes currently in the chain.
+	 * @timing O(length() log length())
+	 */
+	protected void treeify() {
+		this.index = new Index<K, I>();
+		LinkedNode280<I> node = this.head;
+		while( node != null && this.index != null ) {
+			this.addToIndex((BilinkedNode280<I>) node);
+			node = node.nextNode();
+		}
+	}
+
+	@Override
+	protected BilinkedNode280<I> createNewNode(I item) {
+		// Every insertion creates exactly one node, so the chain is counted and indexed here.
+		BilinkedNode280<I> node = super.createNewNode(item);
+		if( this.index == null && this.indexable && this.length + 1 > treeifyThreshold )
+			this.treeify();
+		if( this.index != null ) this.addToIndex(node);
+		this.length++;
+		return node;
+	}
+
+	/**
+	 * Record that node has been unlinked from the chain.
+	 * @param node the node that was removed
+	 */
+	protected void removed(BilinkedNode280<I> node) {
+		this.length--;
+		if( this.index == null ) return;
+		if( this.length < untreeifyThreshold ) {
+			this.index = null;
+			return;
+		}
+		this.removeFromIndex(node);
+	}
+
+	/**
+	 * Remove node from the index.  If another item has the same key, the index entry is kept for it.
+	 * @precond isIndexed()
+	 * @param node a node whose item is indexed
+	 */
+	protected void removeFromIndex(BilinkedNode280<I> node) {
+		K k = this.indexKey(node.item());
+		IndexEntry<K, I> entry = this.index.entryOf(k);
+		entry.multiplicity--;
+		if( entry.multiplicity == 0 )
+			this.index.delete(k);
+		else if( entry.node == node ) {
+			// Another item with the same key remains; find its node.
+			LinkedNode280<I> other = this.head;
+			while( other == node || k.compareTo(this.indexKey(other.item())) != 0 )
+				other = other.nextNode();
+			entry.node = (BilinkedNode280<I>) other;
+		}
+	}
+
+	/**
+	 * The first node of the chain holding an item with index key k.
+	 * @timing O(log length()) when indexed and k is not duplicated, O(length()) otherwise.
+	 * @param k key being sought
+	 * @return the first node holding an item with index key k, or null if there is none.
+	 */
+	protected BilinkedNode280<I> nodeWithKey(K k) {
+		if( this.index != null ) {
+			IndexEntry<K, I> entry = this.index.entryOf(k);
+			if( entry == null ) return null;
+			if( entry.multiplicity == 1 ) return entry.node;
+		}
+		LinkedNode280<I> node = this.head;
+		while( node != null ) {
+			K nodeKey = this.indexKey(node.item());
+			if( nodeKey != null && k.compareTo(nodeKey) == 0 ) return (BilinkedNode280<I>) node;
+			node = node.nextNode();
+		}
+		return null;
+	}
+
+	/**
+	 * An iterator positioned at the first item with index key k, or after the end if there is none.
+	 * @timing O(log length()) when indexed and k is not duplicated, O(length()) otherwise.
+	 * @param k key being sought
+	 */
+	public BilinkedIterator280<I> iteratorAtKey(K k) {
+		BilinkedNode280<I> node = this.nodeWithKey(k);
+		if( node == null ) return new BilinkedIterator280<I>(this, this.tail, null);
+		return new BilinkedIterator280<I>(this, node.previousNode(), node);
+	}
+
+	/**
+	 * Move the cursor to the first item with index key k, or after the end if there is none.
+	 * @timing O(log length()) when indexed and k is not duplicated, O(length()) otherwise.
+	 * @param k key being sought
+	 * @return true if an item with index key k was found.
+	 */
+	public boolean searchKey(K k) {
+		BilinkedNode280<I> node = this.nodeWithKey(k);
+		if( node == null ) {
+			this.goAfter();
+			return false;
+		}
+		this.position = node;
+		this.prevPosition = node.previousNode();
+		return true;
+	}
+
+	/**
+	 * Replace the item at the cursor with x, keeping its place in the chain.
+	 * @precond itemExists()
+	 * @param x the replacement item
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public void setItem(I x) throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		BilinkedNode280<I> node = (BilinkedNode280<I>) this.position;
+		if( this.index != null ) {
+			K newKey = this.indexKey(x);
+			if( newKey == null || newKey.compareTo(this.indexKey(node.item())) != 0 ) {
+				this.removeFromIndex(node);
+				node.setItem(x);
+				this.addToIndex(node);
+				return;
+			}
+		}
+		node.setItem(x);
+	}
+
+	@Override
+	public void search(I x) {
+		// An indexed chain jumps straight to a matching item when a new search starts.
+		if( this.index != null && !this.continueSearch ) {
+			K k = this.indexKey(x);
+			if( k != null && this.searchKey(k) && this.membershipEquals(x, this.item()) )
+				return;
+		}
+		super.search(x);
+	}
+
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( this.deletionDepth > 0 || !this.itemExists() ) {
+			super.deleteItem();
+			return;
+		}
+		BilinkedNode280<I> node = (BilinkedNode280<I>) this.position;
+		this.deletionDepth++;
+		try {
+			super.deleteItem();
+		}
+		finally {
+			this.deletionDepth--;
+		}
+		this.removed(node);
+	}
+
+	@Override
+	public void deleteFirst() throws ContainerEmpty280Exception {
+		if( this.deletionDepth > 0 || this.isEmpty() ) {
+			super.deleteFirst();
+			return;
+		}
+		BilinkedNode280<I> node = (BilinkedNode280<I>) this.head;
+		this.deletionDepth++;
+		try {
+			super.deleteFirst();
+		}
+		finally {
+			this.deletionDepth--;
+		}
+		this.removed(node);
+	}
+
+	@Override
+	public void deleteLast() throws ContainerEmpty280Exception {
+		if( this.deletionDepth > 0 || this.isEmpty() ) {
+			super.deleteLast();
+			return;
+		}
+		BilinkedNode280<I> node = (BilinkedNode280<I>) this.tail;
+		this.deletionDepth++;
+		try {
+			super.deleteLast();
+		}
+		finally {
+			this.deletionDepth--;
+		}
+		this.removed(node);
+	}
+
+	@Override
+	public void delete(I x) throws ItemNotFound280Exception {
+		if( this.deletionDepth > 0 || this.isEmpty() ) {
+			super.delete(x);
+			return;
+		}
+		// Find the node that the inherited delete() will remove; it uses the same search.
+		CursorPosition280 savePos = this.currentPosition();
+		this.search(x);
+		BilinkedNode280<I> node = (BilinkedNode280<I>) this.position;
+		this.goPosition(savePos);
+
+		this.deletionDepth++;
+		try {
+			super.delete(x);
+		}
+		finally {
+			this.deletionDepth--;
+		}
+		this.removed(node);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		this.index = null;
+		this.length = 0;
+		this.indexable = true;
+	}
+
+	public static void main(String args[]) {
+		IndexedChain280<Integer, Integer> L = new IndexedChain280<Integer, Integer>() {
+			protected Integer indexKey(Integer x) {
+				return x;
+			}
+		};
+
+		for(int i = 0; i < treeifyThreshold; i++)
+			L.insert(i);
+		if( L.isIndexed() ) System.out.println("Error: a chain of " + treeifyThreshold + " items should not be indexed.");
+		L.insertLast(treeifyThreshold);
+		if( !L.isIndexed() ) System.out.println("Error: a chain of " + (treeifyThreshold + 1) + " items should be indexed.");
+		if( L.length() != treeifyThreshold + 1 ) System.out.println("Error: chain length should be " + (treeifyThreshold + 1));
+
+		// Items inserted in every way can be found through the index.
+		L.goFirst();
+		L.goForth();
+		L.insertBefore(100);
+		L.insertNext(101);
+		L.insertPriorGo(102);
+		for(int k : new int[] {0, 3, treeifyThreshold, 100, 101, 102}) {
+			if( !L.searchKey(k) || L.item() != k )
+				System.out.println("Error: searchKey(" + k + ") should find " + k);
+			if( L.iteratorAtKey(k).item() != k )
+				System.out.println("Error: iteratorAtKey(" + k + ") should be at " + k);
+		}
+		if( L.searchKey(50) ) System.out.println("Error: searchKey(50) should not find anything.");
+		if( !L.iteratorAtKey(50).after() ) System.out.println("Error: iteratorAtKey(50) should be after the end.");
+
+		// Duplicates share an entry.
+		L.insertLast(3);
+		L.delete(3);
+		if( !L.has(3) ) System.out.println("Error: second copy of 3 should still be in the chain.");
+		L.delete(3);
+		if( L.has(3) ) System.out.println("Error: 3 should no longer be in the chain.");
+
+		// Deleting in every way keeps the index and the list consistent.
+		L.deleteFirst();
+		L.deleteLast();
+		L.searchKey(101);
+		L.deleteItem();
+		if( L.has(101) ) System.out.println("Error: 101 should have been deleted.");
+		if( L.length() != 8 ) System.out.println("Error: chain length should be 8 but is " + L.length());
+		int n = 0;
+		BilinkedIterator280<Integer> iter = L.iterator();
+		while( iter.itemExists() ) {
+			if( !L.iteratorAtKey(iter.item()).item().equals(iter.item()) )
+				System.out.println("Error: " + iter.item() + " is in the list but not found through the index.");
+			n++;
+			iter.goForth();
+		}
+		if( n != L.length() ) System.out.println("Error: list has " + n + " items but length() is " + L.length());
+
+		// Shrinking the chain discards the index.
+		while( L.length() >= untreeifyThreshold ) L.deleteFirst();
+		if( L.isIndexed() ) System.out.println("Error: a chain of " + L.length() + " items should not be indexed.");
+		L.clear();
+		if( L.length() != 0 || L.isIndexed() ) System.out.println("Error: cleared chain should be empty and unindexed.");
+
+		System.out.println("Regression test complete.");
+	}
+}
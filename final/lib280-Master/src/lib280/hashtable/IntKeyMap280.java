@@ -0,0 +1,227 @@
+package lib280.hashtable;
+
+import lib280.base.Container280;
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.InvalidArgument280Exception;
+import lib280.exception.ItemNotFound280Exception;
+
+/**
+ * The keys of a map from primitive int keys to primitive values.  Keys are stored
+ * unboxed in an array with linear probing, and a subclass keeps the values in a
+ * parallel array of its own value type; this class does the probing, growth and
+ * deletion, and tells the subclass when values must move between slots.
+ */
+public abstract class IntKeyMap280 implements Container280 {
+
+	/** Keys of the entries, indexed by slot. */
+	protected int[] keys;
+
+	/** Is each slot in use? */
+	protected boolean[] used;
+
+	/** Number of entries in the map. */
+	protected int count;
+
+	/** The map grows when its load factor would exceed this. */
+	protected static final double maxLoadFactor = 0.75;
+
+	/**
+	 * Create an empty map able to hold expectedSize entries without growing.
+	 * @param expectedSize number of entries expected to be stored
+	 */
+	protected IntKeyMap280(int expectedSize) {
+		if( expectedSize < 0 )
+			throw new InvalidArgument280Exception("The expected size of the map cannot be negative.");
+		int length = 2;
+		while( length * maxLoadFactor < expectedSize ) length <<= 1;
+		this.allocate(length);
+	}
+
+	/**
+	 * Replace the slot arrays with empty arrays of the given length.
+	 * @param length The new number of slots; must be a power of two.
+	 */
+	protected void allocate(int length) {
+		this.keys = new int[length];
+		this.used = new boolean[length];
+		this.allocateValues(length);
+		this.count = 0;
+	}
+
+	/**
+	 * Replace the value array with an empty one of the given length.
+	 * @param length the number of slots
+	 */
+	protected abstract void allocateValues(int length);
+
+	/**
+	 * Copy the value in slot from to slot to.
+	 * @param from an occupied slot
+	 * @param to the slot its entry is moving to
+	 */
+	protected abstract void moveValue(int from, int to);
+
+	/**
+	 * Replace the value array with one of length capacity(), moving the value in each used
+	 * slot i of the old array to slot newSlots[i].
+	 * @param oldUsed which slots of the old array were in use
+	 * @param newSlots new slot of the entry in each used slot of the old array
+	 */
+	protected abstract void rehashValues(boolean[] oldUsed, int[] newSlots);
+
+	/**
+	 * The value in the given slot, as text.
+	 * @param slot an occupied slot
+	 */
+	protected abstract String valueString(int slot);
+
+	/**
+	 * Home slot of key k: the key's bits are mixed (MurmurHash3 finalizer) and then masked.
+	 * @param k a key
+	 */
+	protected int homeSlot(int k) {
+		return MixingHashStrategy280.mix(k) & (this.keys.length - 1);
+	}
+
+	/**
+	 * Find the slot holding key k, or the empty slot where it would be placed.
+	 * @param k key being sought
+	 */
+	protected int probe(int k) {
+		int mask = this.keys.length - 1;
+		int slot = this.homeSlot(k);
+		while( this.used[slot] && this.keys[slot] != k )
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * The slot holding key k, adding k first (growing the map if need be) if it is absent.
+	 * The value in the slot of a key just added is whatever the slot last held.
+	 * @param k the key
+	 */
+	protected int slotFor(int k) {
+		int slot = this.probe(k);
+		if( !this.used[slot] ) {
+			if( (double) (this.count + 1) / this.keys.length > maxLoadFactor ) {
+				this.expandHashArray();
+				slot = this.probe(k);
+			}
+			this.keys[slot] = k;
+			this.used[slot] = true;
+			this.count++;
+		}
+		return slot;
+	}
+
+	/**
+	 * The slot holding key k.
+	 * @param k the key
+	 * @throws ItemNotFound280Exception if k has no value.
+	 */
+	protected int slotOf(int k) throws ItemNotFound280Exception {
+		int slot = this.probe(k);
+		if( !this.used[slot] )
+			throw new ItemNotFound280Exception("No value is associated with the specified key.");
+		return slot;
+	}
+
+	/**
+	 * Double the capacity of the map and re-place every entry.
+	 */
+	protected void expandHashArray() {
+		int[] oldKeys = this.keys;
+		boolean[] oldUsed = this.used;
+		int[] newSlots = new int[oldKeys.length];
+		this.keys = new int[oldKeys.length * 2];
+		this.used = new boolean[oldKeys.length * 2];
+		for(int i = 0; i < oldKeys.length; i++) {
+			if( oldUsed[i] ) {
+				int slot = this.probe(oldKeys[i]);
+				this.keys[slot] = oldKeys[i];
+				this.used[slot] = true;
+				newSlots[i] = slot;
+			}
+		}
+		this.rehashValues(oldUsed, newSlots);
+	}
+
+	/**
+	 * Does key k have a value?
+	 * @param k the key
+	 */
+	public boolean has(int k) {
+		return this.used[this.probe(k)];
+	}
+
+	/**
+	 * Remove key k and its value.  Later entries of the cluster are moved back
+	 * instead of leaving a tombstone.
+	 * @param k the key
+	 * @throws ItemNotFound280Exception if k has no value.
+	 */
+	public void delete(int k) throws ItemNotFound280Exception {
+		int hole = this.slotOf(k);
+		int mask = this.keys.length - 1;
+		int next = hole;
+		while( true ) {
+			next = (next + 1) & mask;
+			if( !this.used[next] ) break;
+			int home = this.homeSlot(this.keys[next]);
+			// The entry at next may fill the hole only if its home is not cyclically in (hole, next].
+			boolean homeBetween = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+			if( !homeBetween ) {
+				this.keys[hole] = this.keys[next];
+				this.moveValue(next, hole);
+				hole = next;
+			}
+		}
+		this.used[hole] = false;
+		this.count--;
+	}
+
+	/**
+	 * The keys of the map, in no particular order.
+	 */
+	public int[] keys() {
+		int[] result = new int[this.count];
+		int j = 0;
+		for(int i = 0; i < this.keys.length; i++)
+			if( this.used[i] ) result[j++] = this.keys[i];
+		return result;
+	}
+
+	/**
+	 * Number of entries in the map.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(this.keys.length);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer("{");
+		for(int i = 0; i < this.keys.length; i++)
+			if( this.used[i] ) {
+				if( result.length() > 1 ) result.append(", ");
+				result.append(this.keys[i] + "=" + this.valueString(i));
+			}
+		return result.append("}").toString();
+	}
+}
@@ -0,0 +1,294 @@
+package lib280.hashtable;
+
+import lib280.base.IntKeyed280;
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.*;
+
+/**
+ * A hash table of items keyed by a primitive int.  Keys are kept unboxed in an int
+ * array parallel to the item array, and collisions are resolved by linear probing,
+ * so a lookup allocates nothing and never calls hashCode() or compareTo().
+ * Deletion shifts the following items of the cluster back instead of leaving
+ * tombstones.
+ *
+ * The cursor is the index of a slot.  Iteration visits the items in slot order, starting
+ * after an empty slot and wrapping around the end of the array back to it.  Only
+ * deleteItem() may be used to delete items during an iteration.
+ */
+public class IntKeyedHashTable280<I extends IntKeyed280> extends PrimitiveKeyedHashTable280<I> {
+
+	/** Keys of the items, indexed by slot. */
+	protected int[] keys;
+
+	/**
+	 * Create an empty table with the default capacity.
+	 */
+	public IntKeyedHashTable280() {
+		this(IntKeyedHashTable280.defaultHashArrayLength);
+	}
+
+	/**
+	 * Create an empty table able to hold expectedSize items without growing.
+	 * @param expectedSize number of items expected to be stored
+	 */
+	public IntKeyedHashTable280(int expectedSize) {
+		super(expectedSize);
+	}
+
+	@Override
+	protected void allocateKeys(int length) {
+		this.keys = new int[length];
+	}
+
+	@Override
+	protected int keyHash(int slot) {
+		return MixingHashStrategy280.mix(this.keys[slot]);
+	}
+
+	@Override
+	protected void moveKey(int from, int to) {
+		this.keys[to] = this.keys[from];
+	}
+
+	@Override
+	protected void rehashKeys(Object[] oldItems, int[] newSlots) {
+		int[] oldKeys = this.keys;
+		this.keys = new int[this.items.length];
+		for(int i = 0; i < oldItems.length; i++)
+			if( oldItems[i] != null ) this.keys[newSlots[i]] = oldKeys[i];
+	}
+
+	/**
+	 * Home slot of key k: the key's bits are mixed (MurmurHash3 finalizer) and then masked.
+	 * @param k a key
+	 */
+	protected int homeSlot(int k) {
+		return MixingHashStrategy280.mix(k) & (this.items.length - 1);
+	}
+
+	/**
+	 * Find the slot holding the item with key k.
+	 * @param k key being sought
+	 * @return The index of the slot, or -1 if there is no item with key k.
+	 */
+	protected int findSlot(int k) {
+		int mask = this.items.length - 1;
+		int slot = this.homeSlot(k);
+		while( this.items[slot] != null ) {
+			if( this.keys[slot] == k ) return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Insert x into the table.
+	 * @param x item to be inserted
+	 * @throws DuplicateItems280Exception if the table already has an item with key x.intKey().
+	 */
+	public void insert(I x) throws DuplicateItems280Exception {
+		this.ensureRoomForOne();
+		int k = x.intKey();
+		int mask = this.items.length - 1;
+		int slot = this.homeSlot(k);
+		while( this.items[slot] != null ) {
+			if( this.keys[slot] == k )
+				throw new DuplicateItems280Exception("Error: table already has an item with key " + k);
+			slot = (slot + 1) & mask;
+		}
+		this.keys[slot] = k;
+		this.items[slot] = x;
+		this.count++;
+	}
+
+	/**
+	 * Replace the item whose key matches the key of x with the item x.
+	 * @param x the replacement item
+	 * @throws ItemNotFound280Exception if there is no item with key x.intKey().
+	 */
+	public void set(I x) throws ItemNotFound280Exception {
+		int slot = this.findSlot(x.intKey());
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key " + x.intKey() + " was found in the table.");
+		this.items[slot] = x;
+	}
+
+	/**
+	 * Does the table contain an item with key k?
+	 * @param k key whose presence is to be determined
+	 */
+	public boolean has(int k) {
+		return this.findSlot(k) >= 0;
+	}
+
+	/**
+	 * The item with key k.
+	 * @param k key of the item to be obtained
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	public I obtain(int k) throws ItemNotFound280Exception {
+		int slot = this.findSlot(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.itemAt(slot);
+	}
+
+	/**
+	 * Delete the item with key k.  If the cursor is on another item, it stays on that item.
+	 * Only deleteItem() is safe during an iteration: after delete() an iteration that goes
+	 * on may visit some items twice or miss some (see deleteSlot()).
+	 * @param k the key of the item to be deleted
+	 * @throws ItemNotFound280Exception if there is no item with key k.
+	 */
+	public void delete(int k) throws ItemNotFound280Exception {
+		int slot = this.findSlot(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key " + k + " was found in the table.");
+		this.deleteSlot(slot);
+	}
+
+	/**
+	 * The key of the current item.
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public int itemKey() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.keys[this.position];
+	}
+
+	public static void main(String args[]) {
+
+		class Vertex implements IntKeyed280 {
+			int index;
+			String name;
+
+			public Vertex(int i, String n) {
+				this.index = i;
+				this.name = n;
+			}
+			public int intKey() { return index; }
+
+			public String toString() {
+				return index + ":" + name;
+			}
+		}
+
+		IntKeyedHashTable280<Vertex> H = new IntKeyedHashTable280<Vertex>();
+
+		H.insert(new Vertex(7, "seven"));
+		try {
+			H.insert(new Vertex(7, "again"));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate key, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+		H.insert(new Vertex(Integer.MIN_VALUE, "min"));
+		H.insert(new Vertex(0, "zero"));
+		H.insert(new Vertex(-1, "minus one"));
+		if( !H.has(Integer.MIN_VALUE) || !H.has(0) || !H.has(-1) || !H.has(7) )
+			System.out.println("Error: table is missing an inserted key.");
+		if( H.has(8) ) System.out.println("Error: table should not have key 8.");
+		H.set(new Vertex(0, "nothing"));
+		if( !H.obtain(0).name.equals("nothing") ) System.out.println("Error: set() did not replace the item with key 0.");
+		H.delete(-1);
+		if( H.has(-1) ) System.out.println("Error: key -1 should have been deleted.");
+		try {
+			H.obtain(-1);
+			System.out.println("Error: expected exception obtaining deleted key -1, got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Dense and clustered keys, through growth and deletion.
+		H.clear();
+		for(int i = 0; i < 100000; i++)
+			H.insert(new Vertex(i * 1024, "v" + i));
+		for(int i = 0; i < 100000; i += 3)
+			H.delete(i * 1024);
+		for(int i = 0; i < 100000; i++)
+			if( H.has(i * 1024) != (i % 3 != 0) )
+				System.out.println("Error: wrong membership for key " + i * 1024);
+
+		// Deleting during an iteration should remove exactly the chosen items.
+		H.goFirst();
+		while( H.itemExists() ) {
+			if( H.itemKey() % 2048 == 0 ) H.deleteItem();
+			else H.goForth();
+		}
+		for(int i = 0; i < 100000; i++)
+			if( H.has(i * 1024) != (i % 3 != 0 && i % 2 != 0) )
+				System.out.println("Error: wrong membership for key " + i * 1024 + " after deleting even keys.");
+		if( H.count() != 33333 ) System.out.println("Error: table should have 33333 items but it has " + H.count());
+
+		// A cluster that wraps around the end of the array: two keys whose home is the last
+		// slot of 32, and two more elsewhere.  Deleting the item in the last slot moves the
+		// item in slot 0 back into it, where the iteration must not visit it a second time.
+		IntKeyedHashTable280<Vertex> W = new IntKeyedHashTable280<Vertex>();
+		int[] wrapping = new int[4];
+		for(int k = 0, found = 0; found < 4; k++)
+			if( (W.homeSlot(k) == 31) == (found < 2) && (found < 2 || W.homeSlot(k) < 16) )
+				wrapping[found++] = k;
+		for(int doomed : wrapping) {
+			W.clear();
+			for(int k : wrapping)
+				W.insert(new Vertex(k, "w" + k));
+			if( W.capacity() != 32 || W.findSlot(wrapping[1]) != 0 )
+				System.out.println("Error: the cluster at slot 31 should wrap around to slot 0.");
+			java.util.HashSet<Integer> seen = new java.util.HashSet<Integer>();
+			int visits = 0;
+			W.goFirst();
+			while( W.itemExists() ) {
+				seen.add(W.itemKey());
+				visits++;
+				if( W.itemKey() == doomed ) W.deleteItem();
+				else W.goForth();
+			}
+			if( visits != 4 || seen.size() != 4 || W.count() != 3 || W.has(doomed) )
+				System.out.println("Error: deleting key " + doomed + " while iterating over a wrapping cluster made "
+						+ visits + " visits to " + seen.size() + " items.");
+		}
+		int visits = 0;
+		W.goFirst();
+		while( W.itemExists() ) {
+			visits++;
+			W.deleteItem();
+		}
+		if( visits != 3 || !W.isEmpty() )
+			System.out.println("Error: deleting each item of a wrapping cluster in turn made " + visits + " visits.");
+
+		// delete(k) of items already visited keeps the cursor on its item and deletes only k.
+		java.util.Random r = new java.util.Random(280);
+		for(int run = 0; run < 300; run++) {
+			W.clear();
+			java.util.HashSet<Integer> present = new java.util.HashSet<Integer>();
+			while( present.size() < 20 ) {
+				int k = r.nextInt(200);
+				if( present.add(k) ) W.insert(new Vertex(k, "r" + k));
+			}
+			java.util.ArrayList<Integer> passed = new java.util.ArrayList<Integer>();
+			W.goFirst();
+			for(int step = 0; step < 10 && W.itemExists(); step++, W.goForth()) {
+				int k = W.itemKey();
+				passed.remove((Object) k);
+				if( !passed.isEmpty() && r.nextInt(2) == 0 ) {
+					Integer doomed = passed.remove(r.nextInt(passed.size()));
+					W.delete(doomed);
+					present.remove(doomed);
+					if( !W.itemExists() || W.itemKey() != k )
+						System.out.println("Error: delete() should leave the cursor on key " + k);
+				}
+				passed.add(k);
+			}
+			for(Integer k : present)
+				if( !W.has(k) || W.count() != present.size() )
+					System.out.println("Error: delete() during an iteration lost key " + k);
+		}
+
+		if( H.stream().count() != 33333 || H.parallelStream().filter(x -> x.intKey() % 3 == 0).count() != 0 )
+			System.out.println("Error: the stream of the table should hold the 33333 remaining items.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,120 @@
+package lib280.hashtable;
+
+import lib280.exception.ItemNotFound280Exception;
+
+/**
+ * A map from primitive int keys to primitive double values, such as a map from vertex
+ * numbers to distances or weights.  Keys and values are stored unboxed in parallel arrays
+ * with linear probing, so no objects are allocated per entry or per lookup.  The
+ * probing, growth and deletion are those of IntKeyMap280.
+ */
+public class IntToDoubleMap280 extends IntKeyMap280 {
+
+	/** Values of the entries, indexed by slot. */
+	protected double[] values;
+
+	/**
+	 * Create an empty map with the default capacity.
+	 */
+	public IntToDoubleMap280() {
+		this(12);
+	}
+
+	/**
+	 * Create an empty map able to hold expectedSize entries without growing.
+	 * @param expectedSize number of entries expected to be stored
+	 */
+	public IntToDoubleMap280(int expectedSize) {
+		super(expectedSize);
+	}
+
+	@Override
+	protected void allocateValues(int length) {
+		this.values = new double[length];
+	}
+
+	@Override
+	protected void moveValue(int from, int to) {
+		this.values[to] = this.values[from];
+	}
+
+	@Override
+	protected void rehashValues(boolean[] oldUsed, int[] newSlots) {
+		double[] oldValues = this.values;
+		this.values = new double[this.keys.length];
+		for(int i = 0; i < oldValues.length; i++)
+			if( oldUsed[i] ) this.values[newSlots[i]] = oldValues[i];
+	}
+
+	@Override
+	protected String valueString(int slot) {
+		return String.valueOf(this.values[slot]);
+	}
+
+	/**
+	 * Associate value v with key k, replacing any value k already had.
+	 * @param k the key
+	 * @param v the value
+	 */
+	public void put(int k, double v) {
+		// slotFor() may grow the map, replacing the value array.
+		int slot = this.slotFor(k);
+		this.values[slot] = v;
+	}
+
+	/**
+	 * The value associated with key k.
+	 * @param k the key
+	 * @throws ItemNotFound280Exception if k has no value.
+	 */
+	public double get(int k) throws ItemNotFound280Exception {
+		return this.values[this.slotOf(k)];
+	}
+
+	/**
+	 * The value associated with key k, or defaultValue if there is none.
+	 * @param k the key
+	 * @param defaultValue value to return if k has no value
+	 */
+	public double get(int k, double defaultValue) {
+		int slot = this.probe(k);
+		return this.used[slot] ? this.values[slot] : defaultValue;
+	}
+
+	public static void main(String args[]) {
+		IntToDoubleMap280 M = new IntToDoubleMap280();
+
+		if( !M.isEmpty() ) System.out.println("Error: new map should be empty.");
+		M.put(0, 1.0);
+		M.put(-5, 2.5);
+		M.put(Integer.MIN_VALUE, 3.0);
+		M.put(0, 1.5);
+		if( M.count() != 3 ) System.out.println("Error: map should have 3 entries but has " + M.count());
+		if( M.get(0) != 1.5 ) System.out.println("Error: value of key 0 should have been replaced by 1.5.");
+		if( M.get(Integer.MIN_VALUE) != 3.0 ) System.out.println("Error: value of Integer.MIN_VALUE should be 3.0.");
+		if( M.get(99, -1) != -1 ) System.out.println("Error: get(99, -1) should return the default.");
+		try {
+			M.get(99);
+			System.out.println("Error: expected exception getting an absent key, got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		M.delete(-5);
+		if( M.has(-5) ) System.out.println("Error: key -5 should have been deleted.");
+		if( !M.toString().contains("0=1.5") || M.toString().contains("-5=") )
+			System.out.println("Error: toString() should show 0=1.5 and not -5, not " + M);
+
+		// Vertex numbers to distances, through growth and deletion.
+		M.clear();
+		for(int i = 0; i < 100000; i++)
+			M.put(i * 64, i / 2.0);
+		for(int i = 0; i < 100000; i += 2)
+			M.delete(i * 64);
+		for(int i = 0; i < 100000; i++)
+			if( M.get(i * 64, -1.0) != (i % 2 == 0 ? -1.0 : i / 2.0) )
+				System.out.println("Error: wrong value for key " + i * 64);
+		if( M.keys().length != 50000 ) System.out.println("Error: keys() should return 50000 keys.");
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,82 @@
+package lib280.hashtable;
+
+import java.util.function.Supplier;
+
+import lib280.base.Keyed280;
+import lib280.dictionary.KeyedDict280;
+
+/**
+ * Measures the time taken by a full scan with the cursor, and the memory retained per
+ * item, for the keyed hash tables.  A scan of KeyedChainedHashTable280 recomputes the
+ * hash position of every item and steps over empty buckets one at a time, while a scan
+ * of CompactHashTable280 walks one dense array.
+ *
+ * Usage: java lib280.hashtable.IterationBenchmark280
+ *
+ * Retained memory is measured as the growth of the used heap after a garbage collection,
+ * so it is only an estimate.  The items are created beforehand, so it counts only the
+ * table's own arrays and nodes.
+ */
+public class IterationBenchmark280 {
+
+	/** A key with nothing else attached. */
+	protected static class Name implements Keyed280<String> {
+		String name;
+
+		Name(String name) {
+			this.name = name;
+		}
+		public String key() { return name; }
+	}
+
+	/** Number of items in each table. */
+	protected static final int size = 200000;
+
+	/** Number of scans measured for each table. */
+	protected static final int scans = 50;
+
+	/** Used heap after collecting garbage. */
+	protected static long usedHeap() {
+		Runtime r = Runtime.getRuntime();
+		for(int i = 0; i < 3; i++)
+			System.gc();
+		return r.totalMemory() - r.freeMemory();
+	}
+
+	/**
+	 * Build a table of the given items, then warm up and measure full scans, printing the
+	 * memory retained per item and the time taken per item visited.
+	 */
+	protected static void report(String title, Supplier<KeyedDict280<String, Name>> newTable, Name[] names) {
+		long before = usedHeap();
+		KeyedDict280<String, Name> T = newTable.get();
+		for(Name n : names)
+			T.insert(n);
+		long bytes = usedHeap() - before;
+
+		long checksum = 0;
+		for(int run = 0; run < scans; run++)
+			for(T.goFirst(); T.itemExists(); T.goForth())
+				checksum += T.item().name.length();
+		long start = System.nanoTime();
+		for(int run = 0; run < scans; run++)
+			for(T.goFirst(); T.itemExists(); T.goForth())
+				checksum += T.item().name.length();
+		long elapsed = System.nanoTime() - start;
+
+		System.out.printf("%s: %.1f bytes per item, %.2f ns per item scanned (checksum %d)%n", title,
+				((double) bytes) / names.length, ((double) elapsed) / ((long) scans * names.length), checksum);
+		if( checksum == 0 )
+			System.out.println("Error: " + title + " scanned no items.");
+	}
+
+	public static void main(String[] args) {
+		Name[] names = new Name[size];
+		for(int i = 0; i < size; i++)
+			names[i] = new Name("Quest" + i);
+
+		report("KeyedChainedHashTable280", () -> new KeyedChainedHashTable280<String, Name>(), names);
+		report("RobinHoodHashTable280", () -> new RobinHoodHashTable280<String, Name>(), names);
+		report("CompactHashTable280", () -> new CompactHashTable280<String, Name>(), names);
+	}
+}
@@ -1,13 +1,24 @@
 package lib280.hashtable;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 import lib280.base.CursorPosition280;
 import lib280.base.Keyed280;
 import lib280.base.Pair280;
+import lib280.dictionary.HashStrategy280;
 import lib280.dictionary.HashTable280;
+import lib280.dictionary.IdentityHashStrategy280;
 import lib280.dictionary.KeyedDict280;
 import lib280.exception.*;
 import lib280.list.LinkedIterator280;
 import lib280.list.LinkedList280;
+import lib280.list.LinkedNode280;
 
 public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends HashTable280<I> implements
 		KeyedDict280<K, I> {
@@ -26,6 +37,48 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 	 
 	/** Actual maximum load factor for this instance */
 	protected double maxLoadFactor;
+
+	/** Number of old buckets migrated by each operation during an incremental resize. */
+	protected static final int defaultMigrationStepSize = 2;
+
+	/** Is the table resized a few buckets at a time rather than all at once? */
+	protected boolean incrementalResize;
+
+	/** During an incremental resize, the previous bucket array whose chains are being
+	    moved into hashArray; null when no resize is in progress. */
+	protected LinkedList280<I>[] oldHashArray;
+
+	/** Buckets of oldHashArray below this index have been migrated or held; a migrated or
+	    held bucket is null. */
+	protected int migrationIndex;
+
+	/** Chains of the group heldGroup that were taken out of their bucket arrays rather than
+	    migrated, because the cursor was in that group, in the order the cursor visits them;
+	    only the first heldCount entries are used.  They come before the other chains of
+	    their group, and are migrated when the cursor is repositioned or another group's
+	    chains must be held. */
+	protected LinkedList280<I>[] heldChains;
+
+	/** Number of held chains. */
+	protected int heldCount;
+
+	/** Group of the held chains (see cursorGroups), or -1 if there are none. */
+	protected int heldGroup = -1;
+
+	/** Is itemListLocation a position in a chain of oldHashArray rather than of hashArray? */
+	protected boolean cursorInOldArray;
+
+	/** Index in heldChains of the chain of itemListLocation, or -1 if it is not in a held chain. */
+	protected int cursorHeld = -1;
+
+	/** Number of groups the cursor visits the buckets in, or 0 if it visits the buckets of
+	    hashArray in order.  During an incremental resize this is the length of oldHashArray:
+	    group g holds old bucket g followed by the buckets g, g + groups, g + 2*groups, ...
+	    of hashArray, which are the buckets the items of old bucket g move to.  It keeps
+	    that value after the resize, and through any further resize, until the cursor starts
+	    over, so an iteration does not change order midway: every bucket array is a multiple
+	    of groups long, and an item never leaves its group. */
+	protected int cursorGroups;
 	
 	/**	
 	 * Create a new hash list for a new chain.
@@ -36,7 +89,54 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		return new LinkedList280<I>();
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Create a chain that indexes its items by key, for a bucket whose chain has become
+	 * long, so that even a bucket with many colliding keys is searched in logarithmic time.
+	 * @timing  O(1)
+	 */
+	protected IndexedChain280<K, I> newIndexedChain()
+	{
+		return new IndexedChain280<K, I>() {
+			@Override
+			protected K indexKey(I x) {
+				return x.key();
+			}
+		};
+	}
+
+	/**
+	 * Replace the chain in bucket b of hashArray by an indexed chain holding the same items
+	 * in the same order, if it is a plain chain that has grown past the threshold at which
+	 * IndexedChain280 builds its index.  A cursor on an item of the chain stays on that item.
+	 * @param b index of a bucket of hashArray that holds a chain
+	 */
+	protected void indexIfLong(int b)
+	{
+		LinkedList280<I> chain = this.hashArray[b];
+		if( chain instanceof IndexedChain280 || !IndexedChain280.isLong(chain) )
+			return;
+		IndexedChain280<K, I> indexed = this.newIndexedChain();
+		for(LinkedNode280<I> node = chain.firstNode(); node != null; node = node.nextNode())
+			indexed.insertLast(node.item());
+		this.hashArray[b] = indexed;
+		if( !this.cursorInOldArray && this.cursorHeld < 0 && this.itemExists() && this.hashPos(this.itemKey()) == b )
+			this.itemListLocation = indexed.iteratorAtKey(this.itemKey());
+	}
+
+	/**
+	 * Replace chain L of hashArray by an indexed chain, as indexIfLong(int) does, if it has
+	 * grown past the threshold.  The bucket of L is found only when it is to be replaced, so
+	 * an insertion whose chain stays short hashes its key just once.
+	 * @param L a chain of hashArray
+	 */
+	protected void indexIfLong(LinkedList280<I> L)
+	{
+		if( L instanceof IndexedChain280 || !IndexedChain280.isLong(L) )
+			return;
+		this.indexIfLong(this.hashPos(L.firstItem().key()));
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public KeyedChainedHashTable280()
 	{
 		this.hashArray = new LinkedList280[KeyedChainedHashTable280.defaultHashArrayLength];
@@ -45,21 +145,445 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		this.maxLoadFactor = KeyedChainedHashTable280.defaultMaxLoadFactor;
 	}
 
-	@SuppressWarnings("unchecked")
-	protected void expandHashArray() {
-		LinkedList280<I>[] oldHashArray = this.hashArray;
-		
-		this.hashArray = new LinkedList280[this.capacity()*2];
+	/**
+	 * Create an empty table that can hold expectedSize items without growing.
+	 * @param expectedSize number of items the table is expected to hold
+	 * @param maxLoadFactor the table grows when the ratio of items to buckets exceeds this
+	 * @throws InvalidArgument280Exception if expectedSize is negative or maxLoadFactor is not positive.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public KeyedChainedHashTable280(int expectedSize, double maxLoadFactor)
+	{
+		if( expectedSize < 0 )
+			throw new InvalidArgument280Exception("The expected size of the table cannot be negative.");
+		if( !(maxLoadFactor > 0) )
+			throw new InvalidArgument280Exception("The maximum load factor must be positive.");
+		this.maxLoadFactor = maxLoadFactor;
+		this.hashArray = new LinkedList280[this.lengthFor(expectedSize)];
 		this.count = 0;
-		for(int i = 0; i < oldHashArray.length; i++) {
-			if( oldHashArray[i] != null && !oldHashArray[i].isEmpty() ) {
-				oldHashArray[i].goFirst();
-				while(oldHashArray[i].itemExists()) {
-					this.insert(oldHashArray[i].item());
-					oldHashArray[i].goForth();
-				}
+		this.itemListLocation = null;
+	}
+
+	/**
+	 * Create an empty table.
+	 * @param incrementalResize If true, when the load factor is exceeded the chains are
+	 *   moved to the larger bucket array a few buckets at a time by subsequent operations
+	 *   (see setIncrementalResize()); otherwise the whole table is rehashed at once.
+	 */
+	public KeyedChainedHashTable280(boolean incrementalResize)
+	{
+		this();
+		this.incrementalResize = incrementalResize;
+	}
+
+	/**
+	 * Choose how the table grows.  In incremental mode, growing allocates the new bucket
+	 * array and keeps the old one alongside it; every insert, has, obtain, set and delete
+	 * then moves a bounded number of old buckets, so no single operation pays for
+	 * rehashing the whole table.  The cursor visits the buckets in groups, each old bucket
+	 * together with the new buckets its items move to, and the old bucket of the group the
+	 * cursor is in is set aside until the cursor is repositioned, so an iteration in
+	 * progress never sees an item twice or misses one.  If the table must grow again
+	 * before the previous migration has finished, the remainder is migrated at once, except
+	 * for the buckets of the cursor's group, which are set aside in the same way; the
+	 * cursor keeps its grouping through any number of resizes.
+	 * @param incrementalResize true to resize incrementally, false to rehash all at once
+	 */
+	public void setIncrementalResize(boolean incrementalResize) {
+		this.incrementalResize = incrementalResize;
+		if( !incrementalResize ) this.finishMigration();
+	}
+
+	/**
+	 * Is an incremental resize in progress?
+	 * @return true if some chains are still in the old bucket array.
+	 */
+	public boolean isResizing() {
+		return this.oldHashArray != null;
+	}
+
+	/**
+	 * Hash position of y in the old bucket array of an incremental resize.
+	 * @precond isResizing()
+	 * @param y item to calculate its hash position
+	 */
+	protected int oldHashPos(Object y) {
+		return this.hashPos(y, this.oldHashArray.length);
+	}
+
+	/**
+	 * Move every item of chain into the current bucket array.  Items are moved directly, without
+	 * the duplicate and load factor checks done by insert().
+	 * @param chain the chain to empty into hashArray; may be null
+	 */
+	protected void moveChain(LinkedList280<I> chain) {
+		if( chain == null || chain.isEmpty() ) return;
+		chain.goFirst();
+		while( chain.itemExists() ) {
+			int itemHashLocation = this.hashPos(chain.item().key());
+			if (hashArray[itemHashLocation]==null)
+				hashArray[itemHashLocation] = newChain();
+			hashArray[itemHashLocation].insert(chain.item());
+			// Each bucket of hashArray takes items from just one old bucket, so only a chain
+			// long enough to have been indexed can make another chain long.
+			if( chain instanceof IndexedChain280 )
+				this.indexIfLong(itemHashLocation);
+			chain.goForth();
+		}
+	}
+
+	/**
+	 * Move old bucket b of an incremental resize into hashArray.
+	 * @param b index of an unmigrated bucket of oldHashArray
+	 */
+	protected void migrateBucket(int b) {
+		this.moveChain(this.oldHashArray[b]);
+		this.oldHashArray[b] = null;
+	}
+
+	/**
+	 * The group of the cursor's bucket (see cursorGroups), or -1 if the cursor is not at an item.
+	 */
+	protected int cursorGroup() {
+		if( !this.itemExists() ) return -1;
+		return this.hashPos(this.itemListLocation.item().key(), this.groupCount());
+	}
+
+	/**
+	 * Take old bucket b of an incremental resize out of oldHashArray and add it to the held
+	 * chains, after migrating the chains held for another group.  If the cursor is in the
+	 * bucket, it stays on its item.
+	 * @param b index of an unmigrated bucket of oldHashArray in the cursor's group
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected void holdBucket(int b) {
+		LinkedList280<I> chain = this.oldHashArray[b];
+		this.oldHashArray[b] = null;
+		if( chain == null || chain.isEmpty() ) return;
+		int group = b & (this.groupCount() - 1);
+		if( group != this.heldGroup ) this.releaseHeldChains();
+		if( this.heldChains == null )
+			this.heldChains = new LinkedList280[4];
+		else if( this.heldCount == this.heldChains.length )
+			this.heldChains = Arrays.copyOf(this.heldChains, 2 * this.heldCount);
+		if( this.cursorInOldArray && this.itemExists() && this.oldHashPos(this.itemKey()) == b ) {
+			this.cursorInOldArray = false;
+			this.cursorHeld = this.heldCount;
+		}
+		this.heldChains[this.heldCount++] = chain;
+		this.heldGroup = group;
+	}
+
+	/**
+	 * Move the held chains into hashArray.  A cursor in one of them is dropped.
+	 */
+	protected void releaseHeldChains() {
+		if( this.cursorHeld >= 0 ) this.itemListLocation = null;
+		this.cursorHeld = -1;
+		for(int i = 0; i < this.heldCount; i++) {
+			this.moveChain(this.heldChains[i]);
+			this.heldChains[i] = null;
+		}
+		this.heldCount = 0;
+		this.heldGroup = -1;
+	}
+
+	/**
+	 * Migrate at most maxBuckets buckets of an incremental resize.  The old buckets of the
+	 * cursor's group are held instead of migrated (see holdBucket()), since the cursor would
+	 * otherwise see again the items of a bucket it has passed, or miss those of one it has
+	 * not reached.
+	 * @param maxBuckets the largest number of old buckets to migrate
+	 */
+	protected void migrateBuckets(int maxBuckets) {
+		if( this.oldHashArray == null ) return;
+		int guarded = this.cursorGroup();
+		int groups = this.groupCount();
+		for(int i = 0; i < maxBuckets && this.migrationIndex < this.oldHashArray.length; i++, this.migrationIndex++) {
+			if( (this.migrationIndex & (groups - 1)) == guarded )
+				this.holdBucket(this.migrationIndex);
+			else
+				this.migrateBucket(this.migrationIndex);
+		}
+		if( this.migrationIndex == this.oldHashArray.length )
+			this.endMigration();
+	}
+
+	/**
+	 * Drop the old bucket array once every bucket has been migrated or held.  A cursor
+	 * left in one of its migrated chains is dropped.
+	 */
+	protected void endMigration() {
+		this.oldHashArray = null;
+		if( this.cursorInOldArray ) this.itemListLocation = null;
+		this.cursorInOldArray = false;
+	}
+
+	/**
+	 * Before the cursor is repositioned, migrate the held chains, and the old bucket that
+	 * holds key k, if any, so that the cursor does not land in an old bucket and hold up
+	 * the resize.
+	 * @param k key the cursor is about to be positioned at, or null
+	 */
+	protected void migrateBeforeRepositioning(K k) {
+		this.itemListLocation = null;
+		this.cursorInOldArray = false;
+		this.cursorHeld = -1;
+		this.releaseHeldChains();
+		if( this.oldHashArray == null ) return;
+		if( k != null ) {
+			int b = this.oldHashPos(k);
+			if( this.oldHashArray[b] != null ) this.migrateBucket(b);
+		}
+		if( this.migrationIndex == this.oldHashArray.length )
+			this.endMigration();
+	}
+
+	/**
+	 * Migrate all buckets that remain in the old bucket array of an incremental resize,
+	 * and the held chains.  A cursor in one of them is dropped.
+	 */
+	protected void finishMigration() {
+		this.releaseHeldChains();
+		if( this.oldHashArray == null ) return;
+		for( ; this.migrationIndex < this.oldHashArray.length; this.migrationIndex++)
+			this.migrateBucket(this.migrationIndex);
+		this.endMigration();
+	}
+
+	/**
+	 * Double the length of the hash array.  In incremental mode the chains stay where they
+	 * are and are migrated by later operations; otherwise they are all rehashed now.
+	 */
+	protected void expandHashArray() {
+		this.resizeHashArray(this.hashArray.length*2, this.incrementalResize);
+	}
+
+	/**
+	 * Replace the hash array by one of the given length.  An incremental resize first
+	 * finishes the previous one, holding the old buckets of the cursor's group, and keeps
+	 * the grouping of an iteration in progress, so that the cursor stays on its item and
+	 * goes on in the same order.
+	 * @param newLength the new number of buckets; should be a power of two
+	 * @param incrementally if true, the chains stay where they are and are migrated by later
+	 *   operations; otherwise they are all rehashed now and the cursor is dropped
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected void resizeHashArray(int newLength, boolean incrementally) {
+		if( incrementally ) {
+			if( this.oldHashArray != null ) this.migrateBuckets(this.oldHashArray.length);
+		}
+		else
+			this.finishMigration();
+
+		LinkedList280<I>[] previousHashArray = this.hashArray;
+		this.hashArray = new LinkedList280[newLength];
+		if( incrementally ) {
+			this.oldHashArray = previousHashArray;
+			this.migrationIndex = 0;
+			this.cursorInOldArray = this.itemListLocation != null && this.cursorHeld < 0;
+			if( this.cursorGroups == 0 || (this.heldCount == 0 && !this.itemExists()) )
+				this.cursorGroups = previousHashArray.length;
+		}
+		else {
+			for(int i = 0; i < previousHashArray.length; i++)
+				this.moveChain(previousHashArray[i]);
+			this.itemListLocation = null;
+			this.cursorGroups = 0;
+		}
+	}
+
+	/**
+	 * Find the chain that contains the item with key k.
+	 * @param k key being sought
+	 * @return the chain containing an item with key k, or null if there is none.
+	 */
+	protected LinkedList280<I> chainOf(K k) {
+		LinkedList280<I> L = this.homeChainOf(k);
+		if( L.itemExists() ) return L;
+		return null;
+	}
+
+	/**
+	 * Find the chain to which an item with key k belongs, with a single traversal of the chain,
+	 * and position the internal cursor of that chain at the item with key k if there is one.
+	 * This is the held or unmigrated old chain that holds key k, if there is one, and
+	 * otherwise the chain of hashArray, which is created if necessary.
+	 * @param k key being sought
+	 * @return the chain for key k; its cursor is at the item with key k if the table has one,
+	 *   and otherwise not at any item.
+	 */
+	protected LinkedList280<I> homeChainOf(K k) {
+		if( this.heldCount > 0 && this.hashPos(k, this.groupCount()) == this.heldGroup )
+			for(int i = 0; i < this.heldCount; i++)
+				if( this.chainHas(this.heldChains[i], k) )
+					return this.heldChains[i];
+		if( this.oldHashArray != null ) {
+			LinkedList280<I> L = this.oldHashArray[this.oldHashPos(k)];
+			if( L != null && this.chainHas(L, k) )
+				return L;
+		}
+		int itemHashLocation = this.hashPos(k);
+		if (hashArray[itemHashLocation]==null)
+			hashArray[itemHashLocation] = newChain();
+		LinkedList280<I> L = this.hashArray[itemHashLocation];
+		this.chainHas(L, k);
+		return L;
+	}
+
+	/**
+	 * Add x to chain L, which is the chain where x belongs and does not hold key x.key(),
+	 * and grow the table if the load factor has become too high.
+	 * @param L the chain for key x.key()
+	 * @param x item to be added
+	 */
+	protected void addToChain(LinkedList280<I> L, I x) {
+		L.insert(x);
+		count++;
+		this.indexIfLong(L);
+
+		// Check if the load factor is too high, if it is, double the length of the hash
+		// array and move everything (now, or gradually if resizing incrementally).
+		if( this.loadFactor() > this.maxLoadFactor)
+			this.expandHashArray();
+	}
+
+	/**
+	 * Number of buckets needed to hold n items without exceeding the maximum load factor.
+	 * @param n number of items
+	 */
+	protected int lengthFor(long n) {
+		return powerOfTwoAtLeast((int) Math.min(1 << 30, Math.ceil(n / this.maxLoadFactor)));
+	}
+
+	/**
+	 * Grow the table, if necessary, so that it can hold n items without exceeding the
+	 * maximum load factor.  The table is resized at most once, and completely.
+	 * @param n number of items the table should be able to hold
+	 */
+	public void ensureCapacity(long n) {
+		int newLength = this.lengthFor(n);
+		if( newLength > this.hashArray.length )
+			this.resizeHashArray(newLength, false);
+	}
+
+	/**
+	 * Insert every item of items.  The table is grown at most once, to its final size, and
+	 * the load factor is not checked item by item.  Items whose keys are already in the
+	 * table (or earlier in items) are skipped, and reported together when all the other
+	 * items have been inserted.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(I[] items) throws DuplicateItems280Exception {
+		this.insertAll(Arrays.asList(items));
+	}
+
+	/**
+	 * Insert every item of items.  If the number of items is known in advance (for example
+	 * because items is a Collection), the table is grown once before inserting them, and the
+	 * load factor is not checked item by item; otherwise the table doubles whenever the
+	 * load factor is exceeded, as with insert(), but all at once.  Items whose
+	 * keys are already in the table (or earlier in items) are skipped, and reported together
+	 * when all the other items have been inserted.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(Iterable<? extends I> items) throws DuplicateItems280Exception {
+		this.insertAll(items.spliterator());
+	}
+
+	/**
+	 * Insert every item of a stream, as insertAll(Iterable) does.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(Stream<? extends I> items) throws DuplicateItems280Exception {
+		this.insertAll(items.spliterator());
+	}
+
+	/**
+	 * Insert every item of items; see insertAll(Iterable).
+	 * @param items the items to be inserted
+	 */
+	protected void insertAll(Spliterator<? extends I> items) throws DuplicateItems280Exception {
+		long expected = items.getExactSizeIfKnown();
+		if( expected >= 0 ) this.ensureCapacity(this.count + expected);
+		this.finishMigration();
+
+		int duplicates = 0;
+		StringBuffer duplicateKeys = new StringBuffer();
+		Iterator<? extends I> iter = Spliterators.iterator(items);
+		while( iter.hasNext() ) {
+			I x = iter.next();
+			LinkedList280<I> L = this.homeChainOf(x.key());
+			if( L.itemExists() ) {
+				if( duplicates < 10 ) duplicateKeys.append(duplicates == 0 ? "" : ", ").append(x.key());
+				duplicates++;
+			}
+			else {
+				L.insert(x);
+				this.count++;
+				this.indexIfLong(L);
+				if( expected < 0 && this.loadFactor() > this.maxLoadFactor )
+					this.resizeHashArray(this.hashArray.length*2, false);
 			}
 		}
+
+		if( this.loadFactor() > this.maxLoadFactor )
+			this.ensureCapacity(this.count);
+		if( duplicates > 0 )
+			throw new DuplicateItems280Exception(duplicates + " items were not inserted because their keys were"
+					+ " already in the table: " + duplicateKeys + (duplicates > 10 ? ", ..." : ""));
+	}
+
+	/**
+	 * Replace the item at the internal cursor of chain L with x.
+	 * @param L a chain whose cursor is at the item with key x.key()
+	 * @param x the replacement item
+	 */
+	@SuppressWarnings("unchecked")
+	protected void replaceInChain(LinkedList280<I> L, I x) {
+		if( L instanceof IndexedChain280 )
+			((IndexedChain280<K, I>) L).setItem(x);
+		else {
+			L.deleteItem();
+			L.insert(x);
+		}
+	}
+
+	/**
+	 * Position the internal cursor of chain L at the item with key k, if there is one.
+	 * @param L the chain to search; may be null
+	 * @param k key being sought
+	 * @return true if L contains an item with key k.
+	 */
+	@SuppressWarnings("unchecked")
+	protected boolean chainHas(LinkedList280<I> L, K k) {
+		if( L == null || L.isEmpty() ) return false;
+		if( L instanceof IndexedChain280 )
+			return ((IndexedChain280<K, I>) L).searchKey(k);
+		L.goFirst();
+		while(L.itemExists() && k.compareTo(L.item().key()) != 0) {
+			L.goForth();
+		}
+		return L.itemExists();
+	}
+
+	/**
+	 * An iterator over chain L positioned at the item with key k, or after the end of L
+	 * if there is no such item.
+	 * @param L the chain to search
+	 * @param k key being sought
+	 */
+	@SuppressWarnings("unchecked")
+	protected LinkedIterator280<I> chainIteratorAt(LinkedList280<I> L, K k) {
+		if( L instanceof IndexedChain280 )
+			return ((IndexedChain280<K, I>) L).iteratorAtKey(k);
+		LinkedIterator280<I> result = L.iterator();
+		while (!result.after() && k.compareTo(result.item().key()) != 0 )
+			result.goForth();
+		return result;
 	}
 	
 	
@@ -68,96 +592,133 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 			DuplicateItems280Exception {
 
 		if( this.isFull() ) throw new ContainerFull280Exception("Error inserting item.  Table is full.");
-		if( this.has(x.key()) ) throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
-		
-		int itemHashLocation =  this.hashPos(x.key());
-		if (hashArray[itemHashLocation]==null)
-			hashArray[itemHashLocation] = newChain();
-		hashArray[itemHashLocation].insert(x);
-		count++;
-		
-		// Check if the load factor is too high, if it is, double the length of the hash
-		// array and reinsert everything.
-		if( this.loadFactor() > this.maxLoadFactor)
-			this.expandHashArray();
+		if( this.putIfAbsent(x) != null ) throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
+	}
+
+	@Override
+	public I putIfAbsent(I x) {
+		this.migrateBuckets(defaultMigrationStepSize);
+
+		// If found, homeChainOf() leaves the cursor of L at the item with key x.key().
+		LinkedList280<I> L = this.homeChainOf(x.key());
+		if( L.itemExists() ) return L.item();
+		this.addToChain(L, x);
+		return null;
+	}
+
+	@Override
+	public I computeIfAbsent(K k, Function<? super K, ? extends I> f) throws InvalidArgument280Exception {
+		this.migrateBuckets(defaultMigrationStepSize);
+
+		LinkedList280<I> L = this.homeChainOf(k);
+		if( L.itemExists() ) return L.item();
+		I x = f.apply(k);
+		if( x == null ) return null;
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		this.addToChain(L, x);
+		return x;
+	}
+
+	@Override
+	public I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) throws InvalidArgument280Exception {
+		this.migrateBuckets(defaultMigrationStepSize);
+
+		LinkedList280<I> L = this.homeChainOf(k);
+		boolean found = L.itemExists();
+		I x = f.apply(k, found ? L.item() : null);
+		if( x == null ) {
+			if( found ) {
+				L.deleteItem();
+				count--;
+			}
+			return null;
+		}
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		if( found ) this.replaceInChain(L, x);
+		else this.addToChain(L, x);
+		return x;
 	}
 
 	@Override
 	public void set(I x) throws ItemNotFound280Exception {
-		if( !this.has(x.key()) ) {
+		this.migrateBuckets(defaultMigrationStepSize);
+
+		// If found, chainOf() leaves the cursor of L at the item with key x.key().
+		LinkedList280<I> L = this.chainOf(x.key());
+		if( L == null ) {
 			throw new ItemNotFound280Exception("No item with key x.key() was not found in the table.");
 		}
 		
-		LinkedList280<I> L = hashArray[this.hashPos(x.key())];
-		
-		// We know that L contains an item with key x.key()
-		L.goFirst();
-		while(L.itemExists() && x.key().compareTo(L.item().key()) != 0) {
-			L.goForth();
+		this.replaceInChain(L, x);
+	}
+
+	/**
+	 * The item with key k in chain L.  No cursor is moved and nothing is allocated.
+	 * @param L the chain to search; may be null
+	 * @param k key being sought
+	 * @return the item with key k, or null if L has none.
+	 */
+	@SuppressWarnings("unchecked")
+	protected I findInChain(LinkedList280<I> L, K k) {
+		if( L == null || L.isEmpty() ) return null;
+		if( L instanceof IndexedChain280 ) {
+			LinkedNode280<I> node = ((IndexedChain280<K, I>) L).nodeWithKey(k);
+			return node == null ? null : node.item();
 		}
-		
-		// Remove the old item
-		L.deleteItem();
-		
-		// Add the new item
-		L.insert(x);
-		
+		for(LinkedNode280<I> node = L.firstNode(); node != null; node = node.nextNode())
+			if( k.compareTo(node.item().key()) == 0 ) return node.item();
+		return null;
+	}
+
+	/**
+	 * The item with key k.  Unlike search(), this neither uses nor copies the cursor, and
+	 * it allocates nothing, so has() and obtain() leave the cursor alone for free.
+	 * @param k key being sought
+	 * @return the item with key k, or null if the table has none.
+	 */
+	protected I find(K k) {
+		if( this.heldCount > 0 && this.hashPos(k, this.groupCount()) == this.heldGroup )
+			for(int i = 0; i < this.heldCount; i++) {
+				I result = this.findInChain(this.heldChains[i], k);
+				if( result != null ) return result;
+			}
+		if( this.oldHashArray != null ) {
+			I result = this.findInChain(this.oldHashArray[this.oldHashPos(k)], k);
+			if( result != null ) return result;
+		}
+		return this.findInChain(this.hashArray[this.hashPos(k)], k);
 	}
 
 	@Override
 	public boolean has(K k) {
-		LinkedIterator280<I> saveListLocation;
-		if(itemListLocation != null)
-			saveListLocation = itemListLocation.clone();
-		else
-			saveListLocation = null;
-		search(k);
-		boolean result = itemExists();
-		itemListLocation = saveListLocation;
-		return result;
+		this.migrateBuckets(defaultMigrationStepSize);
+		return this.find(k) != null;
 	}
 
 	@Override
 	public I obtain(K k) throws ItemNotFound280Exception {
-
-		// Save cursor position
-		LinkedIterator280<I> saveListLocation;
-		if(itemListLocation != null)
-			saveListLocation = itemListLocation.clone();
-		else
-			saveListLocation = null;
-		
-		// Look for the item with key k.
-		search(k);
-		
-		// If it wasn't found, then error.
-		if(!this.itemExists()) 
+		this.migrateBuckets(defaultMigrationStepSize);
+		I result = this.find(k);
+		if( result == null )
 			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
-		
-		// Otherwise, restore the cursor position and return the item with key k.
-		I result = this.item();
-		itemListLocation = saveListLocation;
-
 		return result;
-
 	}
 
 	@Override
 	public void delete(K k) throws ItemNotFound280Exception {
-		if( !this.has(k) ) {
+		this.migrateBuckets(defaultMigrationStepSize);
+
+		// If found, chainOf() leaves the cursor of L at the item with key k.
+		LinkedList280<I> L = this.chainOf(k);
+		if( L == null ) {
 			throw new ItemNotFound280Exception("No item with key k was not found in the table.");
 		}
 		
-		LinkedList280<I> L = hashArray[this.hashPos(k)];
-		
-		// At this point, we know that L contains an item with key k
-		L.goFirst();
-		while(L.itemExists() && k.compareTo(L.item().key()) != 0) {
-			L.goForth();
-		}
-		
 		// Remove the existing item
-		L.deleteItem();		
+		L.deleteItem();
+		count--;
 	}
 
 	@Override
@@ -200,52 +761,113 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 	}
 
 	
+	/**
+	 * Number of groups the cursor visits the buckets in (see cursorGroups).
+	 */
+	protected int groupCount() {
+		return this.cursorGroups > 0 ? this.cursorGroups : this.hashArray.length;
+	}
+
+	/**
+	 * Number of held chains in the given group.
+	 * @param group a group (see cursorGroups)
+	 */
+	protected int heldPhases(int group) {
+		return group == this.heldGroup ? this.heldCount : 0;
+	}
+
+	/**
+	 * Number of buckets of oldHashArray in each group, or 0 if no resize is in progress.
+	 */
+	protected int oldPhases() {
+		return this.oldHashArray == null ? 0 : this.oldHashArray.length / this.groupCount();
+	}
+
+	/**
+	 * The phase (see findNextItem()) of the cursor's chain within its group.
+	 * @precond itemExists()
+	 */
+	protected int cursorPhase() {
+		if( this.cursorHeld >= 0 ) return this.cursorHeld;
+		int held = this.heldPhases(this.cursorGroup());
+		if( this.cursorInOldArray )
+			return held + this.oldHashPos(this.itemKey()) / this.groupCount();
+		return held + this.oldPhases() + this.hashPos(this.itemKey()) / this.groupCount();
+	}
+
 	/**	
-	 * Go to the first item of the first non-empty list
-	 * starting at index, or goAfter() if none found.  
+	 * Go to the first item of the first non-empty chain at or after the given position in
+	 * cursor order, or goAfter() if none found.  A position is a group and a phase: the
+	 * phases of a group are its held chains, if any, then its buckets of oldHashArray, if a
+	 * resize is in progress, then its buckets of hashArray; the buckets of group g in an
+	 * array are g, g + groupCount(), g + 2*groupCount(), ...
 	 * @timing O(capacity()) - worst case.
-	 * @param index first hash value to search to find the next item 
+	 * @param group group of the first chain to examine
+	 * @param phase phase of the first chain to examine
 	 */
-	protected void findNextItem(int index)
+	protected void findNextItem(int group, int phase)
 	{
-		int itemHashLocation = index;
-		while ((itemHashLocation <= this.hashArray.length-1)
-				&& ((this.hashArray[itemHashLocation] == null) || (this.hashArray[itemHashLocation].isEmpty())))
-			itemHashLocation++;
-		if (itemHashLocation < this.hashArray.length)
+		int groups = this.groupCount();
+		int oldPhases = this.oldPhases();
+		for ( ; group < groups; group++, phase = 0)
 		{
-			this.itemListLocation = this.hashArray[itemHashLocation].iterator();
-			this.itemListLocation.goFirst();
+			int held = this.heldPhases(group);
+			int phases = held + oldPhases + this.hashArray.length / groups;
+			for ( ; phase < phases; phase++)
+			{
+				LinkedList280<I> chain;
+				if (phase < held)
+					chain = this.heldChains[phase];
+				else if (phase < held + oldPhases)
+					chain = this.oldHashArray[group + (phase - held) * groups];
+				else
+					chain = this.hashArray[group + (phase - held - oldPhases) * groups];
+				if (chain != null && !chain.isEmpty())
+				{
+					this.itemListLocation = chain.iterator();
+					this.itemListLocation.goFirst();
+					this.cursorHeld = phase < held ? phase : -1;
+					this.cursorInOldArray = held <= phase && phase < held + oldPhases;
+					return;
+				}
+			}
 		}
-		else
-			this.goAfter();
+		this.goAfter();
 	}  
 
-	
 	@Override
 	public void goForth() throws AfterTheEnd280Exception {
 		if (this.after())
 			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
 
 		if (this.itemListLocation==null || this.itemListLocation.before())
-			this.goFirst();
-		else
 		{
-			int itemHashLocation = this.hashPos(this.item().key());
-			this.itemListLocation.goForth();
-			if (this.itemListLocation.after())
-				this.findNextItem(itemHashLocation + 1);
-		}		
+			this.goFirst();
+			return;
+		}
+		int group = this.cursorGroup();
+		int phase = this.cursorPhase();
+		this.itemListLocation.goForth();
+		if (this.itemListLocation.after())
+			this.findNextItem(group, phase + 1);
 	}
 
 	@Override
 	public void goFirst() throws ContainerEmpty280Exception {
-		findNextItem(0);
+		this.migrateBeforeRepositioning(null);
+		if (this.oldHashArray == null) this.cursorGroups = 0;
+		this.findNextItem(0, 0);
 	}
 
 	@Override
 	public void goBefore() {
-		itemListLocation.goBefore();
+		this.migrateBeforeRepositioning(null);
+		if (this.oldHashArray == null) this.cursorGroups = 0;
+		// Dropping the iterator, rather than moving it before its chain, keeps after() false
+		// even when the cursor was in an empty chain, such as that of goAfter() in an empty table.
+		itemListLocation = null;
+		cursorInOldArray = false;
+		cursorHeld = -1;
 	}
 
 	@Override
@@ -255,29 +877,94 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		itemListLocation = hashArray[hashArray.length-1].iterator();
 		if( !hashArray[hashArray.length-1].isEmpty() ) 
 			itemListLocation.goAfter();
+		cursorInOldArray = false;
+		cursorHeld = -1;
+	}
+
+	/**
+	 * A saved cursor: the position in its chain, where that chain was, and the grouping
+	 * the cursor visited the buckets in.
+	 */
+	protected static class Position<I> implements CursorPosition280 {
+		LinkedIterator280<I> location;
+		LinkedList280<I> chain;
+		boolean inOldArray;
+		int held;
+		int groups;
+
+		Position(LinkedIterator280<I> location, LinkedList280<I> chain, boolean inOldArray, int held, int groups) {
+			this.location = location;
+			this.chain = chain;
+			this.inOldArray = inOldArray;
+			this.held = held;
+			this.groups = groups;
+		}
 	}
 
 	@Override
 	public CursorPosition280 currentPosition() {
-		/* Return type is CursorPosition280 rather than LinkedIterator280<I> as the iterator
-		   returned only iterates through one list rather than the whole container. */
-		if (itemListLocation != null) 
-			return itemListLocation.clone();
-		else
+		/* The iterator alone only iterates through one list rather than the whole container,
+		   so the position also records which chain that is and the cursor's grouping. */
+		if (itemListLocation == null)
 			return null;
+		LinkedList280<I> chain = null;
+		if (this.itemExists())
+		{
+			if (this.cursorHeld >= 0)
+				chain = this.heldChains[this.cursorHeld];
+			else if (this.cursorInOldArray)
+				chain = this.oldHashArray[this.oldHashPos(this.itemKey())];
+			else
+				chain = this.hashArray[this.hashPos(this.itemKey())];
+		}
+		return new Position<I>(itemListLocation.clone(), chain, this.cursorInOldArray, this.cursorHeld, this.groupCount());
 	}
 
+	/**
+	 * Restore a position saved by currentPosition(), with the grouping of its iteration.
+	 * If the chain of the saved item has been migrated since, the cursor is placed on the
+	 * item where it now is.
+	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public void goPosition(CursorPosition280 pos) {
-		if (pos != null  && !(pos instanceof LinkedIterator280))
+		if (pos != null  && !(pos instanceof Position))
 			throw new InvalidArgument280Exception("The cursor position parameter" 
-					    + " must be a LinkedIterator280<I>");
-		if(pos != null) 
-			itemListLocation = ((LinkedIterator280<I>) pos).clone();
-		else
+					    + " must be a KeyedChainedHashTable280.Position");
+		this.cursorInOldArray = false;
+		this.cursorHeld = -1;
+		if (pos == null)
+		{
 			itemListLocation = null;
-		
+			return;
+		}
+		Position<I> p = (Position<I>) pos;
+		// The held chains belong to the grouping they were held under.
+		if (p.groups != this.groupCount())
+			this.releaseHeldChains();
+		this.cursorGroups = p.groups;
+		itemListLocation = p.location.clone();
+		if (p.chain == null)
+			return;
+
+		K k = this.itemKey();
+		if (p.held >= 0 && p.held < this.heldCount && this.heldChains[p.held] == p.chain)
+			this.cursorHeld = p.held;
+		else if (p.inOldArray && this.oldHashArray != null && this.oldHashArray[this.oldHashPos(k)] == p.chain)
+			this.cursorInOldArray = true;
+		else if (this.hashArray[this.hashPos(k)] != p.chain)
+		{
+			// Find the chain the item is in now; if it has been deleted, keep the saved location.
+			LinkedList280<I> L = this.homeChainOf(k);
+			if (L.itemExists())
+			{
+				itemListLocation = this.chainIteratorAt(L, k);
+				for (int i = 0; i < this.heldCount; i++)
+					if (this.heldChains[i] == L) this.cursorHeld = i;
+				this.cursorInOldArray = this.cursorHeld < 0 && this.oldHashArray != null
+						&& this.oldHashArray[this.oldHashPos(k)] == L;
+			}
+		}
 	}
 
 	/**
@@ -334,15 +1021,9 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 	 * 
 	 */
 	public boolean has(I y) {
-		I existingItem;
-		try {
-			existingItem = this.obtain(y.key());
-		}
-		catch(ItemNotFound280Exception e) {
-			return false;
-		}
-
-		return this.membershipEquals(existingItem, y);
+		this.migrateBuckets(defaultMigrationStepSize);
+		I existingItem = this.find(y.key());
+		return existingItem != null && this.membershipEquals(existingItem, y);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -361,12 +1042,19 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		return false;
 	}
 
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	@Override
 	public void clear() {
 		this.hashArray = new LinkedList280[this.hashArray.length];
 		this.count = 0;
 		this.itemListLocation = null;
+		this.oldHashArray = null;
+		this.heldChains = null;
+		this.heldCount = 0;
+		this.heldGroup = -1;
+		this.cursorInOldArray = false;
+		this.cursorHeld = -1;
+		this.cursorGroups = 0;
 	}
 
 	/**
@@ -387,14 +1075,20 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 
 	@Override
 	public void search(K k) {
-		int itemHashLocation = this.hashPos(k);
 		if (searchesContinue && itemListLocation!=null)
 			goForth();
 		else
 		{
+			// During an incremental resize, the old chain that may hold the item is migrated
+			// first, so that the cursor is left in hashArray.
+			this.migrateBeforeRepositioning(k);
+			if (oldHashArray == null) this.cursorGroups = 0;
+
+			int itemHashLocation = this.hashPos(k);
 			if (hashArray[itemHashLocation]==null)
 				hashArray[itemHashLocation] = newChain();
-			itemListLocation = hashArray[itemHashLocation].iterator();
+			itemListLocation = chainIteratorAt(hashArray[itemHashLocation], k);
+			return;
 		}
 		while (!itemListLocation.after() && k.compareTo(itemListLocation.item().key()) != 0 )
 			itemListLocation.goForth();		
@@ -403,36 +1097,23 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 
 	/**
 	 * Searches the data structure for the first element with key at least as large as k.
-	 * Searching begins from the first hash table bin, or the current bin if searches have been
+	 * Searching begins from the first item, or the item after the current one if searches have been
 	 * set to continue.
 	 * 
 	 * @param k The key value -- search will find items with key at least as large as k.
 	 * 
 	 */
 	public void searchCeilingOf(K k) {
-		
-		int currentList=0;
 		// If searches continue and we are currently at an item, move to the next one.
-		if (searchesContinue && itemListLocation!=null) {
-			currentList = this.hashPos(this.item().key());
+		if (searchesContinue && itemListLocation!=null)
 			goForth();
-		}
 		else
-		{
-			// Otherwise start at the very first item in the first non-empty list.
-			findNextItem(currentList);
-		}
-		while( currentList < hashArray.length  ) {
-			while (!itemListLocation.after() ) {
-				// If we find an item with key larger than k, return.
-				if( itemListLocation.item().key().compareTo(k) >= 0 )
-					return;
-				itemListLocation.goForth();
-			}
-			// We reached the end of the current bucket, find the next item.
-			currentList++;
-			findNextItem(currentList);
-		}
+			// Otherwise start at the very first item.
+			goFirst();
+
+		// Stop at the first item with key at least as large as k.
+		while (itemExists() && itemListLocation.item().key().compareTo(k) < 0)
+			goForth();
 	}
 
 	@Override
@@ -461,6 +1142,31 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		return hashArray.length;
 	}
 
+	/**
+	 * Distribution of chain lengths in the table.
+	 * @timing O(capacity())
+	 * @return An array whose i-th entry is the number of buckets with a chain of length i.
+	 */
+	public int[] chainLengthCounts() {
+		this.finishMigration();
+		int longest = 0;
+		int[] lengths = new int[hashArray.length];
+		for (int i=0; i<hashArray.length; i++) {
+			if (hashArray[i] != null && !hashArray[i].isEmpty()) {
+				hashArray[i].goFirst();
+				while (hashArray[i].itemExists()) {
+					lengths[i]++;
+					hashArray[i].goForth();
+				}
+			}
+			longest = Math.max(longest, lengths[i]);
+		}
+		int[] result = new int[longest + 1];
+		for (int i=0; i<hashArray.length; i++)
+			result[lengths[i]]++;
+		return result;
+	}
+
 	
 	
 	@Override
@@ -469,9 +1175,27 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		else return 0;
 	}
 
+	/**
+	 * A spliterator over the items of the table.  It splits by ranges of buckets; while
+	 * an incremental resize is in progress the buckets not yet migrated from the old
+	 * array, and the held chains, are covered as well, so nothing has to be migrated first.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new ChainSpliterator280<I>(this.heldChains, this.heldCount, this.oldHashArray, this.hashArray,
+				this.count, Spliterator.DISTINCT);
+	}
+
 	@Override
 	public String toString() {
 		String result = "";
+		for (int i=0; i<heldCount; i++)
+			result += "\nheld " + i + ": " + heldChains[i].toString();
+		if (oldHashArray != null)
+			for (int i=0; i<oldHashArray.length; i++)
+				if (oldHashArray[i] != null)
+					result += "\nold " + i + ": " + oldHashArray[i].toString();
 		for (int i=0; i<capacity(); i++)
 			if (hashArray[i] != null)
 				result += "\n" + i + ": " + hashArray[i].toString();
@@ -497,6 +1221,8 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 		}
 		
 		KeyedChainedHashTable280<String, Skill> H = new KeyedChainedHashTable280<String, Skill>();
+		// The cursor tests below expect the items in the order given by the keys' own hash codes.
+		H.setHashStrategy(new IdentityHashStrategy280());
 		
 		// Test insert
 		H.insert(new Skill("Shield Bash", 5));
@@ -729,6 +1455,284 @@ public class KeyedChainedHashTable280<K extends Comparable<? super K>, I extends
 			System.out.println(H.item());
 			H.goForth();
 		}
+
+		// The same items under the default MixingHashStrategy280, which orders the buckets
+		// differently: every item is found, and iteration visits each of them exactly once.
+		KeyedChainedHashTable280<String, Skill> M = new KeyedChainedHashTable280<String, Skill>();
+		String[] names = {"Shield Bash", "Heavy Strike", "Explosive Arrow", "Infernal Blow", "Cleave"};
+		for(String name : names)
+			M.insert(new Skill(name, name.length()));
+		for(String name : names) {
+			M.search(name);
+			if( !M.itemExists() || !M.item().name.equals(name) || M.obtain(name).skillCost != name.length() )
+				System.out.println("Error: the default hash strategy should find " + name + ".");
+		}
+		java.util.HashSet<String> seen = new java.util.HashSet<String>();
+		for(M.goFirst(); M.itemExists(); M.goForth())
+			if( !seen.add(M.item().name) )
+				System.out.println("Error: iteration under the default hash strategy visited " + M.item().name + " twice.");
+		if( seen.size() != names.length )
+			System.out.println("Error: iteration under the default hash strategy visited " + seen.size() + " items instead of " + names.length);
+		M.delete("Explosive Arrow");
+		if( M.has("Explosive Arrow") || !M.has("Infernal Blow") || M.count() != names.length - 1 )
+			System.out.println("Error: wrong contents after deleting under the default hash strategy.");
+
+		// Test incremental resizing: every item must stay reachable while the
+		// chains are split between the old and new bucket arrays.
+		KeyedChainedHashTable280<String, Skill> I = new KeyedChainedHashTable280<String, Skill>(true);
+		boolean sawResize = false;
+		for(int i = 0; i < 10000; i++) {
+			I.insert(new Skill("Quest " + i, i));
+			if( I.isResizing() ) {
+				sawResize = true;
+				int visited = 0;
+				I.goFirst();
+				while(I.itemExists()) {
+					visited++;
+					I.goForth();
+				}
+				if( visited != I.count() )
+					System.out.println("Error: iteration during a resize visited " + visited + " items but there are " + I.count());
+				if( I.parallelStream().count() != I.count() )
+					System.out.println("Error: a stream during a resize should see all " + I.count() + " items.");
+			}
+		}
+		if( !sawResize ) System.out.println("Error: incremental table never reported a resize in progress.");
+		for(int i = 0; i < 10000; i += 2)
+			I.delete("Quest " + i);
+		for(int i = 0; i < 10000; i++)
+			if( I.has("Quest " + i) != (i % 2 == 1) )
+				System.out.println("Error: wrong membership for \"Quest " + i + "\" after incremental resizing.");
+		if( I.count() != 5000 )
+			System.out.println("Error: table should have 5000 items but it has " + I.count());
+
+		// Leaving the cursor on an item after search() must not hold up the migration.
+		KeyedChainedHashTable280<String, Skill> R = new KeyedChainedHashTable280<String, Skill>(true);
+		int resizingSteps = 0, steps = 20000;
+		for(int i = 0; i < steps; i++) {
+			R.insert(new Skill("k" + i, i));
+			R.search("k0");
+			if( !R.itemExists() || R.item().skillCost != 0 )
+				System.out.println("Error: search(\"k0\") should find k0 during incremental resizing.");
+			if( R.isResizing() ) resizingSteps++;
+		}
+		if( R.isResizing() || resizingSteps > steps / 2 )
+			System.out.println("Error: the resize should keep migrating while the cursor is on an item, but it was in progress for "
+					+ resizingSteps + " of " + steps + " steps.");
+
+		// An iteration with lookups, and so migration, between its steps sees each item once.
+		KeyedChainedHashTable280<String, Skill> V = new KeyedChainedHashTable280<String, Skill>(true);
+		int n = 0;
+		while( !V.isResizing() ) {
+			V.insert(new Skill("Visit " + n, n));
+			n++;
+		}
+		int[] visits = new int[n];
+		for(V.goFirst(); V.itemExists(); V.goForth()) {
+			visits[V.item().skillCost]++;
+			V.has("Visit 0");
+		}
+		for(int i = 0; i < n; i++)
+			if( visits[i] != 1 ) {
+				System.out.println("Error: iteration during migration visited Visit " + i + " " + visits[i] + " times.");
+				break;
+			}
+		if( V.isResizing() )
+			System.out.println("Error: the lookups during the iteration should have finished the migration.");
+
+		// An iteration that inserts as it goes, so that the table grows two or more times
+		// before it ends, sees each item that was there at the start once and no item twice;
+		// so does one that saves its position, looks ahead and goes back.
+		java.util.Random rg = new java.util.Random(280);
+		int resizedTwice = 0;
+		for(int run = 0; run < 300; run++) {
+			KeyedChainedHashTable280<String, Skill> G = new KeyedChainedHashTable280<String, Skill>(true);
+			int start = 1 + rg.nextInt(200), added = start;
+			for(int i = 0; i < start; i++)
+				G.insert(new Skill("Grow " + i, i));
+			int[] visitsOf = new int[start + 1000];
+			int resizes = 0, length = G.capacity();
+			for(G.goFirst(); G.itemExists(); G.goForth()) {
+				visitsOf[G.item().skillCost]++;
+				for(int j = rg.nextInt(4); j > 0 && added < visitsOf.length; j--, added++)
+					G.insert(new Skill("Grow " + added, added));
+				G.has("Grow " + rg.nextInt(added));
+				if( G.capacity() != length ) {
+					resizes++;
+					length = G.capacity();
+				}
+				if( run % 2 == 1 && rg.nextInt(5) == 0 ) {
+					CursorPosition280 P = G.currentPosition();
+					for(int j = 0; j < 3 && G.itemExists(); j++)
+						G.goForth();
+					G.goPosition(P);
+				}
+			}
+			if( resizes >= 2 ) resizedTwice++;
+			for(int i = 0; i < added; i++)
+				if( visitsOf[i] > 1 || (i < start && visitsOf[i] != 1) ) {
+					System.out.println("Error: an iteration during which the table grew " + resizes + " times visited Grow " + i
+							+ " " + visitsOf[i] + " times.");
+					break;
+				}
+		}
+		if( resizedTwice < 100 )
+			System.out.println("Error: only " + resizedTwice + " of 300 iterations saw the table grow twice.");
+
+		// Test colliding keys: with every key hashed to the same bucket, the chain is a plain
+		// list until it grows past the threshold, is indexed while it is long, and is no
+		// longer indexed when it shrinks.
+		KeyedChainedHashTable280<String, Skill> C = new KeyedChainedHashTable280<String, Skill>();
+		C.setHashStrategy(new HashStrategy280() {
+			public int hash(Object y) {
+				return 0;
+			}
+		});
+		for(int i = 0; i < IndexedChain280.treeifyThreshold; i++)
+			C.insert(new Skill("Skill " + i, i));
+		if( C.hashArray[0] instanceof IndexedChain280 )
+			System.out.println("Error: a chain of " + IndexedChain280.treeifyThreshold + " items should be a plain list.");
+		// The cursor stays on its item when its chain is replaced by an indexed one.
+		C.search("Skill 3");
+		C.insert(new Skill("Skill " + IndexedChain280.treeifyThreshold, IndexedChain280.treeifyThreshold));
+		if( !(C.hashArray[0] instanceof IndexedChain280) || !((IndexedChain280<?, ?>) C.hashArray[0]).isIndexed() )
+			System.out.println("Error: a chain of " + (IndexedChain280.treeifyThreshold + 1) + " items should be indexed.");
+		if( !C.itemExists() || !C.itemKey().equals("Skill 3") )
+			System.out.println("Error: the cursor should still be on Skill 3 after its chain was indexed.");
+		C.deleteItem();
+		if( C.has("Skill 3") || C.count() != IndexedChain280.treeifyThreshold )
+			System.out.println("Error: deleteItem() after the chain was indexed should have removed Skill 3.");
+		C.insert(new Skill("Skill 3", 3));
+		for(int i = IndexedChain280.treeifyThreshold + 1; i < 1000; i++)
+			C.insert(new Skill("Skill " + i, i));
+		if( !((IndexedChain280<?, ?>) C.hashArray[0]).isIndexed() )
+			System.out.println("Error: a chain of 1000 colliding keys should be indexed.");
+		C.set(new Skill("Skill 500", -1));
+		if( C.obtain("Skill 500").skillCost != -1 )
+			System.out.println("Error: Skill 500 should have been replaced.");
+		C.search("Skill 700");
+		if( !C.itemExists() || C.item().skillCost != 700 )
+			System.out.println("Error: search should have found Skill 700.");
+		int visitedColliding = 0;
+		C.goFirst();
+		while(C.itemExists()) {
+			visitedColliding++;
+			C.goForth();
+		}
+		if( visitedColliding != 1000 )
+			System.out.println("Error: iteration over colliding keys visited " + visitedColliding + " items instead of 1000.");
+		for(int i = 0; i < 998; i++)
+			C.delete("Skill " + i);
+		if( ((IndexedChain280<?, ?>) C.hashArray[0]).isIndexed() )
+			System.out.println("Error: a chain of 2 items should no longer be indexed.");
+		if( !C.has("Skill 998") || !C.has("Skill 999") || C.has("Skill 0") || C.count() != 2 )
+			System.out.println("Error: wrong contents after deleting colliding keys.");
+
+		// Test presizing and bulk insertion.
+		KeyedChainedHashTable280<String, Skill> B = new KeyedChainedHashTable280<String, Skill>(1000, 1.0);
+		int presizedCapacity = B.capacity();
+		if( presizedCapacity != 1024 )
+			System.out.println("Error: a table presized for 1000 items should have capacity 1024 but has " + presizedCapacity);
+		Skill[] bulk = new Skill[1000];
+		for(int i = 0; i < bulk.length; i++)
+			bulk[i] = new Skill("Bulk " + i, i);
+		B.insertAll(bulk);
+		if( B.count() != 1000 || B.capacity() != presizedCapacity )
+			System.out.println("Error: bulk insertion into a presized table should not grow it.");
+		java.util.ArrayList<Skill> more = new java.util.ArrayList<Skill>();
+		for(int i = 990; i < 5000; i++)
+			more.add(new Skill("Bulk " + i, -i));
+		try {
+			B.insertAll(more);
+			System.out.println("Error: expected a duplicate items exception from insertAll(), got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			if( !e.getMessage().startsWith("10 items") )
+				System.out.println("Error: insertAll() should report 10 duplicates, but reported: " + e.getMessage());
+		}
+		B.insertAll(java.util.stream.IntStream.range(5000, 6000).mapToObj(i -> new Skill("Bulk " + i, i)));
+		if( B.count() != 6000 || B.obtain("Bulk 995").skillCost != 995 || B.obtain("Bulk 4999").skillCost != -4999 || !B.has("Bulk 5999") )
+			System.out.println("Error: wrong contents after bulk insertion.");
+		if( B.loadFactor() > 1.0 )
+			System.out.println("Error: bulk insertion left the load factor at " + B.loadFactor());
+
+		// A stream of unknown size grows the table as it is loaded, so no chain gets long.
+		KeyedChainedHashTable280<String, Skill> G = new KeyedChainedHashTable280<String, Skill>();
+		Spliterator<Skill> unsized = java.util.stream.IntStream.range(0, 100000).filter(i -> true).mapToObj(i -> new Skill("Load " + i, i)).spliterator();
+		if( unsized.getExactSizeIfKnown() >= 0 )
+			System.out.println("Error: the test stream should be of unknown size.");
+		G.insertAll(unsized);
+		int longestChain = 0;
+		for(LinkedList280<Skill> chain : G.hashArray)
+			if( chain != null ) {
+				int length = 0;
+				for(LinkedNode280<Skill> node = chain.firstNode(); node != null; node = node.nextNode())
+					length++;
+				longestChain = Math.max(longestChain, length);
+				if( (chain instanceof IndexedChain280) != (length > IndexedChain280.treeifyThreshold) )
+					System.out.println("Error: a chain of " + length + " items should " + (length > IndexedChain280.treeifyThreshold ? "" : "not ") + "be indexed.");
+			}
+		if( G.count() != 100000 || G.loadFactor() > defaultMaxLoadFactor || G.capacity() < 100000 / defaultMaxLoadFactor || longestChain > 16 )
+			System.out.println("Error: loading an unsized stream should grow the table as it goes; capacity " + G.capacity()
+					+ ", longest chain " + longestChain);
+
+		// Test putIfAbsent(), computeIfAbsent(), compute() and merge() as read-modify-write counters.
+		KeyedChainedHashTable280<String, Skill> U = new KeyedChainedHashTable280<String, Skill>();
+		if( U.putIfAbsent(new Skill("Cleave", 1)) != null )
+			System.out.println("Error: putIfAbsent() of a new key should return null.");
+		if( U.putIfAbsent(new Skill("Cleave", 2)).skillCost != 1 )
+			System.out.println("Error: putIfAbsent() of an existing key should return the existing item.");
+		if( U.computeIfAbsent("Sweep", k -> new Skill(k, 3)).skillCost != 3 || U.computeIfAbsent("Sweep", k -> new Skill(k, 4)).skillCost != 3 )
+			System.out.println("Error: computeIfAbsent() should create Sweep once, with cost 3.");
+		if( U.computeIfAbsent("Stab", k -> null) != null || U.has("Stab") )
+			System.out.println("Error: computeIfAbsent() returning null should insert nothing.");
+		try {
+			U.computeIfAbsent("Stab", k -> new Skill("Slash", 1));
+			System.out.println("Error: expected exception when the computed item has the wrong key, got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		for(int i = 0; i < 1000; i++) {
+			U.compute("Counter " + (i % 10), (k, c) -> new Skill(k, c == null ? 1 : c.skillCost + 1));
+			U.merge(new Skill("Total", 1), (c, x) -> new Skill(c.name, c.skillCost + x.skillCost));
+		}
+		if( U.obtain("Counter 7").skillCost != 100 || U.obtain("Total").skillCost != 1000 )
+			System.out.println("Error: compute() and merge() counters have the wrong totals.");
+		U.compute("Counter 7", (k, c) -> null);
+		U.merge(new Skill("Total", 0), (c, x) -> null);
+		if( U.has("Counter 7") || U.has("Total") || U.count() != 11 )
+			System.out.println("Error: compute() and merge() returning null should delete the item.");
+
+		// insert() and the single-probe methods hash the key exactly once.
+		final int[] hashes = new int[1];
+		class Probe implements Comparable<Probe> {
+			int id;
+			Probe(int id) { this.id = id; }
+			public int hashCode() { hashes[0]++; return id; }
+			public boolean equals(Object o) { return o instanceof Probe && ((Probe) o).id == id; }
+			public int compareTo(Probe o) { return Integer.compare(id, o.id); }
+		}
+		class Marker implements Keyed280<Probe> {
+			Probe k;
+			Marker(Probe k) { this.k = k; }
+			public Probe key() { return k; }
+		}
+		KeyedChainedHashTable280<Probe, Marker> P = new KeyedChainedHashTable280<Probe, Marker>(1000, defaultMaxLoadFactor);
+		for(int i = 0; i < 500; i++) {
+			Probe k = new Probe(i);
+			hashes[0] = 0;
+			P.insert(new Marker(k));
+			int insertHashes = hashes[0];
+			hashes[0] = 0;
+			P.putIfAbsent(new Marker(k));
+			P.computeIfAbsent(k, Marker::new);
+			P.compute(k, (key, m) -> m);
+			P.merge(new Marker(k), (m, x) -> m);
+			if( insertHashes != 1 || hashes[0] != 4 ) {
+				System.out.println("Error: each insertion should hash its key once, not " + insertHashes + " and " + hashes[0] / 4.0 + " times.");
+				break;
+			}
+		}
 	
 		
 	
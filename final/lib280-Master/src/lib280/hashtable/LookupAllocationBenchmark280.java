@@ -0,0 +1,133 @@
+package lib280.hashtable;
+
+import java.lang.management.ManagementFactory;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.tree.AVLTree280;
+import lib280.tree.TwoThreeTree280;
+
+/**
+ * Measures the number of bytes allocated per lookup by the hash tables and search trees,
+ * to check that obtain() and has() produce no garbage once the JIT has warmed up.
+ * For comparison it also measures a search that saves and restores the cursor, which is
+ * what has() and obtain() of the chained hash tables used to do.
+ *
+ * Usage: java lib280.hashtable.LookupAllocationBenchmark280
+ *
+ * Allocation is counted with the per-thread allocation counter of the HotSpot
+ * ThreadMXBean; on other virtual machines the benchmark only reports the timings.
+ */
+public class LookupAllocationBenchmark280 {
+
+	/** A key with nothing else attached. */
+	protected static class Name implements Keyed280<String> {
+		String name;
+
+		Name(String name) {
+			this.name = name;
+		}
+		public String key() { return name; }
+	}
+
+	/** One lookup of the benchmark. */
+	protected static abstract class Lookup {
+		/** Look up the i-th key. */
+		abstract void run(int i);
+	}
+
+	/** Number of keys in each structure. */
+	protected static final int size = 10000;
+
+	/** Number of lookups measured for each structure. */
+	protected static final int lookups = 1000000;
+
+	/** Bytes allocated by the current thread so far, or -1 if this cannot be measured. */
+	protected static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if( bean instanceof com.sun.management.ThreadMXBean )
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+
+	/**
+	 * Warm up and then measure lookup, printing the bytes allocated and the time taken per lookup.
+	 * @param mustBeFree report an error if the lookup allocates
+	 */
+	protected static void report(String title, Lookup lookup, boolean mustBeFree) {
+		for(int run = 0; run < 5; run++)
+			for(int i = 0; i < lookups; i++)
+				lookup.run(i % size);
+
+		long startBytes = allocatedBytes();
+		long start = System.nanoTime();
+		for(int i = 0; i < lookups; i++)
+			lookup.run(i % size);
+		long elapsed = System.nanoTime() - start;
+		long bytes = allocatedBytes() - startBytes;
+
+		if( startBytes < 0 ) {
+			System.out.println(title + ": " + (elapsed / lookups) + " ns per lookup");
+			return;
+		}
+		double bytesPerLookup = ((double) bytes) / lookups;
+		System.out.printf("%s: %.3f bytes and %d ns per lookup%n", title, bytesPerLookup, elapsed / lookups);
+		// Allow for the few bytes the measurement itself may allocate.
+		if( mustBeFree && bytesPerLookup >= 0.01 )
+			System.out.println("Error: " + title + " should not allocate.");
+	}
+
+	public static void main(String[] args) {
+		final String[] keys = new String[size];
+		final Name[] names = new Name[size];
+		for(int i = 0; i < size; i++) {
+			keys[i] = "Quest" + i;
+			names[i] = new Name(keys[i]);
+		}
+
+		final KeyedChainedHashTable280<String, Name> K = new KeyedChainedHashTable280<String, Name>();
+		final ChainedHashTable280<String> C = new ChainedHashTable280<String>(size);
+		final RobinHoodHashTable280<String, Name> R = new RobinHoodHashTable280<String, Name>();
+		final AVLTree280<String> A = new AVLTree280<String>();
+		final TwoThreeTree280<String, Name> T = new TwoThreeTree280<String, Name>();
+		for(int i = 0; i < size; i++) {
+			K.insert(names[i]);
+			C.insert(keys[i]);
+			R.insert(names[i]);
+			A.insert(keys[i]);
+			T.insert(names[i]);
+		}
+		K.goFirst();
+		C.goFirst();
+
+		report("KeyedChainedHashTable280.obtain()", new Lookup() {
+			void run(int i) { K.obtain(keys[i]); }
+		}, true);
+		report("KeyedChainedHashTable280.has(x)", new Lookup() {
+			void run(int i) { K.has(names[i]); }
+		}, true);
+		report("ChainedHashTable280.obtain()", new Lookup() {
+			void run(int i) { C.obtain(keys[i]); }
+		}, true);
+		report("RobinHoodHashTable280.obtain()", new Lookup() {
+			void run(int i) { R.obtain(keys[i]); }
+		}, true);
+		report("AVLTree280.obtain()", new Lookup() {
+			void run(int i) { A.obtain(keys[i]); }
+		}, true);
+		report("TwoThreeTree280.obtain()", new Lookup() {
+			void run(int i) { T.obtain(keys[i]); }
+		}, true);
+		report("cursor-saving search (previous obtain())", new Lookup() {
+			void run(int i) {
+				CursorPosition280 saved = K.currentPosition();
+				K.search(keys[i]);
+				K.item();
+				K.goPosition(saved);
+			}
+		}, false);
+
+		if( !K.itemExists() || !C.itemExists() )
+			System.out.println("Error: lookups should not have moved the cursors.");
+	}
+}
@@ -0,0 +1,1061 @@
+package lib280.hashtable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import lib280.base.Codec280;
+import lib280.base.Container280;
+import lib280.base.CursorPosition280;
+import lib280.base.IndexRangeSpliterator280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.base.Streamable280;
+import lib280.dictionary.KeyedDict280;
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.*;
+
+/**
+ * A keyed hash table that keeps its items outside the Java heap, serialized by
+ * user-supplied codecs, either in direct byte buffers or in a pair of memory-mapped
+ * files from which the table can be reopened later.  The heap holds only a few
+ * references to the buffers, however many items there are, so the table neither counts
+ * against the heap limit nor lengthens garbage collection.
+ *
+ * The table has two parts with a fixed layout.  The index is an open-addressing table
+ * probed linearly, preceded by a header; each slot holds the hash of a key and the
+ * offset of its record.  The data area is a sequence of records, each holding the
+ * encoded key and the encoded item, appended in fixed-size chunks.  Replacing or
+ * deleting an item leaves its old record behind as garbage, which compact() reclaims
+ * (and which is reclaimed automatically once it is more than half of the data).
+ *
+ * Keys are hashed from their encoded bytes, not from hashCode(), so that the hash of a
+ * key is the same every time the file is opened; equal keys must therefore have equal
+ * encodings.  Every lookup decodes the item it returns, so obtain() and item() return a
+ * new object each time, and changing that object does not change the table.
+ *
+ * Changes are written to the mapped files as they are made, and reach the disk when the
+ * operating system writes the pages back, or when force() or close() is called.  The
+ * table is not protected against a crash in the middle of a change.
+ *
+ * The cursor is the index of a slot; iteration visits the items in slot order.  The
+ * spliterator visits them in the same order and splits by ranges of slots.
+ */
+public class MappedHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>>
+		implements KeyedDict280<K, I>, Container280, AutoCloseable, Streamable280<I> {
+
+	/**
+	 * A data area: records appended to chunks of direct or mapped memory.  A record never
+	 * spans two chunks.
+	 */
+	protected static class DataArea {
+		/** The chunks; the byte at offset o is in chunks.get(o / chunkSize). */
+		ArrayList<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+
+		/** Length of every chunk. */
+		int chunkSize;
+
+		/** The file the chunks are mapped from, or null for direct memory. */
+		FileChannel channel;
+
+		DataArea(int chunkSize, FileChannel channel) {
+			this.chunkSize = chunkSize;
+			this.channel = channel;
+		}
+
+		/** The chunk holding offset. */
+		ByteBuffer chunk(long offset) {
+			return this.chunks.get((int) (offset / this.chunkSize));
+		}
+
+		/** Position of offset in its chunk. */
+		int within(long offset) {
+			return (int) (offset % this.chunkSize);
+		}
+
+		/** Make sure that the chunk holding offset exists. */
+		void reach(long offset) {
+			while( this.chunks.size() <= offset / this.chunkSize ) {
+				if( this.channel == null )
+					this.chunks.add(ByteBuffer.allocateDirect(this.chunkSize));
+				else {
+					try {
+						this.chunks.add(this.channel.map(FileChannel.MapMode.READ_WRITE,
+								(long) this.chunks.size() * this.chunkSize, this.chunkSize));
+					}
+					catch(IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Where a record of the given length will go if the area currently ends at end: at
+		 * end, or at the start of the next chunk if it does not fit in the current one.
+		 */
+		long placeFor(long end, int length) {
+			if( this.within(end) + (long) length > this.chunkSize )
+				end = (end / this.chunkSize + 1) * this.chunkSize;
+			return end;
+		}
+
+		/** Write the record of key and item at offset. */
+		void write(long offset, byte[] key, byte[] item) {
+			this.reach(offset);
+			ByteBuffer c = this.chunk(offset);
+			int p = this.within(offset);
+			c.putInt(p, key.length);
+			c.putInt(p + 4, item.length);
+			c.put(p + 8, key);
+			c.put(p + 8 + key.length, item);
+		}
+
+		/** Write the bytes of the record at offset of another area to offset of this one. */
+		void copy(DataArea from, long fromOffset, long offset, int length) {
+			this.reach(offset);
+			ByteBuffer source = from.chunk(fromOffset);
+			this.chunk(offset).put(this.within(offset), source, from.within(fromOffset), length);
+		}
+
+		/** Write any mapped chunks back to the file. */
+		void force() {
+			if( this.channel != null )
+				for(ByteBuffer c : this.chunks)
+					((MappedByteBuffer) c).force();
+		}
+	}
+
+	/** Identifies an index file: "L280MAPH". */
+	protected static final long magic = 0x4c3238304d415048L;
+
+	/** Version of the file layout. */
+	protected static final int version = 1;
+
+	/** Header fields of the index, by byte offset. */
+	protected static final int magicAt = 0, versionAt = 8, slotCountAt = 12, countAt = 16,
+			deletedAt = 20, dataEndAt = 24, garbageAt = 32, chunkSizeAt = 40;
+
+	/** Length of the header, which precedes the slots. */
+	protected static final int headerSize = 64;
+
+	/** Length of a slot: the record reference (a long) and the hash of the key (an int), padded. */
+	protected static final int slotSize = 16;
+
+	/** Record reference of a slot that has never been used; others hold the offset of their record plus one. */
+	protected static final long emptySlot = 0;
+
+	/** Record reference of a slot whose item was deleted. */
+	protected static final long deletedSlot = -1;
+
+	/** The index grows when the fraction of used and deleted slots would exceed this. */
+	protected static final double maxLoadFactor = 0.7;
+
+	/** Starting number of slots. */
+	protected static final int defaultSlotCount = 64;
+
+	/** Default length of a chunk of the data area. */
+	protected static final int defaultChunkSize = 1 << 24;
+
+	/** Cursor position denoting "before the first item". */
+	protected static final int beforePos = -1;
+
+	/** Converts keys to and from bytes. */
+	protected Codec280<K> keyCodec;
+
+	/** Converts items to and from bytes. */
+	protected Codec280<I> itemCodec;
+
+	/** The index file, or null if the table is held in direct memory. */
+	protected Path indexPath;
+
+	/** The data file, or null if the table is held in direct memory. */
+	protected Path dataPath;
+
+	/** The header and slots. */
+	protected ByteBuffer index;
+
+	/** The file the index is mapped from, or null. */
+	protected FileChannel indexChannel;
+
+	/** The records. */
+	protected DataArea data;
+
+	/** Number of slots; a power of two. */
+	protected int slotCount;
+
+	/** Number of items. */
+	protected int count;
+
+	/** Number of slots whose items were deleted. */
+	protected int deleted;
+
+	/** Offset just past the last record. */
+	protected long dataEnd;
+
+	/** Number of bytes of the data area taken by records that are no longer in use. */
+	protected long garbage;
+
+	/** Index of the slot at the cursor, or beforePos or slotCount when before or after. */
+	protected int position;
+
+	/**
+	 * Create an empty table held in direct (off-heap) memory, which is freed when the
+	 * table is no longer referenced.
+	 * @param keyCodec converts keys to and from bytes
+	 * @param itemCodec converts items to and from bytes
+	 */
+	public MappedHashTable280(Codec280<K> keyCodec, Codec280<I> itemCodec) {
+		this(keyCodec, itemCodec, 1 << 20);
+	}
+
+	/**
+	 * Create an empty table held in direct (off-heap) memory.
+	 * @param keyCodec converts keys to and from bytes
+	 * @param itemCodec converts items to and from bytes
+	 * @param chunkSize length of each chunk of the data area; no record can be longer
+	 * @throws InvalidArgument280Exception if chunkSize is less than 64.
+	 */
+	public MappedHashTable280(Codec280<K> keyCodec, Codec280<I> itemCodec, int chunkSize) {
+		if( chunkSize < 64 )
+			throw new InvalidArgument280Exception("The chunk size must be at least 64 bytes.");
+		this.keyCodec = keyCodec;
+		this.itemCodec = itemCodec;
+		this.data = new DataArea(chunkSize, null);
+		this.index = this.newIndex(MappedHashTable280.defaultSlotCount, null);
+		this.initialize(MappedHashTable280.defaultSlotCount);
+	}
+
+	/**
+	 * Open the table stored in the given index file (and the data file next to it, whose
+	 * name has ".data" appended), or create an empty one there if the index file does not
+	 * exist.  Opening maps the files without reading the items, so it takes about the same
+	 * time however large the table is.
+	 * @param file the index file
+	 * @param keyCodec converts keys to and from bytes; must be the codec the table was created with
+	 * @param itemCodec converts items to and from bytes; must be the codec the table was created with
+	 * @throws InvalidState280Exception if the file exists but is not a table of this version.
+	 * @throws UncheckedIOException if the files cannot be read or written.
+	 */
+	public MappedHashTable280(Path file, Codec280<K> keyCodec, Codec280<I> itemCodec) {
+		this(file, keyCodec, itemCodec, MappedHashTable280.defaultChunkSize);
+	}
+
+	/**
+	 * Open the table stored in the given index file, or create an empty one there; see
+	 * MappedHashTable280(Path, Codec280, Codec280).
+	 * @param file the index file
+	 * @param keyCodec converts keys to and from bytes
+	 * @param itemCodec converts items to and from bytes
+	 * @param chunkSize length of each chunk of the data area of a new table; an existing
+	 *   table keeps the chunk size it was created with
+	 * @throws InvalidArgument280Exception if chunkSize is less than 64.
+	 * @throws InvalidState280Exception if the file exists but is not a table of this version.
+	 * @throws UncheckedIOException if the files cannot be read or written.
+	 */
+	public MappedHashTable280(Path file, Codec280<K> keyCodec, Codec280<I> itemCodec, int chunkSize) {
+		if( chunkSize < 64 )
+			throw new InvalidArgument280Exception("The chunk size must be at least 64 bytes.");
+		this.keyCodec = keyCodec;
+		this.itemCodec = itemCodec;
+		this.indexPath = file;
+		this.dataPath = file.resolveSibling(file.getFileName() + ".data");
+		try {
+			if( Files.exists(file) )
+				this.open();
+			else {
+				Files.deleteIfExists(this.dataPath);
+				this.data = new DataArea(chunkSize, FileChannel.open(this.dataPath, StandardOpenOption.CREATE,
+						StandardOpenOption.READ, StandardOpenOption.WRITE));
+				this.index = this.newIndex(MappedHashTable280.defaultSlotCount, file);
+				this.initialize(MappedHashTable280.defaultSlotCount);
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Map the existing index and data files.
+	 */
+	protected void open() throws IOException {
+		this.indexChannel = FileChannel.open(this.indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long length = this.indexChannel.size();
+		if( length < headerSize )
+			throw new InvalidState280Exception(this.indexPath + " is not a lib280 mapped hash table.");
+		this.index = this.indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+		if( this.index.getLong(magicAt) != magic )
+			throw new InvalidState280Exception(this.indexPath + " is not a lib280 mapped hash table.");
+		if( this.index.getInt(versionAt) != version )
+			throw new InvalidState280Exception(this.indexPath + " has layout version " + this.index.getInt(versionAt)
+					+ " but this is version " + version + ".");
+		this.slotCount = this.index.getInt(slotCountAt);
+		if( length != headerSize + (long) this.slotCount * slotSize )
+			throw new InvalidState280Exception(this.indexPath + " is truncated.");
+		this.count = this.index.getInt(countAt);
+		this.deleted = this.index.getInt(deletedAt);
+		this.dataEnd = this.index.getLong(dataEndAt);
+		this.garbage = this.index.getLong(garbageAt);
+		this.data = new DataArea(this.index.getInt(chunkSizeAt), FileChannel.open(this.dataPath,
+				StandardOpenOption.READ, StandardOpenOption.WRITE));
+		if( this.dataEnd > 0 )
+			this.data.reach(this.dataEnd - 1);
+		this.position = beforePos;
+	}
+
+	/**
+	 * A new, zeroed index with the given number of slots, mapped from file if it is not null.
+	 */
+	protected ByteBuffer newIndex(int slots, Path file) {
+		long length = headerSize + (long) slots * slotSize;
+		if( length > Integer.MAX_VALUE )
+			throw new ContainerFull280Exception("The index cannot have more than " + slots / 2 + " slots.");
+		if( file == null )
+			return ByteBuffer.allocateDirect((int) length);
+		try {
+			Files.deleteIfExists(file);
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			ByteBuffer b = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+			if( this.indexChannel != null ) this.indexChannel.close();
+			this.indexChannel = channel;
+			return b;
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Set up the header of a new, empty index of the given number of slots.
+	 */
+	protected void initialize(int slots) {
+		this.slotCount = slots;
+		this.count = 0;
+		this.deleted = 0;
+		this.dataEnd = 0;
+		this.garbage = 0;
+		this.position = beforePos;
+		this.index.putLong(magicAt, magic);
+		this.index.putInt(versionAt, version);
+		this.index.putInt(chunkSizeAt, this.data.chunkSize);
+		this.writeHeader();
+	}
+
+	/**
+	 * Record the counts and the end of the data area in the header.
+	 */
+	protected void writeHeader() {
+		this.index.putInt(slotCountAt, this.slotCount);
+		this.index.putInt(countAt, this.count);
+		this.index.putInt(deletedAt, this.deleted);
+		this.index.putLong(dataEndAt, this.dataEnd);
+		this.index.putLong(garbageAt, this.garbage);
+	}
+
+	/** Record reference of slot s. */
+	protected long ref(int s) {
+		return this.index.getLong(headerSize + s * slotSize);
+	}
+
+	/** Hash stored in slot s. */
+	protected int slotHash(int s) {
+		return this.index.getInt(headerSize + s * slotSize + 8);
+	}
+
+	/** Set the record reference and hash of slot s. */
+	protected void setSlot(int s, long ref, int h) {
+		this.index.putLong(headerSize + s * slotSize, ref);
+		this.index.putInt(headerSize + s * slotSize + 8, h);
+	}
+
+	/**
+	 * Hash of an encoded key: FNV-1a over its bytes, then mixed.  It does not depend on
+	 * hashCode(), so it is the same in every run of the program.
+	 * @param key an encoded key
+	 */
+	protected static int hash(byte[] key) {
+		long h = 0xcbf29ce484222325L;
+		for(byte b : key) {
+			h ^= b & 0xff;
+			h *= 0x100000001b3L;
+		}
+		h = MixingHashStrategy280.mix(h);
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/** Length of the record at offset. */
+	protected int recordLength(long offset) {
+		ByteBuffer c = this.data.chunk(offset);
+		int p = this.data.within(offset);
+		return 8 + c.getInt(p) + c.getInt(p + 4);
+	}
+
+	/** Does the record at offset have the encoded key? */
+	protected boolean keyEquals(long offset, byte[] key) {
+		ByteBuffer c = this.data.chunk(offset);
+		int p = this.data.within(offset);
+		if( c.getInt(p) != key.length ) return false;
+		for(int i = 0; i < key.length; i++)
+			if( c.get(p + 8 + i) != key[i] ) return false;
+		return true;
+	}
+
+	/** The item of the record at offset. */
+	protected I decodeItem(long offset) {
+		ByteBuffer c = this.data.chunk(offset).duplicate();
+		int p = this.data.within(offset);
+		int start = p + 8 + c.getInt(p);
+		c.limit(start + c.getInt(p + 4)).position(start);
+		return this.itemCodec.decode(c);
+	}
+
+	/**
+	 * Walk the slots from the home slot of an encoded key as far as the slot holding it,
+	 * or else as far as an empty slot.
+	 * @param key an encoded key
+	 * @param h hash of key
+	 * @return The slot holding key if there is one; otherwise -(s+1), where s is the slot in
+	 *   which key should be placed (the first deleted or empty slot found).
+	 */
+	protected int probe(byte[] key, int h) {
+		int mask = this.slotCount - 1;
+		int s = h & mask;
+		int free = -1;
+		long r;
+		while( (r = this.ref(s)) != emptySlot ) {
+			if( r == deletedSlot ) {
+				if( free < 0 ) free = s;
+			}
+			else if( this.slotHash(s) == h && this.keyEquals(r - 1, key) )
+				return s;
+			s = (s + 1) & mask;
+		}
+		return -((free >= 0 ? free : s) + 1);
+	}
+
+	/**
+	 * The slot holding key k, or -1 if there is none.
+	 * @param k key being sought
+	 */
+	protected int findSlot(K k) {
+		byte[] key = this.keyCodec.encode(k);
+		int s = this.probe(key, hash(key));
+		return s >= 0 ? s : -1;
+	}
+
+	/**
+	 * Append a record of key and item to the data area.
+	 * @return The offset of the record.
+	 * @throws InvalidArgument280Exception if the record does not fit in one chunk.
+	 */
+	protected long append(byte[] key, byte[] item) {
+		int length = 8 + key.length + item.length;
+		if( length > this.data.chunkSize )
+			throw new InvalidArgument280Exception("An item of " + length + " bytes does not fit in a chunk of "
+					+ this.data.chunkSize + " bytes.");
+		long offset = this.data.placeFor(this.dataEnd, length);
+		this.garbage += offset - this.dataEnd;
+		this.data.write(offset, key, item);
+		this.dataEnd = offset + length;
+		return offset;
+	}
+
+	/**
+	 * Add an item whose encoded key is not in the table, growing the index first if
+	 * necessary.
+	 * @param key encoded key of the item
+	 * @param item encoded item
+	 * @param h hash of key
+	 * @param missing the negative result of probe(key, h)
+	 */
+	protected void addAt(byte[] key, byte[] item, int h, int missing) {
+		if( this.count + this.deleted + 1 > maxLoadFactor * this.slotCount ) {
+			this.resizeIndex(this.count + 1 > maxLoadFactor * this.slotCount / 2 ? 2 * this.slotCount : this.slotCount);
+			missing = this.probe(key, h);
+		}
+		int s = -(missing + 1);
+		if( this.ref(s) == deletedSlot ) this.deleted--;
+		this.setSlot(s, this.append(key, item) + 1, h);
+		this.count++;
+		this.writeHeader();
+	}
+
+	/**
+	 * Replace the item in slot s by a new record, leaving the old one as garbage.
+	 */
+	protected void replaceAt(int s, byte[] key, I x) {
+		long old = this.ref(s) - 1;
+		this.garbage += this.recordLength(old);
+		this.setSlot(s, this.append(key, this.itemCodec.encode(x)) + 1, this.slotHash(s));
+		this.writeHeader();
+		this.compactIfWasteful();
+	}
+
+	/**
+	 * Remove the item in slot s, leaving its record as garbage.
+	 */
+	protected void removeAt(int s) {
+		this.garbage += this.recordLength(this.ref(s) - 1);
+		this.setSlot(s, deletedSlot, 0);
+		this.count--;
+		this.deleted++;
+		this.writeHeader();
+		this.compactIfWasteful();
+	}
+
+	/**
+	 * Rebuild the index with the given number of slots, dropping deleted slots.  The
+	 * records are not touched; each slot keeps its hash, so no key is decoded.  The cursor
+	 * stays on the item it was on.
+	 * @param newSlotCount the new number of slots; a power of two larger than count()
+	 */
+	protected void resizeIndex(int newSlotCount) {
+		ByteBuffer oldIndex = this.index;
+		int oldSlotCount = this.slotCount;
+		int newPosition = this.position < 0 ? beforePos : newSlotCount;
+
+		Path temporary = this.indexPath == null ? null : this.indexPath.resolveSibling(this.indexPath.getFileName() + ".tmp");
+		this.index = this.newIndex(newSlotCount, temporary);
+		this.slotCount = newSlotCount;
+		this.index.putLong(magicAt, magic);
+		this.index.putInt(versionAt, version);
+		this.index.putInt(chunkSizeAt, this.data.chunkSize);
+		int mask = newSlotCount - 1;
+		for(int s = 0; s < oldSlotCount; s++) {
+			long r = oldIndex.getLong(headerSize + s * slotSize);
+			if( r == emptySlot || r == deletedSlot ) continue;
+			int h = oldIndex.getInt(headerSize + s * slotSize + 8);
+			int t = h & mask;
+			while( this.ref(t) != emptySlot )
+				t = (t + 1) & mask;
+			this.setSlot(t, r, h);
+			if( s == this.position ) newPosition = t;
+		}
+		this.deleted = 0;
+		this.position = newPosition;
+		this.writeHeader();
+		if( temporary != null ) {
+			try {
+				((MappedByteBuffer) this.index).force();
+				Files.move(temporary, this.indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Compact the data area if more than half of it is garbage.
+	 */
+	protected void compactIfWasteful() {
+		if( this.garbage > this.data.chunkSize && this.garbage > this.dataEnd / 2 )
+			this.compact();
+	}
+
+	/**
+	 * Rewrite the data area with only the records in use, in slot order, and release the
+	 * space taken by replaced and deleted items.
+	 * @timing O(size of the data in use)
+	 * @throws UncheckedIOException if the data file cannot be written.
+	 */
+	public void compact() {
+		Path temporary = this.dataPath == null ? null : this.dataPath.resolveSibling(this.dataPath.getFileName() + ".tmp");
+		DataArea compacted;
+		try {
+			compacted = new DataArea(this.data.chunkSize, temporary == null ? null
+					: FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+							StandardOpenOption.READ, StandardOpenOption.WRITE));
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		long end = 0;
+		for(int s = 0; s < this.slotCount; s++) {
+			long r = this.ref(s);
+			if( r == emptySlot || r == deletedSlot ) continue;
+			int length = this.recordLength(r - 1);
+			long offset = compacted.placeFor(end, length);
+			compacted.copy(this.data, r - 1, offset, length);
+			this.setSlot(s, offset + 1, this.slotHash(s));
+			end = offset + length;
+		}
+		try {
+			if( temporary != null ) {
+				compacted.force();
+				this.data.channel.close();
+				Files.move(temporary, this.dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.data = compacted;
+		this.dataEnd = end;
+		this.garbage = 0;
+		this.writeHeader();
+	}
+
+	/**
+	 * Write all changes to the files.  Does nothing for a table in direct memory.
+	 */
+	public void force() {
+		this.data.force();
+		if( this.index instanceof MappedByteBuffer )
+			((MappedByteBuffer) this.index).force();
+	}
+
+	/**
+	 * Write all changes to the files and close them.  The table must not be used afterwards.
+	 * @throws UncheckedIOException if the files cannot be closed.
+	 */
+	public void close() {
+		this.force();
+		try {
+			if( this.indexChannel != null ) this.indexChannel.close();
+			if( this.data.channel != null ) this.data.channel.close();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception, DuplicateItems280Exception {
+		if( this.putIfAbsent(x) != null )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
+	}
+
+	@Override
+	public I putIfAbsent(I x) {
+		byte[] key = this.keyCodec.encode(x.key());
+		int h = hash(key);
+		int s = this.probe(key, h);
+		if( s >= 0 ) return this.decodeItem(this.ref(s) - 1);
+		this.addAt(key, this.itemCodec.encode(x), h, s);
+		return null;
+	}
+
+	@Override
+	public I computeIfAbsent(K k, Function<? super K, ? extends I> f) throws InvalidArgument280Exception {
+		byte[] key = this.keyCodec.encode(k);
+		int h = hash(key);
+		int s = this.probe(key, h);
+		if( s >= 0 ) return this.decodeItem(this.ref(s) - 1);
+		I x = f.apply(k);
+		if( x == null ) return null;
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		this.addAt(key, this.itemCodec.encode(x), h, s);
+		return x;
+	}
+
+	@Override
+	public I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) throws InvalidArgument280Exception {
+		byte[] key = this.keyCodec.encode(k);
+		int h = hash(key);
+		int s = this.probe(key, h);
+		I x = f.apply(k, s >= 0 ? this.decodeItem(this.ref(s) - 1) : null);
+		if( x == null ) {
+			if( s >= 0 ) this.removeAt(s);
+			return null;
+		}
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		if( s >= 0 ) this.replaceAt(s, key, x);
+		else this.addAt(key, this.itemCodec.encode(x), h, s);
+		return x;
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		byte[] key = this.keyCodec.encode(x.key());
+		int s = this.probe(key, hash(key));
+		if( s < 0 )
+			throw new ItemNotFound280Exception("No item with key " + x.key() + " was found in the table.");
+		this.replaceAt(s, key, x);
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findSlot(k) >= 0;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		int s = this.findSlot(k);
+		if( s < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.decodeItem(this.ref(s) - 1);
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int s = this.findSlot(k);
+		if( s < 0 )
+			throw new ItemNotFound280Exception("No item with key " + k + " was found in the table.");
+		this.removeAt(s);
+	}
+
+	/**
+	 * Number of items in the table.
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Number of slots in the index.
+	 */
+	public int capacity() {
+		return this.slotCount;
+	}
+
+	/**
+	 * Number of bytes of the data area in use, including garbage.
+	 */
+	public long dataSize() {
+		return this.dataEnd;
+	}
+
+	/**
+	 * Number of bytes of the data area taken by records that are no longer in use.
+	 */
+	public long garbageSize() {
+		return this.garbage;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * Remove every item.  The index keeps its size and the data area is reused.
+	 */
+	@Override
+	public void clear() {
+		for(int s = 0; s < this.slotCount; s++)
+			this.setSlot(s, emptySlot, 0);
+		this.count = 0;
+		this.deleted = 0;
+		this.dataEnd = 0;
+		this.garbage = 0;
+		this.position = beforePos;
+		this.writeHeader();
+	}
+
+	/**
+	 * Move the cursor to the first occupied slot at or after s, or goAfter() if none.
+	 * @timing O(capacity()) - worst case.
+	 * @param s first slot to examine
+	 */
+	protected void findNextItem(int s) {
+		while( s < this.slotCount && this.ref(s) <= emptySlot )
+			s++;
+		this.position = s;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.decodeItem(this.ref(this.position) - 1);
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position >= 0 && this.position < this.slotCount && this.ref(this.position) > emptySlot;
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		return this.item().key();
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		I x = this.item();
+		return new Pair280<K,I>(x.key(), x);
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == beforePos;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position >= this.slotCount;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if (this.after())
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		this.findNextItem(this.position + 1);
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		this.findNextItem(0);
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = beforePos;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = this.slotCount;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new HashTablePosition280(this.position);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if (!(pos instanceof HashTablePosition280))
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					    + " must be a HashTablePosition280");
+		this.position = ((HashTablePosition280) pos).slot;
+	}
+
+	@Override
+	public void search(K k) {
+		int s = this.findSlot(k);
+		if( s < 0 ) this.goAfter();
+		else this.position = s;
+	}
+
+	/**
+	 * Searches the data structure, in slot order, for the first element with key at least
+	 * as large as k.
+	 *
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		this.goFirst();
+		while( this.itemExists() && this.itemKey().compareTo(k) < 0 )
+			this.goForth();
+	}
+
+	/**
+	 * Delete the current item.  The cursor moves to the next item in slot order.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no current item to delete.");
+		int s = this.position;
+		this.removeAt(s);
+		this.findNextItem(s + 1);
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		if( !itemExists() ) {
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		}
+		if( x.key().compareTo(this.itemKey()) != 0 ) {
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		}
+		this.replaceAt(this.position, this.keyCodec.encode(x.key()), x);
+	}
+
+	/**
+	 * A spliterator over the items of the table, splitting by slot ranges.  Each item is
+	 * decoded as it is visited, so a parallel stream also decodes in parallel.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new SlotRangeSpliterator(0, this.slotCount, this.count,
+				Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * A spliterator over a range of slots of the index.
+	 */
+	protected class SlotRangeSpliterator extends IndexRangeSpliterator280<I> {
+		protected SlotRangeSpliterator(int origin, int fence, long estimate, int characteristics) {
+			super(origin, fence, estimate, characteristics);
+		}
+
+		@Override
+		protected void visit(int i, Consumer<? super I> action) {
+			long r = ref(i);
+			if( r > emptySlot ) action.accept(decodeItem(r - 1));
+		}
+
+		@Override
+		protected IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics) {
+			return new SlotRangeSpliterator(origin, fence, estimate, characteristics);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		for (int s = 0; s < this.slotCount; s++)
+			if (this.ref(s) > emptySlot)
+				result.append("\n" + s + ": " + this.decodeItem(this.ref(s) - 1).toString());
+		return result.toString();
+	}
+
+	/** An item for testing: a quest and its reward. */
+	protected static class Quest implements Keyed280<String> {
+		String name;
+		int reward;
+
+		Quest(String name, int reward) {
+			this.name = name;
+			this.reward = reward;
+		}
+		public String key() { return name; }
+		public String toString() { return name + ":" + reward; }
+	}
+
+	/** Encodes a quest as its reward followed by its name in UTF-8. */
+	protected static final Codec280<Quest> questCodec = new Codec280<Quest>() {
+		public byte[] encode(Quest x) {
+			byte[] name = Codec280.stringCodec.encode(x.name);
+			return ByteBuffer.allocate(4 + name.length).putInt(x.reward).put(name).array();
+		}
+		public Quest decode(ByteBuffer in) {
+			int reward = in.getInt();
+			return new Quest(Codec280.stringCodec.decode(in), reward);
+		}
+	};
+
+	/** Check the basic operations of an empty table T. */
+	protected static void test(String title, MappedHashTable280<String, Quest> T) {
+		T.insert(new Quest("Shield Bash", 5));
+		try {
+			T.insert(new Quest("Shield Bash", 6));
+			System.out.println("Error: " + title + ": inserting a duplicate should throw.");
+		}
+		catch(DuplicateItems280Exception e) { /* expected */ }
+		if( T.obtain("Shield Bash").reward != 5 || T.has("Shield Crash") )
+			System.out.println("Error: " + title + ": lookups failed.");
+		T.set(new Quest("Shield Bash", 77));
+		if( T.obtain("Shield Bash").reward != 77 || T.garbageSize() == 0 )
+			System.out.println("Error: " + title + ": set() should replace the item and leave garbage.");
+
+		for(int i = 0; i < 20000; i++)
+			T.insert(new Quest("Quest " + i, i));
+		for(int i = 0; i < 20000; i += 2)
+			T.delete("Quest " + i);
+		for(int i = 0; i < 20000; i++)
+			if( T.has("Quest " + i) != (i % 2 == 1) )
+				System.out.println("Error: " + title + ": wrong membership for Quest " + i);
+		if( T.count() != 10001 )
+			System.out.println("Error: " + title + ": expected 10001 items but there are " + T.count());
+
+		int visited = 0;
+		long total = 0;
+		for(T.goFirst(); T.itemExists(); T.goForth()) {
+			visited++;
+			total += T.item().reward;
+		}
+		if( visited != 10001 || total != 77 + 10000L * 10000 )
+			System.out.println("Error: " + title + ": iteration visited " + visited + " items with total " + total);
+		if( T.parallelStream().mapToLong(q -> q.reward).sum() != total || T.stream().count() != visited )
+			System.out.println("Error: " + title + ": the streams should visit the same items as the cursor.");
+
+		for(int i = 0; i < 1000; i++) {
+			T.compute("Counter", (k, c) -> new Quest(k, c == null ? 1 : c.reward + 1));
+			T.merge(new Quest("Total", 2), (c, x) -> new Quest(c.name, c.reward + x.reward));
+		}
+		if( T.obtain("Counter").reward != 1000 || T.obtain("Total").reward != 2000 )
+			System.out.println("Error: " + title + ": compute() and merge() counters have the wrong totals.");
+
+		T.search("Quest 7");
+		CursorPosition280 saved = T.currentPosition();
+		T.goFirst();
+		T.goPosition(saved);
+		if( !T.itemExists() || !T.itemKey().equals("Quest 7") )
+			System.out.println("Error: " + title + ": cursor should have been restored to Quest 7.");
+		T.setItem(new Quest("Quest 7", -7));
+		T.deleteItem();
+		if( T.has("Quest 7") )
+			System.out.println("Error: " + title + ": deleteItem() should have removed Quest 7.");
+		T.search("Missing");
+		if( T.itemExists() )
+			System.out.println("Error: " + title + ": search for a missing key should fail.");
+
+		T.compact();
+		if( T.garbageSize() != 0 || T.obtain("Quest 9999").reward != 9999 || T.obtain("Total").reward != 2000 )
+			System.out.println("Error: " + title + ": compaction lost data.");
+	}
+
+	public static void main(String args[]) throws IOException {
+		// In direct memory, with small chunks so that records cross chunk boundaries.
+		test("direct", new MappedHashTable280<String, Quest>(Codec280.stringCodec, questCodec, 4096));
+
+		// In files, then reopened.
+		Path dir = Files.createTempDirectory("lib280");
+		Path file = dir.resolve("quests.index");
+		MappedHashTable280<String, Quest> F = new MappedHashTable280<String, Quest>(file, Codec280.stringCodec, questCodec, 1 << 16);
+		test("mapped", F);
+		int count = F.count();
+		F.close();
+
+		long start = System.nanoTime();
+		MappedHashTable280<String, Quest> G = new MappedHashTable280<String, Quest>(file, Codec280.stringCodec, questCodec);
+		long elapsed = System.nanoTime() - start;
+		if( G.count() != count || G.obtain("Quest 9999").reward != 9999 || G.has("Quest 7") || G.obtain("Shield Bash").reward != 77 )
+			System.out.println("Error: the reopened table does not hold what was written.");
+		G.insert(new Quest("After reopening", 1));
+		G.close();
+		G = new MappedHashTable280<String, Quest>(file, Codec280.stringCodec, questCodec);
+		if( !G.has("After reopening") || G.count() != count + 1 )
+			System.out.println("Error: changes made after reopening should persist.");
+		G.clear();
+		if( !G.isEmpty() || G.has("Quest 1") )
+			System.out.println("Error: clear() should remove every item.");
+		G.close();
+		System.out.println("Reopened " + count + " items in " + elapsed / 1000 + " microseconds.");
+
+		try {
+			Files.write(dir.resolve("bad.index"), new byte[100]);
+			new MappedHashTable280<String, Quest>(dir.resolve("bad.index"), Codec280.stringCodec, questCodec);
+			System.out.println("Error: opening a file that is not a table should throw.");
+		}
+		catch(InvalidState280Exception e) { /* expected */ }
+
+		try {
+			new MappedHashTable280<String, Quest>(Codec280.stringCodec, questCodec, 64).insert(new Quest("A name far too long for a chunk of sixty-four bytes", 1));
+			System.out.println("Error: an item longer than a chunk should be refused.");
+		}
+		catch(InvalidArgument280Exception e) { /* expected */ }
+
+		for(Path p : new Path[] { file, dir.resolve("quests.index.data"), dir.resolve("bad.index"), dir.resolve("bad.index.data") })
+			Files.deleteIfExists(p);
+		Files.deleteIfExists(dir);
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,323 @@
+package lib280.hashtable;
+
+import java.util.Spliterator;
+
+import lib280.base.Container280;
+import lib280.base.CursorPosition280;
+import lib280.base.CursorSaving280;
+import lib280.base.LinearIterator280;
+import lib280.base.SlotSpliterator280;
+import lib280.base.Streamable280;
+import lib280.exception.*;
+
+/**
+ * The slots and cursor of a hash table of items keyed by a primitive value.  A subclass
+ * keeps the keys unboxed in an array of its own key type, parallel to the item array,
+ * and does the lookups; this class does the deletion, growth and iteration, and tells
+ * the subclass when keys must move between slots.  Collisions are resolved by linear
+ * probing, and deletion shifts the following items of the cluster back instead of
+ * leaving tombstones.
+ *
+ * The cursor is the index of a slot.  Iteration visits the items in slot order, starting
+ * after an empty slot and wrapping around the end of the array back to it.  Only
+ * deleteItem() may be used to delete items during an iteration; see deleteSlot().
+ */
+public abstract class PrimitiveKeyedHashTable280<I> implements Container280, LinearIterator280<I>, CursorSaving280, Streamable280<I> {
+
+	/** Array of items, indexed by slot.  Empty slots are null. */
+	protected Object[] items;
+
+	/** Number of items in the table. */
+	protected int count;
+
+	/** Index of the cursor, or beforePos/capacity() when before/after. */
+	protected int position;
+
+	/**
+	 * The empty slot at which the current iteration starts and ends.  Deletion moves items
+	 * back within their cluster but never across an empty slot, so deleteItem() cannot move
+	 * an item already visited into the part of the table still to be visited.
+	 */
+	protected int origin;
+
+	/** Cursor position denoting "before the first item". */
+	protected static final int beforePos = -1;
+
+	/** The table grows when its load factor would exceed this. */
+	protected static final double maxLoadFactor = 0.75;
+
+	/** Starting size of the table. */
+	protected static final int defaultHashArrayLength = 16;
+
+	/**
+	 * Create an empty table able to hold expectedSize items without growing.
+	 * @param expectedSize number of items expected to be stored
+	 */
+	protected PrimitiveKeyedHashTable280(int expectedSize) {
+		if( expectedSize < 0 )
+			throw new InvalidArgument280Exception("The expected size of the table cannot be negative.");
+		int length = 2;
+		while( length * maxLoadFactor < expectedSize ) length <<= 1;
+		this.allocate(length);
+	}
+
+	/**
+	 * Replace the slot arrays with empty arrays of the given length.
+	 * @param length The new number of slots; must be a power of two.
+	 */
+	protected void allocate(int length) {
+		this.items = new Object[length];
+		this.allocateKeys(length);
+		this.count = 0;
+		this.position = beforePos;
+		this.origin = 0;
+	}
+
+	/**
+	 * Replace the key array with an empty one of the given length.
+	 * @param length the number of slots
+	 */
+	protected abstract void allocateKeys(int length);
+
+	/**
+	 * The mixed hash of the key in the given slot; its low bits are the key's home slot.
+	 * @param slot an occupied slot
+	 */
+	protected abstract int keyHash(int slot);
+
+	/**
+	 * Copy the key in slot from to slot to.
+	 * @param from an occupied slot
+	 * @param to the slot its item is moving to
+	 */
+	protected abstract void moveKey(int from, int to);
+
+	/**
+	 * Replace the key array with one of length capacity(), moving the key in each occupied
+	 * slot i of the old arrays to slot newSlots[i].
+	 * @param oldItems the old item array
+	 * @param newSlots new slot of the item in each occupied slot of oldItems
+	 */
+	protected abstract void rehashKeys(Object[] oldItems, int[] newSlots);
+
+	/**
+	 * The item in the given slot.
+	 * @param slot an occupied slot
+	 */
+	@SuppressWarnings("unchecked")
+	protected I itemAt(int slot) {
+		return (I) this.items[slot];
+	}
+
+	/**
+	 * Make room for one more item, growing the table if its load factor would exceed
+	 * maxLoadFactor.
+	 */
+	protected void ensureRoomForOne() {
+		if( (double) (this.count + 1) / this.items.length > maxLoadFactor )
+			this.expandHashArray();
+	}
+
+	/**
+	 * Double the capacity of the table and re-place every item.
+	 */
+	protected void expandHashArray() {
+		Object[] oldItems = this.items;
+		int[] newSlots = new int[oldItems.length];
+		Object[] newItems = new Object[oldItems.length * 2];
+		int mask = newItems.length - 1;
+		for(int i = 0; i < oldItems.length; i++) {
+			if( oldItems[i] != null ) {
+				int slot = this.keyHash(i) & mask;
+				while( newItems[slot] != null ) slot = (slot + 1) & mask;
+				newItems[slot] = oldItems[i];
+				newSlots[i] = slot;
+			}
+		}
+		this.items = newItems;
+		this.rehashKeys(oldItems, newSlots);
+		this.position = beforePos;
+		this.origin = 0;
+	}
+
+	/**
+	 * Remove the item in the given slot and move later items of its cluster back
+	 * so that no lookup passes over an empty slot before reaching its key.
+	 * @param slot index of an occupied slot
+	 */
+	protected void removeSlot(int slot) {
+		int mask = this.items.length - 1;
+		int hole = slot;
+		int next = slot;
+		while( true ) {
+			next = (next + 1) & mask;
+			if( this.items[next] == null ) break;
+			int home = this.keyHash(next) & mask;
+			// The item at next may fill the hole only if its home is not cyclically in (hole, next].
+			boolean homeBetween = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+			if( !homeBetween ) {
+				this.moveKey(next, hole);
+				this.items[hole] = this.items[next];
+				hole = next;
+			}
+		}
+		this.items[hole] = null;
+		this.count--;
+	}
+
+	/**
+	 * Delete the item in the given slot.  If the cursor is on another item, it stays on that
+	 * item.  Only deleteItem() is safe during an iteration: deleting an item the iteration
+	 * has already passed moves later items of its cluster back, so that the cursor's item
+	 * may move behind items already visited, or an item not yet visited behind the cursor,
+	 * and an iteration that goes on may then visit some items twice or miss some.
+	 * @param slot index of an occupied slot
+	 */
+	protected void deleteSlot(int slot) {
+		Object cursorItem = this.itemExists() && this.position != slot ? this.items[this.position] : null;
+		this.removeSlot(slot);
+		if( cursorItem != null && this.items[this.position] != cursorItem ) {
+			// It moved back, to a slot between the deleted slot and its old one.
+			int mask = this.items.length - 1;
+			int s = slot;
+			while( this.items[s] != cursorItem ) s = (s + 1) & mask;
+			this.position = s;
+		}
+	}
+
+	/**
+	 * Delete the current item.  The cursor moves to the item that follows it in iteration
+	 * order, so an iteration that deletes as it goes still visits every item once.
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.removeSlot(this.position);
+		// A later item of the cluster may have moved into this slot.
+		this.findNextItem(this.position);
+	}
+
+	/**
+	 * Number of items in the table.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Number of slots in the table.
+	 * @timing O(1)
+	 */
+	public int capacity() {
+		return this.items.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(this.items.length);
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.itemAt(this.position);
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position >= 0 && this.position < this.items.length && this.items[this.position] != null;
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == beforePos;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position >= this.items.length;
+	}
+
+	/**
+	 * Move the cursor to the first occupied slot at or after slot in iteration order, or
+	 * goAfter() if the iteration reaches origin first.
+	 * @timing O(capacity()) - worst case.
+	 * @param slot first slot to examine
+	 */
+	protected void findNextItem(int slot) {
+		int mask = this.items.length - 1;
+		while( slot != this.origin && this.items[slot] == null )
+			slot = (slot + 1) & mask;
+		this.position = slot == this.origin ? this.items.length : slot;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() )
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		if( this.before() ) this.goFirst();
+		else this.findNextItem((this.position + 1) & (this.items.length - 1));
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		// The load factor is below 1, so there is always an empty slot.
+		int slot = 0;
+		while( this.items[slot] != null ) slot++;
+		this.origin = slot;
+		this.findNextItem((slot + 1) & (this.items.length - 1));
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = beforePos;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = this.items.length;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new HashTablePosition280(this.position);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof HashTablePosition280) )
+			throw new InvalidArgument280Exception("The cursor position parameter must be a HashTablePosition280");
+		this.position = ((HashTablePosition280) c).slot;
+	}
+
+	/**
+	 * A spliterator over the items of the table, splitting by slot ranges.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new SlotSpliterator280<I>(this.items, 0, this.items.length, this.count,
+				Spliterator.SIZED | Spliterator.DISTINCT);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		for(int i = 0; i < this.items.length; i++)
+			if( this.items[i] != null )
+				result.append("\n" + i + ": " + this.items[i]);
+		return result.toString();
+	}
+}
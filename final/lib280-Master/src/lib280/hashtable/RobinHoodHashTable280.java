@@ -0,0 +1,946 @@
+package lib280.hashtable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.base.SlotSpliterator280;
+import lib280.dictionary.HashTable280;
+import lib280.dictionary.KeyedDict280;
+import lib280.exception.*;
+
+/**
+ * A keyed hash table that uses open addressing with Robin Hood linear probing.
+ * Items are stored directly in a flat array, together with parallel arrays
+ * holding each item's hash code and its distance from its home slot, so no
+ * per-item node objects are allocated.
+ *
+ * During insertion an item that has travelled further from its home slot
+ * than the resident of a slot takes that slot, and the resident continues
+ * probing in its place.  This keeps probe lengths short and nearly equal.
+ * Deletion shifts the following items of the cluster back by one slot
+ * instead of leaving tombstones.
+ *
+ * The cursor is the index of a slot; iteration visits the items in slot order.
+ */
+public class RobinHoodHashTable280<K extends Comparable<? super K>, I extends Keyed280<K>> extends HashTable280<I> implements
+		KeyedDict280<K, I> {
+
+	/** Array of items, indexed by slot.  Empty slots are null. */
+	protected I[] items;
+
+	/** Hash code of the key of the item in each slot, as computed by the hash strategy. */
+	protected int[] hashes;
+
+	/** Distance of the item in each slot from its home slot. */
+	protected int[] probeDistances;
+
+	/** Index of the cursor, or beforePos/capacity() when before/after. */
+	protected int position;
+
+	/**
+	 * Slot at which an iteration starts and ends: it visits the slots from origin to the end
+	 * of the array and then, wrapping around, those before origin.
+	 */
+	protected int origin;
+
+	/** Cursor position denoting "before the first item". */
+	protected static final int beforePos = -1;
+
+	/** Default maximum load factor. */
+	protected static final double defaultMaxLoadFactor = 0.85;
+
+	/** Starting size of the table. */
+	protected static final int defaultHashArrayLength = 32;
+
+	/** Actual maximum load factor for this instance */
+	protected double maxLoadFactor;
+
+	/**
+	 * Create an empty table with the default capacity.
+	 */
+	public RobinHoodHashTable280() {
+		this(RobinHoodHashTable280.defaultHashArrayLength);
+	}
+
+	/**
+	 * Create an empty table with room for at least initialCapacity slots.
+	 * @param initialCapacity The capacity is the smallest power of two at least this large.
+	 */
+	public RobinHoodHashTable280(int initialCapacity) {
+		if( initialCapacity < 1 )
+			throw new InvalidArgument280Exception("The capacity of the table must be positive.");
+		this.maxLoadFactor = RobinHoodHashTable280.defaultMaxLoadFactor;
+		this.allocate(RobinHoodHashTable280.powerOfTwoAtLeast(initialCapacity));
+	}
+
+	/**
+	 * Create an empty table that can hold expectedSize items without growing.
+	 * @param expectedSize number of items the table is expected to hold
+	 * @param maxLoadFactor the table grows when the fraction of occupied slots would exceed this
+	 * @throws InvalidArgument280Exception if expectedSize is negative or maxLoadFactor is not
+	 *   strictly between 0 and 1.
+	 */
+	public RobinHoodHashTable280(int expectedSize, double maxLoadFactor) {
+		if( expectedSize < 0 )
+			throw new InvalidArgument280Exception("The expected size of the table cannot be negative.");
+		if( !(maxLoadFactor > 0 && maxLoadFactor < 1) )
+			throw new InvalidArgument280Exception("The maximum load factor must be between 0 and 1.");
+		this.maxLoadFactor = maxLoadFactor;
+		this.allocate(this.lengthFor(expectedSize));
+	}
+
+	/**
+	 * Replace the slot arrays with empty arrays of the given length.
+	 * @param length The new number of slots; must be a power of two.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected void allocate(int length) {
+		this.items = (I[]) new Keyed280[length];
+		this.hashes = new int[length];
+		this.probeDistances = new int[length];
+		this.count = 0;
+		this.position = beforePos;
+		this.origin = 0;
+	}
+
+	/**
+	 * Find the slot holding the item with key k.
+	 * @param k key being sought
+	 * @return The index of the slot holding the item with key k, or -1 if there is none.
+	 */
+	protected int findSlot(K k) {
+		int slot = this.probe(k, this.hashStrategy.hash(k));
+		return slot >= 0 ? slot : -1;
+	}
+
+	/**
+	 * Walk the cluster of key k as far as the item with key k, or else as far as the slot
+	 * where an item with key k would be placed.
+	 * @param k key being sought
+	 * @param h hash code of k
+	 * @return The index of the slot holding the item with key k if there is one; otherwise
+	 *   -(s+1), where s is the slot at which an item with key k would be placed.
+	 */
+	protected int probe(K k, int h) {
+		int mask = this.items.length - 1;
+		int slot = h & mask;
+		int distance = 0;
+
+		// By the Robin Hood invariant, once we reach a slot whose item is closer to its home than we
+		// are to ours, the key cannot be further along the cluster.
+		while( this.items[slot] != null && this.probeDistances[slot] >= distance ) {
+			if( this.hashes[slot] == h && k.compareTo(this.items[slot].key()) == 0 )
+				return slot;
+			slot = (slot + 1) & mask;
+			distance++;
+		}
+		return -(slot + 1);
+	}
+
+	/**
+	 * Add x, whose key is not in the table, at the place found by probe(), growing the
+	 * table first if the load factor would become too high.
+	 * @param x item to be added
+	 * @param h hash code of x.key()
+	 * @param missingSlot the negative result of probe(x.key(), h)
+	 */
+	protected void addAt(I x, int h, int missingSlot) {
+		if( (double) (this.count + 1) / this.capacity() > this.maxLoadFactor ) {
+			this.expandHashArray();
+			missingSlot = this.probe(x.key(), h);
+		}
+		int slot = -(missingSlot + 1);
+		this.placeFrom(x, h, slot, (slot - h) & (this.items.length - 1));
+	}
+
+	/**
+	 * Place x, which has hash code h, into the table, displacing richer items as we go.
+	 * Does not check for duplicates or the load factor.
+	 * @param x item to be placed
+	 * @param h hash code of x.key()
+	 * @param slot slot at which to start probing
+	 * @param distance distance of slot from the home slot of x
+	 */
+	protected void placeFrom(I x, int h, int slot, int distance) {
+		int mask = this.items.length - 1;
+		while( this.items[slot] != null ) {
+			if( this.probeDistances[slot] < distance ) {
+				// Take from the rich: x takes this slot and the resident continues probing.
+				I displacedItem = this.items[slot];
+				int displacedHash = this.hashes[slot];
+				int displacedDistance = this.probeDistances[slot];
+				this.items[slot] = x;
+				this.hashes[slot] = h;
+				this.probeDistances[slot] = distance;
+				x = displacedItem;
+				h = displacedHash;
+				distance = displacedDistance;
+			}
+			slot = (slot + 1) & mask;
+			distance++;
+		}
+		this.items[slot] = x;
+		this.hashes[slot] = h;
+		this.probeDistances[slot] = distance;
+		this.count++;
+	}
+
+	/**
+	 * Double the capacity of the table and re-place every item.
+	 */
+	protected void expandHashArray() {
+		this.resizeHashArray(this.items.length * 2);
+	}
+
+	/**
+	 * Re-place every item into slot arrays of the given length.
+	 * @param newLength the new number of slots; must be a power of two that can hold every item
+	 */
+	protected void resizeHashArray(int newLength) {
+		I[] oldItems = this.items;
+		int[] oldHashes = this.hashes;
+
+		this.allocate(newLength);
+		int mask = this.items.length - 1;
+		for(int i = 0; i < oldItems.length; i++) {
+			if( oldItems[i] != null )
+				this.placeFrom(oldItems[i], oldHashes[i], oldHashes[i] & mask, 0);
+		}
+	}
+
+	/**
+	 * Remove the item in the given slot and shift the rest of its cluster back by one slot.
+	 * @param slot index of an occupied slot
+	 */
+	protected void removeSlot(int slot) {
+		int mask = this.items.length - 1;
+		int next = (slot + 1) & mask;
+		while( this.items[next] != null && this.probeDistances[next] > 0 ) {
+			// An item shifted back across the origin has already been visited by a current
+			// iteration; the iteration now ends before the slot it lands in.
+			if( next == this.origin )
+				this.origin = slot;
+			this.items[slot] = this.items[next];
+			this.hashes[slot] = this.hashes[next];
+			this.probeDistances[slot] = this.probeDistances[next] - 1;
+			slot = next;
+			next = (next + 1) & mask;
+		}
+		this.items[slot] = null;
+		this.hashes[slot] = 0;
+		this.probeDistances[slot] = 0;
+		this.count--;
+	}
+
+	/**
+	 * Number of slots needed to hold n items without exceeding the maximum load factor.
+	 * @param n number of items
+	 */
+	protected int lengthFor(long n) {
+		return powerOfTwoAtLeast((int) Math.min(1 << 30, Math.max(1, Math.ceil(n / this.maxLoadFactor))));
+	}
+
+	/**
+	 * Grow the table, if necessary, so that it can hold n items without exceeding the
+	 * maximum load factor.  The table is resized at most once.
+	 * @param n number of items the table should be able to hold
+	 */
+	public void ensureCapacity(long n) {
+		int newLength = this.lengthFor(n);
+		if( newLength > this.items.length )
+			this.resizeHashArray(newLength);
+	}
+
+	/**
+	 * Insert every item of items.  The table is grown at most once, to its final size, and
+	 * the load factor is not checked item by item.  Items whose keys are already in the
+	 * table (or earlier in items) are skipped, and reported together when all the other
+	 * items have been inserted.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(I[] items) throws DuplicateItems280Exception {
+		this.insertAll(Arrays.asList(items));
+	}
+
+	/**
+	 * Insert every item of items.  If the number of items is known in advance (for example
+	 * because items is a Collection), the table is grown once before inserting them and the
+	 * load factor is not checked item by item; otherwise the table grows as usual.  Items
+	 * whose keys are already in the table (or earlier in items) are skipped, and reported
+	 * together when all the other items have been inserted.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(Iterable<? extends I> items) throws DuplicateItems280Exception {
+		this.insertAll(items.spliterator());
+	}
+
+	/**
+	 * Insert every item of a stream, as insertAll(Iterable) does.
+	 * @param items the items to be inserted
+	 * @throws DuplicateItems280Exception after the other items are inserted, if any were skipped.
+	 */
+	public void insertAll(Stream<? extends I> items) throws DuplicateItems280Exception {
+		this.insertAll(items.spliterator());
+	}
+
+	/**
+	 * Insert every item of items; see insertAll(Iterable).
+	 * @param items the items to be inserted
+	 */
+	protected void insertAll(Spliterator<? extends I> items) throws DuplicateItems280Exception {
+		long expected = items.getExactSizeIfKnown();
+		if( expected >= 0 ) this.ensureCapacity(this.count + expected);
+
+		int duplicates = 0;
+		StringBuffer duplicateKeys = new StringBuffer();
+		Iterator<? extends I> iter = Spliterators.iterator(items);
+		while( iter.hasNext() ) {
+			I x = iter.next();
+			K k = x.key();
+			int h = this.hashStrategy.hash(k);
+			int slot = this.probe(k, h);
+			if( slot >= 0 ) {
+				if( duplicates < 10 ) duplicateKeys.append(duplicates == 0 ? "" : ", ").append(k);
+				duplicates++;
+			}
+			else if( expected >= 0 ) {
+				slot = -(slot + 1);
+				this.placeFrom(x, h, slot, (slot - h) & (this.items.length - 1));
+			}
+			else
+				this.addAt(x, h, slot);
+		}
+
+		if( duplicates > 0 )
+			throw new DuplicateItems280Exception(duplicates + " items were not inserted because their keys were"
+					+ " already in the table: " + duplicateKeys + (duplicates > 10 ? ", ..." : ""));
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception,
+			DuplicateItems280Exception {
+		if( this.isFull() ) throw new ContainerFull280Exception("Error inserting item.  Table is full.");
+		if( this.putIfAbsent(x) != null )
+			throw new DuplicateItems280Exception("Error: table already has an item with key " + x.key());
+	}
+
+	@Override
+	public I putIfAbsent(I x) {
+		K k = x.key();
+		int h = this.hashStrategy.hash(k);
+		int slot = this.probe(k, h);
+		if( slot >= 0 ) return this.items[slot];
+		this.addAt(x, h, slot);
+		return null;
+	}
+
+	@Override
+	public I computeIfAbsent(K k, Function<? super K, ? extends I> f) throws InvalidArgument280Exception {
+		int h = this.hashStrategy.hash(k);
+		int slot = this.probe(k, h);
+		if( slot >= 0 ) return this.items[slot];
+		I x = f.apply(k);
+		if( x == null ) return null;
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		this.addAt(x, h, slot);
+		return x;
+	}
+
+	@Override
+	public I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) throws InvalidArgument280Exception {
+		int h = this.hashStrategy.hash(k);
+		int slot = this.probe(k, h);
+		I x = f.apply(k, slot >= 0 ? this.items[slot] : null);
+		if( x == null ) {
+			if( slot >= 0 ) this.deleteSlot(slot);
+			return null;
+		}
+		if( k.compareTo(x.key()) != 0 )
+			throw new InvalidArgument280Exception("The computed item's key does not match k.");
+		if( slot >= 0 ) this.items[slot] = x;
+		else this.addAt(x, h, slot);
+		return x;
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		int slot = this.findSlot(x.key());
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key " + x.key() + " was found in the table.");
+		this.items[slot] = x;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.findSlot(k) >= 0;
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		int slot = this.findSlot(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with the specified key exists in the table.");
+		return this.items[slot];
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		int slot = this.findSlot(k);
+		if( slot < 0 )
+			throw new ItemNotFound280Exception("No item with key " + k + " was found in the table.");
+		this.deleteSlot(slot);
+	}
+
+	/**
+	 * Delete the item in the given slot, keeping the cursor on the item it was on.
+	 * @param slot index of an occupied slot
+	 */
+	protected void deleteSlot(int slot) {
+		// Items after the deleted one shift back, so a cursor sitting on one of them would
+		// silently move to a different item; keep it on the same item instead.
+		I cursorItem = this.itemExists() && this.position != slot ? this.items[this.position] : null;
+		this.removeSlot(slot);
+		if( cursorItem != null && this.items[this.position] != cursorItem )
+			this.position = this.findSlot(cursorItem.key());
+	}
+
+	/**
+	 * Obtain the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 * @return The matching object in the hash table if it exists.
+	 */
+	public I obtain(I y) throws ItemNotFound280Exception {
+		I existingItem = obtain(y.key());
+		if( membershipEquals(existingItem, y) ) {
+			return existingItem;
+		}
+		else {
+			throw new ItemNotFound280Exception("The item in the table with key " + y.key() + " does not match y.");
+		}
+	}
+
+	/**
+	 * Delete the object matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @precond y is in the hash table
+	 * @throws ItemNotFound280Exception if y is not in the hash table.
+	 */
+	public void delete(I y) throws ItemNotFound280Exception {
+		I existingItem = this.obtain(y.key());
+		if( this.membershipEquals(existingItem, y) ) {
+			this.delete(existingItem.key());
+		}
+		else {
+			throw new ItemNotFound280Exception("The item in the table with key " + y.key() + " does not match y.");
+		}
+	}
+
+	/**
+	 * Determine if there is an item matching y in the hash table.  This only succeeds if y is the
+	 * exact object in the hash table, or the table contains an item that is
+	 * equal according to y's compareTo method (if it has one).
+	 *
+	 * @return true if y is in the hash table, false otherwise.
+	 */
+	public boolean has(I y) {
+		int slot = this.findSlot(y.key());
+		return slot >= 0 && this.membershipEquals(this.items[slot], y);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0 == ((Comparable<I>) x).compareTo(y);
+		else if (x.equals(y))
+			return true;
+		else
+			return false;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(this.items.length);
+	}
+
+	@Override
+	public int capacity() {
+		return this.items.length;
+	}
+
+	@Override
+	public int frequency(I i) {
+		if( this.has(i.key()) ) return 1;
+		else return 0;
+	}
+
+	/**
+	 * Average number of slots examined by a successful search, over all items in the table.
+	 * @timing O(capacity())
+	 * @return The average probe length, or 0 if the table is empty.
+	 */
+	public double averageProbeLength() {
+		if( this.count == 0 ) return 0;
+		long total = 0;
+		for(int i = 0; i < this.items.length; i++)
+			if( this.items[i] != null ) total += this.probeDistances[i] + 1;
+		return ((double) total) / this.count;
+	}
+
+	/**
+	 * Largest number of slots examined by a successful search for any item in the table.
+	 * @timing O(capacity())
+	 * @return The maximum probe length, or 0 if the table is empty.
+	 */
+	public int maxProbeLength() {
+		int result = 0;
+		for(int i = 0; i < this.items.length; i++)
+			if( this.items[i] != null && this.probeDistances[i] + 1 > result )
+				result = this.probeDistances[i] + 1;
+		return result;
+	}
+
+	/**
+	 * Move the cursor to the first occupied slot at or after index in iteration order, or
+	 * goAfter() if the iteration reaches origin first.
+	 * @timing O(capacity()) - worst case.
+	 * @param index first slot to examine
+	 */
+	protected void findNextItem(int index) {
+		int mask = this.items.length - 1;
+		int slot = index;
+		while( this.items[slot] == null ) {
+			slot = (slot + 1) & mask;
+			if( slot == this.origin ) {
+				this.goAfter();
+				return;
+			}
+		}
+		this.position = slot;
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("Cannot return an item that does not exist.");
+		return this.items[this.position];
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position >= 0 && this.position < this.items.length && this.items[this.position] != null;
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.items[this.position].key();
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if (!itemExists())
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return new Pair280<K,I>(this.items[this.position].key(), this.items[this.position]);
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == beforePos;
+	}
+
+	@Override
+	public boolean after() {
+		return this.position >= this.items.length;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if (this.after())
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the table");
+		if( this.before() ) {
+			this.goFirst();
+			return;
+		}
+		int next = (this.position + 1) & (this.items.length - 1);
+		if( next == this.origin ) this.goAfter();
+		else this.findNextItem(next);
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		this.origin = 0;
+		this.findNextItem(0);
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = beforePos;
+		this.origin = 0;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = this.items.length;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new HashTablePosition280(this.position);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 pos) {
+		if (!(pos instanceof HashTablePosition280))
+			throw new InvalidArgument280Exception("The cursor position parameter"
+					    + " must be a HashTablePosition280");
+		this.position = ((HashTablePosition280) pos).slot;
+	}
+
+	/**
+	 * Place the cursor on the item in the hash table that matches y.
+	 * This only succeeds if y is the exact object in the hash table, or the table
+	 * contains an item that is equal according to y's compareTo method (if it has one).
+	 */
+	public void search(I y) {
+		this.search(y.key());
+		if( this.itemExists() ) {
+			if( !this.membershipEquals(this.item(), y) )
+				this.goAfter();
+		}
+	}
+
+	@Override
+	public void search(K k) {
+		// Keys are unique, so a continued search can never find another item with key k.
+		if( this.searchesContinue && this.itemExists() ) {
+			this.goAfter();
+			return;
+		}
+		int slot = this.findSlot(k);
+		if( slot < 0 ) this.goAfter();
+		else this.position = slot;
+	}
+
+	/**
+	 * Searches the data structure for the first element with key at least as large as k.
+	 * Searching begins from the first slot, or the slot after the current item if searches
+	 * have been set to continue.
+	 *
+	 * @param k The key value -- search will find items with key at least as large as k.
+	 */
+	public void searchCeilingOf(K k) {
+		if( this.searchesContinue && this.itemExists() )
+			this.goForth();
+		else
+			this.goFirst();
+		while( this.itemExists() && this.items[this.position].key().compareTo(k) < 0 )
+			this.goForth();
+	}
+
+	/**
+	 * Delete the current item.  The cursor moves to the item that follows it in iteration
+	 * order, so an iteration that deletes as it goes still visits every item once.
+	 */
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no current item to delete.");
+		int slot = this.position;
+		int origin = this.origin;
+		this.removeSlot(slot);
+		// The next item of the cluster (if any) has shifted into this slot, unless it is the
+		// first item of the iteration, shifted back across the origin.
+		if( this.origin != origin && this.origin == slot ) this.goAfter();
+		else this.findNextItem(slot);
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception,
+			InvalidArgument280Exception {
+		if( !itemExists() ) {
+			throw new NoCurrentItem280Exception("There is no current item to replace.");
+		}
+		if( x.key().compareTo(this.item().key()) != 0 ) {
+			throw new InvalidArgument280Exception("The current item's key does not match that of x.");
+		}
+		this.items[this.position] = x;
+	}
+
+	/**
+	 * A spliterator over the items of the table.  It splits the slot array into ranges;
+	 * after a split the number of items in each range is estimated from its length.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new SlotSpliterator280<I>(this.items, 0, this.items.length, this.count,
+				Spliterator.SIZED | Spliterator.DISTINCT);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		for (int i=0; i<capacity(); i++)
+			if (this.items[i] != null)
+				result.append("\n" + i + ": " + this.items[i].toString());
+		return result.toString();
+	}
+
+	public static void main( String args[] ) {
+
+		class Skill implements Keyed280<String> {
+			String name;
+			private int skillCost;
+
+			public Skill(String s, int c) {
+				this.name = s;
+				this.skillCost = c;
+			}
+			public String key() { return name; }
+
+			public String toString() {
+				return name + ":" + this.skillCost;
+			}
+		}
+
+		RobinHoodHashTable280<String, Skill> H = new RobinHoodHashTable280<String, Skill>();
+
+		// Test insert
+		H.insert(new Skill("Shield Bash", 5));
+		try {
+			H.insert(new Skill("Shield Bash", 5));
+			System.out.println("Error: expected duplicate items exception when inserting a duplicate item, but got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			// Expected, do nothing.
+		}
+
+		// Test obtain(k)
+		try {
+			H.obtain("Shield Bash");
+		}
+		catch(ItemNotFound280Exception e) {
+			System.out.println("Error: caught unexpected exception when trying to obtain(\"Shield Bash\").");
+		}
+		try {
+			H.obtain("Shield Crash");
+			System.out.println("Error: expected exception when trying to obtain(\"Shield Crash\"), got none.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Test set
+		H.set(new Skill("Shield Bash", 77));
+		if( H.obtain("Shield Bash").skillCost != 77 )
+			System.out.println("Error: skill cost of Shield Bash should have been updated to 77 but it wasn't.");
+
+		H.insert(new Skill("Ground Slam", 2));
+		H.insert(new Skill("Heavy Strike", 5));
+		H.insert(new Skill("Explosive Arrow", 11));
+		H.insert(new Skill("Infernal Blow", 16));
+		H.insert(new Skill("Lightning Strike", 6));
+
+		// Test delete(k)
+		H.delete("Lightning Strike");
+		if( H.has("Lightning Strike") ) System.out.println("Error: \"Lightning Strike\" should have been deleted.");
+		if( H.count() != 5 ) System.out.println("Error: table should have 5 items but it has " + H.count());
+		try {
+			H.delete("Fake Skill");
+			System.out.println("Expected exception while deleting \"Fake Skill\" did not occur.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+
+		// Test delete(x) and has(x)
+		Skill cleave = new Skill("Cleave", 1);
+		Skill fakeCleave = new Skill("Cleave", 99);
+		H.insert(cleave);
+		if( !H.has(cleave) ) System.out.println("Error: has reports that table does not contain cleave object but it does.");
+		if( H.has(fakeCleave) ) System.out.println("Error: has reports that table contains fakeCleave object but it doesn't.");
+		try {
+			H.delete(fakeCleave);
+			System.out.println("Expected exception while deleting fakeCleave did not occur.");
+		}
+		catch(ItemNotFound280Exception e) {
+		}
+		H.delete(cleave);
+		if( H.has("Cleave") ) System.out.println("Error: cleave should have been deleted.");
+
+		// Test search(k), setItem() and deleteItem()
+		H.insert(cleave);
+		H.search("Cleave");
+		if( !H.itemExists() ) System.out.println("Error: search should have found \"Cleave\".");
+		H.setItem(fakeCleave);
+		if( H.obtain("Cleave").skillCost != 99 )
+			System.out.println("Error: replaced item should have cost 99, but it does not.");
+		H.deleteItem();
+		if( H.has("Cleave") ) System.out.println("Error: deleteItem() should have removed \"Cleave\".");
+		H.search("Unknown Skill");
+		if( H.itemExists() ) System.out.println("Error: search should have failed, but it found: " + H.item());
+
+		// Test searchCeilingOf()
+		H.restartSearches();
+		H.searchCeilingOf("Stab");
+		if( H.itemExists() ) System.out.println("Error: cursor should not be on any item.");
+
+		// Test that iteration visits every item exactly once.
+		int visited = 0;
+		H.goFirst();
+		while( H.itemExists() ) {
+			visited++;
+			H.goForth();
+		}
+		if( visited != H.count() ) System.out.println("Error: iteration visited " + visited + " items but there are " + H.count());
+
+		// Test currentPosition() and goPosition()
+		H.search("Heavy Strike");
+		CursorPosition280 saved = H.currentPosition();
+		H.goFirst();
+		H.goPosition(saved);
+		if( !H.itemExists() || H.itemKey().compareTo("Heavy Strike") != 0 )
+			System.out.println("Error: cursor should have been restored to Heavy Strike.");
+
+		// A deletion that shifts the cursor's item back should not move the cursor off it.
+		H.delete("Ground Slam");
+		if( !H.itemExists() || H.itemKey().compareTo("Heavy Strike") != 0 )
+			System.out.println("Error: cursor should still be on Heavy Strike after deleting another item.");
+
+		// A cluster that wraps around the end of the array: with homes 30, 30, 30 and 2 in
+		// 32 slots the items sit in slots 30, 31, 0 and 2, and the iteration visits slot 0
+		// first.  Deleting the item in slot 30 shifts the item in slot 0 back into slot 31,
+		// where the iteration must not visit it again.
+		for(String doomed : new String[] {"30 a", "30 b", "30 c", "2 d"}) {
+			RobinHoodHashTable280<String, Skill> W = new RobinHoodHashTable280<String, Skill>();
+			W.setHashStrategy(y -> Integer.parseInt(((String) y).split(" ")[0]));
+			for(String k : new String[] {"30 a", "30 b", "30 c", "2 d"})
+				W.insert(new Skill(k, 1));
+			W.goFirst();
+			if( !W.itemKey().equals("30 c") )
+				System.out.println("Error: the cluster at slot 30 should wrap around to slot 0.");
+			java.util.HashSet<String> seen = new java.util.HashSet<String>();
+			int visits = 0;
+			W.goFirst();
+			while( W.itemExists() ) {
+				seen.add(W.itemKey());
+				visits++;
+				if( W.itemKey().equals(doomed) ) W.deleteItem();
+				else W.goForth();
+			}
+			if( visits != 4 || seen.size() != 4 || W.count() != 3 || W.has(doomed) )
+				System.out.println("Error: deleting \"" + doomed + "\" while iterating over a wrapping cluster made "
+						+ visits + " visits to " + seen.size() + " items.");
+			// Deleting every item as the iteration goes leaves the table empty.
+			W.insert(new Skill(doomed, 1));
+			visits = 0;
+			W.goFirst();
+			while( W.itemExists() ) {
+				visits++;
+				W.deleteItem();
+			}
+			if( visits != 4 || !W.isEmpty() )
+				System.out.println("Error: deleting each item of a wrapping cluster in turn made " + visits + " visits.");
+		}
+
+		// Larger tables: every item must remain reachable through growth and deletion.
+		RobinHoodHashTable280<String, Skill> big = new RobinHoodHashTable280<String, Skill>();
+		for(int i = 0; i < 100000; i++)
+			big.insert(new Skill("Quest " + i, i));
+		for(int i = 0; i < 100000; i += 2)
+			big.delete("Quest " + i);
+		for(int i = 0; i < 100000; i++)
+			if( big.has("Quest " + i) != (i % 2 == 1) )
+				System.out.println("Error: wrong membership for \"Quest " + i + "\".");
+		if( big.count() != 50000 ) System.out.println("Error: table should have 50000 items but it has " + big.count());
+
+
+		// Test presizing and bulk insertion.
+		RobinHoodHashTable280<String, Skill> B = new RobinHoodHashTable280<String, Skill>(1000, 0.5);
+		int presizedCapacity = B.capacity();
+		if( presizedCapacity != 2048 )
+			System.out.println("Error: a table presized for 1000 items should have capacity 2048 but has " + presizedCapacity);
+		Skill[] bulk = new Skill[1000];
+		for(int i = 0; i < bulk.length; i++)
+			bulk[i] = new Skill("Bulk " + i, i);
+		B.insertAll(bulk);
+		if( B.count() != 1000 || B.capacity() != presizedCapacity )
+			System.out.println("Error: bulk insertion into a presized table should not grow it.");
+		java.util.ArrayList<Skill> more = new java.util.ArrayList<Skill>();
+		for(int i = 990; i < 5000; i++)
+			more.add(new Skill("Bulk " + i, -i));
+		try {
+			B.insertAll(more);
+			System.out.println("Error: expected a duplicate items exception from insertAll(), got none.");
+		}
+		catch(DuplicateItems280Exception e) {
+			if( !e.getMessage().startsWith("10 items") )
+				System.out.println("Error: insertAll() should report 10 duplicates, but reported: " + e.getMessage());
+		}
+		B.insertAll(java.util.stream.IntStream.range(5000, 6000).mapToObj(i -> new Skill("Bulk " + i, i)));
+		if( B.count() != 6000 || B.obtain("Bulk 995").skillCost != 995 || B.obtain("Bulk 4999").skillCost != -4999 || !B.has("Bulk 5999") )
+			System.out.println("Error: wrong contents after bulk insertion.");
+		if( B.loadFactor() > 0.5 )
+			System.out.println("Error: bulk insertion left the load factor at " + B.loadFactor());
+
+		// Test putIfAbsent(), computeIfAbsent(), compute() and merge() as read-modify-write counters.
+		RobinHoodHashTable280<String, Skill> U = new RobinHoodHashTable280<String, Skill>();
+		if( U.putIfAbsent(new Skill("Cleave", 1)) != null )
+			System.out.println("Error: putIfAbsent() of a new key should return null.");
+		if( U.putIfAbsent(new Skill("Cleave", 2)).skillCost != 1 )
+			System.out.println("Error: putIfAbsent() of an existing key should return the existing item.");
+		if( U.computeIfAbsent("Sweep", k -> new Skill(k, 3)).skillCost != 3 || U.computeIfAbsent("Sweep", k -> new Skill(k, 4)).skillCost != 3 )
+			System.out.println("Error: computeIfAbsent() should create Sweep once, with cost 3.");
+		if( U.computeIfAbsent("Stab", k -> null) != null || U.has("Stab") )
+			System.out.println("Error: computeIfAbsent() returning null should insert nothing.");
+		try {
+			U.computeIfAbsent("Stab", k -> new Skill("Slash", 1));
+			System.out.println("Error: expected exception when the computed item has the wrong key, got none.");
+		}
+		catch(InvalidArgument280Exception e) {
+		}
+		for(int i = 0; i < 1000; i++) {
+			U.compute("Counter " + (i % 10), (k, c) -> new Skill(k, c == null ? 1 : c.skillCost + 1));
+			U.merge(new Skill("Total", 1), (c, x) -> new Skill(c.name, c.skillCost + x.skillCost));
+		}
+		if( U.obtain("Counter 7").skillCost != 100 || U.obtain("Total").skillCost != 1000 )
+			System.out.println("Error: compute() and merge() counters have the wrong totals.");
+		U.compute("Counter 7", (k, c) -> null);
+		U.merge(new Skill("Total", 0), (c, x) -> null);
+		if( U.has("Counter 7") || U.has("Total") || U.count() != 11 )
+			System.out.println("Error: compute() and merge() returning null should delete the item.");
+
+		System.out.println("Average probe length: " + big.averageProbeLength());
+		System.out.println("Maximum probe length: " + big.maxProbeLength());
+		// Streams split by slot ranges; the halves' estimates add up to the count.
+		if( big.stream().count() != 50000 || big.parallelStream().mapToLong(x -> x.skillCost).sum() != 2500000000L )
+			System.out.println("Error: the stream of the table should hold the 50000 odd quests.");
+		Spliterator<Skill> rest = big.spliterator();
+		Spliterator<Skill> part = rest.trySplit();
+		if( part == null || part.estimateSize() + rest.estimateSize() != 50000 || rest.hasCharacteristics(Spliterator.SIZED) )
+			System.out.println("Error: the split estimates should add up to 50000 and no longer be exact.");
+
+		System.out.println("Regression test complete.");
+	}
+}
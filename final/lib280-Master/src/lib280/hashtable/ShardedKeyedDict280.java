@@ -0,0 +1,699 @@
+package lib280.hashtable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import lib280.base.Container280;
+import lib280.base.CursorPosition280;
+import lib280.base.IndexRangeSpliterator280;
+import lib280.base.Keyed280;
+import lib280.base.Pair280;
+import lib280.base.Streamable280;
+import lib280.dictionary.HashTable280;
+import lib280.dictionary.KeyedDict280;
+import lib280.dictionary.MixingHashStrategy280;
+import lib280.exception.*;
+
+/**
+ * A keyed dictionary whose items are partitioned by the hash of their keys over a
+ * fixed number of independent shards, each an ordinary (not thread-safe) KeyedDict280,
+ * by default a KeyedChainedHashTable280.
+ *
+ * Single-key operations touch only the shard that holds the key.  The bulk operations
+ * insertAll(), forEach(), count() and filter() run one task per shard on a fork-join
+ * pool, so they use several cores without any shard having to be concurrent: each task
+ * is the only one to touch its shard.  Other than that, the dictionary is no more
+ * thread-safe than its shards, and a bulk operation must not overlap any other
+ * operation.  The functions passed to forEach(), count() and filter() are called from
+ * several threads at once, and must be safe to call that way.
+ *
+ * The shard of a key is chosen by the high bits of its mixed hash code, and the shards
+ * themselves (if hash tables) use the low bits, so keys that share a shard are still
+ * spread over the shard's buckets.
+ *
+ * The cursor visits the shards in order, and the items of each shard in the shard's
+ * own order.  So does the spliterator, which splits by ranges of shards.
+ */
+public class ShardedKeyedDict280<K extends Comparable<? super K>, I extends Keyed280<K>>
+		implements KeyedDict280<K, I>, Container280, Streamable280<I> {
+
+	/**
+	 * Position of the cursor: the shard it is in and the shard's own cursor position.
+	 */
+	protected static class Position implements CursorPosition280 {
+		int shard;
+		CursorPosition280 shardPosition;
+
+		Position(int shard, CursorPosition280 shardPosition) {
+			this.shard = shard;
+			this.shardPosition = shardPosition;
+		}
+	}
+
+	/**
+	 * The shards; the shard of key k is shards[shardIndex(k)].
+	 */
+	protected KeyedDict280<K, I>[] shards;
+
+	/**
+	 * Number of bits by which a mixed hash code is shifted to give a shard index.
+	 */
+	protected int shardShift;
+
+	/**
+	 * Creates each shard.
+	 */
+	protected Supplier<? extends KeyedDict280<K, I>> newShard;
+
+	/**
+	 * The pool on which bulk operations run.
+	 */
+	protected ForkJoinPool pool;
+
+	/**
+	 * Shard that holds the cursor, -1 if the cursor is before the start, or
+	 * shards.length if it is after the end.
+	 */
+	protected int current;
+
+	/**
+	 * Create an empty dictionary of KeyedChainedHashTable280 shards, with four shards for
+	 * each available processor, whose bulk operations run on the common fork-join pool.
+	 */
+	public ShardedKeyedDict280() {
+		this(4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create an empty dictionary of KeyedChainedHashTable280 shards whose bulk operations
+	 * run on the common fork-join pool.
+	 * @param shardCount The desired number of shards.  The number of shards is the smallest
+	 *   power of two at least this large.
+	 */
+	public ShardedKeyedDict280(int shardCount) {
+		this(shardCount, KeyedChainedHashTable280<K, I>::new, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create an empty dictionary.
+	 * @param shardCount The desired number of shards.  The number of shards is the smallest
+	 *   power of two at least this large.
+	 * @param newShard Creates an empty shard; it must return a different dictionary each time.
+	 * @param pool The fork-join pool on which bulk operations run.
+	 * @throws InvalidArgument280Exception if shardCount is not positive.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ShardedKeyedDict280(int shardCount, Supplier<? extends KeyedDict280<K, I>> newShard, ForkJoinPool pool) {
+		if( shardCount < 1 )
+			throw new InvalidArgument280Exception("The number of shards must be positive.");
+		int n = 1;
+		int bits = 0;
+		while( n < shardCount ) {
+			n <<= 1;
+			bits++;
+		}
+		this.shardShift = 32 - bits;
+		this.newShard = newShard;
+		this.pool = pool;
+		this.shards = new KeyedDict280[n];
+		for(int i = 0; i < n; i++)
+			this.shards[i] = newShard.get();
+		this.current = -1;
+	}
+
+	/**
+	 * Number of shards.
+	 */
+	public int shardCount() {
+		return this.shards.length;
+	}
+
+	/**
+	 * Index of the shard responsible for key k.
+	 * @param k a key
+	 */
+	protected int shardIndex(K k) {
+		return this.shards.length == 1 ? 0 : MixingHashStrategy280.mix(k.hashCode()) >>> this.shardShift;
+	}
+
+	/**
+	 * The shard responsible for key k.
+	 * @param k a key
+	 */
+	protected KeyedDict280<K, I> shardOf(K k) {
+		return this.shards[this.shardIndex(k)];
+	}
+
+	/**
+	 * Run action(s) for every shard index s, one fork-join task per shard, and wait for
+	 * them all to finish.
+	 * @param action The work to be done on one shard.
+	 */
+	protected void forEachShard(IntConsumer action) {
+		if( this.shards.length == 1 ) {
+			action.accept(0);
+			return;
+		}
+		this.pool.invoke(new ShardAction(action, 0, this.shards.length));
+	}
+
+	/**
+	 * A fork-join task that runs an action on the shards lo to hi-1, splitting the range
+	 * in half until one shard is left.
+	 */
+	protected static class ShardAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		final IntConsumer action;
+		final int lo, hi;
+
+		ShardAction(IntConsumer action, int lo, int hi) {
+			this.action = action;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		protected void compute() {
+			if( this.hi - this.lo == 1 )
+				this.action.accept(this.lo);
+			else {
+				int mid = (this.lo + this.hi) >>> 1;
+				invokeAll(new ShardAction(this.action, this.lo, mid), new ShardAction(this.action, mid, this.hi));
+			}
+		}
+	}
+
+	/**
+	 * Call f on every item of shard S, in the shard's order, leaving the shard's cursor
+	 * where it was.
+	 */
+	protected static <K extends Comparable<? super K>, I extends Keyed280<K>> void eachItem(KeyedDict280<K, I> S, Consumer<? super I> f) {
+		CursorPosition280 saved = S.currentPosition();
+		for(S.goBefore(), S.goForth(); S.itemExists(); S.goForth())
+			f.accept(S.item());
+		S.goPosition(saved);
+	}
+
+	/**
+	 * Number of items in shard S.
+	 */
+	protected static <K extends Comparable<? super K>, I extends Keyed280<K>> int itemCount(KeyedDict280<K, I> S) {
+		if( S instanceof HashTable280 )
+			return ((HashTable280<?>) S).count();
+		int[] n = new int[1];
+		eachItem(S, x -> n[0]++);
+		return n[0];
+	}
+
+	/**
+	 * Insert every item of items, one task per shard.  The items are first divided among
+	 * the shards, then each shard inserts its own.  Items whose keys are already present
+	 * are not inserted; they are reported together once all the others are in.
+	 * @param items The items to be inserted.
+	 * @throws DuplicateItems280Exception if some items were not inserted because their keys
+	 *   were already present.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void insertAll(Iterable<? extends I> items) throws DuplicateItems280Exception {
+		final ArrayList<I>[] parts = new ArrayList[this.shards.length];
+		for(int s = 0; s < parts.length; s++)
+			parts[s] = new ArrayList<I>();
+		for(I x : items)
+			parts[this.shardIndex(x.key())].add(x);
+
+		final ArrayList<K>[] duplicates = new ArrayList[this.shards.length];
+		this.forEachShard(s -> {
+			KeyedDict280<K, I> S = this.shards[s];
+			for(I x : parts[s]) {
+				try {
+					S.insert(x);
+				}
+				catch(DuplicateItems280Exception e) {
+					if( duplicates[s] == null ) duplicates[s] = new ArrayList<K>();
+					duplicates[s].add(x.key());
+				}
+			}
+		});
+
+		int count = 0;
+		StringBuffer duplicateKeys = new StringBuffer();
+		for(ArrayList<K> D : duplicates) {
+			if( D == null ) continue;
+			for(K k : D) {
+				if( count < 10 ) duplicateKeys.append(count == 0 ? "" : ", ").append(k);
+				count++;
+			}
+		}
+		if( count > 0 )
+			throw new DuplicateItems280Exception(count + " items were not inserted because their keys were"
+					+ " already in the table: " + duplicateKeys + (count > 10 ? ", ..." : ""));
+	}
+
+	/**
+	 * Insert every item of items, one task per shard.
+	 * @param items The items to be inserted.
+	 * @throws DuplicateItems280Exception if some items were not inserted because their keys
+	 *   were already present.
+	 */
+	public void insertAll(I[] items) throws DuplicateItems280Exception {
+		this.insertAll(Arrays.asList(items));
+	}
+
+	/**
+	 * Call f on every item, one task per shard.  The items of a shard are visited in order
+	 * by one thread, but different shards are visited at the same time by different threads.
+	 * The cursor is not moved.
+	 * @param f The function to be called on each item; it must not change the dictionary.
+	 */
+	public void forEach(Consumer<? super I> f) {
+		this.forEachShard(s -> eachItem(this.shards[s], f));
+	}
+
+	/**
+	 * Number of items for which p is true, counted one task per shard.
+	 * @param p The condition to be tested.
+	 */
+	public int count(Predicate<? super I> p) {
+		final int[] counts = new int[this.shards.length];
+		this.forEachShard(s -> eachItem(this.shards[s], x -> { if( p.test(x) ) counts[s]++; }));
+		int total = 0;
+		for(int c : counts)
+			total += c;
+		return total;
+	}
+
+	/**
+	 * Number of items in the dictionary.  Hash table shards know their own size; other
+	 * shards are counted one task per shard.
+	 */
+	public int count() {
+		final int[] counts = new int[this.shards.length];
+		boolean allTables = true;
+		for(KeyedDict280<K, I> S : this.shards)
+			allTables = allTables && (S instanceof HashTable280);
+		if( allTables )
+			for(int s = 0; s < counts.length; s++)
+				counts[s] = itemCount(this.shards[s]);
+		else
+			this.forEachShard(s -> counts[s] = itemCount(this.shards[s]));
+		int total = 0;
+		for(int c : counts)
+			total += c;
+		return total;
+	}
+
+	/**
+	 * A spliterator over the items of the dictionary.  It splits by ranges of shards, so
+	 * a parallel stream, like the bulk operations, gives each shard to a single thread.
+	 * The items of a shard are traversed by the shard's own spliterator if it has one,
+	 * and otherwise by the shard's cursor, which is then put back where it was.
+	 * @timing O(number of shards)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new ShardSpliterator(0, this.shards.length, this.count(),
+				Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * A spliterator over a range of shards.
+	 */
+	protected class ShardSpliterator extends IndexRangeSpliterator280<I> {
+		protected ShardSpliterator(int origin, int fence, long estimate, int characteristics) {
+			super(origin, fence, estimate, characteristics);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected void visit(int i, Consumer<? super I> action) {
+			KeyedDict280<K, I> S = shards[i];
+			if( S instanceof Streamable280 )
+				((Streamable280<I>) S).spliterator().forEachRemaining(action);
+			else
+				eachItem(S, action);
+		}
+
+		@Override
+		protected IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics) {
+			return new ShardSpliterator(origin, fence, estimate, characteristics);
+		}
+	}
+
+	/**
+	 * A new dictionary, with the same number and kind of shards, holding the items for
+	 * which p is true.  Since a key belongs to the same shard in both dictionaries, each
+	 * shard of the result is filled by one task from the matching shard of this one.
+	 * @param p The condition that the items of the result satisfy.
+	 */
+	public ShardedKeyedDict280<K, I> filter(Predicate<? super I> p) {
+		final ShardedKeyedDict280<K, I> result = new ShardedKeyedDict280<K, I>(this.shards.length, this.newShard, this.pool);
+		this.forEachShard(s -> {
+			KeyedDict280<K, I> T = result.shards[s];
+			eachItem(this.shards[s], x -> { if( p.test(x) ) T.insert(x); });
+		});
+		return result;
+	}
+
+	@Override
+	public boolean has(K k) {
+		return this.shardOf(k).has(k);
+	}
+
+	@Override
+	public I obtain(K k) throws ItemNotFound280Exception {
+		return this.shardOf(k).obtain(k);
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception, DuplicateItems280Exception {
+		this.shardOf(x.key()).insert(x);
+	}
+
+	@Override
+	public void set(I x) throws ItemNotFound280Exception {
+		this.shardOf(x.key()).set(x);
+	}
+
+	@Override
+	public void delete(K k) throws ItemNotFound280Exception {
+		this.shardOf(k).delete(k);
+	}
+
+	@Override
+	public I putIfAbsent(I x) throws ContainerFull280Exception {
+		return this.shardOf(x.key()).putIfAbsent(x);
+	}
+
+	@Override
+	public I computeIfAbsent(K k, Function<? super K, ? extends I> f) throws InvalidArgument280Exception {
+		return this.shardOf(k).computeIfAbsent(k, f);
+	}
+
+	@Override
+	public I compute(K k, BiFunction<? super K, ? super I, ? extends I> f) throws InvalidArgument280Exception {
+		return this.shardOf(k).compute(k, f);
+	}
+
+	@Override
+	public I merge(I x, BiFunction<? super I, ? super I, ? extends I> f) throws InvalidArgument280Exception {
+		return this.shardOf(x.key()).merge(x, f);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		for(KeyedDict280<K, I> S : this.shards) {
+			CursorPosition280 saved = S.currentPosition();
+			S.goBefore();
+			S.goForth();
+			boolean empty = !S.itemExists();
+			S.goPosition(saved);
+			if( !empty ) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		for(int s = 0; s < this.shards.length; s++)
+			this.shards[s] = this.newShard.get();
+		this.current = -1;
+	}
+
+	/**
+	 * Move the cursor to the first item of the first non-empty shard at or after shard s,
+	 * or after the end if there is none.
+	 */
+	protected void goFirstFrom(int s) {
+		for(; s < this.shards.length; s++) {
+			KeyedDict280<K, I> S = this.shards[s];
+			S.goBefore();
+			S.goForth();
+			if( S.itemExists() ) {
+				this.current = s;
+				return;
+			}
+		}
+		this.current = this.shards.length;
+	}
+
+	@Override
+	public void search(K k) {
+		int s = this.shardIndex(k);
+		this.shards[s].search(k);
+		this.current = this.shards[s].itemExists() ? s : this.shards.length;
+	}
+
+	/**
+	 * Move to the first item, in cursor order, whose key is at least k, or after the end
+	 * if there is none.
+	 */
+	@Override
+	public void searchCeilingOf(K k) {
+		this.goFirstFrom(0);
+		while( this.itemExists() && this.itemKey().compareTo(k) < 0 )
+			this.goForth();
+	}
+
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to delete.");
+		this.shards[this.current].deleteItem();
+	}
+
+	@Override
+	public void setItem(I x) throws NoCurrentItem280Exception, InvalidArgument280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item to set.");
+		this.shards[this.current].setItem(x);
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.shards[this.current].item();
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.current >= 0 && this.current < this.shards.length && this.shards[this.current].itemExists();
+	}
+
+	@Override
+	public K itemKey() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.shards[this.current].itemKey();
+	}
+
+	@Override
+	public Pair280<K, I> keyItemPair() throws NoCurrentItem280Exception {
+		if( !this.itemExists() )
+			throw new NoCurrentItem280Exception("There is no current item.");
+		return this.shards[this.current].keyItemPair();
+	}
+
+	@Override
+	public boolean before() {
+		return this.current < 0;
+	}
+
+	@Override
+	public boolean after() {
+		return this.current >= this.shards.length;
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.after() )
+			throw new AfterTheEnd280Exception("Cannot goForth() when at the end of the dictionary.");
+		if( this.before() ) {
+			this.goFirstFrom(0);
+			return;
+		}
+		KeyedDict280<K, I> S = this.shards[this.current];
+		if( !S.after() )
+			S.goForth();
+		if( !S.itemExists() )
+			this.goFirstFrom(this.current + 1);
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		this.goFirstFrom(0);
+		if( this.after() )
+			throw new ContainerEmpty280Exception("Cannot go to the first item of an empty dictionary.");
+	}
+
+	@Override
+	public void goBefore() {
+		this.current = -1;
+	}
+
+	@Override
+	public void goAfter() {
+		this.current = this.shards.length;
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		boolean inShard = this.current >= 0 && this.current < this.shards.length;
+		return new Position(this.current, inShard ? this.shards[this.current].currentPosition() : null);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof Position) )
+			throw new InvalidArgument280Exception("The cursor position parameter must be a ShardedKeyedDict280.Position.");
+		Position p = (Position) c;
+		this.current = p.shard;
+		if( this.current >= 0 && this.current < this.shards.length )
+			this.shards[this.current].goPosition(p.shardPosition);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer s = new StringBuffer();
+		for(int i = 0; i < this.shards.length; i++)
+			s.append("Shard ").append(i).append(": ").append(this.shards[i]).append("\n");
+		return s.toString();
+	}
+
+	public static void main(String args[]) {
+		class Counter implements Keyed280<String> {
+			String name;
+			int value;
+
+			public Counter(String s, int v) {
+				name = s;
+				value = v;
+			}
+			public String key() { return name; }
+		}
+
+		ShardedKeyedDict280<String, Counter> D = new ShardedKeyedDict280<String, Counter>(6);
+		if( D.shardCount() != 8 )
+			System.out.println("Error: 6 shards should be rounded up to 8, but there are " + D.shardCount());
+		if( !D.isEmpty() || D.count() != 0 )
+			System.out.println("Error: a new dictionary should be empty.");
+
+		// Single-key operations.
+		D.insert(new Counter("a", 1));
+		D.insert(new Counter("b", 2));
+		if( !D.has("a") || D.obtain("b").value != 2 || D.has("c") )
+			System.out.println("Error: single-key lookups failed.");
+		try {
+			D.insert(new Counter("a", 3));
+			System.out.println("Error: inserting a duplicate should throw.");
+		}
+		catch(DuplicateItems280Exception e) { /* expected */ }
+		D.set(new Counter("a", 10));
+		D.merge(new Counter("a", 5), (old, x) -> new Counter("a", old.value + x.value));
+		if( D.obtain("a").value != 15 )
+			System.out.println("Error: expected a = 15 but got " + D.obtain("a").value);
+		D.delete("b");
+		if( D.has("b") || D.count() != 1 )
+			System.out.println("Error: b should have been deleted.");
+
+		// Bulk insertion.
+		int n = 100000;
+		ArrayList<Counter> items = new ArrayList<Counter>();
+		for(int i = 0; i < n; i++)
+			items.add(new Counter("Quest" + i, i));
+		D.clear();
+		D.insertAll(items);
+		if( D.count() != n )
+			System.out.println("Error: expected " + n + " items but got " + D.count());
+		int smallest = n;
+		for(KeyedDict280<String, Counter> S : D.shards)
+			smallest = Math.min(smallest, itemCount(S));
+		if( smallest < n / D.shardCount() / 2 )
+			System.out.println("Error: the shards are unbalanced; the smallest has only " + smallest + " items.");
+		for(int i = 0; i < n; i += 997)
+			if( D.obtain("Quest" + i).value != i )
+				System.out.println("Error: Quest" + i + " was not inserted correctly.");
+		try {
+			ArrayList<Counter> again = new ArrayList<Counter>();
+			again.add(new Counter("Quest5", 0));
+			again.add(new Counter("New", 0));
+			again.add(new Counter("Quest6", 0));
+			D.insertAll(again);
+			System.out.println("Error: inserting existing keys should throw.");
+		}
+		catch(DuplicateItems280Exception e) {
+			if( !e.getMessage().startsWith("2 items were not inserted") )
+				System.out.println("Error: unexpected message: " + e.getMessage());
+		}
+		if( !D.has("New") || D.count() != n + 1 )
+			System.out.println("Error: the new item should have been inserted despite the duplicates.");
+		D.delete("New");
+
+		// Parallel scans.
+		final java.util.concurrent.atomic.AtomicLong sum = new java.util.concurrent.atomic.AtomicLong();
+		D.forEach(x -> sum.addAndGet(x.value));
+		if( sum.get() != ((long) n) * (n - 1) / 2 )
+			System.out.println("Error: forEach() should visit every item once; the sum is " + sum.get());
+		if( D.count(x -> x.value % 2 == 0) != n / 2 )
+			System.out.println("Error: expected " + n / 2 + " even values but counted " + D.count(x -> x.value % 2 == 0));
+		ShardedKeyedDict280<String, Counter> E = D.filter(x -> x.value % 10 == 0);
+		if( E.count() != n / 10 || !E.has("Quest30") || E.has("Quest31") )
+			System.out.println("Error: filter() should keep exactly the multiples of 10.");
+		if( D.parallelStream().mapToLong(x -> x.value).sum() != ((long) n) * (n - 1) / 2
+				|| D.stream().filter(x -> x.value % 10 == 0).count() != n / 10 )
+			System.out.println("Error: the streams should visit every item once.");
+		Spliterator<Counter> rest = D.spliterator();
+		Spliterator<Counter> half = rest.trySplit();
+		if( half == null || half.estimateSize() + rest.estimateSize() != n )
+			System.out.println("Error: the spliterator should split the shards in two.");
+
+		// The cursor visits every item once.
+		int visited = 0;
+		for(D.goFirst(); D.itemExists(); D.goForth())
+			visited++;
+		if( visited != n || !D.after() )
+			System.out.println("Error: the cursor visited " + visited + " of " + n + " items.");
+		D.search("Quest42");
+		if( !D.itemExists() || D.item().value != 42 )
+			System.out.println("Error: search() should find Quest42.");
+		CursorPosition280 saved = D.currentPosition();
+		D.search("Missing");
+		if( D.itemExists() )
+			System.out.println("Error: search() for a missing key should leave no current item.");
+		D.goPosition(saved);
+		if( !D.itemKey().equals("Quest42") )
+			System.out.println("Error: goPosition() should return to Quest42.");
+		D.deleteItem();
+		if( D.has("Quest42") )
+			System.out.println("Error: deleteItem() should have deleted Quest42.");
+		D.searchCeilingOf("Quest99998");
+		if( !D.itemExists() || D.itemKey().compareTo("Quest99998") < 0 )
+			System.out.println("Error: searchCeilingOf() should stop at a key of at least Quest99998.");
+
+		// Other kinds of shard, and a private pool.
+		ForkJoinPool pool = new ForkJoinPool(2);
+		ShardedKeyedDict280<String, Counter> R = new ShardedKeyedDict280<String, Counter>(4,
+				RobinHoodHashTable280<String, Counter>::new, pool);
+		R.insertAll(items);
+		if( R.count() != n || R.obtain("Quest77").value != 77 )
+			System.out.println("Error: the Robin Hood shards should hold every item.");
+		if( R.stream().count() != n )
+			System.out.println("Error: the stream over Robin Hood shards should visit every item.");
+		pool.shutdown();
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -6,17 +6,33 @@
 
 package lib280.list;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Spliterator;
+
 import lib280.base.CursorPosition280;
+import lib280.base.Streamable280;
 import lib280.exception.*;
 
 /**
  * This arrayed list is implemented as a circular list to allow for
  * constant-time insertions and deletions at the beginning and the end.
+ * 
+ * A list created with a fixed capacity throws ContainerFull280Exception when
+ * it is full.  A growable list instead doubles its array when it is full, so
+ * that insertions at either end take amortized constant time; it can also be
+ * made to halve its array when it falls below a quarter full, and trimToSize()
+ * shrinks it on request.  Used this way the list is a deque.
+ * 
+ * The items are stored in increasing order of index, wrapping around the end
+ * of the array: the first is at head and the last just before tail.  Blocks of
+ * items are therefore copied in and out with System.arraycopy().
  * @author eramian
  *
  * @param <I>
  */
-public class ArrayedList280<I> implements SimpleList280<I> {
+public class ArrayedList280<I> implements SimpleList280<I>, Streamable280<I> {
 
 	/**
 	 * Array where the elements are stored.
@@ -24,15 +40,15 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	protected I[] listElements;
 	
 	/**
-	 * Indices of the beginning and end of the list.
-	 * List is empty when head = tail.  List is full when
-	 * ((this.tail - 1) mod capacity) == this.head 
-	 * 
+	 * Index of the first element, and index just past the last element.
+	 * head = tail both when the list is empty and when it is full; numEl
+	 * tells the two apart.
 	 */
 	protected int head, tail;
 	
 	/**
-	 * Size of the listElements array, maximum number of elements in the list.
+	 * Size of the listElements array, maximum number of elements in the list
+	 * until it grows.
 	 */
 	protected int capacity;
 	
@@ -50,37 +66,152 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	 * Do searches continue or start anew?
 	 */
 	protected boolean continueSearch;
+
+	/**
+	 * Does the array grow when the list is full?
+	 */
+	protected boolean growable;
+
+	/**
+	 * Does the array shrink when the list falls below a quarter full?
+	 */
+	protected boolean autoShrink;
+
+	/**
+	 * The array never shrinks below this many elements.
+	 */
+	protected int minCapacity;
 	
 
 	private int mod( int a, int b ) {
 		return ((a % b) + b) % b;
 	}
 
+	/**
+	 * The index after i, wrapping around.
+	 */
+	private int next(int i) {
+		return (i + 1 == this.capacity) ? 0 : i + 1;
+	}
+
+	/**
+	 * The index before i, wrapping around.
+	 */
+	private int previous(int i) {
+		return (i == 0) ? this.capacity - 1 : i - 1;
+	}
+
 	/**
 	 * Create a new, empty list.
 	 * @param capacity The maximum number of elements in the list.
 	 */
-	@SuppressWarnings("unchecked")
 	public ArrayedList280(int capacity) {
+		this(capacity, false, false);
+	}
+
+	/**
+	 * Create a new, empty, growable list with room for 16 elements before it first grows.
+	 */
+	public ArrayedList280() {
+		this(16, true, false);
+	}
+
+	/**
+	 * Create a new, empty list.
+	 * @param capacity The initial size of the array, and the maximum number of elements
+	 *   in the list unless it is growable; at least 1.
+	 * @param growable Whether the array doubles when the list is full.
+	 * @param autoShrink Whether the array of a growable list halves (but not below
+	 *   capacity) when the list falls below a quarter full.
+	 * @throws InvalidArgument280Exception if capacity is less than 1, or autoShrink is
+	 *   requested for a list that is not growable.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayedList280(int capacity, boolean growable, boolean autoShrink) {
+		if( capacity < 1 ) throw new InvalidArgument280Exception("The capacity must be at least 1.");
+		if( autoShrink && !growable ) throw new InvalidArgument280Exception("Only a growable list can shrink.");
 		this.head = 0;
 		this.tail = 0;
 		this.capacity = capacity;
-		this.position = 0;
+		this.minCapacity = capacity;
+		this.growable = growable;
+		this.autoShrink = autoShrink;
+		this.position = ArrayedListIterator280.beforePos;
 		this.listElements = (I[]) new Object[capacity];
 	}
-	
+
+	/**
+	 * Does the array of this list grow when it is full?
+	 */
+	public boolean isGrowable() {
+		return this.growable;
+	}
+
+	/**
+	 * Copy the elements into a new array of the given size, first element at index 0.
+	 * The cursor stays on its element.
+	 * @timing O(count())
+	 */
+	@SuppressWarnings("unchecked")
+	protected void resize(int newCapacity) {
+		I[] newElements = (I[]) new Object[newCapacity];
+		int firstPart = Math.min(this.numEl, this.capacity - this.head);
+		System.arraycopy(this.listElements, this.head, newElements, 0, firstPart);
+		System.arraycopy(this.listElements, 0, newElements, firstPart, this.numEl - firstPart);
+		if( this.itemExists() )
+			this.position = this.mod(this.position - this.head, this.capacity);
+		this.listElements = newElements;
+		this.capacity = newCapacity;
+		this.head = 0;
+		this.tail = (this.numEl == newCapacity) ? 0 : this.numEl;
+	}
+
+	/**
+	 * Make room for n more elements, growing the array if the list is growable.
+	 * @throws ContainerFull280Exception if the list is not growable and has no room.
+	 */
+	protected void ensureRoom(int n) throws ContainerFull280Exception {
+		if( this.capacity - this.numEl >= n ) return;
+		if( !this.growable ) throw new ContainerFull280Exception();
+		long needed = (long) this.numEl + n;
+		if( needed > Integer.MAX_VALUE - 8 ) throw new ContainerFull280Exception("The list cannot hold " + needed + " elements.");
+		int newCapacity = this.capacity;
+		while( newCapacity < needed )
+			newCapacity = (int) Math.min(2L * newCapacity, Integer.MAX_VALUE - 8);
+		resize(newCapacity);
+	}
+
+	/**
+	 * Halve the array if the list shrinks automatically and is below a quarter full.
+	 */
+	protected void shrinkIfSparse() {
+		if( this.autoShrink && this.numEl < this.capacity / 4 && this.capacity / 2 >= this.minCapacity )
+			resize(this.capacity / 2);
+	}
+
+	/**
+	 * Shrink the array of a growable list to the number of elements (at least one).
+	 * @throws InvalidState280Exception if the list is not growable.
+	 */
+	public void trimToSize() throws InvalidState280Exception {
+		if( !this.growable ) throw new InvalidState280Exception("The capacity of a fixed-size list cannot change.");
+		resize(Math.max(1, this.numEl));
+	}
+
 	@Override
 	public void deleteFirst() throws ContainerEmpty280Exception {
 		if(isEmpty()) throw new ContainerEmpty280Exception();
 		
-		// If the cursor is on the first item, we have to move it.
+		// If the cursor is on the first item, it moves to the next one.
 		if( this.position == this.head )
-			this.position = this.mod(this.head - 1, this.capacity);
+			this.position = (this.numEl == 1) ? ArrayedListIterator280.afterPos : this.next(this.head);
 		
-		this.head = this.mod(this.head - 1, this.capacity);
+		this.listElements[this.head] = null;
+		this.head = this.next(this.head);
 		this.numEl--;
 		
 		if( isEmpty() ) this.position = ArrayedListIterator280.beforePos;
+		shrinkIfSparse();
 	}
 
 
@@ -89,14 +220,16 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	public void deleteLast() throws ContainerEmpty280Exception {
 		if(isEmpty()) throw new ContainerEmpty280Exception();
 		
-		// If the cursor is on the last item, we have to move it.
+		// If the cursor is on the last item, it moves back to the one before it.
+		this.tail = this.previous(this.tail);
 		if( this.position == this.tail )
-			this.position = this.mod(this.tail + 1,  this.capacity);
+			this.position = this.previous(this.tail);
 		
-		this.tail = this.mod(this.tail + 1,  this.capacity);
+		this.listElements[this.tail] = null;
 		this.numEl--;
 		
 		if( isEmpty() ) this.position = ArrayedListIterator280.beforePos;
+		shrinkIfSparse();
 	}
 
 
@@ -105,17 +238,17 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	public I firstItem() throws ContainerEmpty280Exception {
 		if(this.isEmpty()) throw new ContainerEmpty280Exception();
 		
-		return this.listElements[this.mod(this.head-1, this.capacity)];
+		return this.listElements[this.head];
 	}
 
 
 
 	@Override
 	public void insertFirst(I x) throws ContainerFull280Exception {
-		if(this.isFull()) throw new ContainerFull280Exception();
+		ensureRoom(1);
 		
+		this.head = this.previous(this.head);
 		this.listElements[this.head] = x;
-		this.head = this.mod( this.head + 1, this.capacity);
 		this.numEl++;
 	}
 
@@ -123,22 +256,77 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 	@Override
 	public void insertLast(I x) throws ContainerFull280Exception {
-		if(this.isFull()) throw new ContainerFull280Exception();
-		
-		this.tail = this.mod(this.tail - 1, this.capacity);
+		ensureRoom(1);
 		
 		this.listElements[this.tail] = x;
+		this.tail = this.next(this.tail);
 		this.numEl++;
 	}
 
 
+	/**
+	 * Insert the elements of xs at the front of the list, in the order they are in xs:
+	 * afterwards xs[0] is the first element.  The elements are copied with
+	 * System.arraycopy() after at most one resize.
+	 * @param xs the elements to be inserted
+	 * @throws ContainerFull280Exception if the list is not growable and has no room
+	 *   for all of xs, in which case none of them is inserted.
+	 * @timing O(xs.length), plus O(count()) if the array grows
+	 */
+	public void insertAllFirst(I[] xs) throws ContainerFull280Exception {
+		ensureRoom(xs.length);
+		int start = this.mod(this.head - xs.length, this.capacity);
+		copyIn(xs, start);
+		this.head = start;
+		this.numEl += xs.length;
+	}
+
+	/**
+	 * Insert the elements of xs at the end of the list, in the order they are in xs:
+	 * afterwards xs[xs.length-1] is the last element.  The elements are copied with
+	 * System.arraycopy() after at most one resize.
+	 * @param xs the elements to be inserted
+	 * @throws ContainerFull280Exception if the list is not growable and has no room
+	 *   for all of xs, in which case none of them is inserted.
+	 * @timing O(xs.length), plus O(count()) if the array grows
+	 */
+	public void insertAllLast(I[] xs) throws ContainerFull280Exception {
+		ensureRoom(xs.length);
+		copyIn(xs, this.tail);
+		this.tail = (this.tail + xs.length) % this.capacity;
+		this.numEl += xs.length;
+	}
+
+	/**
+	 * Copy xs into the array from index start on, wrapping around the end.
+	 */
+	private void copyIn(I[] xs, int start) {
+		int firstPart = Math.min(xs.length, this.capacity - start);
+		System.arraycopy(xs, 0, this.listElements, start, firstPart);
+		System.arraycopy(xs, firstPart, this.listElements, 0, xs.length - firstPart);
+	}
+
+	/**
+	 * Copy the elements of the list, in order, into the first count() entries of a.
+	 * @param a the array to receive the elements; must have room for count() of them
+	 * @return a
+	 * @throws InvalidArgument280Exception if a is too short.
+	 */
+	public I[] toArray(I[] a) throws InvalidArgument280Exception {
+		if( a.length < this.numEl ) throw new InvalidArgument280Exception("The array has room for " + a.length + " elements but the list has " + this.numEl + ".");
+		int firstPart = Math.min(this.numEl, this.capacity - this.head);
+		System.arraycopy(this.listElements, this.head, a, 0, firstPart);
+		System.arraycopy(this.listElements, 0, a, firstPart, this.numEl - firstPart);
+		return a;
+	}
+
 	/**
 	 * Returns the last element in the list.
 	 * @precond The list is not empty. 
 	 */
 	public I lastItem() throws ContainerEmpty280Exception {
 		if(this.isEmpty()) throw new ContainerEmpty280Exception();
-		return this.listElements[tail];
+		return this.listElements[this.previous(this.tail)];
 	}
 	
 
@@ -158,10 +346,15 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 
 
+	/**
+	 * A copy of the list with its own array (but the same elements).
+	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public ArrayedList280<I> clone() throws CloneNotSupportedException {
-		return (ArrayedList280<I>) super.clone();
+		ArrayedList280<I> result = (ArrayedList280<I>) super.clone();
+		result.listElements = this.listElements.clone();
+		return result;
 	}
 
 
@@ -197,7 +390,7 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	@Override
 	public void goFirst() throws ContainerEmpty280Exception {
 		if( isEmpty() ) throw new ContainerEmpty280Exception();
-		this.position = this.mod(this.head-1, capacity);
+		this.position = this.head;
 	}
 
 
@@ -205,9 +398,10 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	public void goForth() throws AfterTheEnd280Exception {
 		if( this.position == ArrayedListIterator280.afterPos )
 			throw new AfterTheEnd280Exception();
-		else if( this.position == ArrayedListIterator280.beforePos ) this.position = head;
-		else if( this.position == this.tail ) this.position = ArrayedListIterator280.afterPos;
-		else this.position = this.mod(this.position - 1, capacity);
+		else if( this.position == ArrayedListIterator280.beforePos )
+			this.position = isEmpty() ? ArrayedListIterator280.afterPos : this.head;
+		else if( this.next(this.position) == this.tail ) this.position = ArrayedListIterator280.afterPos;
+		else this.position = this.next(this.position);
 	}
 
 
@@ -332,16 +526,37 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 
 
+	/**
+	 * Delete the item at the cursor.  The items on the shorter side of the
+	 * cursor are moved over to close the gap, and the cursor moves to the
+	 * next item, or after the end if it was on the last one.
+	 * @timing O(min(items before the cursor, items after it))
+	 */
 	@Override
 	public void deleteItem() throws NoCurrentItem280Exception {
 		if( !itemExists() )
 			throw new NoCurrentItem280Exception();
 		
-		for(int i = this.position; i != this.head; i = this.mod(i + 1, this.capacity) ) {
-			listElements[i] = listElements[this.mod(i+1, this.capacity)];
+		int before = this.mod(this.position - this.head, this.capacity);
+		if( before < this.numEl - 1 - before ) {
+			// Move the items before the cursor up by one.
+			for(int i = this.position; i != this.head; i = this.previous(i))
+				listElements[i] = listElements[this.previous(i)];
+			listElements[this.head] = null;
+			this.head = this.next(this.head);
+			this.position = this.next(this.position);
 		}
-		this.head = this.mod(this.head - 1, this.capacity);
-		this.numEl--;	
+		else {
+			// Move the items after the cursor down by one.
+			this.tail = this.previous(this.tail);
+			for(int i = this.position; i != this.tail; i = this.next(i))
+				listElements[i] = listElements[this.next(i)];
+			listElements[this.tail] = null;
+		}
+		this.numEl--;
+		if( this.position == this.tail ) this.position = ArrayedListIterator280.afterPos;
+		if( isEmpty() ) this.position = ArrayedListIterator280.afterPos;
+		shrinkIfSparse();
 	}
 
 
@@ -375,24 +590,27 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 
 	@Override
 	public void clear() {
+		Arrays.fill(this.listElements, null);
 		this.head = 0;
 		this.tail = 0;
 		this.numEl = 0;
 		this.position = ArrayedListIterator280.beforePos;
+		if( this.autoShrink && this.capacity > this.minCapacity )
+			resize(this.minCapacity);
 	}
 
 
 
 	@Override
 	public boolean isEmpty() {
-		return this.head == this.tail && this.numEl == 0;
+		return this.numEl == 0;
 	}
 
 
 
 	@Override
 	public boolean isFull() {
-		return this.head == this.tail && this.numEl == this.capacity;
+		return !this.growable && this.numEl == this.capacity;
 	}
 
 
@@ -406,7 +624,8 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	}
 	
 	/**
-	 * Obtain the maximum number of elements that can be in the list.
+	 * Obtain the number of elements the list can hold before it is full (or, if it is
+	 * growable, before its array grows).
 	 * @return The capacity of the list.
 	 */
 	public int capacity() {
@@ -439,6 +658,16 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 	public ArrayedListIterator280<I> iterator() {		
 		return new ArrayedListIterator280<I>(this.listElements, this.head, this.tail, this.numEl);
 	}
+
+	/**
+	 * A spliterator over the items of the list, in order.  It splits by position, so
+	 * the sizes of both halves are exact.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new ArrayedListSpliterator280<I>(this.listElements, this.head, 0, this.numEl);
+	}
 	
 	
 	/**
@@ -451,7 +680,21 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 		if( idx < 0 || idx >= this.numEl ) {
 			throw new InvalidArgument280Exception("There is no element at position " + idx + "in the list.");
 		}
-		return this.listElements[this.mod(this.head-idx-1, this.capacity)];
+		return this.listElements[(this.head + idx) % this.capacity];
+	}
+	
+	/**
+	 * Replace the item at position idx in the list by x. The first element is at index 0.
+	 * @param idx - index (position) of the element to be replaced
+	 * @param x - the replacement element
+	 * @throws InvalidArgument280Exception if there is no item at the specified index.
+	 * @timing O(1)
+	 */
+	public void setItemAtIndex(int idx, I x) {
+		if( idx < 0 || idx >= this.numEl ) {
+			throw new InvalidArgument280Exception("There is no element at position " + idx + "in the list.");
+		}
+		this.listElements[(this.head + idx) % this.capacity] = x;
 	}
 	
 	
@@ -861,5 +1104,121 @@ public class ArrayedList280<I> implements SimpleList280<I> {
 		if( L.isEmpty() ) System.out.println("and it is.");
 		else System.out.println("ERROR: and it is *NOT*.");
 
+		// Deleting at the cursor closes the gap and moves the cursor to the next item.
+		L.clear();
+		L.insertAllLast(new Integer[] {1, 2, 3, 4, 5});
+		L.search(2);
+		L.deleteItem();
+		if( !L.toString().equals("1, 3, 4, 5, ") || L.item() != 3 )
+			System.out.println("Error: deleting 2 should leave 1, 3, 4, 5, with the cursor on 3, but the list is " + L);
+		L.search(4);
+		L.deleteItem();
+		if( !L.toString().equals("1, 3, 5, ") || L.item() != 5 )
+			System.out.println("Error: deleting 4 should leave 1, 3, 5, with the cursor on 5, but the list is " + L);
+		L.deleteItem();
+		if( !L.after() || !L.toString().equals("1, 3, ") )
+			System.out.println("Error: deleting the last item at the cursor should leave the cursor after the end.");
+
+		// Bulk insertion keeps the order of the array, and a full fixed-size list refuses all of it.
+		L.clear();
+		L.insertAllLast(new Integer[] {3, 4});
+		L.insertAllFirst(new Integer[] {1, 2});
+		if( !L.toString().equals("1, 2, 3, 4, ") )
+			System.out.println("Error: bulk insertion should give 1, 2, 3, 4, but gave " + L);
+		try {
+			L.insertAllLast(new Integer[] {5, 6});
+			System.out.println("Error: bulk insertion past the capacity of a fixed-size list should throw.");
+		}
+		catch( ContainerFull280Exception e ) {
+			if( L.count() != 4 )
+				System.out.println("Error: a refused bulk insertion should insert nothing.");
+		}
+		L.setItemAtIndex(2, 30);
+		if( L.getItemAtIndex(2) != 30 )
+			System.out.println("Error: setItemAtIndex(2, 30) should replace the third item.");
+
+		// A growable list doubles, keeps the cursor on its item, and wraps around the array.
+		ArrayedList280<Integer> G = new ArrayedList280<Integer>(4, true, true);
+		G.insertAllLast(new Integer[] {2, 3});
+		G.insertFirst(1);
+		G.goFirst();
+		G.goForth();
+		G.insertAllFirst(new Integer[] {-2, -1, 0});
+		if( G.capacity() != 8 || G.item() != 2 || G.isFull() || !G.toString().equals("-2, -1, 0, 1, 2, 3, ") )
+			System.out.println("Error: the growable list should be -2, -1, 0, 1, 2, 3, in 8 slots with the cursor on 2, but is " + G);
+		Integer[] many = new Integer[100];
+		for(int i = 0; i < many.length; i++)
+			many[i] = 100 + i;
+		G.insertAllLast(many);
+		if( G.count() != 106 || G.capacity() != 128 || G.lastItem() != 199 || G.getItemAtIndex(6) != 100 || G.item() != 2 )
+			System.out.println("Error: the growable list should hold 106 items in 128 slots.");
+		Integer[] out = G.toArray(new Integer[G.count()]);
+		if( out[0] != -2 || out[105] != 199 )
+			System.out.println("Error: toArray() should copy the items in order.");
+		while( G.count() > 3 )
+			G.deleteLast();
+		if( G.capacity() != 8 || !G.toString().equals("-2, -1, 0, ") )
+			System.out.println("Error: the list should have shrunk to 8 slots holding -2, -1, 0, but has " + G.capacity() + " holding " + G);
+		G.trimToSize();
+		if( G.capacity() != 3 || G.isFull() || !G.toString().equals("-2, -1, 0, ") )
+			System.out.println("Error: trimToSize() should leave 3 slots.");
+		try {
+			L.trimToSize();
+			System.out.println("Error: trimToSize() of a fixed-size list should throw.");
+		}
+		catch( InvalidState280Exception e ) { /* expected */ }
+
+		// As a deque, compared with java.util.ArrayDeque.
+		Random r = new Random(280);
+		ArrayedList280<Integer> D = new ArrayedList280<Integer>(1, true, true);
+		ArrayDeque<Integer> M = new ArrayDeque<Integer>();
+		for(int step = 0; step < 200000; step++) {
+			int op = r.nextInt(6);
+			if( op == 0 ) { D.insertFirst(step); M.addFirst(step); }
+			else if( op == 1 ) { D.insertLast(step); M.addLast(step); }
+			else if( op == 2 && !M.isEmpty() ) { D.deleteFirst(); M.removeFirst(); }
+			else if( op == 3 && !M.isEmpty() ) { D.deleteLast(); M.removeLast(); }
+			else if( op == 4 && r.nextInt(100) == 0 ) {
+				Integer[] block = new Integer[r.nextInt(40)];
+				for(int i = 0; i < block.length; i++) block[i] = -i;
+				D.insertAllFirst(block);
+				for(int i = block.length - 1; i >= 0; i--) M.addFirst(block[i]);
+			}
+			if( D.count() != M.size() || (!M.isEmpty() && (!D.firstItem().equals(M.peekFirst()) || !D.lastItem().equals(M.peekLast()))) ) {
+				System.out.println("Error: the deque differs from ArrayDeque after step " + step);
+				break;
+			}
+		}
+		Integer[] all = D.toArray(new Integer[D.count()]);
+		int i = 0;
+		for(Integer x : M)
+			if( !x.equals(all[i++]) ) {
+				System.out.println("Error: the deque's items differ from ArrayDeque's at index " + (i - 1));
+				break;
+			}
+
+		// Streams, split by position even when the items wrap around the array.
+		ArrayedList280<Integer> S = new ArrayedList280<Integer>(1000);
+		for(int k = 0; k < 600; k++) S.insertLast(k);
+		for(int k = 0; k < 500; k++) S.deleteFirst();
+		for(int k = 600; k < 1300; k++) S.insertLast(k);
+		if( S.stream().count() != 800 || S.parallelStream().mapToLong(x -> x).sum() != (500L + 1299) * 800 / 2 )
+			System.out.println("Error: the stream of the list should hold 500 to 1299.");
+		Spliterator<Integer> whole = S.spliterator();
+		Spliterator<Integer> firstHalf = whole.trySplit();
+		if( firstHalf.estimateSize() != 400 || whole.getExactSizeIfKnown() != 400 )
+			System.out.println("Error: the list should split into two halves of exactly 400 items.");
+		int[] expect = {500};
+		firstHalf.forEachRemaining(x -> { if( x != expect[0]++ ) System.out.println("Error: the first half is out of order at " + x); });
+		whole.tryAdvance(x -> { if( x != 900 ) System.out.println("Error: the second half should start at 900, not " + x); });
+		if( whole.estimateSize() != 399 )
+			System.out.println("Error: 399 items should be left in the second half.");
+		S.goFirst();
+		int sum = 0;
+		for(Integer x : S.items()) sum += x;
+		if( sum != (500 + 1299) * 800 / 2 || S.item() != 500 )
+			System.out.println("Error: iterating over items() should visit every item and leave the cursor alone.");
+
+		System.out.println("Regression test complete.");
 	}
 }
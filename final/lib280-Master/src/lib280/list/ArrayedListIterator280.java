@@ -13,10 +13,7 @@ public class ArrayedListIterator280<I> implements LinearIterator280<I> {
 	protected I[] listElements;
 	
 	/**
-	 * Indices of the beginning and end of the list.
-	 * List is empty when head = tail.  List is full when
-	 * ((this.tail - 1) % capacity) == this.head 
-	 * 
+	 * Index of the first element, and index just past the last element.
 	 */
 	protected int head, tail;
 	
@@ -57,7 +54,7 @@ public class ArrayedListIterator280<I> implements LinearIterator280<I> {
 		this.tail = tail;
 		this.capacity = elements.length;
 		this.numEl = numEl;
-		this.position = head;
+		this.position = (numEl == 0) ? afterPos : head;
 	}
 	
 	
@@ -79,11 +76,7 @@ public class ArrayedListIterator280<I> implements LinearIterator280<I> {
 		else if( pos >= capacity ) throw new IllegalArgumentException();
 		else if( pos == beforePos ) this.position = beforePos;
 		else if ( pos == afterPos ) this.position = afterPos;
-		else if( this.head > this.tail && pos <= this.head && pos >= this.tail )
-				this.position = pos;
-		else if( this.head < this.tail && (pos >= this.tail || pos <= this.head) )
-				this.position = pos;
-		else if( this.head == this.tail )
+		else if( pos >= 0 && this.mod(pos - this.head, this.capacity) < this.numEl )
 				this.position = pos;
 		else throw new IllegalArgumentException("" + pos + " is not a legal position when count = " + this.numEl + " head = " + this.head + " tail = " + this.tail); 
 			
@@ -115,15 +108,17 @@ public class ArrayedListIterator280<I> implements LinearIterator280<I> {
 	
 	@Override
 	public void goForth() throws AfterTheEnd280Exception {
-		if( this.position == ArrayedListIterator280.beforePos ) this.position = head;
-		else if( this.position == this.tail ) this.position = ArrayedListIterator280.afterPos;
-		else this.position = this.mod(this.position - 1, this.capacity);
+		if( this.position == ArrayedListIterator280.afterPos ) throw new AfterTheEnd280Exception();
+		else if( this.position == ArrayedListIterator280.beforePos )
+			this.position = (this.numEl == 0) ? ArrayedListIterator280.afterPos : this.head;
+		else if( this.mod(this.position + 1, this.capacity) == this.tail ) this.position = ArrayedListIterator280.afterPos;
+		else this.position = this.mod(this.position + 1, this.capacity);
 	}
 
 	
 	@Override
 	public void goFirst() {
-		this.position = this.mod(this.head-1, this.capacity);
+		this.position = (this.numEl == 0) ? ArrayedListIterator280.afterPos : this.head;
 	}
 
 	@Override
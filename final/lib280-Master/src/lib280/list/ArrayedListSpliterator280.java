@@ -0,0 +1,50 @@
+package lib280.list;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import lib280.base.IndexRangeSpliterator280;
+
+/**
+ * A spliterator over the items of an arrayed list.  It works on positions in
+ * the list (0 for the first item) rather than on array indexes, so that a
+ * list that wraps around the end of its array splits into halves holding
+ * equal numbers of items.
+ */
+public class ArrayedListSpliterator280<I> extends IndexRangeSpliterator280<I> {
+
+	/**
+	 * Array where the elements are stored.
+	 */
+	protected I[] listElements;
+
+	/**
+	 * Array index of the item at position 0.
+	 */
+	protected int head;
+
+	/**
+	 * Create a spliterator over the items at positions origin to fence-1 of a list.
+	 * @param listElements the array of the list
+	 * @param head array index of the first item of the list
+	 * @param origin position of the first item to be visited
+	 * @param fence one past the position of the last item to be visited
+	 */
+	public ArrayedListSpliterator280(I[] listElements, int head, int origin, int fence) {
+		super(origin, fence, fence - origin, Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED);
+		this.listElements = listElements;
+		this.head = head;
+	}
+
+	@Override
+	protected void visit(int i, Consumer<? super I> action) {
+		int j = this.head + i;
+		if( j >= this.listElements.length ) j -= this.listElements.length;
+		action.accept(this.listElements[j]);
+	}
+
+	@Override
+	protected IndexRangeSpliterator280<I> range(int origin, int fence, long estimate, int characteristics) {
+		return new ArrayedListSpliterator280<I>(this.listElements, this.head, origin, fence);
+	}
+}
@@ -0,0 +1,717 @@
+package lib280.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Streamable280;
+import lib280.exception.*;
+
+/**
+ * A doubly linked list whose nodes are slots of three parallel arrays, holding the items
+ * and the indices of the next and previous nodes, instead of separate node objects.
+ * Slots freed by deletions are kept on a free list (linked through the next array) and
+ * reused by later insertions, so a list used as a queue allocates nothing once it has
+ * reached its largest size, and no node carries an object header.  Since every node
+ * knows its predecessor, deleteLast() is O(1), where LinkedList280 must walk the list to
+ * find the second-last node.
+ *
+ * The arrays double when they are full and are never shrunk; trimToSize() packs the
+ * list and releases the unused slots.  The cursor is the index of a node.
+ */
+public class IndexLinkedList280<I> implements SimpleList280<I>, Streamable280<I> {
+
+	/**
+	 * The index denoting "no node".
+	 */
+	public static final int NIL = -1;
+
+	/**
+	 * Number of slots of a new list.
+	 */
+	protected static final int defaultCapacity = 16;
+
+	/**
+	 * Items of the nodes; null in free slots.
+	 */
+	protected Object[] items;
+
+	/**
+	 * Index of the node after each node, or NIL; for a free slot, the next free slot.
+	 */
+	protected int[] next;
+
+	/**
+	 * Index of the node before each node, or NIL.
+	 */
+	protected int[] prev;
+
+	/**
+	 * First node in the list, or NIL if the list is empty.
+	 */
+	protected int head = NIL;
+
+	/**
+	 * Last node in the list, or NIL if the list is empty.
+	 */
+	protected int tail = NIL;
+
+	/**
+	 * First free slot, or NIL if every slot is in use.
+	 */
+	protected int free = NIL;
+
+	/**
+	 * Number of slots ever used; the slots from here on have never been used.
+	 */
+	protected int used;
+
+	/**
+	 * Number of items in the list.
+	 */
+	protected int count;
+
+	/**
+	 * Node at which the cursor is positioned, or NIL if the cursor is before or after.
+	 */
+	protected int position = NIL;
+
+	/**
+	 * When position is NIL, is the cursor after the end rather than before the start?
+	 */
+	protected boolean pastEnd;
+
+	/**
+	 * Do searches continue or start anew?
+	 */
+	protected boolean continueSearch;
+
+
+	/**
+	 * Create an empty list.
+	 */
+	public IndexLinkedList280() {
+		this(defaultCapacity);
+	}
+
+	/**
+	 * Create an empty list with room for capacity items before its arrays grow.
+	 * @param capacity initial number of slots; at least 1
+	 * @throws InvalidArgument280Exception if capacity is less than 1.
+	 */
+	public IndexLinkedList280(int capacity) {
+		if( capacity < 1 ) throw new InvalidArgument280Exception("The capacity must be at least 1.");
+		this.items = new Object[capacity];
+		this.next = new int[capacity];
+		this.prev = new int[capacity];
+	}
+
+	/**
+	 * A slot for a new node holding x, taken from the free list if possible.
+	 * @timing O(1) amortized
+	 */
+	protected int allocate(I x) {
+		int n;
+		if( this.free != NIL ) {
+			n = this.free;
+			this.free = this.next[n];
+		}
+		else {
+			if( this.used == this.items.length ) {
+				int capacity = 2 * this.items.length;
+				this.items = Arrays.copyOf(this.items, capacity);
+				this.next = Arrays.copyOf(this.next, capacity);
+				this.prev = Arrays.copyOf(this.prev, capacity);
+			}
+			n = this.used++;
+		}
+		this.items[n] = x;
+		return n;
+	}
+
+	/**
+	 * Link the new node n into the list after node p, or at the front if p is NIL.
+	 */
+	protected void linkAfter(int p, int n) {
+		int after = (p == NIL) ? this.head : this.next[p];
+		this.prev[n] = p;
+		this.next[n] = after;
+		if( p == NIL ) this.head = n;
+		else this.next[p] = n;
+		if( after == NIL ) this.tail = n;
+		else this.prev[after] = n;
+		this.count++;
+	}
+
+	/**
+	 * Unlink node n and put its slot on the free list.  If the cursor was on n it moves to
+	 * the next node, or after the end.
+	 * @timing O(1)
+	 */
+	protected void remove(int n) {
+		int p = this.prev[n];
+		int after = this.next[n];
+		if( p == NIL ) this.head = after;
+		else this.next[p] = after;
+		if( after == NIL ) this.tail = p;
+		else this.prev[after] = p;
+		if( this.position == n ) {
+			this.position = after;
+			if( after == NIL ) this.pastEnd = true;
+		}
+		this.items[n] = null;
+		this.next[n] = this.free;
+		this.free = n;
+		this.count--;
+	}
+
+	/**
+	 * Number of items in the list.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Number of slots in the arrays.
+	 */
+	public int capacity() {
+		return this.items.length;
+	}
+
+	/**
+	 * Move the items into slots 0 to count()-1 in list order, and shrink the arrays to
+	 * count() slots (at least one).  Scans afterwards walk the arrays in order.  The cursor
+	 * stays on its item.
+	 * @timing O(count())
+	 */
+	public void trimToSize() {
+		int capacity = Math.max(1, this.count);
+		Object[] newItems = new Object[capacity];
+		int newPosition = NIL;
+		int i = 0;
+		for(int n = this.head; n != NIL; n = this.next[n], i++) {
+			newItems[i] = this.items[n];
+			if( n == this.position ) newPosition = i;
+		}
+		this.items = newItems;
+		this.next = new int[capacity];
+		this.prev = new int[capacity];
+		for(i = 0; i < this.count; i++) {
+			this.next[i] = (i + 1 < this.count) ? i + 1 : NIL;
+			this.prev[i] = i - 1;
+		}
+		this.head = this.count > 0 ? 0 : NIL;
+		this.tail = this.count - 1;
+		this.free = NIL;
+		this.used = this.count;
+		this.position = newPosition;
+	}
+
+	/**
+	 * Insert an element before the current cursor position.
+	 * @param x - Element to be inserted.
+	 * @precond !before()
+	 * @throws InvalidState280Exception if the cursor is before the first element.
+	 */
+	public void insertBefore(I x) throws InvalidState280Exception {
+		if( this.before() ) throw new InvalidState280Exception("Cannot insertBefore() when the cursor is already before the first element.");
+		if( this.after() ) insertLast(x);
+		else linkAfter(this.prev[this.position], allocate(x));
+	}
+
+	@Override
+	public void insertFirst(I x) throws ContainerFull280Exception {
+		linkAfter(NIL, allocate(x));
+	}
+
+	@Override
+	public void insertLast(I x) throws ContainerFull280Exception {
+		linkAfter(this.tail, allocate(x));
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception {
+		insertFirst(x);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public I firstItem() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot obtain beginning of an empty list.");
+		return (I) this.items[this.head];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public I lastItem() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot obtain item at the end of an empty list.");
+		return (I) this.items[this.tail];
+	}
+
+	/**
+	 * Delete the first item.  If the cursor was on it, the cursor moves to the next item.
+	 * @timing O(1)
+	 */
+	@Override
+	public void deleteFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
+		remove(this.head);
+	}
+
+	/**
+	 * Delete the last item.  If the cursor was on it, the cursor moves to the new last
+	 * item, as it does in LinkedList280.
+	 * @timing O(1)
+	 */
+	@Override
+	public void deleteLast() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
+		boolean onLast = this.position == this.tail;
+		remove(this.tail);
+		if( onLast && !this.isEmpty() ) this.position = this.tail;
+	}
+
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no item at the cursor to delete.");
+		remove(this.position);
+	}
+
+	/**
+	 * Delete the first occurrence of x.  The cursor stays on its item, or moves to the next
+	 * item if it was on the one deleted.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void delete(I x) throws ItemNotFound280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete from an empty list.");
+		for(int n = this.head; n != NIL; n = this.next[n])
+			if( membershipEquals(x, (I) this.items[n]) ) {
+				remove(n);
+				return;
+			}
+		throw new ItemNotFound280Exception("Item to be deleted wasn't in the list.");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( this.position == NIL ) throw new NoCurrentItem280Exception("There is no current item to obtain.");
+		return (I) this.items[this.position];
+	}
+
+	/**
+	 * Replace the item at the cursor by x.
+	 * @param x the replacement item
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public void setItem(I x) throws NoCurrentItem280Exception {
+		if( !itemExists() ) throw new NoCurrentItem280Exception("There is no current item to replace.");
+		this.items[this.position] = x;
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position != NIL;
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == NIL && (!this.pastEnd || this.isEmpty());
+	}
+
+	@Override
+	public boolean after() {
+		return this.position == NIL && (this.pastEnd || this.isEmpty());
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		if( this.position != NIL ) {
+			this.position = this.next[this.position];
+			if( this.position == NIL ) this.pastEnd = true;
+		}
+		else if( after() ) throw new AfterTheEnd280Exception("Cannot advance to next item when already after the end.");
+		else goFirst();
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot position cursor at first element of an empty list.");
+		this.position = this.head;
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = NIL;
+		this.pastEnd = false;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = NIL;
+		this.pastEnd = true;
+	}
+
+	@Override
+	public void restartSearches() {
+		this.continueSearch = false;
+	}
+
+	@Override
+	public void resumeSearches() {
+		this.continueSearch = true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void search(I x) {
+		if( this.isEmpty() ) {
+			this.goAfter();
+			return;
+		}
+
+		if( !this.continueSearch ) goFirst();
+		else if( !after() ) goForth();
+
+		while( this.position != NIL && !membershipEquals(x, (I) this.items[this.position]) )
+			this.position = this.next[this.position];
+		if( this.position == NIL ) this.pastEnd = true;
+	}
+
+	@Override
+	public boolean has(I y) {
+		CursorPosition280 savePos = this.currentPosition();
+		this.search(y);
+		boolean result = itemExists();
+		this.goPosition(savePos);
+		return result;
+	}
+
+	@Override
+	public I obtain(I y) throws ItemNotFound280Exception {
+		CursorPosition280 savePos = this.currentPosition();
+		this.search(y);
+		if( !this.itemExists() ) throw new ItemNotFound280Exception("Can't obtain and item that is not in the list.");
+		I result = this.item();
+		this.goPosition(savePos);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0==((Comparable<I>)x).compareTo(y);
+		else return x.equals(y);
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new IndexLinkedListPosition280(this.position, this.pastEnd);
+	}
+
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof IndexLinkedListPosition280) )
+			throw new IllegalArgumentException("Argument is not an IndexLinkedListPosition280.");
+		IndexLinkedListPosition280 pos = (IndexLinkedListPosition280) c;
+		this.position = pos.node;
+		this.pastEnd = pos.pastEnd;
+	}
+
+	/**
+	 * Remove all items.  The arrays keep their size.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.items, 0, this.used, null);
+		this.head = NIL;
+		this.tail = NIL;
+		this.free = NIL;
+		this.used = 0;
+		this.count = 0;
+		this.goBefore();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * A copy of the list with its own arrays (but the same items), with the cursor at the
+	 * same place.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public IndexLinkedList280<I> clone() throws CloneNotSupportedException {
+		IndexLinkedList280<I> result = (IndexLinkedList280<I>) super.clone();
+		result.items = this.items.clone();
+		result.next = this.next.clone();
+		result.prev = this.prev.clone();
+		return result;
+	}
+
+	/**
+	 * A spliterator over the items of the list, in order.  The slots are not in list order, so the
+	 * spliterator follows the next array and splits off batches of items from the front,
+	 * copied into arrays of growing length.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return Spliterators.spliterator(new Iterator<I>() {
+			int n = head;
+
+			@Override
+			public boolean hasNext() {
+				return n != NIL;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public I next() {
+				if( n == NIL ) throw new NoSuchElementException();
+				I x = (I) items[n];
+				n = next[n];
+				return x;
+			}
+		}, this.count, Spliterator.ORDERED);
+	}
+
+	@Override
+	public String toString() {
+		if( this.isEmpty() ) return "<Empty>";
+		StringBuilder result = new StringBuilder();
+		for(int n = this.head; n != NIL; n = this.next[n])
+			result.append(this.items[n]).append(", ");
+		return result.toString();
+	}
+
+	/**
+	 * Compare L with the model list M, whose cursor is at index c (-1 for before, M.size()
+	 * for after), and report any difference.
+	 */
+	protected static void check(String step, IndexLinkedList280<Integer> L, ArrayList<Integer> M, int c) {
+		if( L.count() != M.size() ) {
+			System.out.println("Error: after " + step + " the list has " + L.count() + " items instead of " + M.size());
+			return;
+		}
+		boolean exists = c >= 0 && c < M.size();
+		if( L.itemExists() != exists || (exists && !L.item().equals(M.get(c))) || (!M.isEmpty() && L.after() != (c == M.size())) ) {
+			System.out.println("Error: after " + step + " the cursor is on the wrong item.");
+			return;
+		}
+		int i = 0;
+		for(int n = L.head; n != NIL; n = L.next[n], i++)
+			if( i >= M.size() || !L.items[n].equals(M.get(i)) || (L.next[n] == NIL ? L.tail != n : L.prev[L.next[n]] != n) ) {
+				System.out.println("Error: after " + step + " the list is " + L + " instead of " + M);
+				break;
+			}
+		if( !L.stream().collect(Collectors.toList()).equals(M) || L.parallelStream().count() != M.size() )
+			System.out.println("Error: after " + step + " the stream of the list is not " + M);
+		int slots = 0;
+		for(int n = L.free; n != NIL; n = L.next[n])
+			slots++;
+		if( slots + L.count() != L.used )
+			System.out.println("Error: after " + step + " " + (L.used - L.count() - slots) + " slots have been lost.");
+	}
+
+	public static void main(String[] args) {
+		IndexLinkedList280<Integer> L = new IndexLinkedList280<Integer>(2);
+		if( !L.isEmpty() || !L.before() || !L.after() )
+			System.out.println("Error: a new list should be empty, with the cursor both before and after.");
+
+		L.insert(5);
+		L.insert(4);
+		L.insertLast(3);
+		L.insertLast(10);
+		L.insertFirst(2);
+		if( !L.toString().equals("2, 4, 5, 3, 10, ") )
+			System.out.println("Error: list should be 2, 4, 5, 3, 10, but is " + L);
+		L.delete(5);
+		L.deleteFirst();
+		L.deleteLast();
+		if( !L.toString().equals("4, 3, ") || L.firstItem() != 4 || L.lastItem() != 3 )
+			System.out.println("Error: list should be 4, 3, but is " + L);
+
+		L.insertLast(3);
+		L.search(3);
+		L.resumeSearches();
+		L.search(3);
+		if( !L.itemExists() || L.item() != 3 )
+			System.out.println("Error: the second 3 should be found.");
+		L.search(3);
+		if( !L.after() )
+			System.out.println("Error: a third 3 should not be found.");
+		L.restartSearches();
+		if( !L.has(4) || L.has(7) || L.obtain(4) != 4 || !L.after() )
+			System.out.println("Error: has() and obtain() should find 4 and leave the cursor alone.");
+
+		L.clear();
+		for(int i = 1; i <= 5; i++)
+			L.insertLast(i);
+		L.goFirst();
+		L.insertBefore(10);
+		L.goAfter();
+		L.insertBefore(20);
+		L.search(20);
+		L.insertBefore(30);
+		L.search(4);
+		L.insertBefore(40);
+		if( !L.toString().equals("10, 1, 2, 3, 40, 4, 5, 30, 20, ") || L.item() != 4 )
+			System.out.println("Error: list should be 10, 1, 2, 3, 40, 4, 5, 30, 20, but is " + L);
+		L.goBefore();
+		try {
+			L.insertBefore(100);
+			System.out.println("Error: insertBefore() with before() == true should throw.");
+		}
+		catch( InvalidState280Exception e ) { /* expected */ }
+
+		L.search(20);
+		L.deleteLast();
+		if( !L.itemExists() || L.item() != 30 )
+			System.out.println("Error: the cursor should be on 30.");
+
+		// trimToSize() packs the nodes in list order and keeps the cursor.
+		L.search(2);
+		L.trimToSize();
+		if( L.capacity() != 8 || !L.toString().equals("10, 1, 2, 3, 40, 4, 5, 30, ") || L.item() != 2 || L.position != 2 )
+			System.out.println("Error: trimToSize() should pack the list into 8 slots, in order.");
+		L.insertLast(50);
+		if( !L.toString().equals("10, 1, 2, 3, 40, 4, 5, 30, 50, ") )
+			System.out.println("Error: the list should grow again after trimToSize().");
+
+		L.clear();
+		try {
+			L.deleteFirst();
+			System.out.println("Error: deleteFirst() on an empty list should throw.");
+		}
+		catch( ContainerEmpty280Exception e ) { /* expected */ }
+		try {
+			L.deleteLast();
+			System.out.println("Error: deleteLast() on an empty list should throw.");
+		}
+		catch( ContainerEmpty280Exception e ) { /* expected */ }
+		L.insert(5);
+		try {
+			L.delete(3);
+			System.out.println("Error: deleting a missing item should throw.");
+		}
+		catch( ItemNotFound280Exception e ) { /* expected */ }
+
+		// A queue workload reuses its slots instead of growing.
+		L.clear();
+		for(int i = 0; i < 100; i++)
+			L.insertLast(i);
+		int capacity = L.capacity();
+		for(int i = 100; i < 100000; i++) {
+			L.deleteFirst();
+			L.insertLast(i);
+		}
+		if( L.capacity() != capacity || L.firstItem() != 99900 || L.count() != 100 )
+			System.out.println("Error: a queue of 100 items should not grow beyond " + capacity + " slots.");
+		while( !L.isEmpty() )
+			L.deleteLast();
+
+		// Random operations, compared with an ArrayList and a cursor index.
+		Random r = new Random(280);
+		L = new IndexLinkedList280<Integer>(1);
+		ArrayList<Integer> M = new ArrayList<Integer>();
+		int c = -1;
+		for(int step = 0; step < 200000; step++) {
+			int x = r.nextInt(50);
+			String op;
+			switch( r.nextInt(10) ) {
+			case 0:
+				op = "insertFirst";
+				L.insertFirst(x);
+				M.add(0, x);
+				if( c >= 0 ) c++;
+				break;
+			case 1:
+				op = "insertLast";
+				L.insertLast(x);
+				M.add(x);
+				if( c == M.size() - 1 ) c++;
+				break;
+			case 2:
+				op = "insertBefore";
+				if( c < 0 || M.isEmpty() ) continue;
+				L.insertBefore(x);
+				M.add(c, x);
+				c++;
+				break;
+			case 3:
+				op = "deleteItem";
+				if( c < 0 || c >= M.size() ) continue;
+				L.deleteItem();
+				M.remove(c);
+				break;
+			case 4:
+				op = "deleteFirst";
+				if( M.isEmpty() ) continue;
+				L.deleteFirst();
+				M.remove(0);
+				if( c > 0 ) c--;
+				break;
+			case 5:
+				op = "deleteLast";
+				if( M.isEmpty() ) continue;
+				boolean onLast = c == M.size() - 1;
+				L.deleteLast();
+				M.remove(M.size() - 1);
+				if( onLast && !M.isEmpty() ) c = M.size() - 1;
+				else if( c > M.size() ) c = M.size();
+				else if( onLast ) c = 0;
+				break;
+			case 6:
+			case 7:
+				op = "goForth";
+				if( M.isEmpty() || c == M.size() ) continue;
+				L.goForth();
+				c++;
+				break;
+			case 8:
+				op = "goFirst";
+				if( M.isEmpty() ) continue;
+				L.goFirst();
+				c = 0;
+				break;
+			default:
+				op = "search";
+				L.search(x);
+				c = M.indexOf(x);
+				if( c < 0 ) c = M.size();
+				break;
+			}
+			if( step % 97 == 0 || M.size() < 10 ) check(op, L, M, c);
+		}
+
+		try {
+			IndexLinkedList280<Integer> C = L.clone();
+			C.insertFirst(-1);
+			if( C.count() != L.count() + 1 || L.firstItem() == -1 )
+				System.out.println("Error: changing a clone should not change the original.");
+		}
+		catch( CloneNotSupportedException e ) {
+			System.out.println("Error: clone() should not throw.");
+		}
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,21 @@
+package lib280.list;
+
+import lib280.base.CursorPosition280;
+
+/**	A saved cursor position for an index-linked list: the index of the node
+	of the current item, or NIL if the cursor was before the start or after
+	the end.  It is only valid until the list is next changed. */
+public class IndexLinkedListPosition280 implements CursorPosition280
+{
+	/**	Index of the node at the cursor, or IndexLinkedList280.NIL. */
+	protected int node;
+
+	/**	Was the cursor after the end (as opposed to before the start) when node is NIL? */
+	protected boolean pastEnd;
+
+	public IndexLinkedListPosition280(int node, boolean pastEnd)
+	{
+		this.node = node;
+		this.pastEnd = pastEnd;
+	}
+}
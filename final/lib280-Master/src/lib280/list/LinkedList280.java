@@ -6,12 +6,18 @@ package lib280.list;
  * --------------------------------------------- */
 
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
 import lib280.base.CursorPosition280;
 import lib280.base.Pair280;
+import lib280.base.Streamable280;
 import lib280.exception.*;
 
 
-public class LinkedList280<I> implements SimpleList280<I> {
+public class LinkedList280<I> implements SimpleList280<I>, Streamable280<I> {
 
 	/**
 	 * First node in the list, or null if the list is empty.
@@ -336,6 +342,32 @@ public class LinkedList280<I> implements SimpleList280<I> {
 		return new LinkedIterator280<I>(this);
 	}
 
+	/**
+	 * A spliterator over the items of the list, in order.  The middle of a linked list
+	 * cannot be reached without walking to it, so the spliterator splits off batches
+	 * of items, copied into arrays of growing length, from the front.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return Spliterators.spliteratorUnknownSize(new Iterator<I>() {
+			LinkedNode280<I> next = head;
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public I next() {
+				if( next == null ) throw new NoSuchElementException();
+				I x = next.item();
+				next = next.nextNode();
+				return x;
+			}
+		}, Spliterator.ORDERED);
+	}
+
 	@Override
 	public boolean after() {
 		return (this.position==null) && (this.prevPosition !=null || this.isEmpty());
@@ -980,6 +1012,21 @@ public class LinkedList280<I> implements SimpleList280<I> {
         if(l.tail != l.head || l.tail.item() == 1 || l.item() != 0 || l.head.nextNode() != null) {
 			System.out.println("Error: Last node was not correctly deleted from two-element list.");
 		}
+
+		// Streams, in order even when parallel.
+		LinkedList280<Integer> big = new LinkedList280<Integer>();
+		for(int i = 0; i < 100000; i++)
+			big.insertLast(i);
+		int[] all = big.parallelStream().mapToInt(k -> k).toArray();
+		for(int i = 0; i < all.length; i++)
+			if( all[i] != i ) {
+				System.out.println("Error: item " + i + " of the stream should be " + i + ", not " + all[i]);
+				break;
+			}
+		if( all.length != 100000 || big.stream().filter(k -> k % 2 == 0).count() != 50000 )
+			System.out.println("Error: the stream of the list should hold 0 to 99999.");
+
+		System.out.println("Regression test complete.");
     }
 	
 
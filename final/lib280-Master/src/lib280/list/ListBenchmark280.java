@@ -0,0 +1,93 @@
+package lib280.list;
+
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Compares LinkedList280, BilinkedList280, UnrolledList280 and IndexLinkedList280 on a full scan with the
+ * cursor, on building a list with insertLast(), on insertBefore() at a cursor that
+ * walks through the list, on deleteItem() of every other item during a scan, and on
+ * emptying the list with deleteFirst().
+ *
+ * Usage: java lib280.list.ListBenchmark280 [LinkedList280|BilinkedList280|UnrolledList280|IndexLinkedList280]
+ *
+ * Each operation is run a few times to warm up and timed the last time; the times are
+ * per item.  Run
+ * one list per JVM for fair numbers: once the shared benchmark loop has seen several
+ * lists, its calls through SimpleList280 can no longer be inlined, which slows the
+ * later lists down.
+ */
+public class ListBenchmark280 {
+
+	/** Number of items in each list. */
+	protected static final int size = 1000000;
+
+	/** Number of scans timed. */
+	protected static final int scans = 20;
+
+	/** Number of times everything is run; only the last run is reported. */
+	protected static final int runs = 5;
+
+	/** Time per item of the operations on lists made by newList, printed under title. */
+	protected static void report(String title, Supplier<SimpleList280<Integer>> newList,
+			BiConsumer<SimpleList280<Integer>, Integer> insertBefore) {
+		Integer[] items = new Integer[size];
+		for(int i = 0; i < size; i++)
+			items[i] = i;
+		double build = 0, scan = 0, insert = 0, delete = 0, drain = 0;
+		long checksum = 0;
+
+		for(int run = 0; run < runs; run++) {
+			SimpleList280<Integer> L = newList.get();
+			long start = System.nanoTime();
+			for(Integer x : items)
+				L.insertLast(x);
+			build = (System.nanoTime() - start) / (double) size;
+
+			start = System.nanoTime();
+			for(int s = 0; s < scans; s++)
+				for(L.goFirst(); L.itemExists(); L.goForth())
+					checksum += L.item();
+			scan = (System.nanoTime() - start) / ((double) size * scans);
+
+			// Insert an item before every second item: the list grows by half.
+			start = System.nanoTime();
+			int i = 0;
+			for(L.goFirst(); L.itemExists(); L.goForth())
+				if( (i++ & 1) == 0 ) insertBefore.accept(L, -1);
+			insert = (System.nanoTime() - start) / (size / 2.0);
+
+			// Delete the inserted items again.
+			start = System.nanoTime();
+			for(L.goFirst(); L.itemExists(); )
+				if( L.item() == -1 ) L.deleteItem();
+				else L.goForth();
+			delete = (System.nanoTime() - start) / (size / 2.0);
+
+			start = System.nanoTime();
+			while( !L.isEmpty() )
+				L.deleteFirst();
+			drain = (System.nanoTime() - start) / (double) size;
+		}
+		System.out.printf("%-18s build %6.1f  scan %6.2f  insertBefore %6.1f  deleteItem %6.1f  deleteFirst %6.1f ns/item%n",
+				title, build, scan, insert, delete, drain);
+		if( checksum == 0 )
+			System.out.println("Error: " + title + " scanned no items.");
+	}
+
+	public static void main(String[] args) {
+		String only = args.length > 0 ? args[0] : "";
+		if( only.isEmpty() || only.equals("LinkedList280") )
+			report("LinkedList280", () -> new LinkedList280<Integer>(),
+					(L, x) -> ((LinkedList280<Integer>) L).insertBefore(x));
+		if( only.isEmpty() || only.equals("BilinkedList280") )
+			report("BilinkedList280", () -> new BilinkedList280<Integer>(),
+					(L, x) -> ((LinkedList280<Integer>) L).insertBefore(x));
+		if( only.isEmpty() || only.equals("UnrolledList280") )
+			report("UnrolledList280", () -> new UnrolledList280<Integer>(),
+					(L, x) -> ((UnrolledList280<Integer>) L).insertBefore(x));
+		if( only.isEmpty() || only.equals("IndexLinkedList280") )
+			report("IndexLinkedList280", () -> new IndexLinkedList280<Integer>(),
+					(L, x) -> ((IndexLinkedList280<Integer>) L).insertBefore(x));
+	}
+}
@@ -0,0 +1,704 @@
+package lib280.list;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+
+import lib280.base.CursorPosition280;
+import lib280.base.Streamable280;
+import lib280.exception.*;
+
+/**
+ * A list that stores its items in a doubly linked chain of small arrays (an unrolled
+ * linked list) instead of one node per item.  A scan steps through each array before
+ * following a link, so it touches consecutive memory and follows one reference per
+ * node rather than one per item, and the list carries one object header per node
+ * rather than per item.
+ *
+ * Every node but the first may be anywhere from nearly empty to full: a full node is
+ * split in half to make room for an insertion, and a node is merged with a neighbour
+ * when together they fill no more than half a node.  Insertions and deletions at the
+ * cursor cost O(node capacity) to shift items within a node; insertions and deletions
+ * at either end are O(1) apart from that shift.  The cursor is a node and an index
+ * within it.
+ */
+public class UnrolledList280<I> implements SimpleList280<I>, Streamable280<I> {
+
+	/**
+	 * Default number of items per node.
+	 */
+	protected static final int defaultNodeCapacity = 32;
+
+	/**
+	 * First node in the list, or null if the list is empty.
+	 */
+	protected UnrolledNode280<I> head;
+
+	/**
+	 * Last node in the list, or null if the list is empty.
+	 */
+	protected UnrolledNode280<I> tail;
+
+	/**
+	 * Node holding the item at the cursor, or null if the cursor is before or after.
+	 */
+	protected UnrolledNode280<I> position;
+
+	/**
+	 * Index within position of the item at the cursor.
+	 */
+	protected int index;
+
+	/**
+	 * When position is null, is the cursor after the end rather than before the start?
+	 */
+	protected boolean pastEnd;
+
+	/**
+	 * Number of items in each node.
+	 */
+	protected int nodeCapacity;
+
+	/**
+	 * Number of items in the list.
+	 */
+	protected int count;
+
+	/**
+	 * Do searches continue or start anew?
+	 */
+	protected boolean continueSearch;
+
+
+	/**
+	 * Create an empty list with the default node capacity.
+	 */
+	public UnrolledList280() {
+		this(defaultNodeCapacity);
+	}
+
+	/**
+	 * Create an empty list.
+	 * @param nodeCapacity number of items in each node; at least 4
+	 * @throws InvalidArgument280Exception if nodeCapacity is less than 4.
+	 */
+	public UnrolledList280(int nodeCapacity) {
+		if( nodeCapacity < 4 ) throw new InvalidArgument280Exception("An unrolled list needs at least 4 items per node.");
+		this.nodeCapacity = nodeCapacity;
+	}
+
+	/**
+	 * Create an empty node for this list.
+	 */
+	protected UnrolledNode280<I> createNewNode() {
+		return new UnrolledNode280<I>(this.nodeCapacity);
+	}
+
+	/**
+	 * Link n into the list after node p, or at the front if p is null.
+	 */
+	protected void linkAfter(UnrolledNode280<I> p, UnrolledNode280<I> n) {
+		UnrolledNode280<I> next = (p == null) ? this.head : p.nextNode;
+		n.previousNode = p;
+		n.nextNode = next;
+		if( p == null ) this.head = n;
+		else p.nextNode = n;
+		if( next == null ) this.tail = n;
+		else next.previousNode = n;
+	}
+
+	/**
+	 * Unlink node n from the list.
+	 */
+	protected void unlink(UnrolledNode280<I> n) {
+		if( n.previousNode == null ) this.head = n.nextNode;
+		else n.previousNode.nextNode = n.nextNode;
+		if( n.nextNode == null ) this.tail = n.previousNode;
+		else n.nextNode.previousNode = n.previousNode;
+		n.nextNode = null;
+		n.previousNode = null;
+	}
+
+	/**
+	 * Number of items in the list.
+	 * @timing O(1)
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Insert x at index i of node n, splitting n first if it is full.  The cursor stays
+	 * on the item it was on.
+	 * @timing O(node capacity)
+	 */
+	protected void insertAt(UnrolledNode280<I> n, int i, I x) {
+		if( n.isFull() ) {
+			int half = this.nodeCapacity / 2;
+			UnrolledNode280<I> m = createNewNode();
+			n.moveTailTo(half, m);
+			linkAfter(n, m);
+			if( this.position == n && this.index >= half ) {
+				this.position = m;
+				this.index -= half;
+			}
+			if( i > half ) {
+				n = m;
+				i -= half;
+			}
+		}
+		n.insertAt(i, x);
+		if( this.position == n && this.index >= i ) this.index++;
+		this.count++;
+	}
+
+	/**
+	 * Remove the item at index i of node n, unlinking n if it becomes empty and merging
+	 * it with a neighbour if the two fit in half a node.  If the cursor was on the item,
+	 * it moves to the next item (or after the end); otherwise it stays on its item.
+	 * @timing O(node capacity)
+	 */
+	protected void removeAt(UnrolledNode280<I> n, int i) {
+		n.removeAt(i);
+		this.count--;
+		if( this.position == n ) {
+			if( this.index > i ) this.index--;
+			else if( this.index == n.size ) {
+				this.position = n.nextNode;
+				this.index = 0;
+				if( this.position == null ) this.pastEnd = true;
+			}
+		}
+		if( n.size == 0 )
+			unlink(n);
+		else if( n.nextNode != null && n.size + n.nextNode.size <= this.nodeCapacity / 2 )
+			merge(n);
+		else if( n.previousNode != null && n.previousNode.size + n.size <= this.nodeCapacity / 2 )
+			merge(n.previousNode);
+	}
+
+	/**
+	 * Move the items of the node after n into n and unlink that node.
+	 */
+	protected void merge(UnrolledNode280<I> n) {
+		UnrolledNode280<I> m = n.nextNode;
+		if( this.position == m ) {
+			this.position = n;
+			this.index += n.size;
+		}
+		n.absorb(m);
+		unlink(m);
+	}
+
+	/**
+	 * Insert an element before the current cursor position.
+	 * @param x - Element to be inserted.
+	 * @precond !before()
+	 * @throws InvalidState280Exception if the cursor is before the first element.
+	 */
+	public void insertBefore(I x) throws InvalidState280Exception {
+		if( this.before() ) throw new InvalidState280Exception("Cannot insertBefore() when the cursor is already before the first element.");
+		if( this.after() ) insertLast(x);
+		else insertAt(this.position, this.index, x);
+	}
+
+	@Override
+	public void insertFirst(I x) throws ContainerFull280Exception {
+		if( this.head == null || this.head.isFull() ) linkAfter(null, createNewNode());
+		this.head.insertAt(0, x);
+		if( this.position == this.head ) this.index++;
+		this.count++;
+	}
+
+	@Override
+	public void insertLast(I x) throws ContainerFull280Exception {
+		if( this.tail == null || this.tail.isFull() ) linkAfter(this.tail, createNewNode());
+		this.tail.insertAt(this.tail.size, x);
+		this.count++;
+	}
+
+	@Override
+	public void insert(I x) throws ContainerFull280Exception {
+		insertFirst(x);
+	}
+
+	@Override
+	public I firstItem() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot obtain beginning of an empty list.");
+		return this.head.item(0);
+	}
+
+	@Override
+	public I lastItem() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot obtain item at the end of an empty list.");
+		return this.tail.item(this.tail.size - 1);
+	}
+
+	/**
+	 * Delete the first item.  If the cursor was on it, the cursor moves to the next item.
+	 * @timing O(node capacity)
+	 */
+	@Override
+	public void deleteFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
+		removeAt(this.head, 0);
+	}
+
+	/**
+	 * Delete the last item.  If the cursor was on it, the cursor moves to the new last
+	 * item, as it does in LinkedList280.
+	 * @timing O(1)
+	 */
+	@Override
+	public void deleteLast() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete an item from an empty list.");
+		boolean onLast = this.position == this.tail && this.index == this.tail.size - 1;
+		removeAt(this.tail, this.tail.size - 1);
+		if( onLast && !this.isEmpty() ) {
+			this.position = this.tail;
+			this.index = this.tail.size - 1;
+		}
+	}
+
+	@Override
+	public void deleteItem() throws NoCurrentItem280Exception {
+		if( !this.itemExists() ) throw new NoCurrentItem280Exception("There is no item at the cursor to delete.");
+		removeAt(this.position, this.index);
+	}
+
+	/**
+	 * Delete the first occurrence of x.  The cursor stays on its item, or moves to the next
+	 * item if it was on the one deleted.
+	 */
+	@Override
+	public void delete(I x) throws ItemNotFound280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot delete from an empty list.");
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode)
+			for(int i = 0; i < n.size; i++)
+				if( membershipEquals(x, n.item(i)) ) {
+					removeAt(n, i);
+					return;
+				}
+		throw new ItemNotFound280Exception("Item to be deleted wasn't in the list.");
+	}
+
+	@Override
+	public I item() throws NoCurrentItem280Exception {
+		if( this.position == null ) throw new NoCurrentItem280Exception("There is no current item to obtain.");
+		return this.position.item(this.index);
+	}
+
+	/**
+	 * Replace the item at the cursor by x.
+	 * @param x the replacement item
+	 * @throws NoCurrentItem280Exception if there is no current item.
+	 */
+	public void setItem(I x) throws NoCurrentItem280Exception {
+		if( !itemExists() ) throw new NoCurrentItem280Exception("There is no current item to replace.");
+		this.position.setItem(this.index, x);
+	}
+
+	@Override
+	public boolean itemExists() {
+		return this.position != null;
+	}
+
+	@Override
+	public boolean before() {
+		return this.position == null && (!this.pastEnd || this.isEmpty());
+	}
+
+	@Override
+	public boolean after() {
+		return this.position == null && (this.pastEnd || this.isEmpty());
+	}
+
+	@Override
+	public void goForth() throws AfterTheEnd280Exception {
+		// The common case, moving within or between nodes, is tested first.
+		if( this.position != null ) {
+			if( ++this.index == this.position.size ) {
+				this.position = this.position.nextNode;
+				this.index = 0;
+				if( this.position == null ) this.pastEnd = true;
+			}
+		}
+		else if( after() ) throw new AfterTheEnd280Exception("Cannot advance to next item when already after the end.");
+		else goFirst();
+	}
+
+	@Override
+	public void goFirst() throws ContainerEmpty280Exception {
+		if( this.isEmpty() ) throw new ContainerEmpty280Exception("Cannot position cursor at first element of an empty list.");
+		this.position = this.head;
+		this.index = 0;
+	}
+
+	@Override
+	public void goBefore() {
+		this.position = null;
+		this.pastEnd = false;
+	}
+
+	@Override
+	public void goAfter() {
+		this.position = null;
+		this.pastEnd = true;
+	}
+
+	@Override
+	public void restartSearches() {
+		this.continueSearch = false;
+	}
+
+	@Override
+	public void resumeSearches() {
+		this.continueSearch = true;
+	}
+
+	/**
+	 * Move the cursor to the next occurrence of x, scanning the items of each node in turn.
+	 */
+	@Override
+	public void search(I x) {
+		if( this.isEmpty() ) {
+			this.goAfter();
+			return;
+		}
+
+		if( !this.continueSearch ) goFirst();
+		else if( !after() ) goForth();
+
+		for( ; this.position != null; this.position = this.position.nextNode, this.index = 0)
+			for( ; this.index < this.position.size; this.index++)
+				if( membershipEquals(x, this.position.item(this.index)) ) return;
+		this.pastEnd = true;
+	}
+
+	@Override
+	public boolean has(I y) {
+		CursorPosition280 savePos = this.currentPosition();
+		this.search(y);
+		boolean result = itemExists();
+		this.goPosition(savePos);
+		return result;
+	}
+
+	@Override
+	public I obtain(I y) throws ItemNotFound280Exception {
+		CursorPosition280 savePos = this.currentPosition();
+		this.search(y);
+		if( !this.itemExists() ) throw new ItemNotFound280Exception("Can't obtain and item that is not in the list.");
+		I result = this.item();
+		this.goPosition(savePos);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean membershipEquals(I x, I y) {
+		if ((x instanceof Comparable) && (y instanceof Comparable))
+			return  0==((Comparable<I>)x).compareTo(y);
+		else return x.equals(y);
+	}
+
+	@Override
+	public CursorPosition280 currentPosition() {
+		return new UnrolledListPosition280<I>(this.position, this.index, this.pastEnd);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void goPosition(CursorPosition280 c) {
+		if( !(c instanceof UnrolledListPosition280) )
+			throw new IllegalArgumentException("Argument is not an UnrolledListPosition280.");
+		UnrolledListPosition280<I> pos = (UnrolledListPosition280<I>) c;
+		this.position = pos.node;
+		this.index = pos.index;
+		this.pastEnd = pos.pastEnd;
+	}
+
+	@Override
+	public void clear() {
+		this.head = null;
+		this.tail = null;
+		this.count = 0;
+		this.goBefore();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		return false;
+	}
+
+	/**
+	 * A copy of the list with its own nodes (but the same items), with the cursor at the
+	 * same place.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public UnrolledList280<I> clone() throws CloneNotSupportedException {
+		UnrolledList280<I> result = (UnrolledList280<I>) super.clone();
+		result.head = null;
+		result.tail = null;
+		result.position = null;
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode) {
+			UnrolledNode280<I> copy = createNewNode();
+			System.arraycopy(n.items, 0, copy.items, 0, n.size);
+			copy.size = n.size;
+			result.linkAfter(result.tail, copy);
+			if( n == this.position ) result.position = copy;
+		}
+		return result;
+	}
+
+	/**
+	 * A spliterator over the items of the list, in order.  The nodes can only be reached by following
+	 * the links, so the spliterator splits off batches of items from the front, copied
+	 * into arrays of growing length.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return Spliterators.spliterator(new Iterator<I>() {
+			UnrolledNode280<I> node = head;
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return node != null;
+			}
+
+			@Override
+			public I next() {
+				if( node == null ) throw new NoSuchElementException();
+				I x = node.item(i++);
+				if( i == node.size ) {
+					node = node.nextNode;
+					i = 0;
+				}
+				return x;
+			}
+		}, this.count, Spliterator.ORDERED);
+	}
+
+	@Override
+	public String toString() {
+		if( this.isEmpty() ) return "<Empty>";
+		StringBuilder result = new StringBuilder();
+		for(UnrolledNode280<I> n = this.head; n != null; n = n.nextNode)
+			for(int i = 0; i < n.size; i++)
+				result.append(n.item(i)).append(", ");
+		return result.toString();
+	}
+
+	/**
+	 * Compare L with the model list M, whose cursor is at index c (-1 for before, M.size()
+	 * for after), and report any difference.
+	 */
+	protected static void check(String step, UnrolledList280<Integer> L, ArrayList<Integer> M, int c) {
+		if( L.count() != M.size() ) {
+			System.out.println("Error: after " + step + " the list has " + L.count() + " items instead of " + M.size());
+			return;
+		}
+		boolean exists = c >= 0 && c < M.size();
+		if( L.itemExists() != exists || (exists && !L.item().equals(M.get(c))) || (!M.isEmpty() && L.after() != (c == M.size())) ) {
+			System.out.println("Error: after " + step + " the cursor is on the wrong item.");
+			return;
+		}
+		CursorPosition280 saved = L.currentPosition();
+		int i = 0;
+		if( !M.isEmpty() ) L.goFirst();
+		for( ; L.itemExists(); L.goForth(), i++)
+			if( i >= M.size() || !L.item().equals(M.get(i)) ) {
+				System.out.println("Error: after " + step + " the list is " + L + " instead of " + M);
+				break;
+			}
+		L.goPosition(saved);
+		if( !L.stream().collect(Collectors.toList()).equals(M) || L.parallelStream().count() != M.size() )
+			System.out.println("Error: after " + step + " the stream of the list is not " + M);
+		for(UnrolledNode280<Integer> n = L.head; n != null; n = n.nextNode)
+			if( n.size == 0 || (n.previousNode == null ? L.head != n : n.previousNode.nextNode != n) )
+				System.out.println("Error: after " + step + " the nodes are not linked properly.");
+	}
+
+	public static void main(String[] args) {
+		UnrolledList280<Integer> L = new UnrolledList280<Integer>(4);
+		if( !L.isEmpty() || !L.before() || !L.after() )
+			System.out.println("Error: a new list should be empty, with the cursor both before and after.");
+
+		L.insert(5);
+		L.insert(4);
+		L.insertLast(3);
+		L.insertLast(10);
+		L.insertFirst(2);
+		if( !L.toString().equals("2, 4, 5, 3, 10, ") )
+			System.out.println("Error: list should be 2, 4, 5, 3, 10, but is " + L);
+		L.delete(5);
+		L.deleteFirst();
+		L.deleteLast();
+		if( !L.toString().equals("4, 3, ") || L.firstItem() != 4 || L.lastItem() != 3 )
+			System.out.println("Error: list should be 4, 3, but is " + L);
+
+		// Searching, resumed searches, has() and obtain().
+		L.insertLast(3);
+		L.search(3);
+		L.resumeSearches();
+		L.search(3);
+		if( !L.itemExists() || L.item() != 3 )
+			System.out.println("Error: the second 3 should be found.");
+		L.search(3);
+		if( !L.after() )
+			System.out.println("Error: a third 3 should not be found.");
+		L.restartSearches();
+		if( !L.has(4) || L.has(7) || L.obtain(4) != 4 || !L.after() )
+			System.out.println("Error: has() and obtain() should find 4 and leave the cursor alone.");
+
+		// insertBefore at each kind of place.
+		L.clear();
+		for(int i = 1; i <= 5; i++)
+			L.insertLast(i);
+		L.goFirst();
+		L.insertBefore(10);
+		L.goAfter();
+		L.insertBefore(20);
+		L.search(20);
+		L.insertBefore(30);
+		L.search(4);
+		L.insertBefore(40);
+		if( !L.toString().equals("10, 1, 2, 3, 40, 4, 5, 30, 20, ") || L.item() != 4 )
+			System.out.println("Error: list should be 10, 1, 2, 3, 40, 4, 5, 30, 20, but is " + L);
+		L.goBefore();
+		try {
+			L.insertBefore(100);
+			System.out.println("Error: insertBefore() with before() == true should throw.");
+		}
+		catch( InvalidState280Exception e ) { /* expected */ }
+
+		// deleteLast() with the cursor on the last item moves it back one, as in LinkedList280.
+		L.search(20);
+		L.deleteLast();
+		if( !L.itemExists() || L.item() != 30 )
+			System.out.println("Error: the cursor should be on 30.");
+
+		// Preconditions.
+		L.clear();
+		try {
+			L.deleteFirst();
+			System.out.println("Error: deleteFirst() on an empty list should throw.");
+		}
+		catch( ContainerEmpty280Exception e ) { /* expected */ }
+		try {
+			L.deleteLast();
+			System.out.println("Error: deleteLast() on an empty list should throw.");
+		}
+		catch( ContainerEmpty280Exception e ) { /* expected */ }
+		L.insert(5);
+		try {
+			L.delete(3);
+			System.out.println("Error: deleting a missing item should throw.");
+		}
+		catch( ItemNotFound280Exception e ) { /* expected */ }
+		L.goAfter();
+		try {
+			L.goForth();
+			System.out.println("Error: goForth() after the end should throw.");
+		}
+		catch( AfterTheEnd280Exception e ) { /* expected */ }
+
+		// Random operations, compared with an ArrayList and a cursor index.
+		Random r = new Random(280);
+		L = new UnrolledList280<Integer>(4);
+		ArrayList<Integer> M = new ArrayList<Integer>();
+		int c = -1;
+		for(int step = 0; step < 200000; step++) {
+			int x = r.nextInt(50);
+			String op;
+			switch( r.nextInt(10) ) {
+			case 0:
+				op = "insertFirst";
+				L.insertFirst(x);
+				M.add(0, x);
+				if( c >= 0 ) c++;
+				break;
+			case 1:
+				op = "insertLast";
+				L.insertLast(x);
+				M.add(x);
+				if( c == M.size() - 1 ) c++;
+				break;
+			case 2:
+				op = "insertBefore";
+				if( c < 0 || M.isEmpty() ) continue;
+				L.insertBefore(x);
+				M.add(c, x);
+				c++;
+				break;
+			case 3:
+				op = "deleteItem";
+				if( c < 0 || c >= M.size() ) continue;
+				L.deleteItem();
+				M.remove(c);
+				break;
+			case 4:
+				op = "deleteFirst";
+				if( M.isEmpty() ) continue;
+				L.deleteFirst();
+				M.remove(0);
+				if( c > 0 ) c--;
+				break;
+			case 5:
+				op = "deleteLast";
+				if( M.isEmpty() ) continue;
+				boolean onLast = c == M.size() - 1;
+				L.deleteLast();
+				M.remove(M.size() - 1);
+				if( onLast && !M.isEmpty() ) c = M.size() - 1;
+				else if( c > M.size() ) c = M.size();
+				else if( onLast ) c = 0;
+				break;
+			case 6:
+			case 7:
+				op = "goForth";
+				if( M.isEmpty() || c == M.size() ) continue;
+				L.goForth();
+				c++;
+				break;
+			case 8:
+				op = "goFirst";
+				if( M.isEmpty() ) continue;
+				L.goFirst();
+				c = 0;
+				break;
+			default:
+				op = "search";
+				L.search(x);
+				c = M.indexOf(x);
+				if( c < 0 ) c = M.size();
+				break;
+			}
+			if( step % 97 == 0 || M.size() < 10 ) check(op, L, M, c);
+		}
+
+		try {
+			UnrolledList280<Integer> C = L.clone();
+			C.insertFirst(-1);
+			if( C.count() != L.count() + 1 || L.firstItem() == -1 )
+				System.out.println("Error: changing a clone should not change the original.");
+		}
+		catch( CloneNotSupportedException e ) {
+			System.out.println("Error: clone() should not throw.");
+		}
+
+		System.out.println("Regression test complete.");
+	}
+}
@@ -0,0 +1,26 @@
+package lib280.list;
+
+import lib280.base.CursorPosition280;
+
+/**	A saved cursor position for an unrolled list: the node and the index
+	within it of the current item, or no node if the cursor was before the
+	start or after the end.  Like the positions of the other lists, it is
+	only valid until the list is next changed. */
+public class UnrolledListPosition280<I> implements CursorPosition280
+{
+	/**	Node holding the current item, or null. */
+	protected UnrolledNode280<I> node;
+
+	/**	Index of the current item in node. */
+	protected int index;
+
+	/**	Was the cursor after the end (as opposed to before the start) when node is null? */
+	protected boolean pastEnd;
+
+	public UnrolledListPosition280(UnrolledNode280<I> node, int index, boolean pastEnd)
+	{
+		this.node = node;
+		this.index = index;
+		this.pastEnd = pastEnd;
+	}
+}
@@ -0,0 +1,128 @@
+package lib280.list;
+
+import java.util.Arrays;
+
+/**	A node of an unrolled list: a small array holding several consecutive
+	items of the list, and references to the next and previous nodes.  The
+	items are kept in items[0 .. size-1]. */
+public class UnrolledNode280<I>
+{
+	/**	Items of the node; the slots from size on are null. */
+	protected Object[] items;
+
+	/**	Number of items in the node. */
+	protected int size;
+
+	/**	The next node. */
+	protected UnrolledNode280<I> nextNode;
+
+	/**	The previous node. */
+	protected UnrolledNode280<I> previousNode;
+
+	/**	Construct an empty node with room for capacity items. <br>
+		Analysis: Time = O(capacity)
+		@param capacity maximum number of items in the node */
+	public UnrolledNode280(int capacity)
+	{
+		items = new Object[capacity];
+	}
+
+	/**	Number of items in the node. <br>
+		Analysis: Time = O(1) */
+	public int size()
+	{
+		return size;
+	}
+
+	/**	Is the node full? <br>
+		Analysis: Time = O(1) */
+	public boolean isFull()
+	{
+		return size == items.length;
+	}
+
+	/**	The i'th item of the node. <br>
+		Analysis: Time = O(1)
+		@param i index of the item, from 0 to size()-1 */
+	@SuppressWarnings("unchecked")
+	public I item(int i)
+	{
+		return (I) items[i];
+	}
+
+	/**	Replace the i'th item of the node by x. <br>
+		Analysis: Time = O(1)
+		@param i index of the item, from 0 to size()-1
+		@param x the replacement item */
+	public void setItem(int i, I x)
+	{
+		items[i] = x;
+	}
+
+	/**	Insert x at index i, moving the items from i on up by one. <br>
+		Analysis: Time = O(size)
+		@precond !isFull() and 0 <= i <= size()
+		@param i index at which x is placed
+		@param x item to be inserted */
+	public void insertAt(int i, I x)
+	{
+		System.arraycopy(items, i, items, i + 1, size - i);
+		items[i] = x;
+		size++;
+	}
+
+	/**	Remove the item at index i, moving the items after it down by one. <br>
+		Analysis: Time = O(size)
+		@precond 0 <= i < size() */
+	public void removeAt(int i)
+	{
+		size--;
+		System.arraycopy(items, i + 1, items, i, size - i);
+		items[size] = null;
+	}
+
+	/**	Move the items from index i on to the start of node n, which must be
+		empty and large enough. <br>
+		Analysis: Time = O(size - i) */
+	public void moveTailTo(int i, UnrolledNode280<I> n)
+	{
+		System.arraycopy(items, i, n.items, 0, size - i);
+		n.size = size - i;
+		Arrays.fill(items, i, size, null);
+		size = i;
+	}
+
+	/**	Append the items of node n, which must fit, to this node, and empty n. <br>
+		Analysis: Time = O(n.size()) */
+	public void absorb(UnrolledNode280<I> n)
+	{
+		System.arraycopy(n.items, 0, items, size, n.size);
+		size += n.size;
+		Arrays.fill(n.items, 0, n.size, null);
+		n.size = 0;
+	}
+
+	/**	The next node. <br>
+		Analysis: Time = O(1) */
+	public UnrolledNode280<I> nextNode()
+	{
+		return nextNode;
+	}
+
+	/**	The previous node. <br>
+		Analysis: Time = O(1) */
+	public UnrolledNode280<I> previousNode()
+	{
+		return previousNode;
+	}
+
+	/**	String representation of the items of this node. <br>
+		Analysis: Time = O(size) */
+	public String toString()
+	{
+		String result = "";
+		for (int i = 0; i < size; i++)
+			result += (i == 0 ? "" : " ") + items[i];
+		return result;
+	}
+}
@@ -1,8 +1,11 @@
 package lib280.tree;
 
+import java.util.Spliterator;
+
 import lib280.base.Dispenser280;
 import lib280.base.Searchable280;
 import lib280.exception.ContainerEmpty280Exception;
+import lib280.exception.ItemNotFound280Exception;
 import lib280.exception.NoCurrentItem280Exception;
 
 
@@ -21,6 +24,9 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	/**	Are equality comparisons done using object reference comparisons?. */
 	protected boolean objectReferenceComparison = false;
 
+	/**	Scratch space for the path from the root in insert() and delete(); see path(). */
+	protected AVLTreeNode280<I>[] path;
+
 
 	public AVLTree280() {
 		this.setRootNode(null);
@@ -117,16 +123,42 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		}
 	}
 
+	/**	The item of the lib280.tree that compares equal to x, or null if there is none.  
+	Unlike search(), this always starts at the root, neither uses nor saves the cursor, 
+	and allocates nothing. <br>
+	Analysis : Time = O(h) worst case, where h = height of the lib280.tree */
+	protected I find(I x)
+	{
+		BinaryNode280<I> node = rootNode;
+		while (node != null)
+		{
+			int c = x.compareTo(node.item());
+			if (c < 0)
+				node = node.leftNode();
+			else if (c > 0)
+				node = node.rightNode();
+			else
+				return node.item();
+		}
+		return null;
+	}
+
 	/**	Does the lib280.tree contain x?. <br>
 	Analysis : Time = O(h) worst case, where h = height of the lib280.tree */
 	public boolean has(I x)
 	{
-		BinaryNode280<I> saveParent = parent;
-		BinaryNode280<I> saveCur = cur;
-		search(x);
-		boolean result = itemExists();
-		parent = saveParent;
-		cur = saveCur;
+		return find(x) != null;
+	}
+
+	/**	The item of the lib280.tree that compares equal to x. <br>
+	Analysis : Time = O(h) worst case, where h = height of the lib280.tree 
+	@precond has(x)
+	@throws ItemNotFound280Exception if there is no such item. */
+	public I obtain(I x) throws ItemNotFound280Exception
+	{
+		I result = find(x);
+		if (result == null)
+			throw new ItemNotFound280Exception("The item was not found in the tree.");
 		return result;
 	}
 
@@ -176,15 +208,142 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	/** 
 	 * Insert an item into the lib280.tree.
 	 * 
+	 * This works on the nodes directly: it walks down to the insertion point, recording
+	 * the nodes passed in this.path, and then walks back up the recorded path, updating
+	 * heights and rotating where needed.  The only object allocated is the new node.
+	 * Duplicate items are inserted as the rightmost of all their copies.
+	 * 
 	 * @param item The item to insert.
 	 */
 	public void insert(I item) {
-		this.insert(item, null);
+		AVLTreeNode280<I> n = this.createNewNode(item);
+		if( this.isEmpty() ) {
+			this.setRootNode(n);
+			return;
+		}
+
+		AVLTreeNode280<I>[] path = this.path();
+		int depth = 0;
+		AVLTreeNode280<I> v = this.rootNode();
+		while( true ) {
+			path[depth++] = v;
+			if( item.compareTo(v.item()) < 0 ) {
+				if( v.leftNode() == null ) {
+					v.setLeftNode(n);
+					break;
+				}
+				v = v.leftNode();
+			}
+			else {
+				if( v.rightNode() == null ) {
+					v.setRightNode(n);
+					break;
+				}
+				v = v.rightNode();
+			}
+		}
+		this.rebalancePath(path, depth);
+	}
+
+	/**
+	 * The array recording the path from the root in insert() and delete(), allocated on
+	 * first use.  Its length bounds the height of the tree: an AVL tree of height 96 has
+	 * more nodes than could ever fit in memory.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected AVLTreeNode280<I>[] path() {
+		if( this.path == null )
+			this.path = (AVLTreeNode280<I>[]) new AVLTreeNode280[96];
+		return this.path;
+	}
+
+	/** Height of the subtree rooted at N, which is 0 if N is null. */
+	protected int height(AVLTreeNode280<I> N) {
+		return N == null ? 0 : Math.max(N.getLtHeight(), N.getRtHeight()) + 1;
+	}
+
+	/**
+	 * Walk back up the path from path[depth-1] to the root after a node was added below
+	 * path[depth-1] or removed from there, recomputing subtree heights and restoring the
+	 * AVL property at each critical node.  Stops early once a subtree has the same height
+	 * as before, since nothing above it can have changed.  The entries of path are
+	 * cleared as they are passed so that the tree does not hold on to deleted nodes.
+	 * 
+	 * @param path path[0] is the root, and each path[i+1] is a child of path[i].
+	 * @param depth Number of nodes on the path.
+	 */
+	protected void rebalancePath(AVLTreeNode280<I>[] path, int depth) {
+		int i = depth - 1;
+		for(; i >= 0; i--) {
+			AVLTreeNode280<I> v = path[i];
+			path[i] = null;
+			int oldHeight = this.height(v);
+			v.setLtHeight(this.height(v.leftNode()));
+			v.setRtHeight(this.height(v.rightNode()));
+			AVLTreeNode280<I> r = v;
+			if( Math.abs(this.signedImbalance(v)) > 1 ) {
+				r = this.rebalance(v);
+				if( i == 0 ) this.rootNode = r;
+				else if( path[i-1].leftNode() == v ) path[i-1].setLeftNode(r);
+				else path[i-1].setRightNode(r);
+			}
+			if( this.height(r) == oldHeight ) break;
+		}
+		for(; i >= 0; i--)
+			path[i] = null;
+	}
+
+	/**
+	 * Restore the AVL property at the critical node N, whose subtree heights are
+	 * up to date, by a single or double rotation.
+	 * @return The node that replaces N as the root of its subtree.
+	 */
+	protected AVLTreeNode280<I> rebalance(AVLTreeNode280<I> N) {
+		if( this.signedImbalance(N) > 0 ) {  // N is left heavy
+			if( this.signedImbalance(N.leftNode()) < 0 )
+				N.setLeftNode(this.rotateLeft(N.leftNode()));
+			return this.rotateRight(N);
+		}
+		else {  // N is right heavy
+			if( this.signedImbalance(N.rightNode()) > 0 )
+				N.setRightNode(this.rotateRight(N.rightNode()));
+			return this.rotateLeft(N);
+		}
+	}
+
+	/**
+	 * Rotate the subtree rooted at A to the left, updating the heights of the two nodes
+	 * that move.
+	 * @return The right child of A, which is now the root of the subtree.
+	 */
+	protected AVLTreeNode280<I> rotateLeft(AVLTreeNode280<I> A) {
+		AVLTreeNode280<I> C = A.rightNode();
+		A.setRightNode(C.leftNode());
+		A.setRtHeight(C.getLtHeight());
+		C.setLeftNode(A);
+		C.setLtHeight(this.height(A));
+		return C;
+	}
+
+	/**
+	 * Rotate the subtree rooted at A to the right, updating the heights of the two nodes
+	 * that move.
+	 * @return The left child of A, which is now the root of the subtree.
+	 */
+	protected AVLTreeNode280<I> rotateRight(AVLTreeNode280<I> A) {
+		AVLTreeNode280<I> B = A.leftNode();
+		A.setLeftNode(B.rightNode());
+		A.setLtHeight(B.getRtHeight());
+		B.setRightNode(A);
+		B.setRtHeight(this.height(A));
+		return B;
 	}
 
 
 	/**
 	 * Insert the item in the lib280.tree with knowledge of the parent of this lib280.tree.
+	 * This is the recursive form of insert(), which builds a new AVLTree280 around each
+	 * subtree it descends into; AVLTreeBenchmark280 compares the two.
 	 * @param item The item to insert in this lib280.tree.
 	 * @param parent The parent node of the root of this lib280.tree.
 	 */
@@ -386,21 +545,109 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		I toBeDeleted = this.item();
 		
 		// save the inorder successor of the current node
-		AVLTreeNode280<I> iosParent = (AVLTreeNode280<I>)this.cur;
 		AVLTreeNode280<I> iosCur = (AVLTreeNode280<I>)this.cur.rightNode();
-		while( iosCur != null && iosCur.leftNode() != null ) {
-			iosParent = iosCur;
+		while( iosCur != null && iosCur.leftNode() != null )
 			iosCur = iosCur.leftNode();
-		}
 			
-		this.delete(toBeDeleted, null, this);
+		// If the current node has two children, its successor's item is copied into it
+		// and the successor's node is removed, so the cursor stays on the current node.
+		AVLTreeNode280<I> holder = this.delete(toBeDeleted);
 
-		// Restore the cursor to the deleted node's inorder successor.
-		this.cur = iosCur;
-		this.parent = iosParent;
-		
+		// Restore the cursor to the deleted node's inorder successor.  Rotations may have
+		// given it a new parent, so the parent is found again from the root.
+		this.cur = holder != null ? holder : iosCur;
+		this.resetParent(this.cur != null ? this.cur.item() : toBeDeleted);
+	}
+
+	/**
+	 * Set parent to the parent of cur, or if cur is null, to the node below which x would
+	 * be, as search(x) leaves it when x is not found.
+	 * @timing O(h) unless the tree holds many copies of x, where h = height of the tree
+	 * @param x the item of cur, or if cur is null, an item that is not at any node on the
+	 *   way down from the root
+	 */
+	protected void resetParent(I x) {
+		BinaryNode280<I> p = null;
+		BinaryNode280<I> v = this.rootNode;
+		while( v != null && v != this.cur ) {
+			p = v;
+			int c = x.compareTo(v.item());
+			if( c < 0 ) v = v.leftNode();
+			else if( c > 0 ) v = v.rightNode();
+			// Rotations can leave copies of x on both sides of v.
+			else v = this.cur != null && AVLTree280.holds(v.leftNode(), this.cur, x) ? v.leftNode() : v.rightNode();
+		}
+		this.parent = p;
+	}
+
+	/**
+	 * Is node N in the subtree rooted at v?
+	 * @param x the item of N
+	 */
+	protected static <I extends Comparable<? super I>> boolean holds(BinaryNode280<I> v, BinaryNode280<I> N, I x) {
+		while( v != null && v != N ) {
+			int c = x.compareTo(v.item());
+			if( c < 0 ) v = v.leftNode();
+			else if( c > 0 ) v = v.rightNode();
+			else if( AVLTree280.holds(v.leftNode(), N, x) ) return true;
+			else v = v.rightNode();
+		}
+		return v != null;
 	}
 
+	/**
+	 * Delete the first item found equal to toBeDeleted, working on the nodes directly
+	 * like insert(): the nodes passed on the way down are recorded in this.path, and the
+	 * heights are repaired on the way back up.  Nothing is allocated.
+	 * 
+	 * @param toBeDeleted The item to delete.
+	 * @return The node that was found, if the item was replaced there by the item of its
+	 *   in-order successor (which happens when the node has two children), otherwise null.
+	 * @throws ItemNotFound280Exception if no item equal to toBeDeleted is in the tree.
+	 */
+	protected AVLTreeNode280<I> delete(I toBeDeleted) throws ItemNotFound280Exception {
+		AVLTreeNode280<I>[] path = this.path();
+		int depth = 0;
+		AVLTreeNode280<I> v = this.rootNode();
+		int c;
+		while( v != null && (c = toBeDeleted.compareTo(v.item())) != 0 ) {
+			path[depth++] = v;
+			v = c < 0 ? v.leftNode() : v.rightNode();
+		}
+		if( v == null ) {
+			java.util.Arrays.fill(path, 0, depth, null);
+			throw new ItemNotFound280Exception("The item to be deleted is not in the tree.");
+		}
+
+		AVLTreeNode280<I> holder = null;
+		AVLTreeNode280<I> removed = v;
+		if( v.leftNode() != null && v.rightNode() != null ) {
+			// Deletion by copying: remove the in-order successor instead, after moving its
+			// item into v.
+			path[depth++] = v;
+			removed = v.rightNode();
+			while( removed.leftNode() != null ) {
+				path[depth++] = removed;
+				removed = removed.leftNode();
+			}
+			v.setItem(removed.item());
+			holder = v;
+		}
+
+		// removed has at most one child, which takes its place.
+		AVLTreeNode280<I> replacement = removed.leftNode() != null ? removed.leftNode() : removed.rightNode();
+		if( depth == 0 ) this.rootNode = replacement;
+		else if( path[depth-1].leftNode() == removed ) path[depth-1].setLeftNode(replacement);
+		else path[depth-1].setRightNode(replacement);
+
+		this.rebalancePath(path, depth);
+		return holder;
+	}
+
+	/**
+	 * The recursive form of delete(), which builds a new AVLTree280 around each subtree
+	 * it descends into.
+	 */
 	protected void delete(I toBeDeleted, AVLTreeNode280<I> parent, AVLTree280<I> originalTree) {
 		
 		if( this.isEmpty() ) {
@@ -525,7 +772,18 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 	
 	public AVLTree280<I> clone()
 	{
-		return (AVLTree280<I>) super.clone();
+		AVLTree280<I> result = (AVLTree280<I>) super.clone();
+		result.path = null;
+		return result;
+	}
+
+	/**
+	 * A spliterator visiting the items in sorted order.  Since the tree is balanced,
+	 * splitting by subtrees gives halves of nearly equal size.
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new LinkedSimpleTreeSpliterator280<I>(this.rootNode(), Long.MAX_VALUE, Spliterator.SORTED);
 	}
 
 	public static void main(String[] args) {
@@ -596,7 +854,106 @@ public class AVLTree280<I extends Comparable<? super I>> extends LinkedSimpleTre
 		T.deleteItem();
 		System.out.println(T);
 
-		
+		// Parallel streams see the items in sorted order.
+		T.clear();
+		for(int i = 0; i < 10000; i++)
+			T.insert((i * 7919) % 10000);
+		Object[] sorted = T.parallelStream().toArray();
+		for(int i = 0; i < sorted.length; i++)
+			if( !sorted[i].equals(i) ) {
+				System.out.println("Error: item " + i + " of the stream should be " + i + ", not " + sorted[i]);
+				break;
+			}
+		if( sorted.length != 10000 || !T.spliterator().hasCharacteristics(Spliterator.SORTED) )
+			System.out.println("Error: the stream of the tree should hold 0 to 9999 sorted.");
+
+		// Random inserts and deletes, with duplicates, keep the tree a valid AVL tree
+		// holding the same items as a simple count of each value.
+		T.clear();
+		java.util.Random r = new java.util.Random(280);
+		int[] copies = new int[200];
+		int total = 0;
+		for(int step = 0; step < 20000; step++) {
+			int x = r.nextInt(copies.length);
+			if( r.nextInt(3) > 0 ) {
+				T.insert(x);
+				copies[x]++;
+				total++;
+			}
+			else if( copies[x] > 0 ) {
+				T.search(x);
+				T.deleteItem();
+				if( T.cur != null ? (T.parent == null ? T.cur != T.rootNode() : T.parent.leftNode() != T.cur && T.parent.rightNode() != T.cur)
+						: T.parent == null && !T.isEmpty() ) {
+					System.out.println("Error: after deleting " + x + " at step " + step + " the cursor's parent is wrong.");
+					break;
+				}
+				copies[x]--;
+				total--;
+			}
+			else {
+				try {
+					T.delete(x);
+					System.out.println("Error: deleting " + x + ", which is not in the tree, should throw.");
+				}
+				catch( ItemNotFound280Exception e ) { /* expected */ }
+			}
+			if( step % 100 == 0 && checkAVL(T.rootNode()) < 0 ) {
+				System.out.println("Error: the tree is not a valid AVL tree after step " + step + ".");
+				break;
+			}
+		}
+		Object[] items = T.stream().toArray();
+		int k = 0;
+		for(int x = 0; x < copies.length && k >= 0; x++)
+			for(int j = 0; j < copies[x]; j++, k++)
+				if( k >= items.length || !items[k].equals(x) ) {
+					System.out.println("Error: the tree should hold " + copies[x] + " copies of " + x + ".");
+					k = -1;
+					break;
+				}
+		if( k >= 0 && items.length != total )
+			System.out.println("Error: the tree should hold " + total + " items, not " + items.length);
+		for(Object p : T.path)
+			if( p != null ) {
+				System.out.println("Error: the path array should be cleared after each insert and delete.");
+				break;
+			}
+
+		// Deleting an item with two children leaves the cursor on its successor.
+		T.clear();
+		for(int i = 1; i <= 7; i++)
+			T.insert(i);
+		T.search(4);
+		T.deleteItem();
+		if( T.item() != 5 || T.has(4) || checkAVL(T.rootNode()) < 0 )
+			System.out.println("Error: after deleting 4 the cursor should be on 5.");
+		// 4 was the root, so the cursor is on the root and has no parent.
+		if( T.cur != T.rootNode() || T.parent != null )
+			System.out.println("Error: after deleting the root 4 the cursor should be on the root, with no parent.");
+		// 2 has two children, and its successor 3 is its right child.
+		T.search(2);
+		T.deleteItem();
+		if( T.item() != 3 || T.parent != T.rootNode() || T.rootNode().leftNode() != T.cur || checkAVL(T.rootNode()) < 0 )
+			System.out.println("Error: after deleting 2 the cursor should be on 3, whose parent is the root.");
+
+		System.out.println("Regression test complete.");
+	}
+
+	/**
+	 * Check the subtree rooted at N: its items are in order, its recorded heights are
+	 * correct, and every node is balanced.
+	 * @return The height of the subtree, or -1 if the check failed.
+	 */
+	protected static <I extends Comparable<? super I>> int checkAVL(AVLTreeNode280<I> N) {
+		if( N == null ) return 0;
+		int lt = checkAVL(N.leftNode());
+		int rt = checkAVL(N.rightNode());
+		if( lt < 0 || rt < 0 || lt != N.getLtHeight() || rt != N.getRtHeight() || Math.abs(lt - rt) > 1 )
+			return -1;
+		if( N.leftNode() != null && N.leftNode().item().compareTo(N.item()) > 0 ) return -1;
+		if( N.rightNode() != null && N.rightNode().item().compareTo(N.item()) < 0 ) return -1;
+		return Math.max(lt, rt) + 1;
 	}
 	
 
@@ -0,0 +1,83 @@
+package lib280.tree;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the iterative insert() and delete() of AVLTree280, which work on the nodes
+ * directly, with the recursive insert(item, parent) and delete(item, parent, tree), which
+ * build a new AVLTree280 around every subtree they descend into.  For each it prints the
+ * operations per microsecond and the bytes allocated per operation.
+ *
+ * Usage: java lib280.tree.AVLTreeBenchmark280 [size]
+ *
+ * Each run inserts size distinct keys in random order into an empty tree and then
+ * deletes them all in another random order.  Allocation is counted with the per-thread
+ * allocation counter of the HotSpot ThreadMXBean; on other virtual machines it is
+ * reported as -1.
+ */
+public class AVLTreeBenchmark280 {
+
+	/** Number of times each form is run; the best run is reported. */
+	protected static final int runs = 7;
+
+	/** Bytes allocated by the current thread so far, or -1 if this cannot be measured. */
+	protected static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if( bean instanceof com.sun.management.ThreadMXBean )
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return -1;
+	}
+
+	/** A random permutation of keys. */
+	protected static Integer[] shuffled(Integer[] keys, java.util.Random r) {
+		Integer[] result = keys.clone();
+		for(int i = result.length - 1; i > 0; i--) {
+			int j = r.nextInt(i + 1);
+			Integer t = result[i];
+			result[i] = result[j];
+			result[j] = t;
+		}
+		return result;
+	}
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		java.util.Random r = new java.util.Random(280);
+		Integer[] keys = new Integer[size];
+		for(int i = 0; i < size; i++)
+			keys[i] = i;
+		Integer[] insertOrder = shuffled(keys, r);
+		Integer[] deleteOrder = shuffled(keys, r);
+
+		System.out.println(size + " keys; operations per microsecond and bytes allocated per operation, best of " + runs + " runs");
+		System.out.printf("%-10s %12s %12s %12s %12s%n", "form", "insert", "bytes", "delete", "bytes");
+		for(boolean iterative : new boolean[] {false, true, false, true}) {
+			double insertRate = 0, deleteRate = 0;
+			long insertBytes = Long.MAX_VALUE, deleteBytes = Long.MAX_VALUE;
+			for(int run = 0; run < runs; run++) {
+				AVLTree280<Integer> T = new AVLTree280<Integer>();
+				long bytes = allocatedBytes();
+				long start = System.nanoTime();
+				for(Integer x : insertOrder)
+					if( iterative ) T.insert(x);
+					else T.insert(x, null);
+				long time = System.nanoTime() - start;
+				insertBytes = Math.min(insertBytes, (allocatedBytes() - bytes) / size);
+				insertRate = Math.max(insertRate, size / (time / 1000.0));
+
+				bytes = allocatedBytes();
+				start = System.nanoTime();
+				for(Integer x : deleteOrder)
+					if( iterative ) T.delete(x);
+					else T.delete(x, null, T);
+				time = System.nanoTime() - start;
+				deleteBytes = Math.min(deleteBytes, (allocatedBytes() - bytes) / size);
+				deleteRate = Math.max(deleteRate, size / (time / 1000.0));
+				if( !T.isEmpty() )
+					System.out.println("Error: the tree should be empty after deleting every key.");
+			}
+			System.out.printf("%-10s %12.2f %12d %12.2f %12d%n", iterative ? "iterative" : "recursive",
+					insertRate, insertBytes, deleteRate, deleteBytes);
+		}
+	}
+}
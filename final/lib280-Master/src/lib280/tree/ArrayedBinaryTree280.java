@@ -1,13 +1,17 @@
 package lib280.tree;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+
 import lib280.base.Container280;
+import lib280.base.Streamable280;
 import lib280.exception.NoCurrentItem280Exception;
 
 /**
  * @author eramian
  *
  */
-public abstract class ArrayedBinaryTree280<I> implements Container280 {
+public abstract class ArrayedBinaryTree280<I> implements Container280, Streamable280<I> {
 
 	protected int currentNode;		// Index of the node corresponding to the current cursor position.
 	protected int capacity;			// Maximum number of elements in the lib280.tree.
@@ -138,6 +142,16 @@ public abstract class ArrayedBinaryTree280<I> implements Container280 {
 	}
 	
 
+	/**
+	 * A spliterator over the items of the tree in level order, that is, in the order
+	 * of their array indexes.  It splits by index ranges, so sizes stay exact.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return Spliterators.spliterator(items, 1, count + 1, Spliterator.ORDERED);
+	}
+
 	public String toString() {
 		String out = "";
 		for(int i=1; i <= count; i++) {
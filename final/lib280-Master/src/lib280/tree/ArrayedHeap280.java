@@ -160,6 +160,15 @@ public class ArrayedHeap280<I extends Comparable<? super I>> extends ArrayedBina
 			}
 		}
 		
+		// Streams over the array of the heap.
+		ArrayedHeap280<Integer> S = new ArrayedHeap280<Integer>(10000);
+		for(int i = 1; i <= 10000; i++)
+			S.insert(i);
+		if( S.parallelStream().mapToLong(x -> x).sum() != 10000L * 10001 / 2 || S.spliterator().getExactSizeIfKnown() != 10000 )
+			System.out.println("Error: the stream of the heap should hold 1 to 10000.");
+		if( S.stream().findFirst().get() != 10000 )
+			System.out.println("Error: the stream of the heap should start at the top of the heap.");
+
 		System.out.println("Regression Test Complete.");
 	}
 
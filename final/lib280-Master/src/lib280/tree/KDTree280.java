@@ -1,12 +1,16 @@
 package lib280.tree;
 
 
+import java.util.Arrays;
+import java.util.Spliterator;
+
 import lib280.base.NDPoint280;
+import lib280.base.Streamable280;
 import lib280.exception.InvalidArgument280Exception;
 import lib280.list.LinkedList280;
 
 
-public class KDTree280 {
+public class KDTree280 implements Streamable280<NDPoint280> {
 	private KDNode280 root;
 	private int dim;
 	
@@ -265,6 +269,19 @@ public class KDTree280 {
 		return result;
 	}
 
+	/**
+	 * A spliterator over the points of the lib280.tree, in order (left subtree, root, right subtree).
+	 * It splits by subtrees; since insert() splits the points at the median, the halves are
+	 * about the same size.
+	 * 
+	 * @return a spliterator over the points of the lib280.tree.
+	 */
+	@Override
+	public Spliterator<NDPoint280> spliterator() {
+		return new LinkedSimpleTreeSpliterator280<NDPoint280>(this.root, Long.MAX_VALUE,
+				Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
 	/**
 	 * 	String representation of the lib280.tree, level by level.
 	 */
@@ -344,6 +361,12 @@ public class KDTree280 {
 		T.insert(nd);
 		System.out.println(T);
 		
+		// Every point should be streamed exactly once.
+		if( T.parallelStream().distinct().count() != nd.length || !T.stream().allMatch(x -> Arrays.asList(nd).contains(x)) )
+			System.out.println("Error: the stream of the lib280.tree should give each of the " + nd.length + " points once.");
+		if( new KDTree280(3).stream().count() != 0 )
+			System.out.println("Error: the stream of an empty lib280.tree should be empty.");
+		
 
 		double lower[] = {0, 1, 0};
 		double upper[] = {4, 6, 3};
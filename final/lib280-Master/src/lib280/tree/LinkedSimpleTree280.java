@@ -6,12 +6,16 @@
 
 package lib280.tree;
 
+import java.util.Spliterator;
+
+import lib280.base.Streamable280;
 import lib280.exception.ContainerEmpty280Exception;
 
 /**	An implementation of the SimpleTree280 interface with functions to access and 
 	set the root node and the root subtrees.  It also has functions to 
-	access the root item, test for empty, and to wipe out all the items. */
-public class LinkedSimpleTree280<I extends Comparable<? super I>> implements SimpleTree280<I>
+	access the root item, test for empty, and to wipe out all the items.
+	Its items can be streamed in order, split by subtrees. */
+public class LinkedSimpleTree280<I extends Comparable<? super I>> implements SimpleTree280<I>, Streamable280<I>
 {
 	/**	Root node of the lib280.tree. */
 	protected BinaryNode280<I> rootNode;
@@ -230,6 +234,14 @@ public class LinkedSimpleTree280<I extends Comparable<? super I>> implements Sim
 		}
 	}
 
+	/**	A spliterator visiting the items in order: left subtree, root, right subtree.
+		It splits by subtrees. <br>
+		Analysis: Time = O(1) */
+	public Spliterator<I> spliterator()
+	{
+		return new LinkedSimpleTreeSpliterator280<I>(rootNode, Long.MAX_VALUE, 0);
+	}
+
 	public static void main(String args[]) {
 		LinkedSimpleTree280<Double> T = new LinkedSimpleTree280<Double>(null, 42.0, null);
 		
@@ -237,6 +249,36 @@ public class LinkedSimpleTree280<I extends Comparable<? super I>> implements Sim
 		
 		System.out.println(T);
 		System.out.println(T2);
-		
+
+		// In-order streams of a complete tree of the numbers 1 to 1023.
+		LinkedSimpleTree280<Integer> C = complete(1, 1023);
+		Object[] inOrder = C.parallelStream().toArray();
+		for (int i = 0; i < inOrder.length; i++)
+			if (!inOrder[i].equals(i + 1))
+			{
+				System.out.println("Error: item " + i + " of the in-order stream should be " + (i + 1) + ", not " + inOrder[i]);
+				break;
+			}
+		if (inOrder.length != 1023 || C.stream().mapToLong(x -> x).sum() != 1023L * 1024 / 2)
+			System.out.println("Error: the stream should hold the 1023 numbers of the tree.");
+		Spliterator<Integer> s = C.spliterator();
+		Spliterator<Integer> left = s.trySplit();
+		int[] first = new int[1];
+		left.tryAdvance(x -> first[0] = x);
+		if (first[0] != 1 || left.trySplit() == null)
+			System.out.println("Error: the first half should start at 1 and split again.");
+		if (new LinkedSimpleTree280<Integer>().stream().count() != 0)
+			System.out.println("Error: the stream of an empty tree should be empty.");
+
+		System.out.println("Regression test complete.");
+	}
+
+	/**	A complete tree with the numbers lo to hi in order. */
+	private static LinkedSimpleTree280<Integer> complete(int lo, int hi)
+	{
+		if (lo > hi)
+			return null;
+		int mid = (lo + hi) / 2;
+		return new LinkedSimpleTree280<Integer>(complete(lo, mid - 1), mid, complete(mid + 1, hi));
 	}
 }
@@ -0,0 +1,166 @@
+package lib280.tree;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**	A spliterator visiting the items of a linked binary tree in order (left
+	subtree, root, right subtree).  What remains to be visited is a sequence
+	of parts, each either a whole subtree or the item of a single node;
+	trySplit() hands the first half of the parts to the new spliterator,
+	first breaking a lone subtree into its left subtree, root item and right
+	subtree.  A tree does not know its size, so unless one is given the
+	estimate starts at Long.MAX_VALUE (unknown); it is halved at each split,
+	which is what lets a parallel stream stop splitting at a sensible depth. */
+public class LinkedSimpleTreeSpliterator280<I extends Comparable<? super I>> implements Spliterator<I>
+{
+	/**	A part still to be visited: the whole subtree of node, or only its item. */
+	protected static class Part<I extends Comparable<? super I>>
+	{
+		protected final BinaryNode280<I> node;
+		protected final boolean whole;
+
+		protected Part(BinaryNode280<I> node, boolean whole)
+		{
+			this.node = node;
+			this.whole = whole;
+		}
+	}
+
+	/**	Parts still to be visited, the first at the front. */
+	protected ArrayDeque<Part<I>> parts;
+
+	/**	Estimated number of items left. */
+	protected long estimate;
+
+	/**	Characteristics of this spliterator. */
+	protected final int characteristics;
+
+	/**	Construct a spliterator over the subtree rooted at root.
+		@param root root node of the subtree; null for an empty tree
+		@param estimate estimated number of items in the subtree, or Long.MAX_VALUE if unknown
+		@param characteristics characteristics besides ORDERED, such as SORTED for a search tree */
+	public LinkedSimpleTreeSpliterator280(BinaryNode280<I> root, long estimate, int characteristics)
+	{
+		this(new ArrayDeque<Part<I>>(), root == null ? 0 : estimate, characteristics | ORDERED);
+		if (root != null)
+			parts.add(new Part<I>(root, true));
+	}
+
+	protected LinkedSimpleTreeSpliterator280(ArrayDeque<Part<I>> parts, long estimate, int characteristics)
+	{
+		this.parts = parts;
+		this.estimate = estimate;
+		this.characteristics = characteristics;
+	}
+
+	/**	Replace the whole-subtree part p at the front of ps by the parts
+		left subtree, root item and right subtree. */
+	protected static <I extends Comparable<? super I>> void expandFirst(ArrayDeque<Part<I>> ps)
+	{
+		BinaryNode280<I> n = ps.pollFirst().node;
+		if (n.rightNode() != null)
+			ps.addFirst(new Part<I>(n.rightNode(), true));
+		ps.addFirst(new Part<I>(n, false));
+		if (n.leftNode() != null)
+			ps.addFirst(new Part<I>(n.leftNode(), true));
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super I> action)
+	{
+		while (!parts.isEmpty() && parts.peekFirst().whole)
+			expandFirst(parts);
+		Part<I> p = parts.pollFirst();
+		if (p == null)
+			return false;
+		if (estimate != Long.MAX_VALUE && estimate > 0)
+			estimate--;
+		action.accept(p.node.item());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super I> action)
+	{
+		ArrayDeque<BinaryNode280<I>> stack = new ArrayDeque<BinaryNode280<I>>();
+		for (Part<I> p = parts.pollFirst(); p != null; p = parts.pollFirst())
+		{
+			if (!p.whole)
+			{
+				action.accept(p.node.item());
+				continue;
+			}
+			BinaryNode280<I> n = p.node;
+			while (n != null || !stack.isEmpty())
+			{
+				for ( ; n != null; n = n.leftNode())
+					stack.push(n);
+				n = stack.pop();
+				action.accept(n.item());
+				n = n.rightNode();
+			}
+		}
+		estimate = 0;
+	}
+
+	@Override
+	public Spliterator<I> trySplit()
+	{
+		// Break up whole subtrees, the last one first, until there are three parts to share.
+		while (parts.size() < 3)
+		{
+			Part<I>[] ps = parts.toArray(newParts(parts.size()));
+			int last = ps.length - 1;
+			while (last >= 0 && !ps[last].whole)
+				last--;
+			if (last < 0)
+				break;
+			ArrayDeque<Part<I>> rebuilt = new ArrayDeque<Part<I>>();
+			ArrayDeque<Part<I>> expanded = new ArrayDeque<Part<I>>();
+			expanded.add(ps[last]);
+			expandFirst(expanded);
+			for (int i = 0; i < ps.length; i++)
+				if (i == last) rebuilt.addAll(expanded);
+				else rebuilt.add(ps[i]);
+			parts = rebuilt;
+		}
+		int n = parts.size();
+		if (n < 2)
+			return null;
+		ArrayDeque<Part<I>> prefix = new ArrayDeque<Part<I>>();
+		for (int i = 0; i < n / 2; i++)
+			prefix.add(parts.pollFirst());
+		long prefixEstimate = estimate / 2;
+		estimate -= prefixEstimate;
+		return new LinkedSimpleTreeSpliterator280<I>(prefix, prefixEstimate, characteristics);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <I extends Comparable<? super I>> Part<I>[] newParts(int n)
+	{
+		return (Part<I>[]) new Part[n];
+	}
+
+	@Override
+	public long estimateSize()
+	{
+		return parts.isEmpty() ? 0 : estimate;
+	}
+
+	@Override
+	public int characteristics()
+	{
+		return characteristics;
+	}
+
+	/**	Null, meaning natural order, when the spliterator is SORTED. */
+	@Override
+	public Comparator<? super I> getComparator()
+	{
+		if ((characteristics & SORTED) == 0)
+			throw new IllegalStateException();
+		return null;
+	}
+}
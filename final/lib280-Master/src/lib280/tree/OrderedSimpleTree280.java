@@ -1,5 +1,7 @@
 package lib280.tree;
 
+import java.util.Spliterator;
+
 import lib280.base.Dispenser280;
 import lib280.base.Searchable280;
 import lib280.exception.ContainerEmpty280Exception;
@@ -414,6 +416,13 @@ public class OrderedSimpleTree280<I extends Comparable<? super I>> extends Linke
 		
 		return count;
 	}
+	/**	A spliterator visiting the items in sorted order, split by subtrees. <br>
+		Analysis: Time = O(1) */
+	public Spliterator<I> spliterator()
+	{
+		return new LinkedSimpleTreeSpliterator280<I>(rootNode, Long.MAX_VALUE, Spliterator.SORTED);
+	}
+
 	public static void main(String args[]) {
 		OrderedSimpleTree280<Integer> T = new OrderedSimpleTree280<Integer>();
 		T.insert(50);
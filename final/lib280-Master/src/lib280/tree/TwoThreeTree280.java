@@ -3,15 +3,17 @@ package lib280.tree;
 import lib280.base.Container280;
 import lib280.base.Keyed280;
 import lib280.base.Pair280;
+import lib280.base.Streamable280;
 import lib280.dictionary.KeyedBasicDict280;
 import lib280.exception.DuplicateItems280Exception;
 import lib280.exception.InvalidState280Exception;
 import lib280.exception.ItemNotFound280Exception;
 
 import java.util.Random;
+import java.util.Spliterator;
 
 
-public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedBasicDict280<K,I>, Container280 {
+public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280<K>> implements KeyedBasicDict280<K,I>, Container280, Streamable280<I> {
 	TwoThreeNode280<K,I> rootNode;
 	
 	/**
@@ -325,7 +327,7 @@ public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280
 		if( this.isEmpty() ) return;
 		
 		if( !this.rootNode.isInternal()) {
-			if( this.rootNode.getKey1() == keyToDelete )
+			if( this.rootNode.getKey1().compareTo(keyToDelete) == 0 )
 				this.rootNode = null;
 			}
 		else {
@@ -540,6 +542,16 @@ public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280
 		}		
 	}	
 	
+	/**
+	 * A spliterator visiting the items in key order.  It splits by subtrees, so the
+	 * halves of a split hold about the same number of items.
+	 * @timing O(1)
+	 */
+	@Override
+	public Spliterator<I> spliterator() {
+		return new TwoThreeTreeSpliterator280<K,I>(this.rootNode);
+	}
+
 	public static void main(String args[]) {
 		
 		// Once again, an hackish unit test because I just didn't have time.  Sorry again.
@@ -605,6 +617,26 @@ public class TwoThreeTree280<K extends Comparable<? super K>, I extends Keyed280
 		
 	
 		}
+
+		// Streams visit the items in key order, even in parallel.
+		T.clear();
+		for(int i = 0; i < 10000; i++)
+			T.insert(new myItem((i * 7919) % 10000));
+		int[] keys = T.parallelStream().mapToInt(x -> x.num).toArray();
+		for(int i = 0; i < keys.length; i++)
+			if( keys[i] != i ) {
+				System.out.println("Error: key " + i + " of the stream should be " + i + ", not " + keys[i]);
+				break;
+			}
+		if( keys.length != 10000 )
+			System.out.println("Error: the stream should hold 10000 items but held " + keys.length);
+		Spliterator<myItem> rest = T.spliterator();
+		Spliterator<myItem> part = rest.trySplit();
+		if( part == null || part.trySplit() == null || rest.tryAdvance(x -> {}) == false )
+			System.out.println("Error: the spliterator of a large tree should split repeatedly.");
+		if( new TwoThreeTree280<Integer, myItem>().stream().count() != 0 )
+			System.out.println("Error: the stream of an empty tree should be empty.");
+		System.out.println("Regression test complete.");
 	}
 
 	@Override
@@ -0,0 +1,105 @@
+package lib280.tree;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import lib280.base.Keyed280;
+
+/**
+ * A spliterator visiting the items of a 2-3 tree in key order.  What remains to be
+ * visited is a sequence of subtrees; trySplit() hands the first half of them to the
+ * new spliterator, first replacing a lone subtree by its two or three children.  As
+ * all leaves of a 2-3 tree are at the same depth, subtrees of the same height hold
+ * similar numbers of items, so the halves are well balanced.
+ */
+public class TwoThreeTreeSpliterator280<K extends Comparable<? super K>, I extends Keyed280<K>> implements Spliterator<I> {
+
+	/** Subtrees still to be visited, the first at the front. */
+	protected ArrayDeque<TwoThreeNode280<K,I>> subtrees;
+
+	/** Estimated number of items left, or Long.MAX_VALUE if unknown. */
+	protected long estimate;
+
+	/**
+	 * Create a spliterator over the items of the subtree rooted at root.
+	 * @param root root of the subtree; null for an empty tree
+	 */
+	public TwoThreeTreeSpliterator280(TwoThreeNode280<K,I> root) {
+		this(new ArrayDeque<TwoThreeNode280<K,I>>(), root == null ? 0 : Long.MAX_VALUE);
+		if( root != null ) this.subtrees.add(root);
+	}
+
+	protected TwoThreeTreeSpliterator280(ArrayDeque<TwoThreeNode280<K,I>> subtrees, long estimate) {
+		this.subtrees = subtrees;
+		this.estimate = estimate;
+	}
+
+	/**
+	 * Replace the internal node at the front of the subtrees by its children.
+	 */
+	protected void expandFirst() {
+		TwoThreeNode280<K,I> n = this.subtrees.pollFirst();
+		if( n.getRightSubtree() != null ) this.subtrees.addFirst(n.getRightSubtree());
+		this.subtrees.addFirst(n.getMiddleSubtree());
+		this.subtrees.addFirst(n.getLeftSubtree());
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super I> action) {
+		while( !this.subtrees.isEmpty() && this.subtrees.peekFirst().isInternal() )
+			this.expandFirst();
+		TwoThreeNode280<K,I> leaf = this.subtrees.pollFirst();
+		if( leaf == null ) return false;
+		if( this.estimate != Long.MAX_VALUE && this.estimate > 0 ) this.estimate--;
+		action.accept(leaf.getData());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super I> action) {
+		while( !this.subtrees.isEmpty() ) {
+			TwoThreeNode280<K,I> n = this.subtrees.pollFirst();
+			if( n.isInternal() ) {
+				if( n.getRightSubtree() != null ) this.subtrees.addFirst(n.getRightSubtree());
+				this.subtrees.addFirst(n.getMiddleSubtree());
+				this.subtrees.addFirst(n.getLeftSubtree());
+			}
+			else action.accept(n.getData());
+		}
+		this.estimate = 0;
+	}
+
+	@Override
+	public Spliterator<I> trySplit() {
+		while( this.subtrees.size() == 1 && this.subtrees.peekFirst().isInternal() )
+			this.expandFirst();
+		int n = this.subtrees.size();
+		if( n < 2 ) return null;
+		ArrayDeque<TwoThreeNode280<K,I>> prefix = new ArrayDeque<TwoThreeNode280<K,I>>();
+		for(int i = 0; i < n / 2; i++)
+			prefix.add(this.subtrees.pollFirst());
+		long prefixEstimate = this.estimate / n * (n / 2);
+		this.estimate -= prefixEstimate;
+		return new TwoThreeTreeSpliterator280<K,I>(prefix, prefixEstimate);
+	}
+
+	@Override
+	public long estimateSize() {
+		return this.subtrees.isEmpty() ? 0 : this.estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SORTED | DISTINCT | NONNULL;
+	}
+
+	/**
+	 * Items are sorted by key.
+	 */
+	@Override
+	public Comparator<? super I> getComparator() {
+		return (x, y) -> x.key().compareTo(y.key());
+	}
+}